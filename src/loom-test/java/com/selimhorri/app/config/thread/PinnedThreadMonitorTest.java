@@ -0,0 +1,85 @@
+package com.selimhorri.app.config.thread;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("PinnedThreadMonitor Test")
+class PinnedThreadMonitorTest {
+	
+	private final Object monitor = new Object();
+	private SimpleMeterRegistry meterRegistry;
+	private PinnedThreadMonitor pinnedThreadMonitor;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		pinnedThreadMonitor = new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(10));
+		pinnedThreadMonitor.start();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		pinnedThreadMonitor.stop();
+	}
+	
+	@Test
+	@DisplayName("Should record the application frame that pins a virtual thread")
+	void testPinnedVirtualThread_Recorded() throws Exception {
+		// When
+		Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+		
+		// Then
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		Timer pinned = null;
+		while (pinned == null && System.nanoTime() < deadline) {
+			pinned = meterRegistry.find("virtualthreads.pinned").timer();
+			Thread.sleep(100);
+		}
+		assertNotNull(pinned);
+		assertTrue(pinned.getId().getTag("frame").startsWith(PinnedThreadMonitorTest.class.getName() + ".sleepWhileHoldingMonitor"));
+		assertTrue(pinned.count() >= 1);
+	}
+	
+	@Test
+	@DisplayName("Should not report virtual threads that park without holding a monitor")
+	void testUnpinnedVirtualThread_NotRecorded() throws Exception {
+		// When
+		Thread.ofVirtual().start(() -> sleep(50)).join();
+		Thread.sleep(1500);
+		
+		// Then
+		assertNull(meterRegistry.find("virtualthreads.pinned").timer());
+	}
+	
+	// Thread.sleep directo: el primer frame propio de la pila es el que tiene el monitor
+	private void sleepWhileHoldingMonitor() {
+		synchronized (monitor) {
+			try {
+				Thread.sleep(50);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+}
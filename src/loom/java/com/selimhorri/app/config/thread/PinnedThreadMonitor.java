@@ -0,0 +1,84 @@
+package com.selimhorri.app.config.thread;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process: every time
+ * a virtual thread blocks while pinned to its carrier (synchronized block,
+ * native frame) for longer than {@code threshold}, the first application frame
+ * is logged and recorded as {@code virtualthreads.pinned{frame}}.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements SmartLifecycle {
+	
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static final String APP_PACKAGE = "com.selimhorri.app.";
+	
+	private final MeterRegistry meterRegistry;
+	private final Duration threshold;
+	private volatile RecordingStream recordingStream;
+	
+	public PinnedThreadMonitor(final MeterRegistry meterRegistry, final Duration threshold) {
+		this.meterRegistry = meterRegistry;
+		this.threshold = threshold;
+	}
+	
+	@Override
+	public void start() {
+		final RecordingStream stream = new RecordingStream();
+		stream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+		stream.onEvent(PINNED_EVENT, this::onPinned);
+		stream.startAsync();
+		this.recordingStream = stream;
+	}
+	
+	void onPinned(final RecordedEvent event) {
+		final String frame = hotSpot(event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames());
+		log.warn("*** PinnedThreadMonitor; virtual thread pinned for {} ms at {} *", event.getDuration().toMillis(), frame);
+		Timer.builder("virtualthreads.pinned")
+				.tag("frame", frame)
+				.register(this.meterRegistry)
+				.record(event.getDuration());
+	}
+	
+	// el primer frame propio; si no hay, el del driver o libreria que bloqueo
+	static String hotSpot(final List<RecordedFrame> frames) {
+		return frames.stream()
+				.filter(RecordedFrame::isJavaFrame)
+				.filter(frame -> frame.getMethod().getType().getName().startsWith(APP_PACKAGE))
+				.findFirst()
+				.or(() -> frames.stream()
+						.filter(RecordedFrame::isJavaFrame)
+						.filter(frame -> !frame.getMethod().getType().getName().startsWith("java."))
+						.filter(frame -> !frame.getMethod().getType().getName().startsWith("jdk."))
+						.findFirst())
+				.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+				.orElse("unknown");
+	}
+	
+	@Override
+	public void stop() {
+		final RecordingStream stream = this.recordingStream;
+		this.recordingStream = null;
+		if (stream != null)
+			stream.close();
+	}
+	
+	@Override
+	public boolean isRunning() {
+		return this.recordingStream != null;
+	}
+	
+	
+	
+}
@@ -0,0 +1,39 @@
+package com.selimhorri.app.config.thread;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs Tomcat request processing (and therefore every service and repository
+ * call made on the request thread) on virtual threads. Only compiled into
+ * JDK 21+ builds, see the {@code virtual-threads} Maven profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+	
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		log.info("*** VirtualThreadConfig; tomcat requests will run on virtual threads *");
+		return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+	}
+	
+	@Bean
+	public PinnedThreadMonitor pinnedThreadMonitor(final MeterRegistry meterRegistry,
+			@Value("${app.virtual-threads.pinned-threshold:20ms}") final Duration threshold) {
+		return new PinnedThreadMonitor(meterRegistry, threshold);
+	}
+	
+	
+	
+}
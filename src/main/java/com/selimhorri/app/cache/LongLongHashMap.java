@@ -0,0 +1,125 @@
+package com.selimhorri.app.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long -> long} map (linear probing, backward-shift
+ * deletion): an index over off-heap records costs two primitive arrays
+ * instead of an entry object per key. {@link #EMPTY_KEY} cannot be used as a
+ * key and {@link #MISSING} is returned for absent keys. Not thread-safe.
+ */
+final class LongLongHashMap {
+	
+	static final long EMPTY_KEY = Long.MIN_VALUE;
+	static final long MISSING = Long.MIN_VALUE;
+	
+	private static final double MAX_LOAD = 0.6;
+	
+	private long[] keys;
+	private long[] values;
+	private int mask;
+	private int size;
+	
+	LongLongHashMap(final int expectedSize) {
+		final int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+		this.allocate(capacity);
+	}
+	
+	long get(final long key) {
+		for (int i = this.slot(key);; i = (i + 1) & this.mask) {
+			if (this.keys[i] == key)
+				return this.values[i];
+			if (this.keys[i] == EMPTY_KEY)
+				return MISSING;
+		}
+	}
+	
+	long put(final long key, final long value) {
+		if (key == EMPTY_KEY)
+			throw new IllegalArgumentException("Reserved key: " + key);
+		int i = this.slot(key);
+		for (; this.keys[i] != EMPTY_KEY; i = (i + 1) & this.mask) {
+			if (this.keys[i] == key) {
+				final long previous = this.values[i];
+				this.values[i] = value;
+				return previous;
+			}
+		}
+		this.keys[i] = key;
+		this.values[i] = value;
+		if (++this.size > this.keys.length * MAX_LOAD)
+			this.rehash(this.keys.length << 1);
+		return MISSING;
+	}
+	
+	long remove(final long key) {
+		int i = this.slot(key);
+		for (; this.keys[i] != key; i = (i + 1) & this.mask) {
+			if (this.keys[i] == EMPTY_KEY)
+				return MISSING;
+		}
+		final long previous = this.values[i];
+		this.keys[i] = EMPTY_KEY;
+		this.size--;
+		
+		// se adelantan las claves siguientes del mismo grupo para no dejar huecos en sus sondeos
+		for (int j = (i + 1) & this.mask; this.keys[j] != EMPTY_KEY; j = (j + 1) & this.mask) {
+			final int home = this.slot(this.keys[j]);
+			final boolean reachable = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+			if (!reachable) {
+				this.keys[i] = this.keys[j];
+				this.values[i] = this.values[j];
+				this.keys[j] = EMPTY_KEY;
+				i = j;
+			}
+		}
+		return previous;
+	}
+	
+	int size() {
+		return this.size;
+	}
+	
+	void forEach(final EntryVisitor visitor) {
+		for (int i = 0; i < this.keys.length; i++) {
+			if (this.keys[i] != EMPTY_KEY)
+				visitor.visit(this.keys[i], this.values[i]);
+		}
+	}
+	
+	private int slot(final long key) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & this.mask;
+	}
+	
+	private void rehash(final int capacity) {
+		final long[] oldKeys = this.keys;
+		final long[] oldValues = this.values;
+		this.allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY_KEY) {
+				int j = this.slot(oldKeys[i]);
+				while (this.keys[j] != EMPTY_KEY)
+					j = (j + 1) & this.mask;
+				this.keys[j] = oldKeys[i];
+				this.values[j] = oldValues[i];
+			}
+		}
+	}
+	
+	private void allocate(final int capacity) {
+		this.keys = new long[capacity];
+		this.values = new long[capacity];
+		Arrays.fill(this.keys, EMPTY_KEY);
+		this.mask = capacity - 1;
+	}
+	@FunctionalInterface
+	interface EntryVisitor {
+		
+		void visit(long key, long value);
+		
+	}
+	
+	
+	
+}
@@ -0,0 +1,499 @@
+package com.selimhorri.app.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * User profiles ({@link UserProfileCodec}) kept outside the heap in fixed-size
+ * direct {@link ByteBuffer} slabs, so the cached population adds no objects
+ * for the GC to trace. Records are appended to the current slab; the user id
+ * and the username hash index them through {@link LongLongHashMap}s holding
+ * {@code slab << 32 | offset}. Replaced or removed records leave dead bytes:
+ * when every slab is in use, the slab with most dead bytes is compacted into
+ * a spare one, or, if none has enough, the oldest slab is evicted whole.
+ * <p>
+ * Like {@code ResponseBytesCache}, every user id and username has a version that
+ * {@link #invalidate(Integer, Collection)} bumps, and the put methods refuse
+ * a profile loaded under an older one.
+ * <p>
+ * Each record keeps when it was loaded and how long the load took. A profile
+ * older than {@code ttl} is still served for up to {@code maxStale} more, flagged
+ * {@link StoredProfile#isRefreshDue()} so the caller reloads it in the background;
+ * before {@code ttl} the flag is raised early with the XFetch probability
+ * ({@code age - loadTime * beta * ln(rand) >= ttl}), so popular profiles do
+ * not all expire at once. Past {@code ttl + maxStale} a lookup misses.
+ */
+@Slf4j
+public class OffHeapProfileStore {
+	
+	// longitud del payload + user id (para recorrer una slab sin decodificar) + cargado en + coste de carga
+	private static final int USER_ID_OFFSET = Integer.BYTES;
+	private static final int LOADED_AT_OFFSET = 2 * Integer.BYTES;
+	private static final int LOAD_MILLIS_OFFSET = LOADED_AT_OFFSET + Long.BYTES;
+	private static final int RECORD_HEADER_BYTES = LOAD_MILLIS_OFFSET + Integer.BYTES;
+	private static final int VERSION_STRIPES = 4096;
+	private static final long MISSING = LongLongHashMap.MISSING;
+	
+	private final int slabBytes;
+	private final double compactionThreshold;
+	private final long ttlMillis;
+	private final long maxStaleMillis;
+	private final double beta;
+	private final Clock clock;
+	private final ByteBuffer[] slabs;
+	private final int[] usedBytes;
+	private final int[] liveBytes;
+	private final Deque<Integer> sealedSlabs = new ArrayDeque<>();
+	private final Deque<Integer> freeSlabs = new ArrayDeque<>();
+	private int allocatedSlabs;
+	private int writeSlab = -1;
+	
+	private final LongLongHashMap byId = new LongLongHashMap(1024);
+	private final LongLongHashMap byUsername = new LongLongHashMap(1024);
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+	
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter compactions;
+	private final Counter evictions;
+	private final Counter earlyRefreshes;
+	private final Counter expiredRefreshes;
+	private final Timer staleness;
+	
+	/**
+	 * @param slabCount 0 disables the store: lookups miss and puts are ignored; otherwise at least 2,
+	 *        one slab is kept free as the compaction target
+	 * @param compactionThreshold fraction of dead bytes a slab needs to be compacted instead of evicting the oldest
+	 * @param beta XFetch eagerness: 0 never refreshes before {@code ttl}, above 1 refreshes earlier
+	 */
+	public OffHeapProfileStore(final int slabBytes, final int slabCount, final double compactionThreshold,
+			final Duration ttl, final Duration maxStale, final double beta, final Clock clock, final MeterRegistry meterRegistry) {
+		if (slabCount == 1)
+			throw new IllegalArgumentException("slabCount must be 0 or at least 2");
+		this.slabBytes = slabBytes;
+		this.compactionThreshold = compactionThreshold;
+		this.ttlMillis = ttl.toMillis();
+		this.maxStaleMillis = maxStale.toMillis();
+		this.beta = beta;
+		this.clock = clock;
+		this.slabs = new ByteBuffer[slabCount];
+		this.usedBytes = new int[slabCount];
+		this.liveBytes = new int[slabCount];
+		this.hits = Counter.builder("profilestore.requests").tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder("profilestore.requests").tag("result", "miss").register(meterRegistry);
+		this.compactions = Counter.builder("profilestore.compactions").register(meterRegistry);
+		this.evictions = Counter.builder("profilestore.evictions").register(meterRegistry);
+		this.earlyRefreshes = Counter.builder("profilestore.refresh.triggers").tag("trigger", "early").register(meterRegistry);
+		this.expiredRefreshes = Counter.builder("profilestore.refresh.triggers").tag("trigger", "expired").register(meterRegistry);
+		this.staleness = Timer.builder("profilestore.staleness")
+				.description("How far past its ttl a profile was when served")
+				.register(meterRegistry);
+		Gauge.builder("profilestore.entries", this, OffHeapProfileStore::size).register(meterRegistry);
+		Gauge.builder("profilestore.bytes.live", this, OffHeapProfileStore::liveBytes).register(meterRegistry);
+		Gauge.builder("profilestore.bytes.allocated", this, OffHeapProfileStore::allocatedBytes).register(meterRegistry);
+	}
+	
+	public boolean isEnabled() {
+		return this.slabs.length > 0;
+	}
+	
+	public Optional<StoredProfile> findById(final Integer userId) {
+		if (!this.isEnabled() || userId == null)
+			return Optional.empty();
+		final Record record;
+		this.lock.readLock().lock();
+		try {
+			record = this.read(this.byId.get(userId));
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		return this.serve(record);
+	}
+	
+	public Optional<StoredProfile> findByUsername(final String username) {
+		if (!this.isEnabled() || username == null)
+			return Optional.empty();
+		final Record record;
+		this.lock.readLock().lock();
+		try {
+			final long userId = this.byUsername.get(usernameKey(username));
+			record = userId == MISSING ? null : this.read(this.byId.get(userId));
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		// dos usernames con el mismo hash: el registro es del otro y cuenta como fallo
+		return this.serve(record)
+				.filter(stored -> stored.getUserDto().getCredentialDto() != null
+						&& username.equals(stored.getUserDto().getCredentialDto().getUsername()));
+	}
+	
+	/**
+	 * Version to hand back to {@link #putById(UserDto, long, Duration)} once the profile has been loaded.
+	 */
+	public long versionOf(final Integer userId) {
+		return this.versions.get(stripe(Integer.hashCode(userId)));
+	}
+	
+	/**
+	 * Version to hand back to {@link #putByUsername(String, UserDto, long, Duration)} once the profile has been loaded.
+	 */
+	public long versionOf(final String username) {
+		return this.versions.get(stripe(username.hashCode()));
+	}
+	
+	/**
+	 * @param loadTime how long loading the profile took, the XFetch recompute cost
+	 */
+	public boolean putById(final UserDto userDto, final long version, final Duration loadTime) {
+		return userDto.getUserId() != null && this.put(userDto, this.clock.millis(), loadTime.toMillis(),
+				() -> this.versionOf(userDto.getUserId()) == version);
+	}
+	
+	public boolean putByUsername(final String username, final UserDto userDto, final long version, final Duration loadTime) {
+		return userDto.getUserId() != null && this.put(userDto, this.clock.millis(), loadTime.toMillis(),
+				() -> this.versionOf(username) == version);
+	}
+	
+	public void invalidate(final Integer userId, final Collection<String> usernames) {
+		if (userId != null)
+			this.versions.incrementAndGet(stripe(Integer.hashCode(userId)));
+		usernames.forEach(username -> this.versions.incrementAndGet(stripe(username.hashCode())));
+		if (!this.isEnabled())
+			return;
+		
+		this.lock.writeLock().lock();
+		try {
+			if (userId != null)
+				this.remove(userId);
+			for (final String username : usernames) {
+				final long owner = this.byUsername.get(usernameKey(username));
+				if (owner != MISSING)
+					this.remove(owner);
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Drops every profile and bumps every version, for when invalidations may have been missed.
+	 */
+	public void invalidateAll() {
+		for (int stripe = 0; stripe < VERSION_STRIPES; stripe++)
+			this.versions.incrementAndGet(stripe);
+		if (!this.isEnabled())
+			return;
+		
+		this.lock.writeLock().lock();
+		try {
+			final List<Long> userIds = new ArrayList<>(this.byId.size());
+			this.byId.forEach((userId, address) -> userIds.add(userId));
+			userIds.forEach(this::remove);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Encoded payload ({@link UserProfileCodec}) of every stored profile, read under one lock
+	 * so the set is consistent; used to write a snapshot.
+	 */
+	public List<byte[]> exportProfiles() {
+		this.lock.readLock().lock();
+		try {
+			final List<byte[]> payloads = new ArrayList<>(this.byId.size());
+			this.byId.forEach((userId, address) -> payloads.add(this.payloadAt(slabOf(address), offsetOf(address))));
+			return payloads;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Stores a profile exported by {@link #exportProfiles()}, without a version check:
+	 * only meant for loading a snapshot before the service takes traffic. Restored profiles
+	 * get a random age within {@code ttl} so they do not all come due together.
+	 */
+	public boolean restoreProfile(final byte[] payload) {
+		final UserDto userDto = UserProfileCodec.decode(payload);
+		final long age = this.ttlMillis > 0 ? ThreadLocalRandom.current().nextLong(this.ttlMillis) : 0;
+		return userDto.getUserId() != null && this.put(userDto, this.clock.millis() - age, 0, () -> true);
+	}
+	
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.byId.size();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	public long liveBytes() {
+		this.lock.readLock().lock();
+		try {
+			long live = 0;
+			for (final int slabLiveBytes : this.liveBytes)
+				live += slabLiveBytes;
+			return live;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	public long allocatedBytes() {
+		this.lock.readLock().lock();
+		try {
+			return (long) this.allocatedSlabs * this.slabBytes;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	private boolean put(final UserDto userDto, final long loadedAt, final long loadMillis, final VersionCheck unchanged) {
+		if (!this.isEnabled())
+			return false;
+		final byte[] payload = UserProfileCodec.encode(userDto);
+		if (RECORD_HEADER_BYTES + payload.length > this.slabBytes)
+			return false;
+		
+		this.lock.writeLock().lock();
+		try {
+			// bajo el lock de escritura: una invalidacion posterior ya no puede colarse antes del put
+			if (!unchanged.holds())
+				return false;
+			this.remove(userDto.getUserId());
+			final long address = this.append(userDto.getUserId(), loadedAt, (int) Math.min(loadMillis, Integer.MAX_VALUE), payload);
+			this.byId.put(userDto.getUserId(), address);
+			if (userDto.getCredentialDto() != null && userDto.getCredentialDto().getUsername() != null)
+				this.byUsername.put(usernameKey(userDto.getCredentialDto().getUsername()), userDto.getUserId());
+			return true;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	private void remove(final long userId) {
+		final long address = this.byId.remove(userId);
+		if (address == MISSING)
+			return;
+		final int slab = slabOf(address);
+		final byte[] payload = this.payloadAt(slab, offsetOf(address));
+		this.liveBytes[slab] -= RECORD_HEADER_BYTES + payload.length;
+		final UserDto removed = UserProfileCodec.decode(payload);
+		if (removed.getCredentialDto() != null && removed.getCredentialDto().getUsername() != null) {
+			final long usernameKey = usernameKey(removed.getCredentialDto().getUsername());
+			if (this.byUsername.get(usernameKey) == userId)
+				this.byUsername.remove(usernameKey);
+		}
+	}
+	
+	private long append(final int userId, final long loadedAt, final int loadMillis, final byte[] payload) {
+		final int recordBytes = RECORD_HEADER_BYTES + payload.length;
+		boolean compacted = false;
+		while (this.writeSlab < 0 || this.usedBytes[this.writeSlab] + recordBytes > this.slabBytes) {
+			if (this.writeSlab >= 0)
+				this.sealedSlabs.addLast(this.writeSlab);
+			this.writeSlab = this.takeFreeSlab(compacted);
+			compacted = true;
+		}
+		
+		final ByteBuffer slab = this.slabs[this.writeSlab];
+		final int offset = this.usedBytes[this.writeSlab];
+		slab.putInt(offset, payload.length);
+		slab.putInt(offset + USER_ID_OFFSET, userId);
+		slab.putLong(offset + LOADED_AT_OFFSET, loadedAt);
+		slab.putInt(offset + LOAD_MILLIS_OFFSET, loadMillis);
+		slab.duplicate().position(offset + RECORD_HEADER_BYTES).put(payload);
+		this.usedBytes[this.writeSlab] += recordBytes;
+		this.liveBytes[this.writeSlab] += recordBytes;
+		return address(this.writeSlab, offset);
+	}
+	
+	// siempre queda una slab libre de reserva como destino de la compactacion
+	private int takeFreeSlab(final boolean alreadyCompacted) {
+		if (this.freeSlabs.size() + this.slabs.length - this.allocatedSlabs > 1)
+			return this.freeSlabs.isEmpty() ? this.allocateSlab() : this.freeSlabs.poll();
+		
+		int victim = -1;
+		for (final int slab : this.sealedSlabs) {
+			if (victim < 0 || this.deadBytes(slab) > this.deadBytes(victim))
+				victim = slab;
+		}
+		if (!alreadyCompacted && this.deadBytes(victim) >= this.slabBytes * this.compactionThreshold)
+			return this.compact(victim);
+		return this.evictOldest();
+	}
+	
+	private int allocateSlab() {
+		this.slabs[this.allocatedSlabs] = ByteBuffer.allocateDirect(this.slabBytes);
+		log.info("*** OffHeapProfileStore; allocated slab {} of {} *", this.allocatedSlabs + 1, this.slabs.length);
+		return this.allocatedSlabs++;
+	}
+	
+	private int compact(final int victim) {
+		final int target = this.freeSlabs.isEmpty() ? this.allocateSlab() : this.freeSlabs.poll();
+		final ByteBuffer from = this.slabs[victim];
+		final ByteBuffer to = this.slabs[target];
+		for (int offset = 0; offset < this.usedBytes[victim];) {
+			final int recordBytes = RECORD_HEADER_BYTES + from.getInt(offset);
+			final int userId = from.getInt(offset + USER_ID_OFFSET);
+			if (this.byId.get(userId) == address(victim, offset)) {
+				to.duplicate().position(this.usedBytes[target]).put(from.duplicate().limit(offset + recordBytes).position(offset));
+				this.byId.put(userId, address(target, this.usedBytes[target]));
+				this.usedBytes[target] += recordBytes;
+				this.liveBytes[target] += recordBytes;
+			}
+			offset += recordBytes;
+		}
+		log.debug("*** OffHeapProfileStore; compacted slab {} into {}, {} live bytes *", victim, target, this.liveBytes[target]);
+		this.sealedSlabs.remove(victim);
+		this.clear(victim);
+		this.freeSlabs.add(victim);
+		this.compactions.increment();
+		return target;
+	}
+	
+	private int evictOldest() {
+		final int oldest = this.sealedSlabs.poll();
+		for (int offset = 0; offset < this.usedBytes[oldest];) {
+			final int recordBytes = RECORD_HEADER_BYTES + this.slabs[oldest].getInt(offset);
+			final int userId = this.slabs[oldest].getInt(offset + USER_ID_OFFSET);
+			if (this.byId.get(userId) == address(oldest, offset)) {
+				this.remove(userId);
+				this.evictions.increment();
+			}
+			offset += recordBytes;
+		}
+		this.clear(oldest);
+		return oldest;
+	}
+	
+	private void clear(final int slab) {
+		this.usedBytes[slab] = 0;
+		this.liveBytes[slab] = 0;
+	}
+	
+	private int deadBytes(final int slab) {
+		return this.usedBytes[slab] - this.liveBytes[slab];
+	}
+	
+	private Record read(final long address) {
+		if (address == MISSING)
+			return null;
+		final ByteBuffer slab = this.slabs[slabOf(address)];
+		final int offset = offsetOf(address);
+		return new Record(this.payloadAt(slabOf(address), offset), slab.getLong(offset + LOADED_AT_OFFSET),
+				slab.getInt(offset + LOAD_MILLIS_OFFSET));
+	}
+	
+	private byte[] payloadAt(final int slab, final int offset) {
+		final byte[] payload = new byte[this.slabs[slab].getInt(offset)];
+		// vista propia: varios lectores comparten la slab bajo el lock de lectura
+		this.slabs[slab].duplicate().position(offset + RECORD_HEADER_BYTES).get(payload);
+		return payload;
+	}
+	
+	private Optional<StoredProfile> serve(final Record record) {
+		final long age = record == null ? 0 : this.clock.millis() - record.loadedAt;
+		if (record == null || age >= this.ttlMillis + this.maxStaleMillis) {
+			this.misses.increment();
+			return Optional.empty();
+		}
+		this.hits.increment();
+		
+		final boolean refreshDue;
+		if (age >= this.ttlMillis) {
+			this.staleness.record(age - this.ttlMillis, TimeUnit.MILLISECONDS);
+			this.expiredRefreshes.increment();
+			refreshDue = true;
+		}
+		else {
+			// XFetch: la probabilidad de adelantarse crece al acercarse el ttl y con el coste de la carga
+			refreshDue = age - record.loadMillis * this.beta * Math.log(ThreadLocalRandom.current().nextDouble()) >= this.ttlMillis;
+			if (refreshDue)
+				this.earlyRefreshes.increment();
+		}
+		return Optional.of(new StoredProfile(UserProfileCodec.decode(record.payload), refreshDue));
+	}
+	
+	private static long address(final int slab, final int offset) {
+		return (long) slab << 32 | offset;
+	}
+	
+	private static int slabOf(final long address) {
+		return (int) (address >>> 32);
+	}
+	
+	private static int offsetOf(final long address) {
+		return (int) address;
+	}
+	
+	// 64 bits (FNV-1a) para que las colisiones sean raras; findByUsername las descarta igualmente
+	private static long usernameKey(final String username) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < username.length(); i++) {
+			hash ^= username.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash == LongLongHashMap.EMPTY_KEY ? 0 : hash;
+	}
+	
+	private static int stripe(final int hash) {
+		return (hash * 0x9E3779B9 >>> 20) % VERSION_STRIPES;
+	}
+	
+	private static final class Record {
+		
+		private final byte[] payload;
+		private final long loadedAt;
+		private final int loadMillis;
+		
+		private Record(final byte[] payload, final long loadedAt, final int loadMillis) {
+			this.payload = payload;
+			this.loadedAt = loadedAt;
+			this.loadMillis = loadMillis;
+		}
+		
+	}
+	
+	@FunctionalInterface
+	private interface VersionCheck {
+		
+		boolean holds();
+	
+	}
+	
+	
+	
+}
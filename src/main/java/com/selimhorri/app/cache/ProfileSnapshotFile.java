@@ -0,0 +1,167 @@
+package com.selimhorri.app.cache;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+import com.selimhorri.app.dto.UserDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Memory-mapped snapshot of an {@link OffHeapProfileStore}:
+ * <pre>
+ * header   magic, format version, codec version, written-at millis,
+ *          {@link SnapshotWatermark} (taken-at millis), record count, records length
+ * records  [int payload length][payload] ...
+ * trailer  CRC32C of header + records, end magic
+ * </pre>
+ * It is written to a temporary file and moved into place, so a crash mid-write
+ * leaves no snapshot; a truncated or corrupted file fails the length or CRC
+ * check and is never loaded. Whether each profile is still current is decided
+ * on load by the given {@link Freshness}. Profiles hold personal data (though
+ * no password hash), so on POSIX file systems the file is readable by its owner only.
+ */
+@Slf4j
+public final class ProfileSnapshotFile {
+	
+	public enum LoadResult { LOADED, MISSING, CORRUPT, STALE }
+	
+	/**
+	 * Given the watermark of a snapshot, tells which of its profiles may still be
+	 * loaded; {@code null} rejects the whole snapshot as {@link LoadResult#STALE}.
+	 */
+	@FunctionalInterface
+	public interface Freshness {
+		Predicate<UserDto> unchangedSince(final SnapshotWatermark watermark);
+	}
+	
+	private static final int MAGIC = 0x55535053; // "USPS"
+	private static final int END_MAGIC = 0x53505355;
+	private static final int FORMAT_VERSION = 2;
+	private static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+	private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+	private static final int RECORD_HEADER_BYTES = Integer.BYTES;
+	private static final String OWNER_ONLY_FILE = "rw-------";
+	private static final String OWNER_ONLY_DIRECTORY = "rwx------";
+	
+	private ProfileSnapshotFile() {
+		
+	}
+	
+	/**
+	 * @return number of profiles written
+	 */
+	public static int write(final Path path, final SnapshotWatermark watermark, final OffHeapProfileStore store)
+			throws IOException {
+		final List<byte[]> payloads = store.exportProfiles();
+		long recordsBytes = 0;
+		for (final byte[] payload : payloads)
+			recordsBytes += RECORD_HEADER_BYTES + payload.length;
+		
+		final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		Files.createDirectories(path.toAbsolutePath().getParent(), ownerOnly(path, OWNER_ONLY_DIRECTORY));
+		// un .tmp de un intento anterior conserva sus permisos: se crea siempre de nuevo
+		Files.deleteIfExists(temporary);
+		try (FileChannel channel = FileChannel.open(temporary, Set.of(StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE), ownerOnly(path, OWNER_ONLY_FILE))) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + recordsBytes + TRAILER_BYTES);
+			buffer.putInt(MAGIC)
+					.putInt(FORMAT_VERSION)
+					.putInt(UserProfileCodec.FORMAT_VERSION)
+					.putLong(System.currentTimeMillis())
+					.putLong(watermark.getTakenAt())
+					.putInt(payloads.size())
+					.putLong(recordsBytes);
+			for (final byte[] payload : payloads) {
+				buffer.putInt(payload.length);
+				buffer.put(payload);
+			}
+			buffer.putLong(crc(buffer, buffer.position())).putInt(END_MAGIC);
+			buffer.force();
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return payloads.size();
+	}
+	
+	/**
+	 * Restores the profiles of the snapshot at {@code path} that {@code freshness} still
+	 * accepts into {@code store}, when the file is intact. The file is deleted whatever
+	 * the result: a snapshot is only good for the restart that follows it.
+	 */
+	public static LoadResult load(final Path path, final OffHeapProfileStore store, final Freshness freshness)
+			throws IOException {
+		if (!Files.exists(path))
+			return LoadResult.MISSING;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return restore(buffer, store, freshness);
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			log.warn("*** ProfileSnapshotFile; unreadable snapshot {}: {} *", path, e.toString());
+			return LoadResult.CORRUPT;
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+	
+	private static LoadResult restore(final ByteBuffer buffer, final OffHeapProfileStore store, final Freshness freshness) {
+		if (buffer.limit() < HEADER_BYTES + TRAILER_BYTES
+				|| buffer.getInt() != MAGIC
+				|| buffer.getInt() != FORMAT_VERSION
+				|| buffer.getInt() != UserProfileCodec.FORMAT_VERSION)
+			return LoadResult.CORRUPT;
+		buffer.getLong(); // escrito en
+		final SnapshotWatermark watermark = new SnapshotWatermark(buffer.getLong());
+		final int recordCount = buffer.getInt();
+		final long recordsBytes = buffer.getLong();
+		
+		// fichero a medias: la longitud no cuadra con la cabecera
+		if (recordsBytes < 0 || HEADER_BYTES + recordsBytes + TRAILER_BYTES != buffer.limit())
+			return LoadResult.CORRUPT;
+		final int trailer = HEADER_BYTES + (int) recordsBytes;
+		if (buffer.getLong(trailer) != crc(buffer, trailer) || buffer.getInt(trailer + Long.BYTES) != END_MAGIC)
+			return LoadResult.CORRUPT;
+		final Predicate<UserDto> unchanged = freshness.unchangedSince(watermark);
+		if (unchanged == null)
+			return LoadResult.STALE;
+		
+		int records = 0;
+		while (buffer.position() < trailer) {
+			final byte[] payload = new byte[buffer.getInt()];
+			buffer.get(payload);
+			if (unchanged.test(UserProfileCodec.decode(payload)))
+				store.restoreProfile(payload);
+			records++;
+		}
+		return records == recordCount ? LoadResult.LOADED : LoadResult.CORRUPT;
+	}
+	
+	private static FileAttribute<?>[] ownerOnly(final Path path, final String permissions) {
+		return path.getFileSystem().supportedFileAttributeViews().contains("posix")
+				? new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions)) }
+				: new FileAttribute<?>[0];
+	}
+	
+	private static long crc(final ByteBuffer buffer, final int length) {
+		final CRC32C crc = new CRC32C();
+		crc.update(buffer.duplicate().position(0).limit(length));
+		return crc.getValue();
+	}
+	
+	
+	
+}
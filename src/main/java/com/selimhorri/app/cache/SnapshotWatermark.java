@@ -0,0 +1,15 @@
+package com.selimhorri.app.cache;
+
+import lombok.Value;
+
+/**
+ * When a profile snapshot was taken (epoch millis, read before the store is
+ * exported). On load, profiles whose user or credential was written or deleted
+ * since then, minus a safety margin, are left out; the rest are still current.
+ */
+@Value
+public class SnapshotWatermark {
+	
+	long takenAt;
+	
+}
@@ -0,0 +1,17 @@
+package com.selimhorri.app.cache;
+
+import com.selimhorri.app.dto.UserDto;
+
+import lombok.Value;
+
+/**
+ * A profile served by {@link OffHeapProfileStore}; {@code refreshDue} asks the
+ * caller to reload it in the background while this copy is returned.
+ */
+@Value
+public class StoredProfile {
+	
+	UserDto userDto;
+	boolean refreshDue;
+	
+}
@@ -0,0 +1,182 @@
+package com.selimhorri.app.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+
+/**
+ * Compact binary form of a {@link UserDto} and its credential summary (no
+ * addresses, tokens or password hash): ids and lengths as varints, strings as
+ * UTF-8, the role as one byte and the four account flags packed in another.
+ * Nulls are preserved so a decoded profile equals the one that was encoded,
+ * minus the password, which is never written off-heap or to a snapshot.
+ */
+public final class UserProfileCodec {
+	
+	/**
+	 * Bumped on any change to the encoding, so snapshots written by older code are dropped.
+	 */
+	public static final int FORMAT_VERSION = 2;
+	
+	private static final RoleBasedAuthority[] ROLES = RoleBasedAuthority.values();
+	
+	private UserProfileCodec() {
+		
+	}
+	
+	public static byte[] encode(final UserDto userDto) {
+		final Writer writer = new Writer();
+		writer.writeInt(userDto.getUserId());
+		writer.writeString(userDto.getFirstName());
+		writer.writeString(userDto.getLastName());
+		writer.writeString(userDto.getImageUrl());
+		writer.writeString(userDto.getEmail());
+		writer.writeString(userDto.getPhone());
+		
+		final CredentialDto credentialDto = userDto.getCredentialDto();
+		writer.writeByte(credentialDto == null ? 0 : 1);
+		if (credentialDto != null) {
+			writer.writeInt(credentialDto.getCredentialId());
+			writer.writeString(credentialDto.getUsername());
+			writer.writeByte(credentialDto.getRoleBasedAuthority() == null ? 0 : credentialDto.getRoleBasedAuthority().ordinal() + 1);
+			writer.writeByte(flag(credentialDto.getIsEnabled())
+					| flag(credentialDto.getIsAccountNonExpired()) << 2
+					| flag(credentialDto.getIsAccountNonLocked()) << 4
+					| flag(credentialDto.getIsCredentialsNonExpired()) << 6);
+		}
+		return writer.toByteArray();
+	}
+	
+	public static UserDto decode(final byte[] bytes) {
+		final Reader reader = new Reader(bytes);
+		final UserDto userDto = UserDto.builder()
+				.userId(reader.readInt())
+				.firstName(reader.readString())
+				.lastName(reader.readString())
+				.imageUrl(reader.readString())
+				.email(reader.readString())
+				.phone(reader.readString())
+				.build();
+		
+		if (reader.readByte() == 1) {
+			final CredentialDto credentialDto = CredentialDto.builder()
+					.credentialId(reader.readInt())
+					.username(reader.readString())
+					.build();
+			final int role = reader.readByte();
+			credentialDto.setRoleBasedAuthority(role == 0 ? null : ROLES[role - 1]);
+			final int flags = reader.readByte();
+			credentialDto.setIsEnabled(flag(flags));
+			credentialDto.setIsAccountNonExpired(flag(flags >>> 2));
+			credentialDto.setIsAccountNonLocked(flag(flags >>> 4));
+			credentialDto.setIsCredentialsNonExpired(flag(flags >>> 6));
+			userDto.setCredentialDto(credentialDto);
+		}
+		return userDto;
+	}
+	
+	// 0 null, 1 false, 2 true
+	private static int flag(final Boolean value) {
+		return value == null ? 0 : value ? 2 : 1;
+	}
+	
+	private static Boolean flag(final int bits) {
+		final int value = bits & 0b11;
+		return value == 0 ? null : value == 2;
+	}
+	
+	private static final class Writer {
+		
+		private byte[] buffer = new byte[128];
+		private int position;
+		
+		private void writeByte(final int value) {
+			this.ensure(1);
+			this.buffer[this.position++] = (byte) value;
+		}
+		
+		// zigzag + 1, el 0 queda para null
+		private void writeInt(final Integer value) {
+			this.writeVarint(value == null ? 0 : (((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL) + 1);
+		}
+		
+		private void writeString(final String value) {
+			if (value == null) {
+				this.writeVarint(0);
+				return;
+			}
+			final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+			this.writeVarint(utf8.length + 1L);
+			this.ensure(utf8.length);
+			System.arraycopy(utf8, 0, this.buffer, this.position, utf8.length);
+			this.position += utf8.length;
+		}
+		
+		private void writeVarint(long value) {
+			this.ensure(10);
+			while ((value & ~0x7FL) != 0) {
+				this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			this.buffer[this.position++] = (byte) value;
+		}
+		
+		private void ensure(final int bytes) {
+			if (this.position + bytes > this.buffer.length)
+				this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length << 1, this.position + bytes));
+		}
+		
+		private byte[] toByteArray() {
+			return Arrays.copyOf(this.buffer, this.position);
+		}
+		
+	}
+	
+	private static final class Reader {
+		
+		private final byte[] buffer;
+		private int position;
+		
+		private Reader(final byte[] buffer) {
+			this.buffer = buffer;
+		}
+		
+		private int readByte() {
+			return this.buffer[this.position++] & 0xFF;
+		}
+		
+		private Integer readInt() {
+			final long encoded = this.readVarint();
+			if (encoded == 0)
+				return null;
+			final int zigzag = (int) (encoded - 1);
+			return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+		
+		private String readString() {
+			final int length = (int) this.readVarint();
+			if (length == 0)
+				return null;
+			final String value = new String(this.buffer, this.position, length - 1, StandardCharsets.UTF_8);
+			this.position += length - 1;
+			return value;
+		}
+		
+		private long readVarint() {
+			long value = 0;
+			for (int shift = 0;; shift += 7) {
+				final byte b = this.buffer[this.position++];
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0)
+					return value;
+			}
+		}
+		
+	}
+	
+	
+	
+}
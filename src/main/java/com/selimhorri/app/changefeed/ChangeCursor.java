@@ -0,0 +1,54 @@
+package com.selimhorri.app.changefeed;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.exception.wrapper.InvalidWatermarkException;
+
+import lombok.Value;
+
+/**
+ * Keyset position in a change feed: the feed returns what sorts strictly after
+ * {@code (changedAt, id)}. Rendered as {@code <ISO instant>~<id>}; a bare
+ * instant means every change at or after it.
+ */
+@Value
+public class ChangeCursor {
+	
+	public static final ChangeCursor START = new ChangeCursor(Instant.EPOCH, 0);
+	
+	private static final char SEPARATOR = '~';
+	
+	Instant changedAt;
+	int id;
+	
+	public static ChangeCursor of(final ChangeDto<?> change) {
+		return new ChangeCursor(change.getChangedAt(), change.getId());
+	}
+	
+	public static ChangeCursor parse(final String watermark) {
+		if (watermark == null || watermark.isBlank())
+			return START;
+		final String value = watermark.strip();
+		try {
+			final int separator = value.lastIndexOf(SEPARATOR);
+			if (separator < 0)
+				return new ChangeCursor(Instant.parse(value), 0);
+			return new ChangeCursor(Instant.parse(value.substring(0, separator)),
+					Integer.parseInt(value.substring(separator + 1)));
+		}
+		catch (DateTimeParseException | NumberFormatException e) {
+			throw new InvalidWatermarkException(String.format("Invalid change feed watermark: %s", watermark), e);
+		}
+	}
+	
+	public boolean isStart() {
+		return START.equals(this);
+	}
+	
+	public String format() {
+		return this.changedAt.toString() + SEPARATOR + this.id;
+	}
+	
+}
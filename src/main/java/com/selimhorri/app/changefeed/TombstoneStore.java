@@ -0,0 +1,98 @@
+package com.selimhorri.app.changefeed;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Remembers deletions in {@code change_tombstones} so change feed readers can
+ * drop rows that no longer exist. The row is written before commit through the
+ * transaction's own connection, like the outbox; tombstones older than
+ * {@code retention} are purged at most once per {@code purgeInterval}.
+ */
+@Slf4j
+public class TombstoneStore {
+	
+	private static final Set<EntityType> TRACKED = EnumSet.of(EntityType.USER, EntityType.CREDENTIAL, EntityType.ADDRESS);
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final Duration retention;
+	private final Duration purgeInterval;
+	private final Clock clock;
+	private final AtomicReference<Instant> lastPurge = new AtomicReference<>(Instant.EPOCH);
+	
+	public TombstoneStore(final JdbcTemplate jdbcTemplate, final Duration retention, final Duration purgeInterval,
+			final Clock clock) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.retention = retention;
+		this.purgeInterval = purgeInterval;
+		this.clock = clock;
+	}
+	
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		if (event.isRemote() || event.getChangeType() != ChangeType.DELETED || !TRACKED.contains(event.getEntityType()))
+			return;
+		this.jdbcTemplate.update("INSERT INTO change_tombstones (entity_type, entity_id, deleted_at) VALUES (?, ?, ?)",
+				event.getEntityType().name(), event.getEntityId(), Timestamp.from(this.clock.instant()));
+		this.purgeExpired();
+	}
+	
+	/**
+	 * Tombstones of {@code entityType} after {@code after} and no later than {@code upTo}, in keyset order.
+	 */
+	public <T> List<ChangeDto<T>> findAfter(final EntityType entityType, final ChangeCursor after, final Instant upTo,
+			final int limit) {
+		final Timestamp changedAt = Timestamp.from(after.getChangedAt());
+		return this.jdbcTemplate.query(
+				"SELECT entity_id, deleted_at FROM change_tombstones "
+						+ "WHERE entity_type = ? AND deleted_at >= ? AND deleted_at <= ? AND (deleted_at > ? OR entity_id > ?) "
+						+ "ORDER BY deleted_at, entity_id LIMIT ?",
+				(rs, rowNum) -> ChangeDto.<T>tombstone(rs.getInt("entity_id"), rs.getTimestamp("deleted_at").toInstant()),
+				entityType.name(), changedAt, Timestamp.from(upTo), changedAt, after.getId(), limit);
+	}
+	
+	/**
+	 * Ids of {@code entityType} deleted at or after {@code since}.
+	 */
+	public Set<Integer> findDeletedIds(final EntityType entityType, final Instant since) {
+		return new HashSet<>(this.jdbcTemplate.queryForList(
+				"SELECT entity_id FROM change_tombstones WHERE entity_type = ? AND deleted_at >= ?",
+				Integer.class, entityType.name(), Timestamp.from(since)));
+	}
+	
+	/**
+	 * Oldest watermark whose tombstones are all still kept.
+	 */
+	public Instant horizon() {
+		return this.clock.instant().minus(this.retention);
+	}
+	
+	private void purgeExpired() {
+		final Instant now = this.clock.instant();
+		final Instant last = this.lastPurge.get();
+		if (last.plus(this.purgeInterval).isAfter(now) || !this.lastPurge.compareAndSet(last, now))
+			return;
+		final int purged = this.jdbcTemplate.update("DELETE FROM change_tombstones WHERE deleted_at < ?",
+				Timestamp.from(this.horizon()));
+		log.debug("*** TombstoneStore; purged {} expired tombstones *", purged);
+	}
+	
+}
@@ -0,0 +1,152 @@
+package com.selimhorri.app.concurrent;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+
+/**
+ * Concurrency limit that follows observed latency instead of a fixed number.
+ * {@link Algorithm#GRADIENT} compares each round trip against a long-term
+ * average and shrinks the limit as queueing shows up; {@link Algorithm#AIMD}
+ * grows by one per fast call and backs off multiplicatively on slow or dropped
+ * ones. Calls beyond the current limit are shed immediately.
+ */
+public class AdaptiveLimiter {
+	
+	public enum Algorithm { GRADIENT, AIMD }
+	
+	// muestras para la media larga del RTT
+	private static final int LONG_WINDOW = 600;
+	
+	private final String name;
+	private final Algorithm algorithm;
+	private final int minLimit;
+	private final int maxLimit;
+	private final long maxLatencyNanos;
+	private final double tolerance;
+	private final double smoothing;
+	private final double backoffRatio;
+	private final AtomicInteger inflight = new AtomicInteger();
+	private final Counter shed;
+	
+	private volatile double limit;
+	private double longRttNanos;
+	
+	@Builder
+	public AdaptiveLimiter(final String name, final Algorithm algorithm, final int initialLimit, final int minLimit,
+			final int maxLimit, final Duration maxLatency, final double tolerance, final double smoothing,
+			final double backoffRatio, final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.algorithm = algorithm;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.maxLatencyNanos = maxLatency.toNanos();
+		this.tolerance = tolerance;
+		this.smoothing = smoothing;
+		this.backoffRatio = backoffRatio;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		Gauge.builder("concurrency.limit", this, AdaptiveLimiter::getLimit)
+				.tag("group", name)
+				.register(meterRegistry);
+		Gauge.builder("concurrency.inflight", this.inflight, AtomicInteger::get)
+				.tag("group", name)
+				.register(meterRegistry);
+		this.shed = Counter.builder("concurrency.shed")
+				.tag("group", name)
+				.register(meterRegistry);
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	public int getLimit() {
+		return (int) this.limit;
+	}
+	
+	public int getInflight() {
+		return this.inflight.get();
+	}
+	
+	public Optional<Permit> tryAcquire() {
+		while (true) {
+			final int current = this.inflight.get();
+			if (current >= this.getLimit()) {
+				this.shed.increment();
+				return Optional.empty();
+			}
+			if (this.inflight.compareAndSet(current, current + 1))
+				return Optional.of(new Permit(current + 1, System.nanoTime()));
+		}
+	}
+	
+	private synchronized void update(final long rttNanos, final int inflightAtStart, final boolean dropped) {
+		
+		if (dropped) {
+			this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+			return;
+		}
+		
+		if (this.algorithm == Algorithm.AIMD) {
+			if (rttNanos > this.maxLatencyNanos)
+				this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+			else if (inflightAtStart * 2 >= this.limit)
+				this.limit = Math.min(this.maxLimit, this.limit + 1);
+			return;
+		}
+		
+		this.longRttNanos = this.longRttNanos == 0
+				? rttNanos
+				: this.longRttNanos + (rttNanos - this.longRttNanos) / LONG_WINDOW;
+		// tras un pico la media larga queda alta: se deja bajar antes para no aceptar la cola como normal
+		if (this.longRttNanos / rttNanos > 2)
+			this.longRttNanos *= 0.95;
+		
+		// con menos de la mitad en uso la latencia no dice nada del limite
+		if (inflightAtStart * 2 < this.limit)
+			return;
+		
+		final double gradient = Math.max(0.5, Math.min(1.0, this.tolerance * this.longRttNanos / rttNanos));
+		final double target = this.limit * gradient + Math.sqrt(this.limit);
+		this.limit = Math.max(this.minLimit, Math.min(this.maxLimit,
+				this.limit * (1 - this.smoothing) + target * this.smoothing));
+	}
+	
+	/**
+	 * One admitted call; exactly one of the completion methods must be called.
+	 */
+	public final class Permit {
+		
+		private final int inflightAtStart;
+		private final long startNanos;
+		
+		private Permit(final int inflightAtStart, final long startNanos) {
+			this.inflightAtStart = inflightAtStart;
+			this.startNanos = startNanos;
+		}
+		
+		public void onSuccess() {
+			AdaptiveLimiter.this.inflight.decrementAndGet();
+			AdaptiveLimiter.this.update(System.nanoTime() - this.startNanos, this.inflightAtStart, false);
+		}
+		
+		public void onDropped() {
+			AdaptiveLimiter.this.inflight.decrementAndGet();
+			AdaptiveLimiter.this.update(System.nanoTime() - this.startNanos, this.inflightAtStart, true);
+		}
+		
+		// la llamada fallo por algo ajeno a la carga: no cuenta para el limite
+		public void onIgnore() {
+			AdaptiveLimiter.this.inflight.decrementAndGet();
+		}
+		
+	}
+	
+	
+	
+}
@@ -0,0 +1,147 @@
+package com.selimhorri.app.concurrent;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DataLoader-style micro-batching: distinct keys requested within {@code window}
+ * (or until {@code maxBatchSize} keys are pending) are resolved by a single
+ * {@link #loadAll(Set)} call, and every waiting caller gets its own entry.
+ * A zero window disables batching and each key goes through {@link #loadOne(Object)}, as do
+ * keys {@link #isCached(Object)} reports as already cached.
+ * <p>
+ * The {@code scheduler} only fires the window timers; {@link #loadAll(Set)} runs on the
+ * bounded {@code dispatcher}, so a slow database never delays the timers of other batches.
+ */
+@Slf4j
+public abstract class BatchLoader<K, V> {
+
+	private final String name;
+	private final Duration window;
+	private final int maxBatchSize;
+	private final Duration timeout;
+	private final ScheduledExecutorService scheduler;
+	private final Executor dispatcher;
+	private final DistributionSummary batchSizes;
+
+	private final Object lock = new Object();
+	private Map<K, CompletableFuture<Optional<V>>> pending = new LinkedHashMap<>();
+
+	protected BatchLoader(final String name, final Duration window, final int maxBatchSize, final Duration timeout,
+			final ScheduledExecutorService scheduler, final Executor dispatcher, final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.window = window;
+		this.maxBatchSize = maxBatchSize;
+		this.timeout = timeout;
+		this.scheduler = scheduler;
+		this.dispatcher = dispatcher;
+		this.batchSizes = DistributionSummary.builder("batchloader.batch.size")
+				.tag("loader", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Resolves many keys at once; keys absent from the returned map are treated as not found.
+	 */
+	protected abstract Map<K, V> loadAll(final Set<K> keys);
+
+	protected Optional<V> loadOne(final K key) {
+		return Optional.ofNullable(this.loadAll(Set.of(key)).get(key));
+	}
+
+	/**
+	 * Keys already held by a cache are served through {@link #loadOne(Object)} instead of joining a batch.
+	 */
+	protected boolean isCached(final K key) {
+		return false;
+	}
+	
+	public boolean isBatching() {
+		return !this.window.isZero() && !this.window.isNegative() && this.maxBatchSize > 1;
+	}
+
+	public Optional<V> load(final K key) {
+
+		if (!this.isBatching() || this.isCached(key))
+			return this.loadOne(key);
+
+		final CompletableFuture<Optional<V>> future;
+		Map<K, CompletableFuture<Optional<V>>> full = null;
+		synchronized (this.lock) {
+			final CompletableFuture<Optional<V>> existing = this.pending.get(key);
+			if (existing != null) {
+				future = existing;
+			}
+			else {
+				future = new CompletableFuture<>();
+				this.pending.put(key, future);
+				if (this.pending.size() == 1) {
+					final Map<K, CompletableFuture<Optional<V>>> batch = this.pending;
+					this.scheduler.schedule(() -> this.dispatchIfPending(batch), this.window.toNanos(), TimeUnit.NANOSECONDS);
+				}
+				if (this.pending.size() >= this.maxBatchSize) {
+					full = this.pending;
+					this.pending = new LinkedHashMap<>();
+				}
+			}
+		}
+
+		if (full != null) {
+			this.submit(full);
+		}
+
+		return Futures.await(future, this.timeout, String.format("%s batch with key: %s", this.name, key), () -> {});
+	}
+
+	// la ventana vencio: solo se despacha si el lote no salio antes por tamanio
+	private void dispatchIfPending(final Map<K, CompletableFuture<Optional<V>>> batch) {
+		synchronized (this.lock) {
+			if (this.pending != batch)
+				return;
+			this.pending = new LinkedHashMap<>();
+		}
+		this.submit(batch);
+	}
+	
+	// el temporizador solo entrega el lote: loadAll corre en el dispatcher
+	private void submit(final Map<K, CompletableFuture<Optional<V>>> batch) {
+		try {
+			this.dispatcher.execute(() -> this.dispatch(batch));
+		}
+		catch (RejectedExecutionException e) {
+			final var unavailable = new ServiceUnavailableException(String.format(
+					"%s batch of %d keys rejected: dispatcher saturated", this.name, batch.size()), e);
+			batch.values().forEach(future -> future.completeExceptionally(unavailable));
+		}
+	}
+
+	private void dispatch(final Map<K, CompletableFuture<Optional<V>>> batch) {
+		log.debug("*** BatchLoader {}; dispatch batch of {} keys *", this.name, batch.size());
+		this.batchSizes.record(batch.size());
+		try {
+			final Map<K, V> loaded = this.loadAll(Collections.unmodifiableSet(batch.keySet()));
+			batch.forEach((key, future) -> future.complete(Optional.ofNullable(loaded.get(key))));
+		}
+		catch (RuntimeException | Error e) {
+			batch.values().forEach(future -> future.completeExceptionally(e));
+		}
+	}
+
+
+
+}
@@ -0,0 +1,113 @@
+package com.selimhorri.app.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounded executor that runs work on the caller's thread: at most
+ * {@code maxConcurrent} calls run at once, at most {@code maxQueue} more wait
+ * (up to {@code maxWait}) for a slot, and anything beyond that is rejected
+ * immediately. Queued calls block their own thread on the semaphore while
+ * they wait, so one class of traffic holds at most
+ * {@code maxConcurrent + maxQueue} servlet threads, never every one.
+ */
+public class Bulkhead {
+	
+	private final String name;
+	private final int maxConcurrent;
+	private final int maxQueue;
+	private final Duration maxWait;
+	private final Semaphore permits;
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Counter rejected;
+	private final Timer waitTimer;
+	
+	public Bulkhead(final String name, final int maxConcurrent, final int maxQueue, final Duration maxWait,
+			final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.maxConcurrent = maxConcurrent;
+		this.maxQueue = maxQueue;
+		this.maxWait = maxWait;
+		this.permits = new Semaphore(maxConcurrent, true);
+		Gauge.builder("bulkhead.active", this, Bulkhead::getActive)
+				.tag("bulkhead", name)
+				.register(meterRegistry);
+		Gauge.builder("bulkhead.queue.depth", this.queued, AtomicInteger::get)
+				.tag("bulkhead", name)
+				.register(meterRegistry);
+		this.rejected = Counter.builder("bulkhead.rejected")
+				.tag("bulkhead", name)
+				.register(meterRegistry);
+		this.waitTimer = Timer.builder("bulkhead.wait")
+				.tag("bulkhead", name)
+				.register(meterRegistry);
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	public int getActive() {
+		return this.maxConcurrent - this.permits.availablePermits();
+	}
+	
+	public int getQueueDepth() {
+		return this.queued.get();
+	}
+	
+	/**
+	 * Takes a slot, waiting in the bounded queue if needed.
+	 * @return false when the call was rejected (queue full, wait exceeded or interrupted);
+	 * on true the caller must {@link #release()}
+	 */
+	public boolean tryAcquire() {
+		
+		// tryAcquire() sin plazo se salta la cola aunque el semaforo sea justo
+		try {
+			if (this.permits.tryAcquire(0, TimeUnit.NANOSECONDS))
+				return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.rejected.increment();
+			return false;
+		}
+		
+		if (this.queued.incrementAndGet() > this.maxQueue) {
+			this.queued.decrementAndGet();
+			this.rejected.increment();
+			return false;
+		}
+		
+		final long start = System.nanoTime();
+		try {
+			if (this.permits.tryAcquire(this.maxWait.toNanos(), TimeUnit.NANOSECONDS))
+				return true;
+			this.rejected.increment();
+			return false;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.rejected.increment();
+			return false;
+		}
+		finally {
+			this.queued.decrementAndGet();
+			this.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	public void release() {
+		this.permits.release();
+	}
+	
+	
+	
+}
@@ -0,0 +1,66 @@
+package com.selimhorri.app.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Futures {
+	
+	/**
+	 * Bounded wait on a shared load; the loader's own exception is rethrown as-is,
+	 * a timeout or interruption surfaces as {@link ServiceUnavailableException}.
+	 */
+	static <T> T await(final CompletableFuture<T> future, final Duration timeout,
+			final String description, final Runnable onTimeout) {
+		try {
+			return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+		catch (TimeoutException e) {
+			onTimeout.run();
+			throw new ServiceUnavailableException(String.format(
+					"Timed out after %d ms waiting for %s", timeout.toMillis(), description), e);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException(String.format(
+					"Interrupted while waiting for %s", description), e);
+		}
+	}
+	
+	/**
+	 * Unbounded wait, for work already under way whose outcome the caller has to report.
+	 */
+	static <T> T await(final CompletableFuture<T> future, final String description) {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException(String.format(
+					"Interrupted while waiting for %s", description), e);
+		}
+	}
+	
+	private static RuntimeException unwrap(final ExecutionException e) {
+		if (e.getCause() instanceof RuntimeException)
+			return (RuntimeException) e.getCause();
+		if (e.getCause() instanceof Error)
+			throw (Error) e.getCause();
+		return new ServiceUnavailableException(e.getCause());
+	}
+	
+}
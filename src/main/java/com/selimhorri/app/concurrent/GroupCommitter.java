@@ -0,0 +1,191 @@
+package com.selimhorri.app.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit for writes: work submitted within {@code window} (or until
+ * {@code maxBatchSize} are pending) runs in one transaction on the scheduler,
+ * so a burst pays for one commit instead of one per request. When the shared
+ * transaction fails it is rolled back whole and every piece of work is retried
+ * in a transaction of its own, so each caller gets its own result or its own
+ * error. A zero window disables grouping: each submit runs in its own
+ * transaction on the caller thread. A caller that times out before its batch
+ * is dispatched withdraws its work; once dispatched, it waits for the commit.
+ */
+@Slf4j
+public class GroupCommitter {
+	
+	private final String name;
+	private final Duration window;
+	private final int maxBatchSize;
+	private final Duration timeout;
+	private final ScheduledExecutorService scheduler;
+	private final TransactionOperations transaction;
+	private final DistributionSummary batchSizes;
+	private final Counter fallbacks;
+	private final Counter withdrawn;
+	
+	private final Object lock = new Object();
+	private List<Pending<?>> pending = new ArrayList<>();
+	
+	public GroupCommitter(final String name, final Duration window, final int maxBatchSize, final Duration timeout,
+			final ScheduledExecutorService scheduler, final TransactionOperations transaction, final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.window = window;
+		this.maxBatchSize = maxBatchSize;
+		this.timeout = timeout;
+		this.scheduler = scheduler;
+		this.transaction = transaction;
+		this.batchSizes = DistributionSummary.builder("groupcommit.batch.size")
+				.tag("committer", name)
+				.register(meterRegistry);
+		this.fallbacks = Counter.builder("groupcommit.fallbacks")
+				.tag("committer", name)
+				.register(meterRegistry);
+		this.withdrawn = Counter.builder("groupcommit.withdrawn")
+				.tag("committer", name)
+				.register(meterRegistry);
+	}
+	
+	public boolean isBatching() {
+		return !this.window.isZero() && !this.window.isNegative() && this.maxBatchSize > 1;
+	}
+	
+	/**
+	 * Runs {@code work} inside a transaction, possibly shared with other callers,
+	 * and returns once that transaction has committed.
+	 */
+	public <R> R submit(final Supplier<R> work) {
+		
+		if (!this.isBatching())
+			return this.transaction.execute(status -> work.get());
+		
+		final Pending<R> entry = new Pending<>(work);
+		List<Pending<?>> full = null;
+		synchronized (this.lock) {
+			this.pending.add(entry);
+			if (this.pending.size() == 1) {
+				final List<Pending<?>> batch = this.pending;
+				this.scheduler.schedule(() -> this.dispatchIfPending(batch), this.window.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			if (this.pending.size() >= this.maxBatchSize) {
+				full = this.pending;
+				this.pending = new ArrayList<>();
+			}
+		}
+		
+		if (full != null) {
+			final List<Pending<?>> batch = full;
+			this.scheduler.execute(() -> this.dispatch(batch));
+		}
+		
+		final String description = String.format("%s group commit", this.name);
+		try {
+			return Futures.await(entry.future, this.timeout, description, () -> {});
+		}
+		catch (ServiceUnavailableException e) {
+			// aun sin despachar: se retira y no se escribe nada
+			if (entry.claim()) {
+				this.withdrawn.increment();
+				throw e;
+			}
+			if (!(e.getCause() instanceof TimeoutException))
+				throw e;
+			// ya despachado: la fila puede quedar escrita, la respuesta es la del commit
+			return Futures.await(entry.future, description);
+		}
+	}
+	
+	// la ventana vencio: solo se despacha si el lote no salio antes por tamanio
+	private void dispatchIfPending(final List<Pending<?>> batch) {
+		synchronized (this.lock) {
+			if (this.pending != batch)
+				return;
+			this.pending = new ArrayList<>();
+		}
+		this.dispatch(batch);
+	}
+	
+	private void dispatch(final List<Pending<?>> queued) {
+		final List<Pending<?>> batch = new ArrayList<>(queued.size());
+		for (final Pending<?> entry : queued)
+			if (entry.claim())
+				batch.add(entry);
+		if (batch.isEmpty())
+			return;
+		log.debug("*** GroupCommitter {}; commit batch of {} *", this.name, batch.size());
+		this.batchSizes.record(batch.size());
+		final List<Object> results;
+		try {
+			results = this.transaction.execute(status -> {
+				final List<Object> values = new ArrayList<>(batch.size());
+				batch.forEach(entry -> values.add(entry.work.get()));
+				return values;
+			});
+		}
+		catch (RuntimeException | Error e) {
+			if (batch.size() == 1) {
+				batch.get(0).future.completeExceptionally(e);
+				return;
+			}
+			// nada quedo escrito: cada uno en su transaccion para aislar la fila que falla
+			log.debug("*** GroupCommitter {}; batch of {} failed ({}), retrying one by one *", this.name, batch.size(), e.getMessage());
+			this.fallbacks.increment();
+			batch.forEach(this::commitAlone);
+			return;
+		}
+		for (int i = 0; i < batch.size(); i++)
+			batch.get(i).complete(results.get(i));
+	}
+	
+	private void commitAlone(final Pending<?> entry) {
+		try {
+			entry.complete(this.transaction.execute(status -> entry.work.get()));
+		}
+		catch (RuntimeException | Error e) {
+			entry.future.completeExceptionally(e);
+		}
+	}
+	
+	private static final class Pending<R> {
+		
+		private final Supplier<R> work;
+		private final CompletableFuture<R> future = new CompletableFuture<>();
+		// lo toma el primero: el despacho (se ejecuta) o quien espera al vencer el plazo (se retira)
+		private final AtomicBoolean claimed = new AtomicBoolean();
+		
+		private Pending(final Supplier<R> work) {
+			this.work = work;
+		}
+		
+		private boolean claim() {
+			return this.claimed.compareAndSet(false, true);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private void complete(final Object result) {
+			this.future.complete((R) result);
+		}
+	
+	}
+	
+	
+	
+}
@@ -0,0 +1,79 @@
+package com.selimhorri.app.concurrent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs cache refreshes in the background, at most one per key at a time. When
+ * the executor is saturated the refresh is dropped: the caller keeps serving
+ * its current copy and a later read asks again.
+ */
+@Slf4j
+public class RefreshAhead {
+	
+	private final String name;
+	private final Executor executor;
+	private final Set<Object> inFlight = ConcurrentHashMap.newKeySet();
+	private final Counter succeeded;
+	private final Counter failed;
+	private final Counter rejected;
+	private final Counter coalesced;
+	
+	public RefreshAhead(final String name, final Executor executor, final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.executor = executor;
+		this.succeeded = this.counter(meterRegistry, "succeeded");
+		this.failed = this.counter(meterRegistry, "failed");
+		this.rejected = this.counter(meterRegistry, "rejected");
+		this.coalesced = this.counter(meterRegistry, "coalesced");
+	}
+	
+	/**
+	 * @return whether a refresh for {@code key} was scheduled by this call
+	 */
+	public boolean refresh(final Object key, final Runnable refresher) {
+		
+		if (!this.inFlight.add(key)) {
+			this.coalesced.increment();
+			return false;
+		}
+		
+		try {
+			this.executor.execute(() -> {
+				try {
+					refresher.run();
+					this.succeeded.increment();
+				}
+				catch (RuntimeException e) {
+					this.failed.increment();
+					log.warn("*** RefreshAhead {}; refresh of {} failed: {} *", this.name, key, e.toString());
+				}
+				finally {
+					this.inFlight.remove(key);
+				}
+			});
+			return true;
+		}
+		catch (RejectedExecutionException e) {
+			this.inFlight.remove(key);
+			this.rejected.increment();
+			return false;
+		}
+	}
+	
+	private Counter counter(final MeterRegistry meterRegistry, final String result) {
+		return Counter.builder("refreshahead.refreshes")
+				.tag("name", this.name)
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+	
+	
+	
+}
@@ -0,0 +1,69 @@
+package com.selimhorri.app.concurrent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent identical reads: the first caller for a key runs the load,
+ * callers arriving while it is in flight wait for (and share) its result or exception.
+ */
+@Component
+public class SingleFlight {
+	
+	private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry;
+	private final Duration timeout;
+	
+	public SingleFlight(final MeterRegistry meterRegistry,
+			@Value("${app.single-flight.timeout:5s}") final Duration timeout) {
+		this.meterRegistry = meterRegistry;
+		this.timeout = timeout;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public <T> T execute(final String operation, final Object key, final Supplier<T> loader) {
+		
+		final List<Object> flightKey = List.of(operation, key);
+		final CompletableFuture<Object> call = new CompletableFuture<>();
+		final CompletableFuture<Object> existing = this.inFlight.putIfAbsent(flightKey, call);
+		
+		if (existing != null) {
+			this.counter("singleflight.coalesced", operation).increment();
+			// se propaga el mismo resultado o la misma excepcion que recibio el primer llamador
+			return (T) Futures.await(existing, this.timeout, String.format("%s with key: %s", operation, key),
+					() -> this.counter("singleflight.timeouts", operation).increment());
+		}
+		
+		try {
+			final T value = loader.get();
+			call.complete(value);
+			return value;
+		}
+		catch (RuntimeException | Error e) {
+			call.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.inFlight.remove(flightKey, call);
+		}
+	}
+	
+	private Counter counter(final String name, final String operation) {
+		return Counter.builder(name)
+				.tag("operation", operation)
+				.register(this.meterRegistry);
+	}
+	
+	
+	
+}
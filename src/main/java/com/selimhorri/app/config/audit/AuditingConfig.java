@@ -0,0 +1,29 @@
+package com.selimhorri.app.config.audit;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Fills {@code created_at} / {@code updated_at} of every entity on flush; the
+ * change feed pages through {@code updated_at}, so writes that bypass JPA
+ * (bulk JPQL, plain JDBC) must set it themselves.
+ */
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class AuditingConfig {
+	
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider() {
+		final Clock clock = Clock.systemUTC();
+		return () -> Optional.of(Instant.now(clock));
+	}
+	
+	
+	
+}
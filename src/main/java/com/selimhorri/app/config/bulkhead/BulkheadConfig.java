@@ -0,0 +1,80 @@
+package com.selimhorri.app.config.bulkhead;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.selimhorri.app.concurrent.Bulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties({BulkheadProperties.class, DataSourceProperties.class})
+@Slf4j
+public class BulkheadConfig {
+	
+	@Bean
+	public Map<EndpointClass, Bulkhead> endpointBulkheads(final BulkheadProperties bulkheadProperties,
+			final MeterRegistry meterRegistry) {
+		final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+		bulkheadProperties.getClasses().forEach((endpointClass, limits) -> bulkheads.put(endpointClass,
+				new Bulkhead(endpointClass.name(), limits.getMaxConcurrent(), limits.getMaxQueue(), limits.getMaxWait(), meterRegistry)));
+		return bulkheads;
+	}
+	
+	@Bean
+	public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(final Map<EndpointClass, Bulkhead> endpointBulkheads) {
+		final var registration = new FilterRegistrationBean<>(new BulkheadFilter(endpointBulkheads));
+		registration.addUrlPatterns("/api/*");
+		// antes que cualquier filtro que pueda tocar la base de datos
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+		return registration;
+	}
+	
+	/**
+	 * One Hikari pool per endpoint class plus a default pool, behind a routing
+	 * DataSource, so bulk reads can't take the connections login lookups need.
+	 */
+	@Bean
+	public EndpointClassRoutingDataSource dataSource(final DataSourceProperties dataSourceProperties,
+			final BulkheadProperties bulkheadProperties, final MeterRegistry meterRegistry) {
+		
+		final Map<Object, Object> pools = new HashMap<>();
+		bulkheadProperties.getClasses().forEach((endpointClass, limits) -> pools.put(endpointClass,
+				this.pool(dataSourceProperties, "pool-" + endpointClass.name().toLowerCase().replace('_', '-'), limits.getPoolSize(), meterRegistry)));
+		
+		final var routingDataSource = new EndpointClassRoutingDataSource();
+		routingDataSource.setTargetDataSources(pools);
+		routingDataSource.setDefaultTargetDataSource(
+				this.pool(dataSourceProperties, "pool-default", bulkheadProperties.getDefaultPoolSize(), meterRegistry));
+		log.info("*** BulkheadConfig; JDBC sub-pools for {} *", pools.keySet());
+		return routingDataSource;
+	}
+	
+	private HikariDataSource pool(final DataSourceProperties dataSourceProperties, final String name,
+			final int size, final MeterRegistry meterRegistry) {
+		final HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+		pool.setPoolName(name);
+		pool.setMaximumPoolSize(size);
+		pool.setMinimumIdle(Math.min(size, 2));
+		pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		return pool;
+	}
+	
+	
+	
+}
@@ -0,0 +1,65 @@
+package com.selimhorri.app.config.bulkhead;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.selimhorri.app.concurrent.Bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admits each {@code /api} request through the bulkhead of its
+ * {@link EndpointClass} and binds the class to the thread so repository calls
+ * are routed to that class's connection sub-pool. Rejections answer 503.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BulkheadFilter extends OncePerRequestFilter {
+	
+	private final Map<EndpointClass, Bulkhead> bulkheads;
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final Optional<EndpointClass> endpointClass = EndpointClass
+				.classify(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+		
+		if (endpointClass.isEmpty() || !this.bulkheads.containsKey(endpointClass.get())) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		final Bulkhead bulkhead = this.bulkheads.get(endpointClass.get());
+		if (!bulkhead.tryAcquire()) {
+			log.warn("*** BulkheadFilter; {} full, rejecting {} {} *", bulkhead.getName(), request.getMethod(), request.getRequestURI());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+					String.format("Too many concurrent %s requests", bulkhead.getName()));
+			return;
+		}
+		
+		EndpointClass.bind(endpointClass.get());
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			EndpointClass.clear();
+			bulkhead.release();
+		}
+	}
+	
+	
+	
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.config.bulkhead;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+	
+	private boolean enabled = true;
+	
+	/**
+	 * Pool for work that is not tied to a request class: startup, Flyway,
+	 * batch loader dispatch threads, actuator.
+	 */
+	private int defaultPoolSize = 5;
+	
+	private Map<EndpointClass, Limits> classes = new EnumMap<>(EndpointClass.class);
+	
+	@Data
+	public static class Limits {
+		
+		private int maxConcurrent = 20;
+		private int maxQueue = 20;
+		private Duration maxWait = Duration.ofSeconds(1);
+		private int poolSize = 5;
+		
+	}
+	
+}
@@ -0,0 +1,86 @@
+package com.selimhorri.app.config.bulkhead;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Traffic classes that get their own bulkhead and JDBC sub-pool. The class of
+ * the request being served is bound to the thread by {@link BulkheadFilter}.
+ */
+public enum EndpointClass {
+	
+	AUTH,
+	SINGLE_READ,
+	BULK_READ,
+	WRITE;
+	
+	private static final Pattern AUTH_PATH = Pattern.compile("^/api/(users|credentials)/username/[^/]+/?$");
+	private static final Pattern BULK_READ_PATH = Pattern.compile("^/api/(users|credentials|address|verificationTokens)/?$|^/api/users/[^/]+/addresses/?$"
+			+ "|^/api/(users|credentials|address)/changes/?$");
+	private static final ThreadLocal<EndpointClass> CURRENT = new ThreadLocal<>();
+	
+	/**
+	 * @param path request path without the context path
+	 * @return empty for anything outside {@code /api} (actuator, docs)
+	 */
+	public static Optional<EndpointClass> classify(final String method, final String path) {
+		
+		if (path == null || !path.startsWith("/api/"))
+			return Optional.empty();
+		
+		if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method))
+			return Optional.of(WRITE);
+		if (AUTH_PATH.matcher(path).matches())
+			return Optional.of(AUTH);
+		if (BULK_READ_PATH.matcher(path).matches())
+			return Optional.of(BULK_READ);
+		return Optional.of(SINGLE_READ);
+	}
+	
+	public static Optional<EndpointClass> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+	
+	/**
+	 * Carries the class bound to the calling thread over to whichever thread runs {@code task}.
+	 */
+	public static <T> Callable<T> propagate(final Callable<T> task) {
+		final EndpointClass captured = CURRENT.get();
+		return () -> {
+			final EndpointClass previous = CURRENT.get();
+			CURRENT.set(captured);
+			try {
+				return task.call();
+			}
+			finally {
+				CURRENT.set(previous);
+			}
+		};
+	}
+	
+	/**
+	 * Runs {@code action} on the calling thread with this class bound, for work
+	 * done on behalf of requests of this class by a thread that serves none (a batch).
+	 */
+	public <T> T within(final Supplier<T> action) {
+		final EndpointClass previous = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			return action.get();
+		}
+		finally {
+			CURRENT.set(previous);
+		}
+	}
+	
+	static void bind(final EndpointClass endpointClass) {
+		CURRENT.set(endpointClass);
+	}
+	
+	static void clear() {
+		CURRENT.remove();
+	}
+	
+}
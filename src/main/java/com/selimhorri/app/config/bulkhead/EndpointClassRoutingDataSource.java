@@ -0,0 +1,29 @@
+package com.selimhorri.app.config.bulkhead;
+
+import java.io.Closeable;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Hands out connections from the sub-pool of the {@link EndpointClass} bound
+ * to the current thread, or from the default pool when none is bound.
+ */
+public class EndpointClassRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return EndpointClass.current().orElse(null);
+	}
+	
+	@Override
+	public void close() {
+		this.getResolvedDataSources().values().stream()
+				.filter(HikariDataSource.class::isInstance)
+				.forEach(pool -> ((HikariDataSource) pool).close());
+		if (this.getResolvedDefaultDataSource() instanceof HikariDataSource)
+			((HikariDataSource) this.getResolvedDefaultDataSource()).close();
+	}
+	
+}
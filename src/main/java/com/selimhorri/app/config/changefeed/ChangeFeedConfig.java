@@ -0,0 +1,41 @@
+package com.selimhorri.app.config.changefeed;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.changefeed.ChangeFeed;
+import com.selimhorri.app.changefeed.TombstoneStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+@Slf4j
+public class ChangeFeedConfig {
+	
+	@Bean
+	public TombstoneStore tombstoneStore(final ChangeFeedProperties changeFeedProperties, final JdbcTemplate jdbcTemplate) {
+		return new TombstoneStore(jdbcTemplate, changeFeedProperties.getRetention(), changeFeedProperties.getPurgeInterval(),
+				Clock.systemUTC());
+	}
+	
+	// una transaccion no marca filas mas de default-timeout antes de su commit; el reloj de otra replica puede ir por detras
+	@Bean
+	public ChangeFeed changeFeed(final ChangeFeedProperties changeFeedProperties, final TombstoneStore tombstoneStore,
+			@Value("${spring.transaction.default-timeout}") final Duration transactionTimeout) {
+		final Duration settleTime = transactionTimeout.plus(changeFeedProperties.getMaxClockSkew());
+		log.info("*** ChangeFeedConfig; settle time {}, overlap {}, tombstones kept {} *", settleTime,
+				changeFeedProperties.getOverlap(), changeFeedProperties.getRetention());
+		return new ChangeFeed(tombstoneStore, settleTime, changeFeedProperties.getOverlap(), changeFeedProperties.getMaxLimit(),
+				Clock.systemUTC());
+	}
+	
+	
+	
+}
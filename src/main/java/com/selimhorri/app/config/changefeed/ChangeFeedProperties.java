@@ -0,0 +1,35 @@
+package com.selimhorri.app.config.changefeed;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.change-feed")
+public class ChangeFeedProperties {
+	
+	/**
+	 * Largest clock difference expected between replicas; added to the transaction
+	 * timeout to get the settle time, since each replica stamps {@code updated_at}
+	 * and tombstones with its own clock.
+	 */
+	private Duration maxClockSkew = Duration.ofSeconds(1);
+	
+	/**
+	 * Window a caught-up reader reads again on its next poll, for changes that
+	 * committed after the settle time anyway (stalled commit, larger skew).
+	 */
+	private Duration overlap = Duration.ofMinutes(1);
+	
+	/**
+	 * Tombstones are kept this long; older watermarks get 410 and must resync.
+	 */
+	private Duration retention = Duration.ofDays(7);
+	
+	private Duration purgeInterval = Duration.ofHours(1);
+	
+	private int maxLimit = 1000;
+	
+}
@@ -0,0 +1,45 @@
+package com.selimhorri.app.config.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BatchLoaderConfig {
+	
+	// solo temporizadores de ventana: nunca ejecuta consultas
+	@Bean(destroyMethod = "shutdownNow")
+	public ScheduledExecutorService batchLoaderScheduler(
+			@Value("${app.batch-loader.timer-threads:1}") final int timerThreads) {
+		final AtomicInteger sequence = new AtomicInteger();
+		return Executors.newScheduledThreadPool(timerThreads, runnable -> {
+			final Thread thread = new Thread(runnable, "batch-loader-timer-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	// acotado: con la cola llena el lote falla con 503 en vez de acumular lecturas
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService batchLoaderDispatcher(
+			@Value("${app.batch-loader.dispatch-threads:8}") final int dispatchThreads,
+			@Value("${app.batch-loader.dispatch-queue:64}") final int dispatchQueue) {
+		final AtomicInteger sequence = new AtomicInteger();
+		return new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(dispatchQueue), runnable -> {
+			final Thread thread = new Thread(runnable, "batch-loader-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	
+	
+}
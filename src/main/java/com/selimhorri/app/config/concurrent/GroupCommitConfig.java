@@ -0,0 +1,54 @@
+package com.selimhorri.app.config.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.concurrent.GroupCommitter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@Slf4j
+public class GroupCommitConfig {
+	
+	@Bean(destroyMethod = "shutdownNow")
+	public ScheduledExecutorService groupCommitScheduler(
+			@Value("${app.group-commit.commit-threads:2}") final int commitThreads) {
+		final AtomicInteger sequence = new AtomicInteger();
+		return Executors.newScheduledThreadPool(commitThreads, runnable -> {
+			final Thread thread = new Thread(runnable, "group-commit-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Inserts of {@code POST /api/verificationTokens}; off unless a window is set.
+	 */
+	@Bean
+	public GroupCommitter verificationTokenGroupCommitter(final PlatformTransactionManager transactionManager,
+			@Qualifier("groupCommitScheduler") final ScheduledExecutorService groupCommitScheduler,
+			final MeterRegistry meterRegistry,
+			@Value("${app.group-commit.verification-tokens.window:0}") final Duration window,
+			@Value("${app.group-commit.verification-tokens.max-batch-size:64}") final int maxBatchSize,
+			@Value("${app.group-commit.verification-tokens.timeout:5s}") final Duration timeout) {
+		final var groupCommitter = new GroupCommitter("verificationToken", window, maxBatchSize, timeout, groupCommitScheduler,
+				new TransactionTemplate(transactionManager), meterRegistry);
+		if (groupCommitter.isBatching())
+			log.info("*** GroupCommitConfig; verification tokens: window {}, up to {} per commit *", window, maxBatchSize);
+		return groupCommitter;
+	}
+	
+	
+	
+}
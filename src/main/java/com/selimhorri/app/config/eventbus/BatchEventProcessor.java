@@ -0,0 +1,142 @@
+package com.selimhorri.app.config.eventbus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.selimhorri.app.event.EntityChangeConsumer;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The thread behind one {@link EntityChangeConsumer}: reads everything
+ * published since its last batch, hands it over in one call and only then
+ * moves its sequence forward, which frees those slots for the producers.
+ * Parks while the ring is empty; producers unpark it through {@link #signal()}.
+ */
+@Slf4j
+final class BatchEventProcessor implements Runnable {
+	
+	private final EventRing<EntityChangedEvent> ring;
+	private final EntityChangeConsumer consumer;
+	private final AtomicLong sequence;
+	private final int maxBatchSize;
+	private final long idleWaitNanos;
+	
+	private final Counter processed;
+	private final Counter failures;
+	private final DistributionSummary batchSizes;
+	
+	private volatile boolean running = true;
+	private volatile boolean waiting;
+	private volatile Thread thread;
+	private long seenDropped;
+	
+	BatchEventProcessor(final EventRing<EntityChangedEvent> ring, final EntityChangeConsumer consumer, final int maxBatchSize,
+			final Duration idleWait, final MeterRegistry meterRegistry) {
+		this.ring = ring;
+		this.consumer = consumer;
+		this.sequence = ring.newSequence();
+		this.maxBatchSize = maxBatchSize;
+		this.idleWaitNanos = idleWait.toNanos();
+		this.seenDropped = ring.dropped();
+		this.processed = Counter.builder("eventbus.processed").tag("consumer", consumer.name()).register(meterRegistry);
+		this.failures = Counter.builder("eventbus.failures").tag("consumer", consumer.name()).register(meterRegistry);
+		this.batchSizes = DistributionSummary.builder("eventbus.batch.size").tag("consumer", consumer.name()).register(meterRegistry);
+		Gauge.builder("eventbus.lag", this, BatchEventProcessor::lag)
+				.tag("consumer", consumer.name())
+				.register(meterRegistry);
+	}
+	
+	String name() {
+		return this.consumer.name();
+	}
+	
+	long lag() {
+		return this.ring.cursor() - this.sequence.get();
+	}
+	
+	@Override
+	public void run() {
+		this.thread = Thread.currentThread();
+		final List<EntityChangedEvent> batch = new ArrayList<>(this.maxBatchSize);
+		while (true) {
+			final long current = this.sequence.get();
+			final long last = this.ring.read(current, this.maxBatchSize, batch);
+			this.reportGap();
+			if (batch.isEmpty()) {
+				if (!this.running)
+					return;
+				this.idle(current);
+				continue;
+			}
+			try {
+				this.consumer.onBatch(batch);
+			}
+			catch (RuntimeException e) {
+				// efecto secundario best-effort: se cuenta y se sigue
+				this.failures.increment();
+				log.warn("*** BatchEventProcessor; {} failed on {} events: {} *", this.consumer.name(), batch.size(), e.getMessage());
+			}
+			this.processed.increment(batch.size());
+			this.batchSizes.record(batch.size());
+			this.sequence.set(last);
+			batch.clear();
+		}
+	}
+	
+	void signal() {
+		if (this.waiting) {
+			final Thread current = this.thread;
+			if (current != null)
+				LockSupport.unpark(current);
+		}
+	}
+	
+	/**
+	 * Stops once everything already published has been handed over.
+	 */
+	void halt() {
+		this.running = false;
+		final Thread current = this.thread;
+		if (current != null)
+			LockSupport.unpark(current);
+	}
+	
+	void detach() {
+		this.ring.remove(this.sequence);
+	}
+	
+	private void idle(final long current) {
+		this.waiting = true;
+		// volver a mirar despues de marcar waiting: o lo vemos aqui o el productor nos despierta
+		if (!this.ring.isPublished(current + 1) && this.running)
+			LockSupport.parkNanos(this, this.idleWaitNanos);
+		this.waiting = false;
+	}
+	
+	private void reportGap() {
+		final long dropped = this.ring.dropped();
+		if (dropped == this.seenDropped)
+			return;
+		final long missed = dropped - this.seenDropped;
+		this.seenDropped = dropped;
+		try {
+			this.consumer.onGap(missed);
+		}
+		catch (RuntimeException e) {
+			this.failures.increment();
+			log.warn("*** BatchEventProcessor; {} failed on a gap of {}: {} *", this.consumer.name(), missed, e.getMessage());
+		}
+	}
+	
+	
+	
+}
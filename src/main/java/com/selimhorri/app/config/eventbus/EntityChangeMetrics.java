@@ -0,0 +1,35 @@
+package com.selimhorri.app.config.eventbus;
+
+import java.util.List;
+
+import com.selimhorri.app.event.EntityChangeConsumer;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@code entity.changes} by entity, change and origin (local write or peer broadcast).
+ */
+@RequiredArgsConstructor
+public class EntityChangeMetrics implements EntityChangeConsumer {
+	
+	private final MeterRegistry meterRegistry;
+	
+	@Override
+	public String name() {
+		return "metrics";
+	}
+	
+	@Override
+	public void onBatch(final List<EntityChangedEvent> events) {
+		events.forEach(event -> Counter.builder("entity.changes")
+				.tag("entity", event.getEntityType().name().toLowerCase())
+				.tag("change", event.getChangeType().name().toLowerCase())
+				.tag("origin", event.isRemote() ? "remote" : "local")
+				.register(this.meterRegistry)
+				.increment());
+	}
+	
+}
@@ -0,0 +1,33 @@
+package com.selimhorri.app.config.eventbus;
+
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.selimhorri.app.event.EntityChangeConsumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(EventBusProperties.class)
+public class EventBusConfig {
+	
+	@Bean
+	public EntityChangeMetrics entityChangeMetrics(final MeterRegistry meterRegistry) {
+		return new EntityChangeMetrics(meterRegistry);
+	}
+	
+	@Bean(initMethod = "start", destroyMethod = "shutdown")
+	public PostCommitEventBus postCommitEventBus(final EventBusProperties eventBusProperties,
+			final ObjectProvider<EntityChangeConsumer> consumers, final MeterRegistry meterRegistry) {
+		return new PostCommitEventBus(consumers.orderedStream().collect(Collectors.toList()), eventBusProperties.getRingSize(),
+				eventBusProperties.getMaxBatchSize(), eventBusProperties.getIdleWait(), eventBusProperties.getShutdownTimeout(),
+				meterRegistry);
+	}
+	
+	
+	
+}
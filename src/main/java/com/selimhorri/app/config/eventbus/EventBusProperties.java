@@ -0,0 +1,27 @@
+package com.selimhorri.app.config.eventbus;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.event-bus")
+public class EventBusProperties {
+	
+	/**
+	 * Slots in the ring, a power of two. A consumer this far behind makes new events drop.
+	 */
+	private int ringSize = 4096;
+	
+	private int maxBatchSize = 256;
+	
+	/**
+	 * Longest park of an idle consumer; publishing wakes it up earlier.
+	 */
+	private Duration idleWait = Duration.ofMillis(100);
+	
+	private Duration shutdownTimeout = Duration.ofSeconds(5);
+	
+}
@@ -0,0 +1,117 @@
+package com.selimhorri.app.config.eventbus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of events in the style of the LMAX Disruptor. Producers
+ * claim a slot with a CAS on the cursor and publish it by writing its
+ * sequence into {@code published}; every consumer reads all slots behind its
+ * own {@link AtomicLong} sequence. A producer never overtakes the slowest
+ * consumer: when the ring is full {@link #tryPublish} gives up instead of waiting.
+ */
+final class EventRing<E> {
+	
+	private final Object[] entries;
+	private final AtomicLongArray published;
+	private final int mask;
+	
+	// ultimo slot reservado; los consumidores frenan a los productores
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private final AtomicLong dropped = new AtomicLong();
+	private final List<AtomicLong> gatingSequences = new CopyOnWriteArrayList<>();
+	
+	EventRing(final int size) {
+		if (size < 2 || Integer.bitCount(size) != 1)
+			throw new IllegalArgumentException("Ring size must be a power of two, was " + size);
+		this.entries = new Object[size];
+		this.published = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			this.published.set(i, -1);
+		this.mask = size - 1;
+	}
+	
+	/**
+	 * A consumer sequence, starting at the current cursor: it only sees what is published from now on.
+	 */
+	AtomicLong newSequence() {
+		final AtomicLong sequence = new AtomicLong(this.cursor.get());
+		this.gatingSequences.add(sequence);
+		return sequence;
+	}
+	
+	void remove(final AtomicLong sequence) {
+		this.gatingSequences.remove(sequence);
+	}
+	
+	boolean tryPublish(final E event) {
+		long current;
+		long next;
+		do {
+			current = this.cursor.get();
+			next = current + 1;
+			if (next - this.entries.length > this.minimumGatingSequence(current)) {
+				this.dropped.incrementAndGet();
+				return false;
+			}
+		}
+		while (!this.cursor.compareAndSet(current, next));
+		
+		final int index = (int) next & this.mask;
+		this.entries[index] = event;
+		// escritura volatil: quien lea esta secuencia ve tambien el evento
+		this.published.set(index, next);
+		return true;
+	}
+	
+	/**
+	 * Appends the published events after {@code sequence}, up to {@code max} and
+	 * stopping at the first slot still being written; returns the last sequence read.
+	 */
+	@SuppressWarnings("unchecked")
+	long read(final long sequence, final int max, final List<E> into) {
+		long next = sequence + 1;
+		final long last = Math.min(this.cursor.get(), sequence + max);
+		while (next <= last) {
+			final int index = (int) next & this.mask;
+			if (this.published.get(index) != next)
+				break;
+			into.add((E) this.entries[index]);
+			next++;
+		}
+		return next - 1;
+	}
+	
+	boolean isPublished(final long sequence) {
+		return this.published.get((int) sequence & this.mask) == sequence;
+	}
+	
+	long cursor() {
+		return this.cursor.get();
+	}
+	
+	long dropped() {
+		return this.dropped.get();
+	}
+	
+	int size() {
+		return this.entries.length;
+	}
+	
+	long remainingCapacity() {
+		final long current = this.cursor.get();
+		return this.entries.length - (current - this.minimumGatingSequence(current));
+	}
+	
+	private long minimumGatingSequence(final long current) {
+		long minimum = current;
+		for (final AtomicLong sequence : this.gatingSequences)
+			minimum = Math.min(minimum, sequence.get());
+		return minimum;
+	}
+	
+	
+	
+}
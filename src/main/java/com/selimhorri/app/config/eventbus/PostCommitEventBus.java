@@ -0,0 +1,85 @@
+package com.selimhorri.app.config.eventbus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.event.EntityChangeConsumer;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands committed {@link EntityChangedEvent}s to the {@link EntityChangeConsumer}s
+ * through an {@link EventRing}, one thread per consumer. Publishing is a CAS and
+ * a store, so the committing request thread never waits on a side effect: with
+ * the ring full the event is dropped, counted and reported to the consumers as a gap.
+ */
+@Slf4j
+public class PostCommitEventBus {
+	
+	private final EventRing<EntityChangedEvent> ring;
+	private final List<BatchEventProcessor> processors;
+	private final Duration shutdownTimeout;
+	private final Counter published;
+	
+	public PostCommitEventBus(final List<EntityChangeConsumer> consumers, final int ringSize, final int maxBatchSize,
+			final Duration idleWait, final Duration shutdownTimeout, final MeterRegistry meterRegistry) {
+		this.ring = new EventRing<>(ringSize);
+		this.processors = consumers.stream()
+				.map(consumer -> new BatchEventProcessor(this.ring, consumer, maxBatchSize, idleWait, meterRegistry))
+				.collect(Collectors.toUnmodifiableList());
+		this.shutdownTimeout = shutdownTimeout;
+		this.published = Counter.builder("eventbus.published").register(meterRegistry);
+		FunctionCounter.builder("eventbus.dropped", this.ring, EventRing::dropped).register(meterRegistry);
+		Gauge.builder("eventbus.remaining", this.ring, EventRing::remainingCapacity).register(meterRegistry);
+	}
+	
+	public void start() {
+		this.processors.forEach(processor -> {
+			final Thread thread = new Thread(processor, "event-bus-" + processor.name());
+			thread.setDaemon(true);
+			thread.start();
+		});
+		log.info("*** PostCommitEventBus; ring of {} for {} *", this.ring.size(),
+				this.processors.stream().map(BatchEventProcessor::name).collect(Collectors.toList()));
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		if (!this.ring.tryPublish(event)) {
+			log.debug("*** PostCommitEventBus; ring full, dropped {} {} {} *", event.getChangeType(), event.getEntityType(),
+					event.getEntityId());
+			return;
+		}
+		this.published.increment();
+		this.processors.forEach(BatchEventProcessor::signal);
+	}
+	
+	/**
+	 * Lets every consumer finish what is already in the ring, up to {@code shutdownTimeout} in total.
+	 */
+	public void shutdown() {
+		this.processors.forEach(BatchEventProcessor::halt);
+		final long deadline = System.nanoTime() + this.shutdownTimeout.toNanos();
+		while (this.processors.stream().anyMatch(processor -> processor.lag() > 0) && System.nanoTime() < deadline) {
+			try {
+				Thread.sleep(10);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		this.processors.forEach(BatchEventProcessor::detach);
+	}
+	
+	
+	
+}
@@ -0,0 +1,45 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.concurrent.SingleFlight;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "app.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@Slf4j
+public class IdempotencyConfig {
+	
+	@Bean
+	public IdempotencyStore idempotencyStore(final IdempotencyProperties idempotencyProperties, final JdbcTemplate jdbcTemplate) {
+		log.info("*** IdempotencyConfig; {} store, ttl {} *", idempotencyProperties.getStore(), idempotencyProperties.getTtl());
+		if (idempotencyProperties.getStore() == IdempotencyProperties.Store.JDBC)
+			return new JdbcIdempotencyStore(jdbcTemplate, idempotencyProperties.getTtl(),
+					idempotencyProperties.getReservationLease(), Clock.systemUTC());
+		return new InMemoryIdempotencyStore(idempotencyProperties.getMaxEntries(), idempotencyProperties.getTtl(), Clock.systemUTC());
+	}
+	
+	@Bean
+	public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(final IdempotencyStore idempotencyStore,
+			final SingleFlight singleFlight, final IdempotencyProperties idempotencyProperties) {
+		final var registration = new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyStore, singleFlight,
+				idempotencyProperties.getPaths(), idempotencyProperties.getWaitTimeout()));
+		registration.addUrlPatterns("/api/*");
+		// detras del bulkhead: el store JDBC usa el sub-pool de escritura
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 110);
+		return registration;
+	}
+	
+	
+	
+}
@@ -0,0 +1,283 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.selimhorri.app.concurrent.SingleFlight;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the stored response of a {@code POST} whose {@code Idempotency-Key}
+ * was already processed instead of calling {@code save} again. Requests with
+ * the same key that arrive while the first is running wait for it: on this
+ * node through {@link SingleFlight}, across nodes by polling the store.
+ * 5xx responses are not stored, so the client's next retry executes again,
+ * and requests waiting on a run that stored nothing execute their own.
+ * A key reused with a different method or body gets 422 instead of the replay.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+	
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+	public static final String REPLAYED = "Idempotent-Replayed";
+	
+	private static final int MAX_KEY_LENGTH = 200;
+	private static final long POLL_MILLIS = 50;
+	
+	private final IdempotencyStore idempotencyStore;
+	private final SingleFlight singleFlight;
+	private final Set<String> paths;
+	private final Duration waitTimeout;
+	
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return !"POST".equals(request.getMethod())
+				|| request.getHeader(IDEMPOTENCY_KEY) == null
+				|| !this.paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+	}
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+		if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			response.sendError(HttpStatus.BAD_REQUEST.value(),
+					String.format("%s must have between 1 and %d characters", IDEMPOTENCY_KEY, MAX_KEY_LENGTH));
+			return;
+		}
+		final String key = request.getRequestURI().substring(request.getContextPath().length()) + ":" + idempotencyKey;
+		// el cuerpo se lee entero para el hash; el controlador lo vuelve a leer de la copia
+		final var cachedRequest = new CachedBodyRequest(request, StreamUtils.copyToByteArray(request.getInputStream()));
+		final String requestHash = requestHash(request.getMethod(), cachedRequest.body);
+		
+		StoredResponse stored = null;
+		while (stored == null) {
+			final AtomicBoolean executedHere = new AtomicBoolean();
+			final Outcome outcome;
+			try {
+				outcome = this.singleFlight.execute("idempotency", key, () -> this.idempotencyStore.find(key)
+						.map(Outcome::stored)
+						.orElseGet(() -> {
+							if (!this.idempotencyStore.tryReserve(key, requestHash))
+								return Outcome.stored(this.awaitOtherNode(key));
+							executedHere.set(true);
+							return this.execute(key, requestHash, cachedRequest, response, filterChain);
+						}));
+			}
+			catch (ServiceUnavailableException e) {
+				log.warn("*** IdempotencyFilter; key {} still in progress *", key);
+				response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+				response.sendError(HttpStatus.CONFLICT.value(),
+						String.format("A request with %s %s is still in progress", IDEMPOTENCY_KEY, idempotencyKey));
+				return;
+			}
+			
+			if (executedHere.get()) {
+				outcome.rethrowFailure();
+				return;
+			}
+			// la primera peticion no guardo nada (5xx o fallo): esta ejecuta la suya
+			stored = outcome.response;
+		}
+		
+		if (stored.getRequestHash() != null && !stored.getRequestHash().equals(requestHash)) {
+			log.warn("*** IdempotencyFilter; key {} reused with a different request *", key);
+			response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+					String.format("%s %s was already used with a different request", IDEMPOTENCY_KEY, idempotencyKey));
+			return;
+		}
+		
+		response.setStatus(stored.getStatusCode());
+		response.setHeader(REPLAYED, "true");
+		if (stored.getContentType() != null)
+			response.setContentType(stored.getContentType());
+		response.setContentLength(stored.getBody().length);
+		response.getOutputStream().write(stored.getBody());
+	}
+	
+	private Outcome execute(final String key, final String requestHash, final HttpServletRequest request,
+			final HttpServletResponse response, final FilterChain filterChain) {
+		final var wrapper = new ContentCachingResponseWrapper(response);
+		try {
+			filterChain.doFilter(request, wrapper);
+		}
+		catch (IOException | ServletException | RuntimeException e) {
+			this.idempotencyStore.release(key);
+			return Outcome.notStored(e);
+		}
+		catch (Error e) {
+			this.idempotencyStore.release(key);
+			throw e;
+		}
+		
+		final var stored = new StoredResponse(requestHash, wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+		final boolean kept = stored.getStatusCode() < 500;
+		if (kept)
+			this.idempotencyStore.complete(key, stored);
+		else
+			this.idempotencyStore.release(key);
+		try {
+			wrapper.copyBodyToResponse();
+		}
+		catch (IOException e) {
+			// la respuesta ya esta guardada (o liberada): solo este cliente la pierde
+			return new Outcome(kept ? stored : null, e);
+		}
+		return kept ? Outcome.stored(stored) : Outcome.notStored(null);
+	}
+	
+	// otro nodo tiene la reserva: se espera a que deje la respuesta en el store compartido
+	private StoredResponse awaitOtherNode(final String key) {
+		final long deadline = System.nanoTime() + this.waitTimeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			final Optional<StoredResponse> stored = this.idempotencyStore.find(key);
+			if (stored.isPresent())
+				return stored.get();
+			try {
+				Thread.sleep(POLL_MILLIS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		throw new ServiceUnavailableException(String.format("Timed out waiting for idempotency key %s", key));
+	}
+	
+	private static String requestHash(final String method, final byte[] body) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(method.getBytes(StandardCharsets.US_ASCII));
+			digest.update((byte) '\n');
+			return String.format("%064x", new BigInteger(1, digest.digest(body)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Result of one run through {@link SingleFlight}: waiters only reuse a
+	 * {@code response} that is in the store, never the leader's 5xx or exception.
+	 */
+	private static final class Outcome {
+		
+		private final StoredResponse response;
+		private final Exception failure;
+		
+		private Outcome(final StoredResponse response, final Exception failure) {
+			this.response = response;
+			this.failure = failure;
+		}
+		
+		static Outcome stored(final StoredResponse response) {
+			return new Outcome(response, null);
+		}
+		
+		static Outcome notStored(final Exception failure) {
+			return new Outcome(null, failure);
+		}
+		
+		void rethrowFailure() throws IOException, ServletException {
+			if (this.failure instanceof IOException)
+				throw (IOException) this.failure;
+			if (this.failure instanceof ServletException)
+				throw (ServletException) this.failure;
+			if (this.failure != null)
+				throw (RuntimeException) this.failure;
+		}
+		
+	}
+	
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+		
+		private final byte[] body;
+		
+		private CachedBodyRequest(final HttpServletRequest request, final byte[] body) {
+			super(request);
+			this.body = body;
+		}
+		
+		@Override
+		public ServletInputStream getInputStream() {
+			final var in = new ByteArrayInputStream(this.body);
+			return new ServletInputStream() {
+				
+				@Override
+				public int read() {
+					return in.read();
+				}
+				
+				@Override
+				public int read(final byte[] buffer, final int offset, final int length) {
+					return in.read(buffer, offset, length);
+				}
+				
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+				
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+				
+				// el cuerpo ya esta en memoria: todo esta disponible desde el principio
+				@Override
+				public void setReadListener(final ReadListener readListener) {
+					try {
+						if (!this.isFinished())
+							readListener.onDataAvailable();
+						if (this.isFinished())
+							readListener.onAllDataRead();
+					}
+					catch (IOException e) {
+						readListener.onError(e);
+					}
+				}
+				
+			};
+		}
+		
+		@Override
+		public BufferedReader getReader() {
+			return new BufferedReader(new InputStreamReader(this.getInputStream(),
+					this.getCharacterEncoding() != null ? Charset.forName(this.getCharacterEncoding()) : StandardCharsets.ISO_8859_1));
+		}
+		
+	}
+	
+	
+	
+}
@@ -0,0 +1,42 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+	
+	public enum Store { MEMORY, JDBC }
+	
+	private boolean enabled = true;
+	
+	/**
+	 * MEMORY only deduplicates retries that land on the same node; JDBC shares
+	 * keys through the idempotency_keys table.
+	 */
+	private Store store = Store.MEMORY;
+	
+	private Duration ttl = Duration.ofHours(24);
+	
+	/**
+	 * How long a JDBC reservation holds its key without a response; after it a
+	 * retry takes the key over. Must exceed the slowest request on these paths.
+	 */
+	private Duration reservationLease = Duration.ofSeconds(30);
+	
+	private int maxEntries = 10000;
+	
+	/**
+	 * How long a retry waits for the first request with its key to finish on another node.
+	 */
+	private Duration waitTimeout = Duration.ofSeconds(5);
+	
+	private Set<String> paths = new LinkedHashSet<>();
+	
+}
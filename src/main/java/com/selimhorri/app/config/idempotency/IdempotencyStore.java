@@ -0,0 +1,29 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Responses already produced for an idempotency key, plus a reservation so
+ * only one request per key executes at a time.
+ */
+public interface IdempotencyStore {
+	
+	/**
+	 * The completed response for {@code key}, if any and not expired.
+	 */
+	Optional<StoredResponse> find(final String key);
+	
+	/**
+	 * Claims {@code key} for execution by the request hashed as {@code requestHash};
+	 * {@code false} if it is already claimed or completed.
+	 */
+	boolean tryReserve(final String key, final String requestHash);
+	
+	void complete(final String key, final StoredResponse response);
+	
+	/**
+	 * Drops the reservation without a response so the next retry executes again.
+	 */
+	void release(final String key);
+	
+}
@@ -0,0 +1,82 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-node store: insertion-ordered and bounded to {@code maxEntries},
+ * every key (reserved or completed) expires {@code ttl} after it was claimed.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+	
+	private final Duration ttl;
+	private final Clock clock;
+	private final Map<String, Entry> entries;
+	
+	public InMemoryIdempotencyStore(final int maxEntries, final Duration ttl, final Clock clock) {
+		this.ttl = ttl;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<>() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+				return this.size() > maxEntries;
+			}
+		};
+	}
+	
+	@Override
+	public synchronized Optional<StoredResponse> find(final String key) {
+		return Optional.ofNullable(this.live(key))
+				.map(entry -> entry.response);
+	}
+	
+	@Override
+	public synchronized boolean tryReserve(final String key, final String requestHash) {
+		if (this.live(key) != null)
+			return false;
+		this.entries.put(key, new Entry(null, this.clock.instant().plus(this.ttl)));
+		return true;
+	}
+	
+	@Override
+	public synchronized void complete(final String key, final StoredResponse response) {
+		this.entries.put(key, new Entry(response, this.clock.instant().plus(this.ttl)));
+	}
+	
+	@Override
+	public synchronized void release(final String key) {
+		this.entries.remove(key);
+	}
+	
+	public synchronized int size() {
+		return this.entries.size();
+	}
+	
+	private Entry live(final String key) {
+		final Entry entry = this.entries.get(key);
+		if (entry != null && entry.expiresAt.isBefore(this.clock.instant())) {
+			this.entries.remove(key);
+			return null;
+		}
+		return entry;
+	}
+	
+	private static final class Entry {
+		
+		// null mientras la peticion original sigue en curso
+		private final StoredResponse response;
+		private final Instant expiresAt;
+		
+		private Entry(final StoredResponse response, final Instant expiresAt) {
+			this.response = response;
+			this.expiresAt = expiresAt;
+		}
+		
+	}
+	
+}
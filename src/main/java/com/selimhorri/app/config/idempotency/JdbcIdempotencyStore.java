@@ -0,0 +1,97 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Store shared by every node through the {@code idempotency_keys} table: the
+ * primary key is the reservation, a NULL {@code status_code} means the first
+ * request is still running. A reservation only holds its key until
+ * {@code reserved_until} ({@code lease} after it was taken), so one left by a
+ * node that died mid-request is taken over by the next retry; completed
+ * responses live for {@code ttl}. Expired rows are purged at most once per minute.
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+	
+	private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final Duration ttl;
+	private final Duration lease;
+	private final Clock clock;
+	private final AtomicReference<Instant> lastPurge = new AtomicReference<>(Instant.EPOCH);
+	
+	public JdbcIdempotencyStore(final JdbcTemplate jdbcTemplate, final Duration ttl, final Duration lease, final Clock clock) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.ttl = ttl;
+		this.lease = lease;
+		this.clock = clock;
+	}
+	
+	@Override
+	public Optional<StoredResponse> find(final String key) {
+		return this.jdbcTemplate.query(
+				"SELECT request_hash, status_code, content_type, body FROM idempotency_keys "
+						+ "WHERE idempotency_key = ? AND status_code IS NOT NULL AND created_at >= ?",
+				(rs, rowNum) -> new StoredResponse(rs.getString("request_hash"), rs.getInt("status_code"),
+						rs.getString("content_type"), rs.getBytes("body")),
+				key, this.oldestLive())
+				.stream()
+				.findFirst();
+	}
+	
+	@Override
+	public boolean tryReserve(final String key, final String requestHash) {
+		this.purgeExpired();
+		final Instant now = this.clock.instant();
+		// una reserva vencida (nodo caido a mitad de peticion, release fallido) no bloquea la clave hasta el ttl
+		this.jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND (created_at < ? "
+				+ "OR status_code IS NULL AND (reserved_until IS NULL OR reserved_until < ?))",
+				key, this.oldestLive(), Timestamp.from(now));
+		try {
+			this.jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at, reserved_until) "
+					+ "VALUES (?, ?, ?, ?)",
+					key, requestHash, Timestamp.from(now), Timestamp.from(now.plus(this.lease)));
+			return true;
+		}
+		catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+	
+	@Override
+	public void complete(final String key, final StoredResponse response) {
+		this.jdbcTemplate.update(
+				"UPDATE idempotency_keys SET status_code = ?, content_type = ?, body = ? WHERE idempotency_key = ?",
+				response.getStatusCode(), response.getContentType(), response.getBody(), key);
+	}
+	
+	@Override
+	public void release(final String key) {
+		this.jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND status_code IS NULL", key);
+	}
+	
+	private void purgeExpired() {
+		final Instant now = this.clock.instant();
+		final Instant last = this.lastPurge.get();
+		if (last.plus(PURGE_INTERVAL).isAfter(now) || !this.lastPurge.compareAndSet(last, now))
+			return;
+		final int purged = this.jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", this.oldestLive());
+		log.debug("*** JdbcIdempotencyStore; purged {} expired keys *", purged);
+	}
+	
+	private Timestamp oldestLive() {
+		return Timestamp.from(this.clock.instant().minus(this.ttl));
+	}
+	
+}
@@ -0,0 +1,17 @@
+package com.selimhorri.app.config.idempotency;
+
+import lombok.Value;
+
+/**
+ * Response kept for an idempotency key, with the hash of the request (method
+ * and body) that produced it; {@code null} for rows stored before the hash existed.
+ */
+@Value
+public class StoredResponse {
+	
+	String requestHash;
+	int statusCode;
+	String contentType;
+	byte[] body;
+	
+}
@@ -0,0 +1,27 @@
+package com.selimhorri.app.config.invalidation;
+
+import java.util.List;
+
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One message of the invalidation bus. {@code sequence} grows by one per batch
+ * sent by {@code origin}; a batch without changes is a heartbeat carrying the
+ * last sequence sent.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationBatch {
+	
+	private String origin;
+	private long sequence;
+	private List<EntityChangedEvent> changes;
+	
+}
@@ -0,0 +1,247 @@
+package com.selimhorri.app.config.invalidation;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends committed {@link EntityChangedEvent}s to the peers. Changes are queued,
+ * coalesced per entity and sent by {@link #flush()} in numbered batches; a peer
+ * that misses one (timeout, restart) sees a gap in the sequence and flushes its
+ * caches instead of serving what the lost batch would have dropped.
+ * <p>
+ * Each peer has its own queue, drained in order on {@code sendExecutor}, so a
+ * slow or dead peer never delays the others. After {@code maxFailures}
+ * consecutive failures a peer is dropped for {@code suspension}: its queue is
+ * discarded and nothing is sent to it until then, and the gap makes it flush
+ * when it comes back.
+ */
+@Slf4j
+public class InvalidationBroadcaster {
+	
+	public static final String PATH = "/internal/invalidations";
+	
+	// lotes en cola por par: si se llena se descarta el mas antiguo y el par vera el hueco
+	private static final int MAX_QUEUED_BATCHES = 64;
+	
+	private final String origin;
+	private final PeerDirectory peerDirectory;
+	private final RestTemplate restTemplate;
+	private final HttpHeaders headers;
+	private final Executor flushExecutor;
+	private final Executor sendExecutor;
+	private final int maxBatchSize;
+	private final long heartbeatNanos;
+	private final int maxFailures;
+	private final long suspensionNanos;
+	
+	private final Map<List<Object>, EntityChangedEvent> pending = new LinkedHashMap<>();
+	private final Map<URI, PeerChannel> channels = new ConcurrentHashMap<>();
+	private long sequence;
+	private long lastSentNanos = System.nanoTime();
+	
+	private final Counter queued;
+	private final Counter coalesced;
+	private final Counter sent;
+	private final Counter failed;
+	private final Counter skipped;
+	private final DistributionSummary batchSizes;
+	
+	public InvalidationBroadcaster(final String origin, final String secret, final PeerDirectory peerDirectory,
+			final RestTemplate restTemplate, final Executor flushExecutor, final Executor sendExecutor, final int maxBatchSize,
+			final Duration heartbeat, final int maxFailures, final Duration suspension, final MeterRegistry meterRegistry) {
+		this.origin = origin;
+		this.peerDirectory = peerDirectory;
+		this.restTemplate = restTemplate;
+		this.headers = new HttpHeaders();
+		if (secret != null && !secret.isBlank())
+			this.headers.set(InvalidationReceiver.SECRET_HEADER, secret);
+		this.flushExecutor = flushExecutor;
+		this.sendExecutor = sendExecutor;
+		this.maxBatchSize = maxBatchSize;
+		this.heartbeatNanos = heartbeat.toNanos();
+		this.maxFailures = maxFailures;
+		this.suspensionNanos = suspension.toNanos();
+		this.queued = Counter.builder("invalidation.changes").tag("result", "queued").register(meterRegistry);
+		this.coalesced = Counter.builder("invalidation.changes").tag("result", "coalesced").register(meterRegistry);
+		this.sent = Counter.builder("invalidation.batches.sent").tag("result", "sent").register(meterRegistry);
+		this.failed = Counter.builder("invalidation.batches.sent").tag("result", "failed").register(meterRegistry);
+		this.skipped = Counter.builder("invalidation.batches.sent").tag("result", "skipped").register(meterRegistry);
+		this.batchSizes = DistributionSummary.builder("invalidation.batch.size").register(meterRegistry);
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		if (event.isRemote())
+			return;
+		
+		final boolean full;
+		synchronized (this.pending) {
+			// entityId puede ser null: Arrays.asList admite nulos, List.of no
+			final EntityChangedEvent merged = this.pending.merge(Arrays.asList(event.getEntityType(), event.getEntityId()), event,
+					InvalidationBroadcaster::coalesce);
+			if (merged != event)
+				this.coalesced.increment();
+			else
+				this.queued.increment();
+			full = this.pending.size() >= this.maxBatchSize;
+		}
+		if (full)
+			this.flushExecutor.execute(this::flush);
+	}
+	
+	/**
+	 * Queues what is pending for every peer, in batches of at most {@code maxBatchSize},
+	 * or a heartbeat when nothing was sent for {@code heartbeat}. Never waits on a peer.
+	 */
+	public synchronized void flush() {
+		final List<EntityChangedEvent> changes;
+		synchronized (this.pending) {
+			changes = new ArrayList<>(this.pending.values());
+			this.pending.clear();
+		}
+		
+		if (changes.isEmpty()) {
+			if (System.nanoTime() - this.lastSentNanos >= this.heartbeatNanos)
+				this.send(new InvalidationBatch(this.origin, this.sequence, List.of()));
+			return;
+		}
+		for (int from = 0; from < changes.size(); from += this.maxBatchSize) {
+			final List<EntityChangedEvent> chunk = changes.subList(from, Math.min(changes.size(), from + this.maxBatchSize));
+			this.batchSizes.record(chunk.size());
+			this.send(new InvalidationBatch(this.origin, ++this.sequence, List.copyOf(chunk)));
+		}
+	}
+	
+	private void send(final InvalidationBatch batch) {
+		this.lastSentNanos = System.nanoTime();
+		final List<URI> peers = this.peerDirectory.peers();
+		// pares que salieron de Eureka: su cola se olvida
+		this.channels.keySet().retainAll(peers);
+		for (final URI peer : peers)
+			this.channels.computeIfAbsent(peer, PeerChannel::new).offer(batch);
+	}
+	
+	/**
+	 * Batches for one peer, sent one at a time and in sequence order.
+	 */
+	private final class PeerChannel {
+		
+		private final URI peer;
+		private final Deque<InvalidationBatch> queue = new ArrayDeque<>();
+		private boolean draining;
+		private int consecutiveFailures;
+		private boolean suspended;
+		private long suspendedUntilNanos;
+		
+		PeerChannel(final URI peer) {
+			this.peer = peer;
+		}
+		
+		void offer(final InvalidationBatch batch) {
+			synchronized (this) {
+				if (this.suspended && System.nanoTime() - this.suspendedUntilNanos < 0) {
+					InvalidationBroadcaster.this.skipped.increment();
+					return;
+				}
+				this.suspended = false;
+				if (this.queue.size() >= MAX_QUEUED_BATCHES) {
+					this.queue.pollFirst();
+					InvalidationBroadcaster.this.skipped.increment();
+				}
+				this.queue.addLast(batch);
+				if (this.draining)
+					return;
+				this.draining = true;
+			}
+			try {
+				InvalidationBroadcaster.this.sendExecutor.execute(this::drain);
+			}
+			catch (RejectedExecutionException e) {
+				synchronized (this) {
+					InvalidationBroadcaster.this.skipped.increment(this.queue.size());
+					this.queue.clear();
+					this.draining = false;
+				}
+			}
+		}
+		
+		private void drain() {
+			while (true) {
+				final InvalidationBatch batch;
+				synchronized (this) {
+					batch = this.queue.pollFirst();
+					if (batch == null) {
+						this.draining = false;
+						return;
+					}
+				}
+				this.post(batch);
+			}
+		}
+		
+		private void post(final InvalidationBatch batch) {
+			try {
+				InvalidationBroadcaster.this.restTemplate.postForEntity(this.peer + PATH,
+						new HttpEntity<>(batch, InvalidationBroadcaster.this.headers), Void.class);
+				InvalidationBroadcaster.this.sent.increment();
+				synchronized (this) {
+					this.consecutiveFailures = 0;
+				}
+			}
+			catch (RestClientException e) {
+				// el par detectara el hueco de secuencia con el siguiente lote o latido
+				InvalidationBroadcaster.this.failed.increment();
+				if (batch.getChanges().isEmpty())
+					log.debug("*** InvalidationBroadcaster; heartbeat to {} failed: {} *", this.peer, e.getMessage());
+				else
+					log.warn("*** InvalidationBroadcaster; batch {} to {} failed: {} *", batch.getSequence(), this.peer, e.getMessage());
+				synchronized (this) {
+					if (++this.consecutiveFailures < InvalidationBroadcaster.this.maxFailures)
+						return;
+					this.consecutiveFailures = 0;
+					this.suspended = true;
+					this.suspendedUntilNanos = System.nanoTime() + InvalidationBroadcaster.this.suspensionNanos;
+					InvalidationBroadcaster.this.skipped.increment(this.queue.size());
+					this.queue.clear();
+				}
+				log.warn("*** InvalidationBroadcaster; {} failed {} times in a row, dropped for {} ms *", this.peer,
+						InvalidationBroadcaster.this.maxFailures, InvalidationBroadcaster.this.suspensionNanos / 1_000_000);
+			}
+		}
+		
+	}
+	
+	private static EntityChangedEvent coalesce(final EntityChangedEvent previous, final EntityChangedEvent next) {
+		return previous.toBuilder()
+				.changeType(next.getChangeType())
+				.userId(next.getUserId() != null ? next.getUserId() : previous.getUserId())
+				.usernames(next.getUsernames())
+				.build();
+	}
+	
+	
+	
+}
@@ -0,0 +1,112 @@
+package com.selimhorri.app.config.invalidation;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "app.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(InvalidationProperties.class)
+@Slf4j
+public class InvalidationConfig {
+	
+	// nuevo en cada arranque: un par reiniciado empieza otra secuencia
+	private final String origin = UUID.randomUUID().toString();
+	
+	@Bean(destroyMethod = "shutdownNow")
+	public ScheduledExecutorService invalidationScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "invalidation-bus");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	// un drenaje por par a la vez: las tareas en cola nunca pasan del numero de pares
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService invalidationSender(final InvalidationProperties invalidationProperties) {
+		final AtomicInteger sequence = new AtomicInteger();
+		return Executors.newFixedThreadPool(invalidationProperties.getSenderThreads(), runnable -> {
+			final Thread thread = new Thread(runnable, "invalidation-send-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Bean
+	public PeerDirectory peerDirectory(final InvalidationProperties invalidationProperties,
+			final ObjectProvider<DiscoveryClient> discoveryClient,
+			final ObjectProvider<Registration> registration,
+			@Value("${spring.application.name}") final String applicationName,
+			@Value("${server.servlet.context-path:}") final String contextPath) {
+		final String serviceId = invalidationProperties.getServiceId() != null ? invalidationProperties.getServiceId() : applicationName;
+		return new PeerDirectory(discoveryClient.getIfAvailable(), serviceId,
+				() -> registration.stream().map(Registration::getInstanceId).findFirst().orElse(null),
+				contextPath, invalidationProperties.getPeers());
+	}
+	
+	@Bean
+	public InvalidationBroadcaster invalidationBroadcaster(final InvalidationProperties invalidationProperties,
+			final PeerDirectory peerDirectory, final RestTemplateBuilder restTemplateBuilder,
+			@Qualifier("invalidationScheduler") final ScheduledExecutorService invalidationScheduler,
+			@Qualifier("invalidationSender") final ExecutorService invalidationSender,
+			@Value("${spring.cloud.discovery.enabled:true}") final boolean discoveryEnabled,
+			@Value("${eureka.client.enabled:true}") final boolean eurekaEnabled,
+			final MeterRegistry meterRegistry) {
+		// sin secreto cada par rechaza los lotes: mejor no arrancar que servir datos obsoletos en silencio
+		final boolean noSecret = invalidationProperties.getSecret() == null || invalidationProperties.getSecret().isBlank();
+		if (noSecret && (discoveryEnabled && eurekaEnabled || !invalidationProperties.getPeers().isEmpty()))
+			throw new IllegalStateException("app.invalidation.secret (INVALIDATION_SECRET) is required when peers can be discovered; "
+					+ "set it on every replica or disable app.invalidation.enabled");
+		// sin @LoadBalanced: cada lote va a una instancia concreta
+		final var restTemplate = restTemplateBuilder
+				.setConnectTimeout(invalidationProperties.getTimeout())
+				.setReadTimeout(invalidationProperties.getTimeout())
+				.build();
+		final var broadcaster = new InvalidationBroadcaster(this.origin, invalidationProperties.getSecret(), peerDirectory,
+				restTemplate, invalidationScheduler, invalidationSender, invalidationProperties.getMaxBatchSize(),
+				invalidationProperties.getHeartbeat(), invalidationProperties.getMaxFailures(),
+				invalidationProperties.getSuspension(), meterRegistry);
+		final long window = invalidationProperties.getWindow().toMillis();
+		invalidationScheduler.scheduleWithFixedDelay(broadcaster::flush, window, window, TimeUnit.MILLISECONDS);
+		log.info("*** InvalidationConfig; origin {}, window {}, static peers {} *", this.origin,
+				invalidationProperties.getWindow(), invalidationProperties.getPeers());
+		if (noSecret)
+			log.info("*** InvalidationConfig; no peers and no app.invalidation.secret: cross-node invalidation is off *");
+		return broadcaster;
+	}
+	
+	@Bean
+	public InvalidationReceiver invalidationReceiver(final InvalidationProperties invalidationProperties,
+			final ApplicationEventPublisher eventPublisher, final MeterRegistry meterRegistry) {
+		return new InvalidationReceiver(this.origin, invalidationProperties.getSecret(), eventPublisher, meterRegistry);
+	}
+	
+	@Bean
+	public SecondLevelCacheInvalidator secondLevelCacheInvalidator(final EntityManagerFactory entityManagerFactory) {
+		return new SecondLevelCacheInvalidator(entityManagerFactory);
+	}
+	
+	
+	
+}
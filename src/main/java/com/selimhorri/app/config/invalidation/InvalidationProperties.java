@@ -0,0 +1,64 @@
+package com.selimhorri.app.config.invalidation;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.invalidation")
+public class InvalidationProperties {
+	
+	private boolean enabled = true;
+	
+	/**
+	 * Changes committed within the window go out together, one entry per entity.
+	 */
+	private Duration window = Duration.ofMillis(50);
+	
+	private int maxBatchSize = 500;
+	
+	/**
+	 * Idle interval after which the last sequence is resent, so a peer that
+	 * missed the final batch before a quiet period notices the gap.
+	 */
+	private Duration heartbeat = Duration.ofSeconds(5);
+	
+	/**
+	 * Connect and read timeout per peer.
+	 */
+	private Duration timeout = Duration.ofSeconds(1);
+	
+	/**
+	 * Consecutive failed sends after which a peer is dropped for {@code suspension}.
+	 */
+	private int maxFailures = 3;
+	
+	private Duration suspension = Duration.ofSeconds(30);
+	
+	/**
+	 * Threads that post to the peers; each peer is drained by one of them at a time.
+	 */
+	private int senderThreads = 4;
+	
+	/**
+	 * Shared by every replica: sent in {@code X-Invalidation-Secret} and required on
+	 * {@code POST /internal/invalidations}. Without it no batch is accepted.
+	 */
+	private String secret;
+	
+	/**
+	 * Eureka service id of the peers; defaults to {@code spring.application.name}.
+	 */
+	private String serviceId;
+	
+	/**
+	 * Base URLs (context path included) of extra peers, for running several instances without Eureka.
+	 */
+	private List<URI> peers = new ArrayList<>();
+	
+}
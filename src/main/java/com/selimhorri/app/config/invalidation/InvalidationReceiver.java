@@ -0,0 +1,119 @@
+package com.selimhorri.app.config.invalidation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.selimhorri.app.event.CacheFlushRequestedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies batches from peers: each change is republished locally as a remote
+ * {@link com.selimhorri.app.event.EntityChangedEvent}, so the same listeners
+ * that handle local writes drop their entries. A gap in a peer's sequence
+ * publishes a {@link CacheFlushRequestedEvent} instead.
+ * <p>
+ * Only batches carrying the shared secret in {@link #SECRET_HEADER} are applied;
+ * without a configured secret every batch is rejected.
+ */
+@Slf4j
+public class InvalidationReceiver {
+	
+	public static final String SECRET_HEADER = "X-Invalidation-Secret";
+	
+	// un origen por arranque de cada par: se olvidan los mas antiguos
+	private static final int MAX_ORIGINS = 256;
+	
+	private final String origin;
+	private final byte[] secret;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Map<String, Long> lastSequences = new LinkedHashMap<>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+			return this.size() > MAX_ORIGINS;
+		}
+		
+	};
+	
+	private final Counter applied;
+	private final Counter heartbeats;
+	private final Counter duplicates;
+	private final Counter gaps;
+	private final Counter rejected;
+	
+	public InvalidationReceiver(final String origin, final String secret, final ApplicationEventPublisher eventPublisher,
+			final MeterRegistry meterRegistry) {
+		this.origin = origin;
+		this.secret = secret == null || secret.isBlank() ? null : secret.getBytes(StandardCharsets.UTF_8);
+		this.eventPublisher = eventPublisher;
+		this.applied = this.counter(meterRegistry, "applied");
+		this.heartbeats = this.counter(meterRegistry, "heartbeat");
+		this.duplicates = this.counter(meterRegistry, "duplicate");
+		this.gaps = this.counter(meterRegistry, "gap");
+		this.rejected = this.counter(meterRegistry, "rejected");
+	}
+	
+	/**
+	 * @return {@code false} when the secret does not match and the batch was not looked at
+	 */
+	public boolean receive(final String secret, final InvalidationBatch batch) {
+		
+		if (!this.authorized(secret)) {
+			this.rejected.increment();
+			return false;
+		}
+		if (this.origin.equals(batch.getOrigin()))
+			return true;
+		
+		final boolean heartbeat = batch.getChanges() == null || batch.getChanges().isEmpty();
+		final boolean gap;
+		synchronized (this.lastSequences) {
+			final Long last = this.lastSequences.get(batch.getOrigin());
+			if (last != null && (batch.getSequence() < last || !heartbeat && batch.getSequence() == last)) {
+				this.duplicates.increment();
+				return true;
+			}
+			// un latido repite el ultimo numero enviado; un lote trae el siguiente
+			final long previous = heartbeat ? batch.getSequence() : batch.getSequence() - 1;
+			gap = last == null ? previous > 0 : previous != last;
+			this.lastSequences.put(batch.getOrigin(), batch.getSequence());
+		}
+		
+		if (gap) {
+			this.gaps.increment();
+			log.info("*** InvalidationReceiver; gap from {} at sequence {}, flushing local caches *", batch.getOrigin(),
+					batch.getSequence());
+			this.eventPublisher.publishEvent(new CacheFlushRequestedEvent("sequence gap from " + batch.getOrigin()));
+			return true;
+		}
+		if (heartbeat) {
+			this.heartbeats.increment();
+			return true;
+		}
+		batch.getChanges().forEach(change -> this.eventPublisher.publishEvent(change.toBuilder().remote(true).build()));
+		this.applied.increment();
+		return true;
+	}
+	
+	// tiempo constante: no revela cuantos bytes del secreto coinciden
+	private boolean authorized(final String secret) {
+		return this.secret != null && secret != null
+				&& MessageDigest.isEqual(this.secret, secret.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private Counter counter(final MeterRegistry meterRegistry, final String result) {
+		return Counter.builder("invalidation.batches.received").tag("result", result).register(meterRegistry);
+	}
+	
+	
+	
+}
@@ -0,0 +1,41 @@
+package com.selimhorri.app.config.invalidation;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Base URLs of the other instances of this service: the ones registered in
+ * Eureka, minus this one, plus any configured statically.
+ */
+@RequiredArgsConstructor
+public class PeerDirectory {
+	
+	private final DiscoveryClient discoveryClient;
+	private final String serviceId;
+	private final Supplier<String> selfInstanceId;
+	private final String contextPath;
+	private final List<URI> staticPeers;
+	
+	public List<URI> peers() {
+		final Set<URI> peers = new LinkedHashSet<>(this.staticPeers);
+		if (this.discoveryClient != null) {
+			final String self = this.selfInstanceId.get();
+			this.discoveryClient.getInstances(this.serviceId).stream()
+					.filter(instance -> !Objects.equals(instance.getInstanceId(), self))
+					.map(instance -> URI.create(instance.getUri() + this.contextPath))
+					.forEach(peers::add);
+		}
+		return List.copyOf(peers);
+	}
+	
+	
+	
+}
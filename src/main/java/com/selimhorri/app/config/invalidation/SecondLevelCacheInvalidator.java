@@ -0,0 +1,61 @@
+package com.selimhorri.app.config.invalidation;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.domain.Address;
+import com.selimhorri.app.domain.Credential;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.domain.VerificationToken;
+import com.selimhorri.app.event.CacheFlushRequestedEvent;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+/**
+ * Evicts what a peer's write left stale in this node's Hibernate second-level
+ * cache: the entity itself and the query results, which Hibernate only
+ * invalidates for writes made through this node.
+ */
+public class SecondLevelCacheInvalidator {
+	
+	private final Cache cache;
+	
+	public SecondLevelCacheInvalidator(final EntityManagerFactory entityManagerFactory) {
+		this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		if (!event.isRemote())
+			return;
+		if (event.getEntityId() != null)
+			this.cache.evictEntityData(entityClass(event.getEntityType()), event.getEntityId());
+		if (event.getUserId() != null)
+			this.cache.evictEntityData(User.class, event.getUserId());
+		this.cache.evictQueryRegions();
+	}
+	
+	@EventListener
+	public void onFlushRequested(final CacheFlushRequestedEvent event) {
+		this.cache.evictAllRegions();
+	}
+	
+	private static Class<?> entityClass(final EntityChangedEvent.EntityType entityType) {
+		switch (entityType) {
+			case USER:
+				return User.class;
+			case CREDENTIAL:
+				return Credential.class;
+			case ADDRESS:
+				return Address.class;
+			default:
+				return VerificationToken.class;
+		}
+	}
+	
+	
+	
+}
@@ -0,0 +1,55 @@
+package com.selimhorri.app.config.limit;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.selimhorri.app.concurrent.AdaptiveLimiter;
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+	
+	@Bean
+	public Map<EndpointClass, AdaptiveLimiter> endpointLimiters(final ConcurrencyLimitProperties concurrencyLimitProperties,
+			final MeterRegistry meterRegistry) {
+		final Map<EndpointClass, AdaptiveLimiter> limiters = new EnumMap<>(EndpointClass.class);
+		concurrencyLimitProperties.getClasses().forEach((endpointClass, limits) -> limiters.put(endpointClass,
+				AdaptiveLimiter.builder()
+						.name(endpointClass.name())
+						.algorithm(concurrencyLimitProperties.getAlgorithm())
+						.initialLimit(limits.getInitialLimit())
+						.minLimit(limits.getMinLimit())
+						.maxLimit(limits.getMaxLimit())
+						.maxLatency(limits.getMaxLatency())
+						.tolerance(concurrencyLimitProperties.getTolerance())
+						.smoothing(concurrencyLimitProperties.getSmoothing())
+						.backoffRatio(concurrencyLimitProperties.getBackoffRatio())
+						.meterRegistry(meterRegistry)
+						.build()));
+		return limiters;
+	}
+	
+	@Bean
+	public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+			final Map<EndpointClass, AdaptiveLimiter> endpointLimiters) {
+		final var registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(endpointLimiters));
+		registration.addUrlPatterns("/api/*");
+		// por fuera del bulkhead: lo que sobra se descarta antes de ocupar su cola
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 90);
+		return registration;
+	}
+	
+	
+	
+}
@@ -0,0 +1,72 @@
+package com.selimhorri.app.config.limit;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.selimhorri.app.concurrent.AdaptiveLimiter;
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sheds {@code /api} requests above the adaptive limit of their
+ * {@link EndpointClass} with 503 + {@code Retry-After}, and feeds each
+ * admitted request's latency back into the limit. A 503 from further down
+ * (bulkhead, circuit breaker) counts as a drop and shrinks the limit.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+	
+	private final Map<EndpointClass, AdaptiveLimiter> limiters;
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final Optional<EndpointClass> endpointClass = EndpointClass
+				.classify(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+		
+		if (endpointClass.isEmpty() || !this.limiters.containsKey(endpointClass.get())) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		final AdaptiveLimiter limiter = this.limiters.get(endpointClass.get());
+		final Optional<AdaptiveLimiter.Permit> permit = limiter.tryAcquire();
+		if (permit.isEmpty()) {
+			log.warn("*** ConcurrencyLimitFilter; {} over limit {}, shedding {} {} *",
+					limiter.getName(), limiter.getLimit(), request.getMethod(), request.getRequestURI());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+					String.format("Too many concurrent %s requests", limiter.getName()));
+			return;
+		}
+		
+		try {
+			filterChain.doFilter(request, response);
+		}
+		catch (IOException | ServletException | RuntimeException e) {
+			permit.get().onIgnore();
+			throw e;
+		}
+		if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value())
+			permit.get().onDropped();
+		else
+			permit.get().onSuccess();
+	}
+	
+	
+	
+}
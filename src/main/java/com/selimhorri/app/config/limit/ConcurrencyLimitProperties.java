@@ -0,0 +1,47 @@
+package com.selimhorri.app.config.limit;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.selimhorri.app.concurrent.AdaptiveLimiter.Algorithm;
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+	
+	private boolean enabled = true;
+	
+	private Algorithm algorithm = Algorithm.GRADIENT;
+	
+	/**
+	 * GRADIENT: how much slower than the long-term average a call may be
+	 * before the limit starts shrinking.
+	 */
+	private double tolerance = 1.5;
+	
+	private double smoothing = 0.2;
+	
+	/**
+	 * Multiplier applied to the limit on a dropped call (and, with AIMD, on a call slower than {@code maxLatency}).
+	 */
+	private double backoffRatio = 0.9;
+	
+	private Map<EndpointClass, Limits> classes = new EnumMap<>(EndpointClass.class);
+	
+	@Data
+	public static class Limits {
+		
+		private int initialLimit = 20;
+		private int minLimit = 2;
+		private int maxLimit = 100;
+		private Duration maxLatency = Duration.ofSeconds(1);
+		
+	}
+	
+}
@@ -0,0 +1,59 @@
+package com.selimhorri.app.config.mapper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.VerificationTokenDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ObjectWriter}/{@link ObjectReader} built once per DTO type (and per
+ * {@link DtoCollectionResponse} of each), with their root serializers already
+ * resolved, so a response does not look them up again.
+ */
+@Slf4j
+public class DtoJsonCodecs {
+	
+	private static final List<Class<?>> DTO_TYPES = List.of(
+			UserDto.class, CredentialDto.class, AddressDto.class, VerificationTokenDto.class);
+	
+	private final Map<JavaType, ObjectWriter> writers = new HashMap<>();
+	private final Map<JavaType, ObjectReader> readers = new HashMap<>();
+	
+	public DtoJsonCodecs(final ObjectMapper objectMapper) {
+		for (final Class<?> dtoType : DTO_TYPES) {
+			final JavaType single = objectMapper.constructType(dtoType);
+			final JavaType collection = objectMapper.getTypeFactory()
+					.constructParametricType(DtoCollectionResponse.class, dtoType);
+			for (final JavaType javaType : List.of(single, collection)) {
+				// el flush lo decide el converter, no cada writeValue (filas de una respuesta en streaming)
+				this.writers.put(javaType, objectMapper.writerFor(javaType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+				this.readers.put(javaType, objectMapper.readerFor(javaType));
+			}
+		}
+		log.info("*** DtoJsonCodecs; precompiled writers and readers for {} types *", this.writers.size());
+	}
+	
+	public Optional<ObjectWriter> writerFor(final JavaType javaType) {
+		return Optional.ofNullable(this.writers.get(javaType));
+	}
+	
+	public Optional<ObjectReader> readerFor(final JavaType javaType) {
+		return Optional.ofNullable(this.readers.get(javaType));
+	}
+	
+	
+	
+}
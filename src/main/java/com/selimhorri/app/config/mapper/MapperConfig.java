@@ -1,31 +1,91 @@
 package com.selimhorri.app.config.mapper;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 
 @Configuration
 public class MapperConfig {
 	
+	// salida compacta salvo app.json.indent-output=true (perfil dev); Blackbird genera los accessors
+	@Bean
+	public ObjectMapper objectMapperBean(@Value("${app.json.indent-output:false}") final boolean indentOutput) {
+		return JsonMapper.builder()
+				.addModule(new JavaTimeModule())
+				.addModule(new BlackbirdModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.configure(SerializationFeature.INDENT_OUTPUT, indentOutput)
+				.build();
+	}
+	
+	@Bean
+	public DtoJsonCodecs dtoJsonCodecs(final ObjectMapper objectMapper) {
+		return new DtoJsonCodecs(objectMapper);
+	}
+	
+	/**
+	 * Replaces Boot's default Jackson converter.
+	 */
+	@Bean
+	public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(final ObjectMapper objectMapper,
+			final DtoJsonCodecs dtoJsonCodecs) {
+		return new PrecompiledJsonHttpMessageConverter(objectMapper, dtoJsonCodecs);
+	}
+	
+	/**
+	 * Replaces Boot's default CBOR converter, keeping its place after JSON.
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter() {
+		return new MappingJackson2CborHttpMessageConverter(binaryMapper(CBORMapper.builder()));
+	}
+	
+	/**
+	 * Replaces Boot's default Smile converter, keeping its place after JSON.
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter() {
+		return new MappingJackson2SmileHttpMessageConverter(binaryMapper(SmileMapper.builder()));
+	}
+	
+	// no se registra como bean HttpMessageConverter: Boot lo pondria delante de JSON
 	@Bean
-	public ObjectMapper objectMapperBean() {
-		return new JsonMapper()
-				.enable(SerializationFeature.INDENT_OUTPUT);
+	public WebMvcConfigurer protobufMessageConverterConfigurer() {
+		final ProtobufDtoHttpMessageConverter protobufConverter =
+				new ProtobufDtoHttpMessageConverter(binaryMapper(ProtobufMapper.builder()));
+		return new WebMvcConfigurer() {
+			@Override
+			public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+				converters.add(protobufConverter);
+			}
+		};
+	}
+	
+	public static <M extends ObjectMapper> M binaryMapper(final MapperBuilder<M, ?> builder) {
+		return builder
+				.addModule(new JavaTimeModule())
+				.addModule(new BlackbirdModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
 	}
 	
 	
 	
 }
-
-
-
-
-
-
-
-
-
-
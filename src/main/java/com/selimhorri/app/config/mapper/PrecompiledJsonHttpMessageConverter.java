@@ -0,0 +1,182 @@
+package com.selimhorri.app.config.mapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.selimhorri.app.dto.response.collection.StreamingDtoCollectionResponse;
+
+/**
+ * Jackson converter that writes and reads the service DTOs through the
+ * precompiled {@link DtoJsonCodecs}; anything else, or a non UTF-8 charset,
+ * goes through the regular {@link MappingJackson2HttpMessageConverter} path.
+ * A {@link StreamingDtoCollectionResponse} is written row by row as its
+ * producer pushes them, with the same {@code {"collection":[...]}} shape.
+ */
+public class PrecompiledJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+	
+	private final DtoJsonCodecs dtoJsonCodecs;
+	
+	public PrecompiledJsonHttpMessageConverter(final ObjectMapper objectMapper,
+			final DtoJsonCodecs dtoJsonCodecs) {
+		super(objectMapper);
+		this.dtoJsonCodecs = dtoJsonCodecs;
+	}
+	
+	@Override
+	protected void writeInternal(final Object object, @Nullable final Type type, final HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		
+		final boolean utf8 = this.isUtf8(outputMessage.getHeaders().getContentType());
+		if (utf8 && object instanceof StreamingDtoCollectionResponse) {
+			final Optional<ObjectWriter> rowWriter = this.dtoJsonCodecs.writerFor(this.javaTypeOf(object, type).containedType(0));
+			if (rowWriter.isPresent()) {
+				this.writeStreaming((StreamingDtoCollectionResponse<?>) object, rowWriter.get(), outputMessage);
+				return;
+			}
+		}
+		
+		final Optional<ObjectWriter> writer = utf8
+				? this.dtoJsonCodecs.writerFor(this.javaTypeOf(object, type))
+				: Optional.empty();
+		if (writer.isEmpty()) {
+			super.writeInternal(object, type, outputMessage);
+			return;
+		}
+		
+		final OutputStream outputStream = StreamUtils.nonClosing(outputMessage.getBody());
+		try (JsonGenerator generator = this.getObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			writer.get().writeValue(generator, object);
+			generator.flush();
+		}
+		catch (InvalidDefinitionException e) {
+			throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+		}
+	}
+	
+	private void writeStreaming(final StreamingDtoCollectionResponse<?> response, final ObjectWriter rowWriter,
+			final HttpOutputMessage outputMessage) throws IOException {
+		
+		final RowSink sink = new RowSink(rowWriter, outputMessage);
+		try {
+			response.forEachRow(sink);
+			sink.finish();
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	@Override
+	public Object read(final Type type, @Nullable final Class<?> contextClass, final HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		
+		final JavaType javaType = this.getJavaType(type, contextClass);
+		final Optional<ObjectReader> reader = this.isUtf8(inputMessage.getHeaders().getContentType())
+				? this.dtoJsonCodecs.readerFor(javaType)
+				: Optional.empty();
+		if (reader.isEmpty())
+			return super.read(type, contextClass, inputMessage);
+		
+		try {
+			return reader.get().readValue(inputMessage.getBody());
+		}
+		catch (InvalidDefinitionException e) {
+			throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+		}
+	}
+	
+	private JavaType javaTypeOf(final Object object, @Nullable final Type type) {
+		return type != null && TypeUtils.isAssignable(type, object.getClass())
+				? this.getJavaType(type, null)
+				: this.getObjectMapper().constructType(object.getClass());
+	}
+	
+	/**
+	 * Opens the response only when the first row (or the end) arrives, so a
+	 * failure before any row still reaches the exception handler; flushes right
+	 * after the first row and then lets the buffers spill in chunks.
+	 */
+	private final class RowSink implements Consumer<Object> {
+		
+		private final ObjectWriter rowWriter;
+		private final HttpOutputMessage outputMessage;
+		private JsonGenerator generator;
+		
+		private RowSink(final ObjectWriter rowWriter, final HttpOutputMessage outputMessage) {
+			this.rowWriter = rowWriter;
+			this.outputMessage = outputMessage;
+		}
+		
+		@Override
+		public void accept(final Object row) {
+			try {
+				final boolean first = this.generator == null;
+				this.start();
+				this.rowWriter.writeValue(this.generator, row);
+				if (first)
+					this.generator.flush();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		private void finish() throws IOException {
+			this.start();
+			this.generator.writeEndArray();
+			this.generator.writeEndObject();
+			this.generator.close();
+		}
+		
+		// sin AUTO_CLOSE_JSON_CONTENT: si algo falla a mitad, el cliente ve un cuerpo truncado, no un JSON que parece completo
+		private void start() throws IOException {
+			if (this.generator != null)
+				return;
+			this.generator = this.rowWriter
+					.createGenerator(StreamUtils.nonClosing(this.outputMessage.getBody()), JsonEncoding.UTF8)
+					.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+			this.generator.writeStartObject();
+			this.generator.writeFieldName("collection");
+			this.generator.writeStartArray();
+		}
+		
+	}
+	
+	private boolean isUtf8(@Nullable final MediaType contentType) {
+		return contentType == null || contentType.getCharset() == null
+				|| StandardCharsets.UTF_8.equals(contentType.getCharset());
+	}
+	
+	
+	
+}
@@ -0,0 +1,184 @@
+package com.selimhorri.app.config.mapper;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufField;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufMessage;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.VerificationTokenDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Protobuf converter for the service DTOs (and {@link DtoCollectionResponse} of
+ * each). Messages and their field numbers come from the checked-in
+ * {@value #SCHEMA_LOCATION}, the file callers compile against, so reordering a
+ * DTO never renumbers the wire format. At startup every DTO property must have
+ * a field there; {@link #schemaFor(JavaType)} exposes the schema per type.
+ * Other types are not handled.
+ */
+@Slf4j
+public class ProtobufDtoHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+	
+	public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+	
+	public static final String SCHEMA_LOCATION = "proto/user_service.proto";
+	
+	private static final List<Class<?>> DTO_TYPES = List.of(
+			UserDto.class, CredentialDto.class, AddressDto.class, VerificationTokenDto.class);
+	
+	private final ProtobufMapper protobufMapper;
+	private final Map<JavaType, ProtobufSchema> schemas = new HashMap<>();
+	private final Map<JavaType, ObjectWriter> writers = new HashMap<>();
+	private final Map<JavaType, ObjectReader> readers = new HashMap<>();
+	
+	public ProtobufDtoHttpMessageConverter(final ProtobufMapper protobufMapper) {
+		super(APPLICATION_PROTOBUF, new MediaType("application", "protobuf"));
+		this.protobufMapper = protobufMapper;
+		final NativeProtobufSchema pinned = loadSchema();
+		for (final Class<?> dtoType : DTO_TYPES) {
+			final JavaType single = protobufMapper.constructType(dtoType);
+			final JavaType collection = protobufMapper.getTypeFactory()
+					.constructParametricType(DtoCollectionResponse.class, dtoType);
+			this.register(single, pinned.forType(dtoType.getSimpleName()));
+			this.register(collection, pinned.forType(dtoType.getSimpleName() + "Collection"));
+		}
+		log.info("*** ProtobufDtoHttpMessageConverter; loaded schemas for {} types from {} *", this.schemas.size(), SCHEMA_LOCATION);
+	}
+	
+	public Optional<ProtobufSchema> schemaFor(final JavaType javaType) {
+		return Optional.ofNullable(this.schemas.get(javaType));
+	}
+	
+	// solo por clase cruda (lo usa getSupportedMediaTypes); el tipo generico lo validan canRead/canWrite
+	@Override
+	protected boolean supports(final Class<?> clazz) {
+		return DTO_TYPES.contains(clazz) || DtoCollectionResponse.class.isAssignableFrom(clazz);
+	}
+	
+	@Override
+	public boolean canRead(final Type type, @Nullable final Class<?> contextClass, @Nullable final MediaType mediaType) {
+		return this.readers.containsKey(this.protobufMapper.constructType(type)) && this.canRead(mediaType);
+	}
+	
+	@Override
+	public boolean canWrite(@Nullable final Type type, final Class<?> clazz, @Nullable final MediaType mediaType) {
+		final JavaType javaType = type != null && TypeUtils.isAssignable(type, clazz)
+				? this.protobufMapper.constructType(type)
+				: this.protobufMapper.constructType(clazz);
+		return this.writers.containsKey(javaType) && this.canWrite(mediaType);
+	}
+	
+	@Override
+	protected void writeInternal(final Object object, @Nullable final Type type, final HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		
+		final JavaType javaType = type != null && TypeUtils.isAssignable(type, object.getClass())
+				? this.protobufMapper.constructType(type)
+				: this.protobufMapper.constructType(object.getClass());
+		final ObjectWriter writer = this.writers.get(javaType);
+		if (writer == null)
+			throw new HttpMessageNotWritableException("No protobuf schema for type: " + javaType);
+		
+		try {
+			writer.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), object);
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotWritableException("Could not write protobuf: " + e.getOriginalMessage(), e);
+		}
+	}
+	
+	@Override
+	public Object read(final Type type, @Nullable final Class<?> contextClass, final HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		
+		final JavaType javaType = this.protobufMapper.constructType(type);
+		final ObjectReader reader = this.readers.get(javaType);
+		if (reader == null)
+			throw new HttpMessageNotReadableException("No protobuf schema for type: " + javaType, inputMessage);
+		
+		try {
+			return reader.readValue(inputMessage.getBody());
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotReadableException("Protobuf parse error: " + e.getOriginalMessage(), e, inputMessage);
+		}
+	}
+	
+	@Override
+	protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		return this.read(clazz, null, inputMessage);
+	}
+	
+	private void register(final JavaType javaType, final ProtobufSchema schema) {
+		checkCovers(schema.getRootType(), this.generateSchema(javaType).getRootType(), new HashSet<>());
+		this.schemas.put(javaType, schema);
+		this.writers.put(javaType, this.protobufMapper.writerFor(javaType).with(schema));
+		this.readers.put(javaType, this.protobufMapper.readerFor(javaType).with(schema));
+	}
+	
+	// el esquema generado solo sirve para comprobar que ninguna propiedad del DTO se queda sin numero
+	private ProtobufSchema generateSchema(final JavaType javaType) {
+		try {
+			return this.protobufMapper.generateSchemaFor(javaType);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not generate protobuf schema for " + javaType, e);
+		}
+	}
+	
+	private static void checkCovers(final ProtobufMessage pinned, final ProtobufMessage generated, final Set<String> checked) {
+		if (!checked.add(pinned.getName()))
+			return;
+		for (final ProtobufField field : generated.fields()) {
+			final ProtobufField pinnedField = pinned.field(field.name);
+			if (pinnedField == null || pinnedField.repeated != field.repeated || pinnedField.type != field.type)
+				throw new IllegalStateException(String.format("%s.%s (%s%s) has no matching field in %s",
+						pinned.getName(), field.name, field.repeated ? "repeated " : "", field.type, SCHEMA_LOCATION));
+			if (field.getMessageType() != null)
+				checkCovers(pinnedField.getMessageType(), field.getMessageType(), checked);
+		}
+	}
+	
+	private static NativeProtobufSchema loadSchema() {
+		try {
+			return ProtobufSchemaLoader.std.loadNative(new ClassPathResource(SCHEMA_LOCATION).getURL());
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not load " + SCHEMA_LOCATION, e);
+		}
+	}
+	
+	
+	
+}
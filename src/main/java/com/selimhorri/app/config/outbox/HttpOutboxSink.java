@@ -0,0 +1,26 @@
+package com.selimhorri.app.config.outbox;
+
+import java.net.URI;
+import java.util.List;
+
+import org.springframework.web.client.RestTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * POSTs each batch as a JSON array; any non-2xx answer or I/O error fails the batch.
+ */
+@RequiredArgsConstructor
+public class HttpOutboxSink implements OutboxSink {
+	
+	private final RestTemplate restTemplate;
+	private final URI url;
+	
+	@Override
+	public void publish(final List<OutboxMessage> messages) {
+		this.restTemplate.postForEntity(this.url, messages, Void.class);
+	}
+	
+	
+	
+}
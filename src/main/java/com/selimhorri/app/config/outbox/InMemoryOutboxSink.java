@@ -0,0 +1,40 @@
+package com.selimhorri.app.config.outbox;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the last {@code capacity} messages in memory, for tests and local runs.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+	
+	private final int capacity;
+	private final Deque<OutboxMessage> recent = new ArrayDeque<>();
+	private long published;
+	
+	public InMemoryOutboxSink(final int capacity) {
+		this.capacity = capacity;
+	}
+	
+	@Override
+	public synchronized void publish(final List<OutboxMessage> messages) {
+		for (final OutboxMessage message : messages) {
+			if (this.recent.size() == this.capacity)
+				this.recent.removeFirst();
+			this.recent.addLast(message);
+		}
+		this.published += messages.size();
+	}
+	
+	public synchronized List<OutboxMessage> recent() {
+		return List.copyOf(this.recent);
+	}
+	
+	public synchronized long published() {
+		return this.published;
+	}
+	
+	
+	
+}
@@ -0,0 +1,87 @@
+package com.selimhorri.app.config.outbox;
+
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true")
+@EnableConfigurationProperties(OutboxProperties.class)
+@Slf4j
+public class OutboxConfig {
+	
+	@Bean
+	public OutboxWriter outboxWriter(final JdbcTemplate jdbcTemplate, final ObjectMapper objectMapper, final MeterRegistry meterRegistry) {
+		return new OutboxWriter(jdbcTemplate, objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT),
+				Clock.systemUTC(), meterRegistry);
+	}
+	
+	@Bean
+	public OutboxSink outboxSink(final OutboxProperties outboxProperties, final RestTemplateBuilder restTemplateBuilder) {
+		log.info("*** OutboxConfig; {} sink *", outboxProperties.getSink());
+		if (outboxProperties.getSink() == OutboxProperties.Sink.HTTP) {
+			final var http = outboxProperties.getHttp();
+			if (http.getUrl() == null)
+				throw new IllegalStateException("app.outbox.http.url is required with the HTTP outbox sink");
+			return new HttpOutboxSink(restTemplateBuilder
+					.setConnectTimeout(http.getTimeout())
+					.setReadTimeout(http.getTimeout())
+					.build(), http.getUrl());
+		}
+		return new InMemoryOutboxSink(outboxProperties.getMemoryCapacity());
+	}
+	
+	@Bean(destroyMethod = "shutdownNow")
+	@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+	public ScheduledExecutorService outboxRelayScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "outbox-relay");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Bean
+	@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+	public OutboxRelay outboxRelay(final OutboxProperties outboxProperties, final JdbcTemplate jdbcTemplate,
+			final DataSourceProperties dataSourceProperties, final PlatformTransactionManager transactionManager,
+			final OutboxSink outboxSink, final MeterRegistry meterRegistry) {
+		final var relay = outboxProperties.getRelay();
+		// MySQL/MariaDB: SELECT ... FOR UPDATE SKIP LOCKED; H2 no lo admite y se queda con el UPDATE ... LIMIT
+		final DatabaseDriver database = DatabaseDriver.fromJdbcUrl(dataSourceProperties.determineUrl());
+		final boolean skipLocked = database == DatabaseDriver.MYSQL || database == DatabaseDriver.MARIADB;
+		log.info("*** OutboxConfig; relay batches of {} every {}, claimed with {} *", relay.getBatchSize(), relay.getPollInterval(),
+				skipLocked ? "SKIP LOCKED" : "UPDATE ... LIMIT");
+		return new OutboxRelay(jdbcTemplate, new TransactionTemplate(transactionManager), skipLocked, outboxSink,
+				relay.getBatchSize(), relay.getLease(), Clock.systemUTC(), meterRegistry);
+	}
+	
+	@Bean
+	@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+	public OutboxRelayLifecycle outboxRelayLifecycle(final OutboxRelay outboxRelay,
+			@Qualifier("outboxRelayScheduler") final ScheduledExecutorService outboxRelayScheduler,
+			final OutboxProperties outboxProperties) {
+		return new OutboxRelayLifecycle(outboxRelay, outboxRelayScheduler, outboxProperties.getRelay().getPollInterval());
+	}
+	
+	
+	
+}
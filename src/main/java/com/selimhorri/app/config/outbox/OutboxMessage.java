@@ -0,0 +1,24 @@
+package com.selimhorri.app.config.outbox;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.Value;
+
+/**
+ * One row of the {@code outbox} table as handed to an {@link OutboxSink};
+ * {@code outboxId} is increasing and lets consumers drop redeliveries.
+ */
+@Value
+public class OutboxMessage {
+	
+	long outboxId;
+	String aggregateType;
+	Integer aggregateId;
+	String eventType;
+	@JsonRawValue
+	String payload;
+	Instant createdAt;
+	
+}
@@ -0,0 +1,62 @@
+package com.selimhorri.app.config.outbox;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+	
+	public enum Sink { MEMORY, HTTP }
+	
+	/**
+	 * Write an outbox row with every change; the relay settings below only apply when true.
+	 * Off by default: the MEMORY sink drops what nobody reads, so turn it on with an HTTP
+	 * sink (or in development).
+	 */
+	private boolean enabled = false;
+	
+	private Relay relay = new Relay();
+	
+	private Sink sink = Sink.MEMORY;
+	
+	/**
+	 * Messages kept by the MEMORY sink.
+	 */
+	private int memoryCapacity = 10000;
+	
+	private Http http = new Http();
+	
+	@Data
+	public static class Relay {
+		
+		/**
+		 * Turn off on nodes that should only write rows.
+		 */
+		private boolean enabled = true;
+		
+		private int batchSize = 500;
+		
+		private Duration pollInterval = Duration.ofMillis(100);
+		
+		/**
+		 * How long a claimed batch stays reserved before another relay may take it over.
+		 */
+		private Duration lease = Duration.ofSeconds(30);
+		
+	}
+	
+	@Data
+	public static class Http {
+		
+		private URI url;
+		
+		private Duration timeout = Duration.ofSeconds(2);
+		
+	}
+	
+}
@@ -0,0 +1,149 @@
+package com.selimhorri.app.config.outbox;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the {@code outbox} table into an {@link OutboxSink} in batches.
+ * A batch is claimed by stamping a fresh token and a lease on it: relays on
+ * other nodes skip claimed rows instead of waiting on them, and rows of a
+ * relay that died are claimable again once the lease is over. With
+ * {@code skipLocked} (MySQL, MariaDB) the batch is picked with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, so two relays never lock the same
+ * rows; otherwise (H2) with a single {@code UPDATE ... ORDER BY outbox_id LIMIT}.
+ * Both walk {@code idx_outbox_claimed_until}.
+ */
+@Slf4j
+public class OutboxRelay {
+	
+	private static final String CLAIM = "UPDATE outbox SET claimed_by = ?, claimed_until = ? "
+			+ "WHERE claimed_until IS NULL OR claimed_until < ? ORDER BY outbox_id LIMIT ?";
+	private static final String SELECT_CLAIMABLE = "SELECT outbox_id FROM outbox "
+			+ "WHERE claimed_until IS NULL OR claimed_until < ? ORDER BY outbox_id LIMIT ? FOR UPDATE SKIP LOCKED";
+	private static final String CLAIM_IDS = "UPDATE outbox SET claimed_by = ?, claimed_until = ? WHERE outbox_id IN (%s)";
+	private static final String SELECT_CLAIMED = "SELECT outbox_id, aggregate_type, aggregate_id, event_type, payload, created_at "
+			+ "FROM outbox WHERE claimed_by = ? ORDER BY outbox_id";
+	private static final String DELETE_CLAIMED = "DELETE FROM outbox WHERE claimed_by = ?";
+	private static final String RELEASE_CLAIMED = "UPDATE outbox SET claimed_by = NULL, claimed_until = NULL WHERE claimed_by = ?";
+	
+	private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+			rs.getLong("outbox_id"),
+			rs.getString("aggregate_type"),
+			(Integer) rs.getObject("aggregate_id"),
+			rs.getString("event_type"),
+			rs.getString("payload"),
+			rs.getTimestamp("created_at").toInstant());
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionOperations transaction;
+	private final boolean skipLocked;
+	private final OutboxSink sink;
+	private final int batchSize;
+	private final Duration lease;
+	private final Clock clock;
+	
+	private final Counter relayed;
+	private final Counter failures;
+	private final DistributionSummary batchSizes;
+	private final Timer lag;
+	
+	public OutboxRelay(final JdbcTemplate jdbcTemplate, final TransactionOperations transaction, final boolean skipLocked,
+			final OutboxSink sink, final int batchSize, final Duration lease, final Clock clock, final MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transaction = transaction;
+		this.skipLocked = skipLocked;
+		this.sink = sink;
+		this.batchSize = batchSize;
+		this.lease = lease;
+		this.clock = clock;
+		this.relayed = Counter.builder("outbox.relayed").register(meterRegistry);
+		this.failures = Counter.builder("outbox.failures").register(meterRegistry);
+		this.batchSizes = DistributionSummary.builder("outbox.batch.size").register(meterRegistry);
+		this.lag = Timer.builder("outbox.lag")
+				.description("Time from the write to the oldest message of a relayed batch")
+				.register(meterRegistry);
+	}
+	
+	/**
+	 * Relays batches until one comes back short; polled by {@link OutboxRelayLifecycle}.
+	 */
+	public void drain() {
+		try {
+			while (this.relayOnce() == this.batchSize) {
+				// lote lleno: probablemente queda mas, se sigue sin esperar al siguiente sondeo
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn("*** OutboxRelay; batch failed, retrying on next poll: {} *", e.toString());
+		}
+	}
+	
+	/**
+	 * @return number of messages published, 0 when nothing was claimable
+	 */
+	public int relayOnce() {
+		final String token = UUID.randomUUID().toString();
+		final int claimed = this.skipLocked ? this.claimSkippingLocked(token) : this.claim(token);
+		if (claimed == 0)
+			return 0;
+		
+		final List<OutboxMessage> messages = this.jdbcTemplate.query(SELECT_CLAIMED, ROW_MAPPER, token);
+		try {
+			this.sink.publish(messages);
+		}
+		catch (RuntimeException e) {
+			this.failures.increment();
+			this.jdbcTemplate.update(RELEASE_CLAIMED, token);
+			throw e;
+		}
+		// si el lease vencio y otro relay reclamo las filas, no se borra nada: las volvera a publicar (al menos una vez)
+		this.jdbcTemplate.update(DELETE_CLAIMED, token);
+		
+		this.relayed.increment(messages.size());
+		this.batchSizes.record(messages.size());
+		if (!messages.isEmpty())
+			this.lag.record(Duration.between(messages.get(0).getCreatedAt(), this.clock.instant()));
+		return messages.size();
+	}
+	
+	private int claim(final String token) {
+		final Instant now = this.clock.instant();
+		return this.jdbcTemplate.update(CLAIM, token, Timestamp.from(now.plus(this.lease)), Timestamp.from(now), this.batchSize);
+	}
+	
+	// los bloqueos solo duran la reclamacion: la publicacion va fuera de la transaccion, protegida por el lease
+	private int claimSkippingLocked(final String token) {
+		final Integer claimed = this.transaction.execute(status -> {
+			final Instant now = this.clock.instant();
+			final List<Long> ids = this.jdbcTemplate.queryForList(SELECT_CLAIMABLE, Long.class, Timestamp.from(now), this.batchSize);
+			if (ids.isEmpty())
+				return 0;
+			final List<Object> args = new ArrayList<>(ids.size() + 2);
+			args.add(token);
+			args.add(Timestamp.from(now.plus(this.lease)));
+			args.addAll(ids);
+			return this.jdbcTemplate.update(String.format(CLAIM_IDS, String.join(", ", Collections.nCopies(ids.size(), "?"))),
+					args.toArray());
+		});
+		return claimed == null ? 0 : claimed;
+	}
+	
+	
+	
+}
@@ -0,0 +1,50 @@
+package com.selimhorri.app.config.outbox;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls the {@link OutboxRelay} once the whole context is up (last phase), so
+ * the first drain never races the datasource, Flyway or the sink being built,
+ * and stops polling first on shutdown, before the datasource closes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxRelayLifecycle implements SmartLifecycle {
+	
+	private final OutboxRelay outboxRelay;
+	private final ScheduledExecutorService scheduler;
+	private final Duration pollInterval;
+	private volatile ScheduledFuture<?> polling;
+	
+	@Override
+	public void start() {
+		final long poll = this.pollInterval.toMillis();
+		this.polling = this.scheduler.scheduleWithFixedDelay(this.outboxRelay::drain, poll, poll, TimeUnit.MILLISECONDS);
+		log.info("*** OutboxRelayLifecycle; relaying every {} *", this.pollInterval);
+	}
+	
+	@Override
+	public void stop() {
+		final ScheduledFuture<?> current = this.polling;
+		this.polling = null;
+		// un lote en curso termina: sus filas se borran o se liberan, no quedan reclamadas hasta que venza el lease
+		if (current != null)
+			current.cancel(false);
+	}
+	
+	@Override
+	public boolean isRunning() {
+		return this.polling != null;
+	}
+	
+	
+	
+}
@@ -0,0 +1,14 @@
+package com.selimhorri.app.config.outbox;
+
+import java.util.List;
+
+/**
+ * Where the relay delivers outbox rows. A batch is deleted only after
+ * {@link #publish(List)} returns; throwing leaves it to be retried, so
+ * delivery is at least once.
+ */
+public interface OutboxSink {
+	
+	void publish(final List<OutboxMessage> messages);
+	
+}
@@ -0,0 +1,61 @@
+package com.selimhorri.app.config.outbox;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Inserts an {@code outbox} row for every local {@link EntityChangedEvent},
+ * before commit and through the transaction's own connection: the row is
+ * committed or rolled back together with the change it describes.
+ */
+public class OutboxWriter {
+	
+	private static final String INSERT = "INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?)";
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectWriter payloadWriter;
+	private final Clock clock;
+	private final Counter written;
+	
+	public OutboxWriter(final JdbcTemplate jdbcTemplate, final ObjectWriter payloadWriter, final Clock clock,
+			final MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.payloadWriter = payloadWriter;
+		this.clock = clock;
+		this.written = Counter.builder("outbox.written").register(meterRegistry);
+	}
+	
+	// sin transaccion (fallbackExecution) la fila se confirma sola, como el cambio
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		if (event.isRemote())
+			return;
+		this.jdbcTemplate.update(INSERT, event.getEntityType().name(), event.getEntityId(), event.getChangeType().name(),
+				this.payload(event), Timestamp.from(this.clock.instant()));
+		this.written.increment();
+	}
+	
+	private String payload(final EntityChangedEvent event) {
+		try {
+			return this.payloadWriter.writeValueAsString(event);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize outbox payload for " + event, e);
+		}
+	}
+	
+	
+	
+}
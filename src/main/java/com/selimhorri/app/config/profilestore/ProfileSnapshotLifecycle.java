@@ -0,0 +1,130 @@
+package com.selimhorri.app.config.profilestore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.cache.OffHeapProfileStore;
+import com.selimhorri.app.cache.ProfileSnapshotFile;
+import com.selimhorri.app.cache.ProfileSnapshotFile.LoadResult;
+import com.selimhorri.app.cache.SnapshotWatermark;
+import com.selimhorri.app.changefeed.TombstoneStore;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the profile snapshot left by the previous graceful shutdown before the
+ * instance registers in Eureka or Tomcat takes requests, so a new pod starts
+ * warm; writes a fresh one on shutdown, after both have stopped. Profiles whose
+ * user or credential was written ({@code updated_at}) or deleted (tombstones)
+ * since the snapshot, minus {@code margin} for commit delay and clock skew
+ * between replicas, are left out: writes elsewhere only cost those profiles.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ProfileSnapshotLifecycle implements SmartLifecycle {
+	
+	// por debajo del registro en Eureka (fase 0) y del servidor web (Integer.MAX_VALUE - 1)
+	public static final int PHASE = -1000;
+	
+	private final OffHeapProfileStore offHeapProfileStore;
+	private final JdbcTemplate jdbcTemplate;
+	private final TombstoneStore tombstoneStore;
+	private final Path path;
+	private final Duration margin;
+	private final Clock clock;
+	private final MeterRegistry meterRegistry;
+	private volatile boolean running;
+	
+	@Override
+	public void start() {
+		this.running = true;
+		if (!this.offHeapProfileStore.isEnabled())
+			return;
+		
+		final long started = System.nanoTime();
+		LoadResult result;
+		try {
+			result = ProfileSnapshotFile.load(this.path, this.offHeapProfileStore, this::unchangedSince);
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("*** ProfileSnapshotLifecycle; snapshot {} dropped, starting cold: {} *", this.path, e.toString());
+			result = LoadResult.CORRUPT;
+		}
+		this.meterRegistry.counter("profilestore.snapshot.loads", "result", result.name().toLowerCase()).increment();
+		log.info("*** ProfileSnapshotLifecycle; snapshot {}: {}, {} profiles in {} ms *", this.path, result,
+				this.offHeapProfileStore.size(), (System.nanoTime() - started) / 1_000_000);
+	}
+	
+	@Override
+	public void stop() {
+		this.running = false;
+		if (!this.offHeapProfileStore.isEnabled())
+			return;
+		
+		try {
+			// la marca se toma antes de exportar: lo escrito entre medias cae dentro de la ventana revisada al cargar
+			final SnapshotWatermark watermark = new SnapshotWatermark(this.clock.millis());
+			final int profiles = ProfileSnapshotFile.write(this.path, watermark, this.offHeapProfileStore);
+			log.info("*** ProfileSnapshotLifecycle; wrote {} profiles to {} *", profiles, this.path);
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("*** ProfileSnapshotLifecycle; no snapshot written: {} *", e.toString());
+		}
+	}
+	
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+	
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+	
+	/**
+	 * @return profiles not written or deleted since {@code watermark} minus {@code margin},
+	 * or {@code null} when the tombstones of that window were already purged
+	 */
+	Predicate<UserDto> unchangedSince(final SnapshotWatermark watermark) {
+		final Instant since = Instant.ofEpochMilli(watermark.getTakenAt()).minus(this.margin);
+		if (since.isBefore(this.tombstoneStore.horizon()))
+			return null;
+		
+		final Timestamp changedSince = Timestamp.from(since);
+		final Set<Integer> userIds = new HashSet<>(this.jdbcTemplate.queryForList(
+				"SELECT user_id FROM users WHERE updated_at >= ? OR updated_at IS NULL", Integer.class, changedSince));
+		// por user_id: tambien cubre una credencial nueva de un perfil guardado sin ella
+		userIds.addAll(this.jdbcTemplate.queryForList(
+				"SELECT user_id FROM credentials WHERE updated_at >= ? OR updated_at IS NULL", Integer.class, changedSince));
+		userIds.addAll(this.tombstoneStore.findDeletedIds(EntityType.USER, since));
+		final Set<Integer> credentialIds = this.tombstoneStore.findDeletedIds(EntityType.CREDENTIAL, since);
+		
+		final Counter dropped = this.meterRegistry.counter("profilestore.snapshot.dropped");
+		return userDto -> {
+			final boolean unchanged = !userIds.contains(userDto.getUserId())
+					&& (userDto.getCredentialDto() == null || !credentialIds.contains(userDto.getCredentialDto().getCredentialId()));
+			if (!unchanged)
+				dropped.increment();
+			return unchanged;
+		};
+	}
+	
+	
+	
+}
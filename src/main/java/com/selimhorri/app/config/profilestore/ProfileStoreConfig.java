@@ -0,0 +1,77 @@
+package com.selimhorri.app.config.profilestore;
+
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.cache.OffHeapProfileStore;
+import com.selimhorri.app.changefeed.TombstoneStore;
+import com.selimhorri.app.concurrent.RefreshAhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@EnableConfigurationProperties(ProfileStoreProperties.class)
+@Slf4j
+public class ProfileStoreConfig {
+	
+	@Bean
+	public OffHeapProfileStore offHeapProfileStore(final ProfileStoreProperties profileStoreProperties,
+			final MeterRegistry meterRegistry) {
+		final int slabBytes = (int) profileStoreProperties.getSlabSize().toBytes();
+		final int slabCount = !profileStoreProperties.isEnabled() ? 0
+				: (int) Math.max(2, profileStoreProperties.getMaxSize().toBytes() / slabBytes);
+		log.info("*** ProfileStoreConfig; {} slabs of {} *", slabCount, profileStoreProperties.getSlabSize());
+		return new OffHeapProfileStore(slabBytes, slabCount, profileStoreProperties.getCompactionThreshold(),
+				profileStoreProperties.getTtl(), profileStoreProperties.getMaxStale(), profileStoreProperties.getBeta(),
+				Clock.systemUTC(), meterRegistry);
+	}
+	
+	// acotado: con la cola llena se descarta el refresco y se sigue sirviendo la copia actual
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService profileRefreshExecutor(final ProfileStoreProperties profileStoreProperties) {
+		final int threads = profileStoreProperties.getRefresh().getThreads();
+		final AtomicInteger sequence = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(profileStoreProperties.getRefresh().getQueue()), runnable -> {
+					final Thread thread = new Thread(runnable, "profile-refresh-" + sequence.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+	
+	@Bean
+	public RefreshAhead profileRefreshAhead(@Qualifier("profileRefreshExecutor") final ExecutorService profileRefreshExecutor,
+			final MeterRegistry meterRegistry) {
+		return new RefreshAhead("profile", profileRefreshExecutor, meterRegistry);
+	}
+	
+	@Bean
+	@ConditionalOnProperty(name = "app.profile-store.snapshot.enabled", havingValue = "true")
+	public ProfileSnapshotLifecycle profileSnapshotLifecycle(final OffHeapProfileStore offHeapProfileStore,
+			final JdbcTemplate jdbcTemplate, final TombstoneStore tombstoneStore, final ProfileStoreProperties profileStoreProperties,
+			final MeterRegistry meterRegistry) {
+		return new ProfileSnapshotLifecycle(offHeapProfileStore, jdbcTemplate, tombstoneStore,
+				profileStoreProperties.getSnapshot().getPath(), profileStoreProperties.getSnapshot().getMargin(),
+				Clock.systemUTC(), meterRegistry);
+	}
+	
+	@Bean
+	public ProfileStoreInvalidator profileStoreInvalidator(final OffHeapProfileStore offHeapProfileStore) {
+		return new ProfileStoreInvalidator(offHeapProfileStore);
+	}
+	
+	
+	
+}
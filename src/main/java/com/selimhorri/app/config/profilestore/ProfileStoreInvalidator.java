@@ -0,0 +1,33 @@
+package com.selimhorri.app.config.profilestore;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.cache.OffHeapProfileStore;
+import com.selimhorri.app.event.CacheFlushRequestedEvent;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Drops the profiles an {@link EntityChangedEvent} touches once its transaction has committed,
+ * and all of them on a {@link CacheFlushRequestedEvent}.
+ */
+@RequiredArgsConstructor
+public class ProfileStoreInvalidator {
+	
+	private final OffHeapProfileStore offHeapProfileStore;
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		this.offHeapProfileStore.invalidate(event.getUserId(), event.getUsernames());
+	}
+	
+	@EventListener
+	public void onFlushRequested(final CacheFlushRequestedEvent event) {
+		this.offHeapProfileStore.invalidateAll();
+	}
+	
+	
+	
+}
@@ -0,0 +1,84 @@
+package com.selimhorri.app.config.profilestore;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.profile-store")
+public class ProfileStoreProperties {
+	
+	private boolean enabled = true;
+	
+	/**
+	 * Direct memory reserved at most, in slabs of {@code slabSize}; one slab stays
+	 * free for compaction. Counts against {@code -XX:MaxDirectMemorySize}.
+	 */
+	private DataSize maxSize = DataSize.ofMegabytes(64);
+	
+	private DataSize slabSize = DataSize.ofMegabytes(4);
+	
+	/**
+	 * Fraction of dead bytes that makes a slab worth compacting; below it the oldest slab is evicted.
+	 */
+	private double compactionThreshold = 0.25;
+	
+	/**
+	 * Age after which a profile is reloaded in the background on its next read.
+	 */
+	private Duration ttl = Duration.ofMinutes(10);
+	
+	/**
+	 * How long past {@code ttl} a profile is still served while the reload runs.
+	 */
+	private Duration maxStale = Duration.ofMinutes(5);
+	
+	/**
+	 * XFetch eagerness: 0 waits for {@code ttl}, higher values refresh slow-to-load profiles earlier.
+	 */
+	private double beta = 1.0;
+	
+	private Refresh refresh = new Refresh();
+	
+	private Snapshot snapshot = new Snapshot();
+	
+	@Data
+	public static class Refresh {
+		
+		private int threads = 2;
+		
+		/**
+		 * Pending refreshes; beyond it they are dropped and the stale copy is served.
+		 */
+		private int queue = 256;
+		
+	}
+	
+	@Data
+	public static class Snapshot {
+		
+		/**
+		 * Write the store on graceful shutdown and load it on the next start.
+		 */
+		private boolean enabled = false;
+		
+		/**
+		 * Local file, one per instance on the same host. It holds personal data: keep
+		 * it out of shared directories such as the system temp dir.
+		 */
+		private Path path = Paths.get(System.getProperty("user.home"), ".user-service", "profiles.snapshot");
+		
+		/**
+		 * Rows written this long before the snapshot are also treated as changed: covers
+		 * transactions that commit late and clock skew between replicas stamping {@code updated_at}.
+		 */
+		private Duration margin = Duration.ofMinutes(1);
+		
+	}
+	
+}
@@ -0,0 +1,69 @@
+package com.selimhorri.app.config.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.resilience.DataAccessGuard;
+import com.selimhorri.app.resilience.StaleCache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class DataAccessGuardConfig {
+	
+	public static final String INSTANCE = "userService";
+	
+	// acotado: con la cola llena se rechaza y el guard sirve la copia stale
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService dataAccessExecutor(
+			@Value("${app.data-access.threads:64}") final int threads,
+			@Value("${app.data-access.queue:64}") final int queue) {
+		final AtomicInteger sequence = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queue), runnable -> {
+			final Thread thread = new Thread(runnable, "data-access-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Bean
+	public DataAccessGuard dataAccessGuard(final CircuitBreakerRegistry circuitBreakerRegistry,
+			final TimeLimiterRegistry timeLimiterRegistry,
+			@Qualifier("dataAccessExecutor") final ExecutorService dataAccessExecutor,
+			final PlatformTransactionManager transactionManager,
+			final MeterRegistry meterRegistry,
+			@Value("${app.data-access.stale-cache.max-entries:1000}") final int maxEntries,
+			@Value("${app.data-access.stale-cache.max-staleness:10m}") final Duration maxStaleness,
+			@Value("${app.data-access.stream-deadline:60s}") final Duration streamDeadline,
+			@Value("${app.virtual-threads.enabled:false}") final boolean virtualThreads) {
+		final TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+		return new DataAccessGuard(
+				circuitBreakerRegistry.circuitBreaker(INSTANCE),
+				timeLimiterRegistry.timeLimiter(INSTANCE),
+				dataAccessExecutor,
+				readOnlyTransaction,
+				new StaleCache(maxEntries, maxStaleness, Clock.systemUTC()),
+				streamDeadline,
+				meterRegistry,
+				// en hilos virtuales la lectura se queda en el hilo de la peticion
+				virtualThreads);
+	}
+	
+	
+	
+}
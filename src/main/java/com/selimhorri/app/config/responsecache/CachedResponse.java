@@ -0,0 +1,14 @@
+package com.selimhorri.app.config.responsecache;
+
+import lombok.Value;
+
+/**
+ * Fully encoded body of a 200 response and the content type it was negotiated with.
+ */
+@Value
+public class CachedResponse {
+	
+	String contentType;
+	byte[] body;
+	
+}
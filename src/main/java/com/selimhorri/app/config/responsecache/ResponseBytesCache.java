@@ -0,0 +1,169 @@
+package com.selimhorri.app.config.responsecache;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Encoded bodies of hot single-entity GETs, keyed by entity tag ({@code user:1})
+ * and representation (the negotiated content type, {@code application/json}). Each tag has a version
+ * that {@link #invalidate(String)} bumps; {@link #put} refuses a body rendered
+ * under an older version, so a read racing a write cannot store the old
+ * representation. Bounded by {@code maxBytes}, evicting least recently used
+ * entries by their size.
+ */
+public class ResponseBytesCache {
+	
+	private static final int VERSION_STRIPES = 4096;
+	private static final int ENTRY_OVERHEAD_BYTES = 96;
+	
+	private final long maxBytes;
+	private final int maxEntryBytes;
+	private final long ttlNanos;
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Set<String> variants = new HashSet<>();
+	private long bytes;
+	
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictions;
+	private final Counter invalidations;
+	
+	public ResponseBytesCache(final long maxBytes, final int maxEntryBytes, final Duration ttl, final MeterRegistry meterRegistry) {
+		this.maxBytes = maxBytes;
+		this.maxEntryBytes = maxEntryBytes;
+		this.ttlNanos = ttl.toNanos();
+		this.hits = Counter.builder("responsecache.requests").tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder("responsecache.requests").tag("result", "miss").register(meterRegistry);
+		this.evictions = Counter.builder("responsecache.evictions").register(meterRegistry);
+		this.invalidations = Counter.builder("responsecache.invalidations").register(meterRegistry);
+		Gauge.builder("responsecache.bytes", this, ResponseBytesCache::bytes).register(meterRegistry);
+		Gauge.builder("responsecache.entries", this, ResponseBytesCache::size).register(meterRegistry);
+	}
+	
+	/**
+	 * Version to hand back to {@link #put} once the response for {@code tag} has been rendered.
+	 */
+	public long version(final String tag) {
+		return this.versions.get(stripe(tag));
+	}
+	
+	public synchronized Optional<CachedResponse> get(final String tag, final String variant) {
+		final Key key = new Key(tag, variant);
+		final Entry entry = this.entries.get(key);
+		if (entry == null || System.nanoTime() - entry.storedAt > this.ttlNanos) {
+			if (entry != null)
+				this.remove(key);
+			this.misses.increment();
+			return Optional.empty();
+		}
+		this.hits.increment();
+		return Optional.of(entry.response);
+	}
+	
+	/**
+	 * @return false when {@code tag} was invalidated since {@code version} was read
+	 *         or the body is over the per-entry limit
+	 */
+	public synchronized boolean put(final String tag, final String variant, final long version, final CachedResponse response) {
+		final int weight = weight(tag, variant, response);
+		if (version != this.version(tag) || weight > this.maxEntryBytes)
+			return false;
+		this.variants.add(variant);
+		
+		final Entry previous = this.entries.put(new Key(tag, variant), new Entry(response, weight, System.nanoTime()));
+		if (previous != null)
+			this.bytes -= previous.weight;
+		this.bytes += weight;
+		
+		// LRU por peso: se descartan las menos usadas hasta volver al presupuesto
+		final Iterator<Entry> eldest = this.entries.values().iterator();
+		while (this.bytes > this.maxBytes && eldest.hasNext()) {
+			this.bytes -= eldest.next().weight;
+			eldest.remove();
+			this.evictions.increment();
+		}
+		return true;
+	}
+	
+	public void invalidate(final String tag) {
+		this.versions.incrementAndGet(stripe(tag));
+		synchronized (this) {
+			for (final String variant : this.variants)
+				this.remove(new Key(tag, variant));
+		}
+		this.invalidations.increment();
+	}
+	
+	/**
+	 * Drops every entry and bumps every version, for when invalidations may have been missed.
+	 */
+	public void invalidateAll() {
+		for (int stripe = 0; stripe < VERSION_STRIPES; stripe++)
+			this.versions.incrementAndGet(stripe);
+		synchronized (this) {
+			this.entries.clear();
+			this.variants.clear();
+			this.bytes = 0;
+		}
+		this.invalidations.increment();
+	}
+	
+	public synchronized long bytes() {
+		return this.bytes;
+	}
+	
+	public synchronized int size() {
+		return this.entries.size();
+	}
+	
+	private void remove(final Key key) {
+		final Entry removed = this.entries.remove(key);
+		if (removed != null)
+			this.bytes -= removed.weight;
+	}
+	
+	// tags distintos pueden compartir franja: solo cuesta alguna invalidacion de mas
+	private static int stripe(final String tag) {
+		return (tag.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+	}
+	
+	private static int weight(final String tag, final String variant, final CachedResponse response) {
+		return response.getBody().length + 2 * (tag.length() + variant.length()) + ENTRY_OVERHEAD_BYTES;
+	}
+	
+	@lombok.Value
+	private static class Key {
+		
+		String tag;
+		String variant;
+		
+	}
+	
+	private static final class Entry {
+		
+		private final CachedResponse response;
+		private final int weight;
+		private final long storedAt;
+		
+		private Entry(final CachedResponse response, final int weight, final long storedAt) {
+			this.response = response;
+			this.weight = weight;
+			this.storedAt = storedAt;
+		}
+		
+	}
+	
+	
+	
+}
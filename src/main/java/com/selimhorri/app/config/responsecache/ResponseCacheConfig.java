@@ -0,0 +1,46 @@
+package com.selimhorri.app.config.responsecache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@Slf4j
+public class ResponseCacheConfig {
+	
+	@Bean
+	public ResponseBytesCache responseBytesCache(final ResponseCacheProperties responseCacheProperties,
+			final MeterRegistry meterRegistry) {
+		log.info("*** ResponseCacheConfig; max size {}, max entry size {}, ttl {} *", responseCacheProperties.getMaxSize(),
+				responseCacheProperties.getMaxEntrySize(), responseCacheProperties.getTtl());
+		return new ResponseBytesCache(responseCacheProperties.getMaxSize().toBytes(),
+				(int) responseCacheProperties.getMaxEntrySize().toBytes(), responseCacheProperties.getTtl(), meterRegistry);
+	}
+	
+	@Bean
+	public ResponseCacheInvalidator responseCacheInvalidator(final ResponseBytesCache responseBytesCache) {
+		return new ResponseCacheInvalidator(responseBytesCache);
+	}
+	
+	@Bean
+	public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(final ResponseBytesCache responseBytesCache,
+			final ResponseCacheProperties responseCacheProperties) {
+		final var registration = new FilterRegistrationBean<>(
+				new ResponseCacheFilter(responseBytesCache, responseCacheProperties.getRepresentations()));
+		registration.addUrlPatterns("/api/*");
+		// delante del limitador y del bulkhead: un acierto no ocupa permisos ni conexiones
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 80);
+		return registration;
+	}
+	
+	
+	
+}
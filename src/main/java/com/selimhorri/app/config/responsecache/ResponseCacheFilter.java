@@ -0,0 +1,138 @@
+package com.selimhorri.app.config.responsecache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UriUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serves {@code GET /api/users/{id}} and {@code GET /api/credentials/username/{username}}
+ * from {@link ResponseBytesCache}: a hit writes the stored bytes straight to the
+ * response without touching the service, the mapper or the converters; a miss
+ * runs the chain and keeps the 200 body. Entries are per content type: the
+ * request's {@code Accept} is negotiated against {@code representations} the
+ * way Spring MVC does, and a body is only kept when the response came out in
+ * the negotiated type. Requests that negotiate to nothing pass through.
+ */
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+	
+	public static final String CACHE_STATUS = "X-Response-Cache";
+	
+	private static final Pattern USER_BY_ID = Pattern.compile("^/api/users/(\\d{1,9})/?$");
+	private static final Pattern CREDENTIAL_BY_USERNAME = Pattern.compile("^/api/credentials/username/([^/]+)/?$");
+	
+	private final ResponseBytesCache responseBytesCache;
+	private final List<MediaType> representations;
+	
+	public static String userTag(final Integer userId) {
+		return "user:" + userId;
+	}
+	
+	public static String usernameTag(final String username) {
+		return "username:" + username;
+	}
+	
+	static Optional<String> tagFor(final String path) {
+		final Matcher userById = USER_BY_ID.matcher(path);
+		if (userById.matches())
+			return Optional.of(userTag(Integer.parseInt(userById.group(1))));
+		final Matcher byUsername = CREDENTIAL_BY_USERNAME.matcher(path);
+		if (byUsername.matches())
+			return Optional.of(usernameTag(UriUtils.decode(byUsername.group(1), StandardCharsets.UTF_8)));
+		return Optional.empty();
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return !"GET".equals(request.getMethod())
+				|| request.getQueryString() != null
+				|| tagFor(request.getRequestURI().substring(request.getContextPath().length())).isEmpty();
+	}
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final String tag = tagFor(request.getRequestURI().substring(request.getContextPath().length())).orElseThrow();
+		final Optional<String> negotiated = this.representationFor(request.getHeader(HttpHeaders.ACCEPT));
+		if (negotiated.isEmpty()) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		final String variant = negotiated.get();
+		
+		final Optional<CachedResponse> cached = this.responseBytesCache.get(tag, variant);
+		if (cached.isPresent()) {
+			response.setStatus(HttpStatus.OK.value());
+			response.setHeader(CACHE_STATUS, "HIT");
+			response.setContentType(cached.get().getContentType());
+			response.setContentLength(cached.get().getBody().length);
+			response.getOutputStream().write(cached.get().getBody());
+			return;
+		}
+		
+		// la version se toma antes de leer: si hay una escritura entre medias, put la rechaza
+		final long version = this.responseBytesCache.version(tag);
+		final var wrapper = new ContentCachingResponseWrapper(response);
+		wrapper.setHeader(CACHE_STATUS, "MISS");
+		filterChain.doFilter(request, wrapper);
+		if (wrapper.getStatus() == HttpStatus.OK.value() && wrapper.getContentType() != null
+				&& variant.equals(typeAndSubtype(MediaType.parseMediaType(wrapper.getContentType()))))
+			this.responseBytesCache.put(tag, variant, version,
+					new CachedResponse(wrapper.getContentType(), wrapper.getContentAsByteArray()));
+		wrapper.copyBodyToResponse();
+	}
+	
+	// como AbstractMessageConverterMethodProcessor: el tipo mas especifico de cada par compatible, por calidad
+	Optional<String> representationFor(final String accept) {
+		final List<MediaType> acceptable;
+		try {
+			acceptable = accept == null ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+		}
+		catch (InvalidMediaTypeException e) {
+			return Optional.empty();
+		}
+		final List<MediaType> compatible = new ArrayList<>();
+		for (final MediaType acceptableType : acceptable)
+			for (final MediaType representation : this.representations)
+				if (acceptableType.isCompatibleWith(representation))
+					compatible.add(mostSpecific(acceptableType, representation));
+		MediaType.sortBySpecificityAndQuality(compatible);
+		return compatible.stream()
+				.filter(MediaType::isConcrete)
+				.findFirst()
+				.map(ResponseCacheFilter::typeAndSubtype);
+	}
+	
+	private static MediaType mostSpecific(final MediaType acceptableType, final MediaType representation) {
+		final MediaType produced = representation.copyQualityValue(acceptableType);
+		return MediaType.SPECIFICITY_COMPARATOR.compare(acceptableType, produced) <= 0 ? acceptableType : produced;
+	}
+	
+	// sin parametros (charset, q): el mismo tipo pedido de varias formas comparte entrada
+	private static String typeAndSubtype(final MediaType mediaType) {
+		return mediaType.getType() + "/" + mediaType.getSubtype();
+	}
+	
+	
+	
+}
@@ -0,0 +1,38 @@
+package com.selimhorri.app.config.responsecache;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.event.CacheFlushRequestedEvent;
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops the cached representations an {@link EntityChangedEvent} touches once
+ * its transaction has committed, so the next read renders the new state.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ResponseCacheInvalidator {
+	
+	private final ResponseBytesCache responseBytesCache;
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(final EntityChangedEvent event) {
+		log.debug("*** ResponseCacheInvalidator; {} {} {} *", event.getChangeType(), event.getEntityType(), event.getEntityId());
+		if (event.getUserId() != null)
+			this.responseBytesCache.invalidate(ResponseCacheFilter.userTag(event.getUserId()));
+		event.getUsernames().forEach(username -> this.responseBytesCache.invalidate(ResponseCacheFilter.usernameTag(username)));
+	}
+	
+	@EventListener
+	public void onFlushRequested(final CacheFlushRequestedEvent event) {
+		log.info("*** ResponseCacheInvalidator; flush: {} *", event.getReason());
+		this.responseBytesCache.invalidateAll();
+	}
+	
+	
+	
+}
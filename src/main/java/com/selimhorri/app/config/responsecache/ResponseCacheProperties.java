@@ -0,0 +1,42 @@
+package com.selimhorri.app.config.responsecache;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheProperties {
+	
+	private boolean enabled = true;
+	
+	/**
+	 * Total budget for cached bodies (plus a fixed overhead per entry).
+	 */
+	private DataSize maxSize = DataSize.ofMegabytes(32);
+	
+	/**
+	 * Bodies larger than this are served but never cached.
+	 */
+	private DataSize maxEntrySize = DataSize.ofKilobytes(64);
+	
+	/**
+	 * Safety net for changes that do not go through the service write paths
+	 * (another node, a manual update in the database).
+	 */
+	private Duration ttl = Duration.ofMinutes(10);
+	
+	/**
+	 * Types the cached endpoints can produce, in the order Spring MVC's converters
+	 * prefer them. The {@code Accept} of each request is negotiated against them
+	 * to pick the cached representation.
+	 */
+	private List<MediaType> representations = List.of(MediaType.APPLICATION_JSON, new MediaType("application", "x-jackson-smile"),
+			MediaType.valueOf("application/cbor"), new MediaType("application", "x-protobuf"));
+	
+}
@@ -0,0 +1,205 @@
+package com.selimhorri.app.config.userstream;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.selimhorri.app.config.userstream.UserStreamProperties.Overflow;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * One SSE connection: a bounded buffer of pending events and at most one
+ * sender task draining it. Offering never blocks; a full buffer applies the
+ * {@link Overflow} policy. The emitter is only written from the sender task.
+ * A send blocked on a client that stopped reading is noticed from outside the
+ * sender pool, see {@link #expireIfStalled(long, long)}.
+ */
+final class SseSubscriber {
+	
+	private final SseEmitter emitter;
+	private final int capacity;
+	private final Overflow overflow;
+	private final Executor sender;
+	private final Counter sent;
+	private final Counter dropped;
+	private final BiConsumer<SseSubscriber, String> onClose;
+	
+	private final ArrayDeque<StreamEvent> buffer = new ArrayDeque<>();
+	// eventos de replay aun en el buffer: no cuentan para la capacidad
+	private int replayed;
+	private boolean draining;
+	private boolean closed;
+	private boolean completeEmitter;
+	// System.nanoTime() al empezar el send en curso, 0 sin send
+	private volatile long sendingSince;
+	
+	SseSubscriber(final SseEmitter emitter, final int capacity, final Overflow overflow, final Executor sender,
+			final Counter sent, final Counter dropped, final BiConsumer<SseSubscriber, String> onClose) {
+		this.emitter = emitter;
+		this.capacity = capacity;
+		this.overflow = overflow;
+		this.sender = sender;
+		this.sent = sent;
+		this.dropped = dropped;
+		this.onClose = onClose;
+	}
+	
+	void offer(final StreamEvent event) {
+		boolean schedule = false;
+		boolean disconnect = false;
+		synchronized (this) {
+			if (this.closed)
+				return;
+			if (this.buffer.size() - this.replayed < this.capacity) {
+				schedule = this.enqueue(event);
+			}
+			else if (this.overflow == Overflow.DISCONNECT) {
+				disconnect = true;
+			}
+			else {
+				this.buffer.pollFirst();
+				if (this.replayed > 0)
+					this.replayed--;
+				this.dropped.increment();
+				schedule = this.enqueue(event);
+			}
+		}
+		// al reconectar, Last-Event-ID recupera lo que quedo en el buffer
+		if (disconnect)
+			this.close("slow", true);
+		else if (schedule)
+			this.schedule();
+	}
+	
+	/**
+	 * Events missed while disconnected; bounded by the hub history, not by the buffer.
+	 */
+	void replay(final List<StreamEvent> events) {
+		final boolean schedule;
+		synchronized (this) {
+			if (this.closed || events.isEmpty())
+				return;
+			events.forEach(this.buffer::addLast);
+			this.replayed += events.size();
+			schedule = this.markDraining();
+		}
+		if (schedule)
+			this.schedule();
+	}
+	
+	// solo si no hay nada pendiente: cualquier evento ya sirve de latido
+	void heartbeat() {
+		final boolean schedule;
+		synchronized (this) {
+			if (this.closed || this.draining || !this.buffer.isEmpty())
+				return;
+			schedule = this.enqueue(StreamEvent.HEARTBEAT);
+		}
+		if (schedule)
+			this.schedule();
+	}
+	
+	/**
+	 * Drops the subscriber when its current send has been blocked for {@code deadlineNanos}.
+	 * The emitter cannot be completed from here: the blocked send holds its monitor.
+	 * Tomcat's write timeout ({@code server.tomcat.connection-timeout}) ends that
+	 * send, and the sender then completes the emitter.
+	 */
+	void expireIfStalled(final long now, final long deadlineNanos) {
+		final long since = this.sendingSince;
+		if (since != 0 && now - since >= deadlineNanos)
+			this.close("stalled", true);
+	}
+	
+	/**
+	 * Container callbacks (completion, timeout, error): the emitter is already done.
+	 */
+	void close(final String reason) {
+		this.close(reason, false);
+	}
+	
+	void complete() {
+		this.close("shutdown", false);
+		this.emitter.complete();
+	}
+	
+	private boolean enqueue(final StreamEvent event) {
+		this.buffer.addLast(event);
+		return this.markDraining();
+	}
+	
+	private boolean markDraining() {
+		if (this.draining)
+			return false;
+		this.draining = true;
+		return true;
+	}
+	
+	private void close(final String reason, final boolean completeEmitter) {
+		final boolean schedule;
+		synchronized (this) {
+			if (this.closed)
+				return;
+			this.closed = true;
+			this.buffer.clear();
+			this.replayed = 0;
+			this.completeEmitter = completeEmitter;
+			schedule = completeEmitter && this.markDraining();
+		}
+		this.onClose.accept(this, reason);
+		// el emitter se completa desde el sender: un send en curso lo tiene bloqueado
+		if (schedule)
+			this.schedule();
+	}
+	
+	private void schedule() {
+		try {
+			this.sender.execute(this::drain);
+		}
+		catch (RejectedExecutionException e) {
+			synchronized (this) {
+				this.draining = false;
+			}
+		}
+	}
+	
+	private void drain() {
+		while (true) {
+			final StreamEvent next;
+			final boolean complete;
+			synchronized (this) {
+				complete = this.closed && this.completeEmitter;
+				next = this.closed ? null : this.buffer.pollFirst();
+				if (next != null && this.replayed > 0)
+					this.replayed--;
+				if (next == null)
+					this.draining = false;
+			}
+			if (complete)
+				this.emitter.complete();
+			if (next == null)
+				return;
+			try {
+				this.sendingSince = System.nanoTime();
+				this.emitter.send(next.toSse());
+				if (next != StreamEvent.HEARTBEAT)
+					this.sent.increment();
+			}
+			catch (IOException | IllegalStateException e) {
+				// cliente desconectado: el contenedor avisa tambien por onError
+				this.close("error", false);
+				return;
+			}
+			finally {
+				this.sendingSince = 0;
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,30 @@
+package com.selimhorri.app.config.userstream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import lombok.Value;
+
+/**
+ * One SSE frame, serialized once and shared by every subscriber buffer.
+ */
+@Value
+class StreamEvent {
+	
+	static final StreamEvent HEARTBEAT = new StreamEvent(null, 0, null, null);
+	
+	String id;
+	long sequence;
+	String name;
+	String data;
+	
+	SseEventBuilder toSse() {
+		if (this == HEARTBEAT)
+			return SseEmitter.event().comment("heartbeat");
+		return SseEmitter.event()
+				.id(this.id)
+				.name(this.name)
+				.data(this.data);
+	}
+	
+}
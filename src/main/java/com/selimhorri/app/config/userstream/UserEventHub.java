@@ -0,0 +1,232 @@
+package com.selimhorri.app.config.userstream;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongFunction;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.selimhorri.app.config.userstream.UserStreamProperties.Overflow;
+import com.selimhorri.app.event.EntityChangeConsumer;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans committed user and credential changes out to the SSE subscribers.
+ * Every event gets the id {@code <epoch>-<sequence>} and stays in a short
+ * history, so a reconnecting client sending {@code Last-Event-ID} gets what it
+ * missed. When that id is from another process or older than the history the
+ * client gets a {@value #RESET_EVENT} event instead and resyncs through
+ * {@code /api/users/changes}. Fed by the post-commit event bus, so the fan-out
+ * to thousands of connections runs on the bus thread, not on the request.
+ */
+@Slf4j
+public class UserEventHub implements EntityChangeConsumer {
+	
+	public static final String RESET_EVENT = "reset";
+	
+	private static final Set<EntityType> STREAMED = EnumSet.of(EntityType.USER, EntityType.CREDENTIAL);
+	
+	private final ObjectWriter objectWriter;
+	private final String epoch;
+	private final Executor sender;
+	private final int bufferSize;
+	private final Overflow overflow;
+	private final int historySize;
+	private final int maxSubscribers;
+	private final Duration timeout;
+	private final long writeDeadlineNanos;
+	private final LongFunction<SseEmitter> emitterFactory;
+	private final MeterRegistry meterRegistry;
+	
+	private final Set<SseSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final ArrayDeque<StreamEvent> history = new ArrayDeque<>();
+	private long sequence;
+	
+	private final Counter sent;
+	private final Counter dropped;
+	
+	public UserEventHub(final ObjectWriter objectWriter, final String epoch, final Executor sender,
+			final UserStreamProperties userStreamProperties, final MeterRegistry meterRegistry) {
+		this(objectWriter, epoch, sender, userStreamProperties, meterRegistry, SseEmitter::new);
+	}
+	
+	UserEventHub(final ObjectWriter objectWriter, final String epoch, final Executor sender,
+			final UserStreamProperties userStreamProperties, final MeterRegistry meterRegistry,
+			final LongFunction<SseEmitter> emitterFactory) {
+		this.objectWriter = objectWriter;
+		this.epoch = epoch;
+		this.sender = sender;
+		this.bufferSize = userStreamProperties.getBufferSize();
+		this.overflow = userStreamProperties.getOverflow();
+		this.historySize = userStreamProperties.getHistorySize();
+		this.maxSubscribers = userStreamProperties.getMaxSubscribers();
+		this.timeout = userStreamProperties.getTimeout();
+		this.writeDeadlineNanos = userStreamProperties.getWriteDeadline().toNanos();
+		this.meterRegistry = meterRegistry;
+		this.emitterFactory = emitterFactory;
+		this.sent = Counter.builder("userstream.events.sent").register(meterRegistry);
+		this.dropped = Counter.builder("userstream.events.dropped").register(meterRegistry);
+		Gauge.builder("userstream.subscribers", this.subscribers, Set::size).register(meterRegistry);
+	}
+	
+	@Override
+	public String name() {
+		return "user-stream";
+	}
+	
+	// tambien los remotos: cada replica sirve a sus propios suscriptores
+	@Override
+	public void onBatch(final List<EntityChangedEvent> events) {
+		// se serializa fuera del lock; la secuencia se asigna dentro
+		final List<StreamEvent> unnumbered = new ArrayList<>(events.size());
+		for (final EntityChangedEvent event : events) {
+			if (!STREAMED.contains(event.getEntityType()))
+				continue;
+			try {
+				unnumbered.add(new StreamEvent(null, 0, (event.getEntityType() + "." + event.getChangeType()).toLowerCase(Locale.ROOT),
+						this.objectWriter.writeValueAsString(event)));
+			}
+			catch (JsonProcessingException e) {
+				log.warn("*** UserEventHub; could not serialize {}: {} *", event, e.getMessage());
+			}
+		}
+		if (unnumbered.isEmpty())
+			return;
+		
+		// bajo el lock: el replay de un suscriptor nuevo y lo que llega despues no se cruzan
+		synchronized (this) {
+			for (final StreamEvent event : unnumbered) {
+				final long next = ++this.sequence;
+				this.append(new StreamEvent(this.id(next), next, event.getName(), event.getData()));
+			}
+		}
+	}
+	
+	/**
+	 * Events were lost before reaching the hub: resuming from before now is no
+	 * longer possible, and live subscribers are told to resync.
+	 */
+	@Override
+	public synchronized void onGap(final long missed) {
+		log.warn("*** UserEventHub; {} changes lost, resetting {} streams *", missed, this.subscribers.size());
+		this.history.clear();
+		final StreamEvent reset = this.reset();
+		this.subscribers.forEach(subscriber -> subscriber.offer(reset));
+	}
+	
+	/**
+	 * Opens a stream, replaying what followed {@code lastEventId} when given.
+	 */
+	public SseEmitter subscribe(final String lastEventId) {
+		if (this.subscribers.size() >= this.maxSubscribers)
+			throw new ServiceUnavailableException(String.format("User stream is full (%d subscribers)", this.maxSubscribers));
+		
+		final SseEmitter emitter = this.emitterFactory.apply(this.timeout.toMillis());
+		final SseSubscriber subscriber = new SseSubscriber(emitter, this.bufferSize, this.overflow, this.sender,
+				this.sent, this.dropped, this::remove);
+		emitter.onCompletion(() -> subscriber.close("completed"));
+		emitter.onTimeout(() -> subscriber.close("timeout"));
+		emitter.onError(e -> subscriber.close("error"));
+		
+		synchronized (this) {
+			subscriber.replay(this.resume(lastEventId));
+			this.subscribers.add(subscriber);
+		}
+		return emitter;
+	}
+	
+	public void heartbeat() {
+		this.subscribers.forEach(SseSubscriber::heartbeat);
+	}
+	
+	/**
+	 * Drops the subscribers whose send has been stuck past the write deadline. Runs on
+	 * the heartbeat thread: the sender threads blocked in those sends cannot do it.
+	 */
+	public void expireStalled() {
+		final long now = System.nanoTime();
+		this.subscribers.forEach(subscriber -> subscriber.expireIfStalled(now, this.writeDeadlineNanos));
+	}
+	
+	public void shutdown() {
+		final List<SseSubscriber> open = new ArrayList<>(this.subscribers);
+		log.info("*** UserEventHub; closing {} streams *", open.size());
+		open.forEach(SseSubscriber::complete);
+	}
+	
+	public int subscriberCount() {
+		return this.subscribers.size();
+	}
+	
+	private List<StreamEvent> resume(final String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank())
+			return List.of();
+		
+		final long last = this.parseSequence(lastEventId.trim());
+		final long oldest = this.history.isEmpty() ? this.sequence + 1 : this.history.peekFirst().getSequence();
+		// el cliente tiene que haber visto algo en [oldest - 1, sequence]; si no, hay hueco
+		if (last < oldest - 1 || last > this.sequence)
+			return List.of(this.reset());
+		
+		final List<StreamEvent> missed = new ArrayList<>();
+		this.history.forEach(event -> {
+			if (event.getSequence() > last)
+				missed.add(event);
+		});
+		return missed;
+	}
+	
+	private long parseSequence(final String lastEventId) {
+		final int dash = lastEventId.lastIndexOf('-');
+		if (dash <= 0 || !lastEventId.substring(0, dash).equals(this.epoch))
+			return -1;
+		try {
+			return Long.parseLong(lastEventId.substring(dash + 1));
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	private void append(final StreamEvent streamEvent) {
+		this.history.addLast(streamEvent);
+		if (this.history.size() > this.historySize)
+			this.history.pollFirst();
+		this.subscribers.forEach(subscriber -> subscriber.offer(streamEvent));
+	}
+	
+	private StreamEvent reset() {
+		return new StreamEvent(this.id(this.sequence), this.sequence, RESET_EVENT, "{}");
+	}
+	
+	private String id(final long sequence) {
+		return this.epoch + "-" + sequence;
+	}
+	
+	private void remove(final SseSubscriber subscriber, final String reason) {
+		if (this.subscribers.remove(subscriber))
+			Counter.builder("userstream.disconnects")
+					.tag("reason", reason)
+					.register(this.meterRegistry)
+					.increment();
+	}
+	
+	
+	
+}
@@ -0,0 +1,66 @@
+package com.selimhorri.app.config.userstream;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "app.user-stream.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(UserStreamProperties.class)
+@Slf4j
+public class UserStreamConfig {
+	
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService userStreamSender(final UserStreamProperties userStreamProperties) {
+		final AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(userStreamProperties.getSenderThreads(), runnable -> {
+			final Thread thread = new Thread(runnable, "user-stream-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Bean(destroyMethod = "shutdownNow")
+	public ScheduledExecutorService userStreamHeartbeat() {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "user-stream-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Bean(destroyMethod = "shutdown")
+	public UserEventHub userEventHub(final UserStreamProperties userStreamProperties, final ObjectMapper objectMapper,
+			@Qualifier("userStreamSender") final ExecutorService userStreamSender,
+			@Qualifier("userStreamHeartbeat") final ScheduledExecutorService userStreamHeartbeat,
+			final MeterRegistry meterRegistry) {
+		// SSE: un evento por linea de data, sin indentar
+		final var hub = new UserEventHub(objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT),
+				Long.toString(System.currentTimeMillis(), Character.MAX_RADIX), userStreamSender, userStreamProperties,
+				meterRegistry);
+		final long heartbeat = userStreamProperties.getHeartbeat().toMillis();
+		userStreamHeartbeat.scheduleWithFixedDelay(hub::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+		final long stallCheck = Math.max(userStreamProperties.getWriteDeadline().toMillis() / 2, 100);
+		userStreamHeartbeat.scheduleWithFixedDelay(hub::expireStalled, stallCheck, stallCheck, TimeUnit.MILLISECONDS);
+		log.info("*** UserStreamConfig; buffer {} ({}), history {}, max {} subscribers *", userStreamProperties.getBufferSize(),
+				userStreamProperties.getOverflow(), userStreamProperties.getHistorySize(), userStreamProperties.getMaxSubscribers());
+		return hub;
+	}
+	
+	
+	
+}
@@ -0,0 +1,56 @@
+package com.selimhorri.app.config.userstream;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-stream")
+public class UserStreamProperties {
+	
+	public enum Overflow { DROP_OLDEST, DISCONNECT }
+	
+	private boolean enabled = true;
+	
+	/**
+	 * Events buffered per subscriber while its connection is still writing earlier ones.
+	 */
+	private int bufferSize = 256;
+	
+	/**
+	 * What a full buffer does: drop the oldest pending event (the client sees a
+	 * gap in the ids) or close the connection (the client resumes with Last-Event-ID).
+	 */
+	private Overflow overflow = Overflow.DROP_OLDEST;
+	
+	/**
+	 * Recent events kept for Last-Event-ID resume.
+	 */
+	private int historySize = 1024;
+	
+	private int maxSubscribers = 5000;
+	
+	/**
+	 * Comment line sent to idle connections, so proxies keep them open and dead ones are noticed.
+	 */
+	private Duration heartbeat = Duration.ofSeconds(15);
+	
+	/**
+	 * Connection lifetime; EventSource clients reconnect on their own with Last-Event-ID.
+	 */
+	private Duration timeout = Duration.ofMinutes(30);
+	
+	/**
+	 * A send blocked longer than this drops the subscriber; checked every half of it.
+	 */
+	private Duration writeDeadline = Duration.ofSeconds(5);
+	
+	/**
+	 * Threads writing buffered events out; idle connections hold none. A stalled
+	 * client holds one until Tomcat's write timeout, so leave room for a few.
+	 */
+	private int senderThreads = 4;
+	
+}
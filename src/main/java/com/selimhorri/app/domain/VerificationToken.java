@@ -24,12 +24,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "verification_tokens")
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true, exclude = {"credential"})
+@ToString(callSuper = true, exclude = {"credential"})
 @Data
 @Builder
 public final class VerificationToken extends AbstractMappedEntity implements Serializable {
@@ -49,7 +51,7 @@ public final class VerificationToken extends AbstractMappedEntity implements Ser
 	@Column(name = "expire_date")
 	private LocalDate expireDate;
 	
-	@ManyToOne(fetch = FetchType.EAGER)
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "credential_id")
 	private Credential credential;
 	
@@ -0,0 +1,46 @@
+package com.selimhorri.app.dto.response.changefeed;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a change feed page: the current state of a changed row, or a
+ * tombstone ({@code deleted}, no {@code data}) for a deleted one.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ChangeDto<T> implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer id;
+	
+	@JsonFormat(shape = Shape.STRING)
+	private Instant changedAt;
+	
+	private boolean deleted;
+	
+	@JsonInclude(value = Include.NON_NULL)
+	private T data;
+	
+	public static <T> ChangeDto<T> upsert(final Integer id, final Instant changedAt, final T data) {
+		return new ChangeDto<>(id, changedAt, false, data);
+	}
+	
+	public static <T> ChangeDto<T> tombstone(final Integer id, final Instant deletedAt) {
+		return new ChangeDto<>(id, deletedAt, true, null);
+	}
+	
+}
@@ -0,0 +1,27 @@
+package com.selimhorri.app.dto.response.changefeed;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A page of changes in {@code (changedAt, id)} order. {@code nextSince} is the
+ * watermark to send back as {@code since}; {@code hasMore} means the next page
+ * is already available.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ChangeFeedResponse<T> {
+	
+	private List<ChangeDto<T>> changes;
+	
+	private String nextSince;
+	
+	private boolean hasMore;
+	
+}
@@ -0,0 +1,45 @@
+package com.selimhorri.app.dto.response.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link DtoCollectionResponse} whose rows are pushed by {@code producer} while
+ * the response is being written, so the JSON converter can emit them as they
+ * come off the database cursor. Converters that need the whole collection get
+ * it materialized on the first {@link #getCollection()}.
+ */
+public class StreamingDtoCollectionResponse<T> extends DtoCollectionResponse<T> {
+	
+	private final transient Consumer<Consumer<? super T>> producer;
+	
+	public StreamingDtoCollectionResponse(final Consumer<Consumer<? super T>> producer) {
+		this.producer = producer;
+	}
+	
+	/**
+	 * Pushes every row to {@code action}; only valid once unless the collection was already materialized.
+	 */
+	public void forEachRow(final Consumer<? super T> action) {
+		if (super.getCollection() != null)
+			super.getCollection().forEach(action);
+		else
+			this.producer.accept(action);
+	}
+	
+	@Override
+	public Collection<T> getCollection() {
+		if (super.getCollection() == null) {
+			final List<T> rows = new ArrayList<>();
+			this.producer.accept(rows::add);
+			this.setCollection(Collections.unmodifiableList(rows));
+		}
+		return super.getCollection();
+	}
+	
+	
+	
+}
@@ -0,0 +1,14 @@
+package com.selimhorri.app.event;
+
+import lombok.Value;
+
+/**
+ * Asks every local cache to drop its entries, when invalidations may have been
+ * missed and individual ones can no longer be trusted.
+ */
+@Value
+public class CacheFlushRequestedEvent {
+	
+	String reason;
+	
+}
@@ -0,0 +1,22 @@
+package com.selimhorri.app.event;
+
+import java.util.List;
+
+/**
+ * Side effect of committed {@link EntityChangedEvent}s that runs off the
+ * request thread, on its own event bus thread and in commit order.
+ * {@link #onBatch} gets whatever was published since the previous call.
+ */
+public interface EntityChangeConsumer {
+	
+	String name();
+	
+	void onBatch(List<EntityChangedEvent> events);
+	
+	/**
+	 * The bus was full and dropped {@code missed} events this consumer will never see.
+	 */
+	default void onGap(long missed) {
+	}
+	
+}
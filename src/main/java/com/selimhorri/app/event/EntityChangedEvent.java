@@ -0,0 +1,38 @@
+package com.selimhorri.app.event;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Published by the service write paths. Listeners that react after commit
+ * ({@code @TransactionalEventListener}) only see persisted changes.
+ * {@code userId} and {@code usernames} name the user and credential
+ * representations the change can alter, as far as the write path knows them.
+ * {@code remote} marks events replayed from a peer's invalidation broadcast:
+ * they only drop local caches and are not broadcast again.
+ */
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
+public class EntityChangedEvent {
+	
+	public enum EntityType { USER, CREDENTIAL, ADDRESS, VERIFICATION_TOKEN }
+	
+	public enum ChangeType { CREATED, UPDATED, DELETED }
+	
+	EntityType entityType;
+	ChangeType changeType;
+	Integer entityId;
+	Integer userId;
+	@Singular
+	Set<String> usernames;
+	@JsonIgnore
+	boolean remote;
+	
+}
@@ -13,7 +13,10 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
 import com.selimhorri.app.exception.wrapper.AddressNotFoundException;
+import com.selimhorri.app.exception.wrapper.ChangeFeedExpiredException;
 import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidWatermarkException;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
 import com.selimhorri.app.exception.wrapper.VerificationTokenNotFoundException;
 
@@ -47,7 +50,8 @@ public class ApiExceptionHandler {
 		UserObjectNotFoundException.class,
 		CredentialNotFoundException.class,
 		VerificationTokenNotFoundException.class,
-		AddressNotFoundException.class
+		AddressNotFoundException.class,
+		InvalidWatermarkException.class
 	})
 	public <T extends RuntimeException> ResponseEntity<ExceptionMsg> handleApiRequestException(final T e) {
 		
@@ -63,6 +67,36 @@ public class ApiExceptionHandler {
 					.build(), badRequest);
 	}
 	
+	@ExceptionHandler(value = ServiceUnavailableException.class)
+	public ResponseEntity<ExceptionMsg> handleServiceUnavailableException(final ServiceUnavailableException e) {
+		
+		log.info("**ApiExceptionHandler controller, handle service unavailable*\n");
+		final var serviceUnavailable = HttpStatus.SERVICE_UNAVAILABLE;
+		
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+					.msg("#### " + e.getMessage() + "! ####")
+					.httpStatus(serviceUnavailable)
+					.timestamp(ZonedDateTime
+							.now(ZoneId.systemDefault()))
+					.build(), serviceUnavailable);
+	}
+	
+	@ExceptionHandler(value = ChangeFeedExpiredException.class)
+	public ResponseEntity<ExceptionMsg> handleChangeFeedExpiredException(final ChangeFeedExpiredException e) {
+		
+		log.info("**ApiExceptionHandler controller, handle expired change feed watermark*\n");
+		final var gone = HttpStatus.GONE;
+		
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+					.msg("#### " + e.getMessage() + "! ####")
+					.httpStatus(gone)
+					.timestamp(ZonedDateTime
+							.now(ZoneId.systemDefault()))
+					.build(), gone);
+	}
+	
 	
 	
 }
@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class ChangeFeedExpiredException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public ChangeFeedExpiredException() {
+		super();
+	}
+	
+	public ChangeFeedExpiredException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public ChangeFeedExpiredException(String message) {
+		super(message);
+	}
+	
+	public ChangeFeedExpiredException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidWatermarkException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidWatermarkException() {
+		super();
+	}
+	
+	public InvalidWatermarkException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidWatermarkException(String message) {
+		super(message);
+	}
+	
+	public InvalidWatermarkException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
@@ -4,6 +4,7 @@ import com.selimhorri.app.domain.Address;
 import com.selimhorri.app.domain.User;
 import com.selimhorri.app.dto.AddressDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.repository.projection.AddressProjection;
 
 public interface AddressMappingHelper {
 	
@@ -31,6 +32,29 @@ public interface AddressMappingHelper {
 				.build();
 	}
 	
+	public static AddressDto map(final AddressProjection address) {
+		if (address == null)
+			return null;
+		UserDto userDto = null;
+		if (address.getUserId() != null) {
+			userDto = UserDto.builder()
+					.userId(address.getUserId())
+					.firstName(address.getFirstName())
+					.lastName(address.getLastName())
+					.imageUrl(address.getImageUrl())
+					.email(address.getEmail())
+					.phone(address.getPhone())
+					.build();
+		}
+		return AddressDto.builder()
+				.addressId(address.getAddressId())
+				.fullAddress(address.getFullAddress())
+				.postalCode(address.getPostalCode())
+				.city(address.getCity())
+				.userDto(userDto)
+				.build();
+	}
+	
 	public static Address map(final AddressDto addressDto) {
 		if (addressDto == null)
 			return null;
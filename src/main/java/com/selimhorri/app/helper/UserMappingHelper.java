@@ -10,7 +10,12 @@ public interface UserMappingHelper {
 	public static UserDto map(final User user) {
 		if (user == null)
 			return null;
-		Credential cred = user.getCredential();
+		return map(user, user.getCredential());
+	}
+
+	public static UserDto map(final User user, final Credential cred) {
+		if (user == null)
+			return null;
 		CredentialDto credDto = null;
 		if (cred != null) {
 			credDto = CredentialDto.builder()
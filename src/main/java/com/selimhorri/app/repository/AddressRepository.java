@@ -1,11 +1,49 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.selimhorri.app.domain.Address;
+import com.selimhorri.app.repository.projection.AddressProjection;
 
 public interface AddressRepository extends JpaRepository<Address, Integer> {
 	
+	String SELECT_ADDRESS_PROJECTION = "SELECT new com.selimhorri.app.repository.projection.AddressProjection("
+			+ "a.addressId, a.fullAddress, a.postalCode, a.city, "
+			+ "u.userId, u.firstName, u.lastName, u.imageUrl, u.email, u.phone) ";
+	
+	@Query(SELECT_ADDRESS_PROJECTION + "FROM Address a LEFT JOIN a.user u")
+	List<AddressProjection> findAllProjectedBy();
+	
+	@Query(SELECT_ADDRESS_PROJECTION + "FROM Address a LEFT JOIN a.user u")
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "100"))
+	Stream<AddressProjection> streamAllProjectedBy();
+	
+	@Query(SELECT_ADDRESS_PROJECTION + "FROM Address a LEFT JOIN a.user u WHERE a.addressId = :addressId")
+	Optional<AddressProjection> findProjectedByAddressId(final Integer addressId);
+	
+	@Query(SELECT_ADDRESS_PROJECTION + "FROM Address a LEFT JOIN a.user u WHERE a.addressId IN :addressIds")
+	List<AddressProjection> findAllProjectedByAddressIdIn(final Collection<Integer> addressIds);
+	
+	@Query(SELECT_ADDRESS_PROJECTION + "FROM Address a JOIN a.user u WHERE u.userId = :userId")
+	Slice<AddressProjection> findByUserUserId(final Integer userId, final Pageable pageable);
 	
+	@EntityGraph(attributePaths = {"user"})
+	@Query("SELECT a FROM Address a WHERE a.updatedAt >= :changedAt AND a.updatedAt <= :upTo "
+			+ "AND (a.updatedAt > :changedAt OR a.addressId > :addressId) ORDER BY a.updatedAt, a.addressId")
+	List<Address> findChangedAfter(final Instant changedAt, final Integer addressId, final Instant upTo,
+			final Pageable pageable);
 	
 }
@@ -1,8 +1,17 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,7 +20,28 @@ import com.selimhorri.app.domain.Credential;
 
 public interface CredentialRepository extends JpaRepository<Credential, Integer> {
 
+	@Override
+	@EntityGraph(attributePaths = {"user"})
+	List<Credential> findAll();
+	
+	@EntityGraph(attributePaths = {"user"})
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "100"))
+	Stream<Credential> streamAllBy();
+	
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+		@QueryHint(name = "org.hibernate.cacheRegion", value = "credential-by-username")
+	})
 	Optional<Credential> findByUsername(final String username);
+	
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+		@QueryHint(name = "org.hibernate.cacheRegion", value = "credential-by-user-id")
+	})
+	Optional<Credential> findByUserUserId(final Integer userId);
+	
+	@EntityGraph(attributePaths = {"user"})
+	List<Credential> findAllByUserUserIdIn(final Collection<Integer> userIds);
 
 	boolean existsByUsername(String username);
 
@@ -22,4 +52,10 @@ public interface CredentialRepository extends JpaRepository<Credential, Integer>
     @Query("DELETE FROM Credential c WHERE c.credentialId = :credentialId")
     void deleteByCredentialId(Integer credentialId);
 
+	@EntityGraph(attributePaths = {"user"})
+	@Query("SELECT c FROM Credential c WHERE c.updatedAt >= :changedAt AND c.updatedAt <= :upTo "
+			+ "AND (c.updatedAt > :changedAt OR c.credentialId > :credentialId) ORDER BY c.updatedAt, c.credentialId")
+	List<Credential> findChangedAfter(final Instant changedAt, final Integer credentialId, final Instant upTo,
+			final Pageable pageable);
+
 }
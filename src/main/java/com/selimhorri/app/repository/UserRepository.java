@@ -1,13 +1,39 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.selimhorri.app.domain.User;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 	
+	@Override
+	@EntityGraph(attributePaths = {"credential"})
+	List<User> findAll();
+	
+	@EntityGraph(attributePaths = {"credential"})
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "100"))
+	Stream<User> streamAllBy();
+	
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+		@QueryHint(name = "org.hibernate.cacheRegion", value = "user-by-username")
+	})
 	Optional<User> findByCredentialUsername(final String username);
 	
+	@EntityGraph(attributePaths = {"credential"})
+	@Query("SELECT u FROM User u WHERE u.updatedAt >= :changedAt AND u.updatedAt <= :upTo "
+			+ "AND (u.updatedAt > :changedAt OR u.userId > :userId) ORDER BY u.updatedAt, u.userId")
+	List<User> findChangedAfter(final Instant changedAt, final Integer userId, final Instant upTo, final Pageable pageable);
+	
 }
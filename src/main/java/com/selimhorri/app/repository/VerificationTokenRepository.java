@@ -1,11 +1,29 @@
 package com.selimhorri.app.repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.selimhorri.app.domain.VerificationToken;
 
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Integer> {
 	
+	@Override
+	@EntityGraph(attributePaths = {"credential"})
+	List<VerificationToken> findAll();
+	
+	@EntityGraph(attributePaths = {"credential"})
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "100"))
+	Stream<VerificationToken> streamAllBy();
 	
+	@Override
+	@EntityGraph(attributePaths = {"credential"})
+	Optional<VerificationToken> findById(final Integer verificationTokenId);
 	
 }
@@ -0,0 +1,27 @@
+package com.selimhorri.app.repository.projection;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+@Builder
+public final class AddressProjection implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final Integer addressId;
+	private final String fullAddress;
+	private final String postalCode;
+	private final String city;
+	private final Integer userId;
+	private final String firstName;
+	private final String lastName;
+	private final String imageUrl;
+	private final String email;
+	private final String phone;
+	
+}
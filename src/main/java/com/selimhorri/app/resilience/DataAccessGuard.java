@@ -0,0 +1,192 @@
+package com.selimhorri.app.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.persistence.PersistenceException;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Puts the {@code userService} circuit breaker in front of every database call.
+ * Reads run on a bounded executor under the time limiter, inside their own
+ * read-only transaction (or none, see {@link #readWithoutTransaction}), and
+ * fall back to the {@link StaleCache} when the breaker is open or the database
+ * fails; writes run in the caller's transaction and fail fast with 503 while
+ * the breaker is open.
+ * Streamed reads stay on the caller thread, see {@link #stream(String, Consumer, Consumer)}.
+ * With {@code callerRuns} (virtual threads) reads stay on the caller thread too:
+ * handing them to a platform executor only parks the virtual thread on a second
+ * thread, and the query and transaction timeouts bound them instead of the time limiter.
+ */
+@Slf4j
+public class DataAccessGuard {
+	
+	private final CircuitBreaker circuitBreaker;
+	private final TimeLimiter timeLimiter;
+	private final ExecutorService executorService;
+	private final TransactionOperations readOnlyTransaction;
+	private final StaleCache staleCache;
+	private final Duration streamDeadline;
+	private final MeterRegistry meterRegistry;
+	private final boolean callerRuns;
+	
+	public DataAccessGuard(final CircuitBreaker circuitBreaker, final TimeLimiter timeLimiter,
+			final ExecutorService executorService, final TransactionOperations readOnlyTransaction,
+			final StaleCache staleCache, final Duration streamDeadline, final MeterRegistry meterRegistry) {
+		this(circuitBreaker, timeLimiter, executorService, readOnlyTransaction, staleCache, streamDeadline, meterRegistry, false);
+	}
+	
+	public DataAccessGuard(final CircuitBreaker circuitBreaker, final TimeLimiter timeLimiter,
+			final ExecutorService executorService, final TransactionOperations readOnlyTransaction,
+			final StaleCache staleCache, final Duration streamDeadline, final MeterRegistry meterRegistry,
+			final boolean callerRuns) {
+		this.circuitBreaker = circuitBreaker;
+		this.timeLimiter = timeLimiter;
+		this.executorService = executorService;
+		this.readOnlyTransaction = readOnlyTransaction;
+		this.staleCache = staleCache;
+		this.streamDeadline = streamDeadline;
+		this.meterRegistry = meterRegistry;
+		this.callerRuns = callerRuns;
+	}
+	
+	public <T> T read(final String operation, final Object key, final Supplier<T> loader) {
+		return this.guarded(operation, key, this.limited(this.inReadOnlyTransaction(loader)), true);
+	}
+	
+	/**
+	 * Same as {@link #read(String, Object, Supplier)}, but a failure throws 503 instead of
+	 * serving the stale copy: for callers that keep the result as freshly loaded.
+	 */
+	public <T> T readFresh(final String operation, final Object key, final Supplier<T> loader) {
+		return this.guarded(operation, key, this.limited(this.inReadOnlyTransaction(loader)), false);
+	}
+	
+	/**
+	 * Same breaker, time limiter and stale fallback as {@link #read(String, Object, Supplier)},
+	 * but without a transaction: for loaders that only wait on a {@link com.selimhorri.app.concurrent.BatchLoader},
+	 * whose batch opens its own, so the waiting callers hold no connection.
+	 */
+	public <T> T readWithoutTransaction(final String operation, final Object key, final Supplier<T> loader) {
+		return this.guarded(operation, key, this.limited(EndpointClass.propagate(loader::get)), true);
+	}
+	
+	/**
+	 * {@link #readWithoutTransaction(String, Object, Supplier)} without the stale fallback, see {@link #readFresh}.
+	 */
+	public <T> T readFreshWithoutTransaction(final String operation, final Object key, final Supplier<T> loader) {
+		return this.guarded(operation, key, this.limited(EndpointClass.propagate(loader::get)), false);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T guarded(final String operation, final Object key, final Callable<T> call, final boolean staleAllowed) {
+		try {
+			final T value = this.circuitBreaker.executeCallable(call);
+			this.staleCache.put(operation, key, value);
+			return value;
+		}
+		catch (CallNotPermittedException | TimeoutException | RejectedExecutionException
+				| DataAccessException | PersistenceException | TransactionException e) {
+			if (!staleAllowed) {
+				log.warn("*** DataAccessGuard; {} with key {} failed ({}), no fallback *", operation, key, e.getClass().getSimpleName());
+				throw new ServiceUnavailableException(String.format("%s is unavailable, try again later", operation), e);
+			}
+			final var stale = this.staleCache.get(operation, key);
+			this.fallbackCounter(operation, stale.isPresent() ? "stale" : "miss").increment();
+			log.warn("*** DataAccessGuard; {} with key {} failed ({}), serving {} *",
+					operation, key, e.getClass().getSimpleName(), stale.isPresent() ? "stale copy" : "503");
+			return (T) stale.orElseThrow(() -> new ServiceUnavailableException(
+					String.format("%s is unavailable, try again later", operation), e));
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Runs {@code reader} on the caller thread inside a read-only transaction that
+	 * stays open, holding its connection, while {@code action} writes the rows to
+	 * the client. The time limiter and stale copies don't apply (rows already sent
+	 * cannot be replaced); instead the stream is cut, and the connection released,
+	 * at the first row pushed after {@code streamDeadline}. A write blocked on a
+	 * stalled client is bounded by the server's connection timeout.
+	 */
+	public <T> void stream(final String operation, final Consumer<? super T> action, final Consumer<Consumer<? super T>> reader) {
+		final long deadline = System.nanoTime() + this.streamDeadline.toNanos();
+		final Consumer<T> deadlined = row -> {
+			if (System.nanoTime() - deadline > 0) {
+				this.fallbackCounter(operation, "deadline").increment();
+				log.warn("*** DataAccessGuard; {} still streaming after {}, aborting *", operation, this.streamDeadline);
+				throw new ServiceUnavailableException(String.format("%s exceeded its %s stream deadline", operation, this.streamDeadline));
+			}
+			action.accept(row);
+		};
+		try {
+			this.circuitBreaker.executeRunnable(() -> this.readOnlyTransaction.executeWithoutResult(status -> reader.accept(deadlined)));
+		}
+		catch (CallNotPermittedException e) {
+			this.fallbackCounter(operation, "rejected").increment();
+			throw new ServiceUnavailableException(String.format("%s is unavailable, try again later", operation), e);
+		}
+	}
+	
+	public <T> T write(final String operation, final Supplier<T> writer) {
+		try {
+			return this.circuitBreaker.executeSupplier(writer);
+		}
+		catch (CallNotPermittedException e) {
+			this.fallbackCounter(operation, "rejected").increment();
+			throw new ServiceUnavailableException(String.format("%s is unavailable, try again later", operation), e);
+		}
+	}
+	
+	public void write(final String operation, final Runnable writer) {
+		this.write(operation, () -> {
+			writer.run();
+			return null;
+		});
+	}
+	
+	private <T> Callable<T> inReadOnlyTransaction(final Supplier<T> loader) {
+		return EndpointClass.propagate(() -> this.readOnlyTransaction.execute(status -> loader.get()));
+	}
+	
+	// dentro de una transaccion ya abierta no se cambia de hilo: ni tiempo limite ni segunda conexion
+	private <T> Callable<T> limited(final Callable<T> task) {
+		if (this.callerRuns || TransactionSynchronizationManager.isActualTransactionActive())
+			return task;
+		return this.timeLimiter.decorateFutureSupplier(() -> this.executorService.submit(task));
+	}
+	
+	private Counter fallbackCounter(final String operation, final String outcome) {
+		return Counter.builder("circuitbreaker.fallback")
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.register(this.meterRegistry);
+	}
+	
+	
+	
+}
@@ -0,0 +1,98 @@
+package com.selimhorri.app.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Last successful result of every guarded read, kept only to answer while the
+ * database is unreachable. Collections (findAll lists) are not kept: a stale
+ * copy of a whole table costs as much as the table. Bounded to {@code maxEntries} by evicting the least recently used
+ * entries; entries older than {@code maxStaleness} are never served.
+ */
+public class StaleCache {
+	
+	private final int maxEntries;
+	private final int evictTo;
+	private final Duration maxStaleness;
+	private final Clock clock;
+	private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong ticks = new AtomicLong();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	
+	public StaleCache(final int maxEntries, final Duration maxStaleness, final Clock clock) {
+		this.maxEntries = maxEntries;
+		// se desaloja un 10% de una vez para no ordenar el mapa en cada put
+		this.evictTo = maxEntries - maxEntries / 10;
+		this.maxStaleness = maxStaleness;
+		this.clock = clock;
+	}
+	
+	public void put(final String operation, final Object key, final Object value) {
+		if (value instanceof Collection)
+			return;
+		this.entries.put(List.of(operation, key), new Entry(value, this.clock.instant(), this.ticks.incrementAndGet()));
+		if (this.entries.size() > this.maxEntries)
+			this.evict();
+	}
+	
+	public Optional<Object> get(final String operation, final Object key) {
+		final List<Object> cacheKey = List.of(operation, key);
+		final Entry entry = this.entries.get(cacheKey);
+		if (entry == null)
+			return Optional.empty();
+		if (entry.storedAt.plus(this.maxStaleness).isBefore(this.clock.instant())) {
+			this.entries.remove(cacheKey, entry);
+			return Optional.empty();
+		}
+		entry.lastAccess = this.ticks.incrementAndGet();
+		return Optional.of(entry.value);
+	}
+	
+	public int size() {
+		return this.entries.size();
+	}
+	
+	// un solo hilo desaloja; los demas siguen sin esperar y el mapa puede pasarse un momento del limite
+	private void evict() {
+		if (!this.evictionLock.tryLock())
+			return;
+		try {
+			final int excess = this.entries.size() - this.evictTo;
+			if (excess <= 0 || this.entries.size() <= this.maxEntries)
+				return;
+			this.entries.entrySet().stream()
+					// se fija el ultimo acceso antes de ordenar: los get concurrentes lo siguen cambiando
+					.map(candidate -> Map.entry(candidate, candidate.getValue().lastAccess))
+					.sorted(Map.Entry.comparingByValue())
+					.limit(excess)
+					.map(Map.Entry::getKey)
+					.forEach(eldest -> this.entries.remove(eldest.getKey(), eldest.getValue()));
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	private static final class Entry {
+		
+		private final Object value;
+		private final Instant storedAt;
+		private volatile long lastAccess;
+		
+		private Entry(final Object value, final Instant storedAt, final long lastAccess) {
+			this.value = value;
+			this.storedAt = storedAt;
+			this.lastAccess = lastAccess;
+		}
+		
+	}
+	
+}
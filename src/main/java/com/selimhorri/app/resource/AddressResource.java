@@ -12,10 +12,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
 import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.StreamingDtoCollectionResponse;
 import com.selimhorri.app.service.AddressService;
 
 import lombok.RequiredArgsConstructor;
@@ -32,7 +36,15 @@ public class AddressResource {
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<AddressDto>> findAll() {
 		log.info("*** AddressDto List, controller; fetch all addresss *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.addressService.findAll()));
+		return ResponseEntity.ok(new StreamingDtoCollectionResponse<AddressDto>(this.addressService::streamAll));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<AddressDto>> findChanges(
+			@RequestParam(name = "since", required = false) final String since, 
+			@RequestParam(name = "limit", defaultValue = "100") final int limit) {
+		log.info("*** AddressDto ChangeFeed, resource; fetch address changes since watermark *");
+		return ResponseEntity.ok(this.addressService.findChanges(ChangeCursor.parse(since), limit));
 	}
 	
 	@GetMapping("/{addressId}")
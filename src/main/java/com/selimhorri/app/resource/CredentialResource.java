@@ -12,10 +12,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
 import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.StreamingDtoCollectionResponse;
 import com.selimhorri.app.service.CredentialService;
 
 import lombok.RequiredArgsConstructor;
@@ -32,7 +36,15 @@ public class CredentialResource {
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<CredentialDto>> findAll() {
 		log.info("*** CredentialDto List, controller; fetch all credentials *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.credentialService.findAll()));
+		return ResponseEntity.ok(new StreamingDtoCollectionResponse<CredentialDto>(this.credentialService::streamAll));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<CredentialDto>> findChanges(
+			@RequestParam(name = "since", required = false) final String since, 
+			@RequestParam(name = "limit", defaultValue = "100") final int limit) {
+		log.info("*** CredentialDto ChangeFeed, resource; fetch credential changes since watermark *");
+		return ResponseEntity.ok(this.credentialService.findChanges(ChangeCursor.parse(since), limit));
 	}
 	
 	@GetMapping("/{credentialId}")
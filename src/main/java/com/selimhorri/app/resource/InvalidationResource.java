@@ -0,0 +1,45 @@
+package com.selimhorri.app.resource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimhorri.app.config.invalidation.InvalidationBatch;
+import com.selimhorri.app.config.invalidation.InvalidationBroadcaster;
+import com.selimhorri.app.config.invalidation.InvalidationReceiver;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Peer-to-peer endpoint of the invalidation bus; outside {@code /api} so it
+ * skips the limiter, the bulkheads and the response cache. Callers must send the
+ * shared {@code app.invalidation.secret}; anything else gets 403 and is ignored.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping(value = {InvalidationBroadcaster.PATH})
+@Slf4j
+@RequiredArgsConstructor
+public class InvalidationResource {
+	
+	private final InvalidationReceiver invalidationReceiver;
+	
+	@PostMapping
+	public ResponseEntity<Void> receive(
+			@RequestHeader(name = InvalidationReceiver.SECRET_HEADER, required = false) final String secret,
+			@RequestBody final InvalidationBatch batch) {
+		log.debug("*** Void, resource; receive invalidation batch {} from {} *", batch.getSequence(), batch.getOrigin());
+		if (!this.invalidationReceiver.receive(secret, batch))
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		return ResponseEntity.noContent().build();
+	}
+	
+	
+	
+}
@@ -4,6 +4,8 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,10 +14,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
+import com.selimhorri.app.dto.AddressDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.StreamingDtoCollectionResponse;
+import com.selimhorri.app.service.AddressService;
 import com.selimhorri.app.service.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,12 +35,23 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class UserResource {
 	
+	private static final int MAX_PAGE_SIZE = 100;
+	
 	private final UserService userService;
+	private final AddressService addressService;
 	
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<UserDto>> findAll() {
 		log.info("*** UserDto List, controller; fetch all users *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.userService.findAll()));
+		return ResponseEntity.ok(new StreamingDtoCollectionResponse<UserDto>(this.userService::streamAll));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<UserDto>> findChanges(
+			@RequestParam(name = "since", required = false) final String since, 
+			@RequestParam(name = "limit", defaultValue = "100") final int limit) {
+		log.info("*** UserDto ChangeFeed, resource; fetch user changes since watermark *");
+		return ResponseEntity.ok(this.userService.findChanges(ChangeCursor.parse(since), limit));
 	}
 	
 	@GetMapping("/{userId}")
@@ -44,6 +63,20 @@ public class UserResource {
 		return ResponseEntity.ok(this.userService.findById(Integer.parseInt(userId.strip())));
 	}
 	
+	@GetMapping("/{userId}/addresses")
+	public ResponseEntity<DtoCollectionResponse<AddressDto>> findAddressesByUserId(
+			@PathVariable("userId") 
+			@NotBlank(message = "Input must not blank") 
+			@Valid final String userId, 
+			@RequestParam(name = "page", defaultValue = "0") final int page, 
+			@RequestParam(name = "size", defaultValue = "20") final int size) {
+		log.info("*** AddressDto List, resource; fetch addresses by userId *");
+		final var pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), 
+				Sort.by("addressId"));
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				this.addressService.findAllByUserId(Integer.parseInt(userId.strip()), pageable)));
+	}
+	
 	@PostMapping
 	public ResponseEntity<UserDto> save(
 			@RequestBody 
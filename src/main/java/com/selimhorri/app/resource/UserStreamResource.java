@@ -0,0 +1,37 @@
+package com.selimhorri.app.resource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.selimhorri.app.config.userstream.UserEventHub;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-Sent Events of committed user and credential changes. The request
+ * thread returns right away; idle connections hold no thread.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.user-stream.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping(value = {"/api/users"})
+@Slf4j
+@RequiredArgsConstructor
+public class UserStreamResource {
+	
+	private final UserEventHub userEventHub;
+	
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) final String lastEventId) {
+		log.info("*** SseEmitter, resource; subscribe to user changes from {} *", lastEventId);
+		return this.userEventHub.subscribe(lastEventId);
+	}
+	
+	
+	
+}
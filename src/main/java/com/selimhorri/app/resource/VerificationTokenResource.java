@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.selimhorri.app.dto.VerificationTokenDto;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.StreamingDtoCollectionResponse;
 import com.selimhorri.app.service.VerificationTokenService;
 
 import lombok.RequiredArgsConstructor;
@@ -32,7 +33,7 @@ public class VerificationTokenResource {
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<VerificationTokenDto>> findAll() {
 		log.info("*** VerificationTokenDto List, controller; fetch all verificationTokens *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.verificationTokenService.findAll()));
+		return ResponseEntity.ok(new StreamingDtoCollectionResponse<VerificationTokenDto>(this.verificationTokenService::streamAll));
 	}
 	
 	@GetMapping("/{verificationTokenId}")
@@ -1,13 +1,21 @@
 package com.selimhorri.app.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.springframework.data.domain.Pageable;
+
+import com.selimhorri.app.changefeed.ChangeCursor;
 import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 
 public interface AddressService {
 	
 	List<AddressDto> findAll();
+	void streamAll(final Consumer<? super AddressDto> action);
+	ChangeFeedResponse<AddressDto> findChanges(final ChangeCursor since, final int limit);
 	AddressDto findById(final Integer addressId);
+	List<AddressDto> findAllByUserId(final Integer userId, final Pageable pageable);
 	AddressDto save(final AddressDto addressDto);
 	AddressDto update(final AddressDto addressDto);
 	AddressDto update(final Integer addressId, final AddressDto addressDto);
@@ -1,12 +1,17 @@
 package com.selimhorri.app.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
 import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 
 public interface CredentialService {
 	
 	List<CredentialDto> findAll();
+	void streamAll(final Consumer<? super CredentialDto> action);
+	ChangeFeedResponse<CredentialDto> findChanges(final ChangeCursor since, final int limit);
 	CredentialDto findById(final Integer credentialId);
 	CredentialDto save(final CredentialDto credentialDto);
 	CredentialDto update(final CredentialDto credentialDto);
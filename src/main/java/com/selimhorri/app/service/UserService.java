@@ -1,12 +1,17 @@
 package com.selimhorri.app.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 
 public interface UserService {
 	
 	List<UserDto> findAll();
+	void streamAll(final Consumer<? super UserDto> action);
+	ChangeFeedResponse<UserDto> findChanges(final ChangeCursor since, final int limit);
 	UserDto findById(final Integer userId);
 	UserDto save(final UserDto userDto);
 	UserDto update(final UserDto userDto);
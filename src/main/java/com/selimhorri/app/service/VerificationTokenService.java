@@ -1,12 +1,14 @@
 package com.selimhorri.app.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.selimhorri.app.dto.VerificationTokenDto;
 
 public interface VerificationTokenService {
 	
 	List<VerificationTokenDto> findAll();
+	void streamAll(final Consumer<? super VerificationTokenDto> action);
 	VerificationTokenDto findById(final Integer verificationTokenId);
 	VerificationTokenDto save(final VerificationTokenDto verificationTokenDto);
 	VerificationTokenDto update(final VerificationTokenDto verificationTokenDto);
@@ -1,17 +1,34 @@
 package com.selimhorri.app.service.impl;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
+import com.selimhorri.app.changefeed.ChangeFeed;
+import com.selimhorri.app.domain.Address;
 import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
 import com.selimhorri.app.exception.wrapper.AddressNotFoundException;
 import com.selimhorri.app.helper.AddressMappingHelper;
 import com.selimhorri.app.repository.AddressRepository;
+import com.selimhorri.app.repository.projection.AddressProjection;
+import com.selimhorri.app.resilience.DataAccessGuard;
 import com.selimhorri.app.service.AddressService;
+import com.selimhorri.app.service.loader.AddressBatchLoader;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,52 +40,112 @@ import lombok.extern.slf4j.Slf4j;
 public class AddressServiceImpl implements AddressService {
 	
 	private final AddressRepository addressRepository;
+	private final AddressBatchLoader addressBatchLoader;
+	private final DataAccessGuard dataAccessGuard;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ChangeFeed changeFeed;
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
 	public List<AddressDto> findAll() {
 		log.info("*** AddressDto List, service; fetch all addresss *");
-		return this.addressRepository.findAll()
+		return this.dataAccessGuard.read("address.findAll", "all", () -> this.addressRepository.findAllProjectedBy()
 				.stream()
 					.map(AddressMappingHelper::map)
 					.distinct()
-					.collect(Collectors.toUnmodifiableList());
+					.collect(Collectors.toUnmodifiableList()));
 	}
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // proyecciones: no quedan entidades en el contexto de persistencia
+	public void streamAll(final Consumer<? super AddressDto> action) {
+		log.info("*** AddressDto Stream, service; stream all addresss *");
+		this.dataAccessGuard.stream("address.streamAll", action, rows -> {
+			try (Stream<AddressProjection> addresses = this.addressRepository.streamAllProjectedBy()) {
+				addresses.map(AddressMappingHelper::map)
+						.forEach(rows);
+			}
+		});
+	}
+	
+	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
+	public ChangeFeedResponse<AddressDto> findChanges(final ChangeCursor since, final int limit) {
+		log.info("*** AddressDto ChangeFeed, service; fetch address changes *");
+		return this.dataAccessGuard.read("address.findChanges", List.of(since, limit), () -> this.changeFeed.read(EntityType.ADDRESS, since, limit,
+				(after, upTo, max) -> this.addressRepository.findChangedAfter(after.getChangedAt(), after.getId(), upTo, PageRequest.of(0, max))
+						.stream()
+							.map(address -> ChangeDto.upsert(address.getAddressId(), address.getUpdatedAt(),
+									AddressMappingHelper.map(address)))
+							.collect(Collectors.toUnmodifiableList())));
+	}
+	
+	@Override
+	@Transactional(TxType.SUPPORTS) // solo el lote abre transaccion: los que esperan no retienen conexion
 	public AddressDto findById(final Integer addressId) {
 		log.info("*** AddressDto, service; fetch address by id *");
-		return this.addressRepository.findById(addressId)
-				.map(AddressMappingHelper::map)
-				.orElseThrow(() -> new AddressNotFoundException(String.format("#### Address with id: %d not found! ####", addressId)));
+		return this.dataAccessGuard.readWithoutTransaction("address.findById", addressId, () -> this.addressBatchLoader.load(addressId)
+				.orElseThrow(() -> new AddressNotFoundException(String.format("#### Address with id: %d not found! ####", addressId))));
+	}
+	
+	@Override
+	@Transactional(TxType.SUPPORTS)
+	public List<AddressDto> findAllByUserId(final Integer userId, final Pageable pageable) {
+		log.info("*** AddressDto List, service; fetch addresses by userId *");
+		return this.dataAccessGuard.read("address.findAllByUserId", List.of(userId, pageable), () -> this.addressRepository.findByUserUserId(userId, pageable)
+				.stream()
+					.map(AddressMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList()));
 	}
 	
 	@Override
 	public AddressDto save(final AddressDto addressDto) {
 		log.info("*** AddressDto, service; save address *");
-		return AddressMappingHelper.map(this.addressRepository.save(AddressMappingHelper.map(addressDto)));
+		return this.dataAccessGuard.write("address.save",
+				() -> this.saveAndPublish(ChangeType.CREATED, AddressMappingHelper.map(addressDto)));
 	}
 	
 	@Override
 	public AddressDto update(final AddressDto addressDto) {
 		log.info("*** AddressDto, service; update address *");
-		return AddressMappingHelper.map(this.addressRepository.save(AddressMappingHelper.map(addressDto)));
+		return this.dataAccessGuard.write("address.update",
+				() -> this.saveAndPublish(ChangeType.UPDATED, AddressMappingHelper.map(addressDto)));
 	}
 	
 	@Override
 	public AddressDto update(final Integer addressId, final AddressDto addressDto) {
 		log.info("*** AddressDto, service; update address with addressId *");
-		return AddressMappingHelper.map(this.addressRepository.save(
+		return this.dataAccessGuard.write("address.update", () -> this.saveAndPublish(ChangeType.UPDATED,
 				AddressMappingHelper.map(this.findById(addressId))));
 	}
 	
 	@Override
 	public void deleteById(final Integer addressId) {
 		log.info("*** Void, service; delete address by id *");
-		this.addressRepository.deleteById(addressId);
+		this.dataAccessGuard.write("address.deleteById", () -> {
+			this.addressRepository.deleteById(addressId);
+			this.publishAddressChanged(ChangeType.DELETED, addressId);
+		});
+	}
+	
+	private AddressDto saveAndPublish(final ChangeType changeType, final Address address) {
+		final Address saved = this.addressRepository.save(address);
+		this.publishAddressChanged(changeType, saved.getAddressId());
+		return AddressMappingHelper.map(saved);
+	}
+	
+	// las representaciones de usuario y credencial no incluyen direcciones: solo la propia entidad
+	private void publishAddressChanged(final ChangeType changeType, final Integer addressId) {
+		this.eventPublisher.publishEvent(EntityChangedEvent.builder()
+				.entityType(EntityType.ADDRESS)
+				.changeType(changeType)
+				.entityId(addressId)
+				.build());
 	}
 	
 	
 	
+	
 }
 
 
@@ -1,17 +1,34 @@
 package com.selimhorri.app.service.impl;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.selimhorri.app.changefeed.ChangeCursor;
+import com.selimhorri.app.changefeed.ChangeFeed;
+import com.selimhorri.app.concurrent.SingleFlight;
+import com.selimhorri.app.domain.Credential;
 import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
 import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
 import com.selimhorri.app.helper.CredentialMappingHelper;
 import com.selimhorri.app.repository.CredentialRepository;
+import com.selimhorri.app.resilience.DataAccessGuard;
 import com.selimhorri.app.service.CredentialService;
 
 import lombok.RequiredArgsConstructor;
@@ -24,54 +41,126 @@ import lombok.extern.slf4j.Slf4j;
 public class CredentialServiceImpl implements CredentialService {
 	
 	private final CredentialRepository credentialRepository;
+	private final SingleFlight singleFlight;
+	private final DataAccessGuard dataAccessGuard;
+	private final EntityManager entityManager;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ChangeFeed changeFeed;
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
 	public List<CredentialDto> findAll() {
 		log.info("*** CredentialDto List, service; fetch all credentials *");
-		return this.credentialRepository.findAll()
+		return this.dataAccessGuard.read("credential.findAll", "all", () -> this.credentialRepository.findAll()
 				.stream()
 					.map(CredentialMappingHelper::map)
 					.distinct()
-					.collect(Collectors.toUnmodifiableList());
+					.collect(Collectors.toUnmodifiableList()));
 	}
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // el DataAccessGuard abre la transaccion de solo lectura en este hilo
+	public void streamAll(final Consumer<? super CredentialDto> action) {
+		log.info("*** CredentialDto Stream, service; stream all credentials *");
+		this.dataAccessGuard.stream("credential.streamAll", action, rows -> {
+			try (Stream<Credential> credentials = this.credentialRepository.streamAllBy()) {
+				credentials.forEach(credential -> {
+					rows.accept(CredentialMappingHelper.map(credential));
+					this.entityManager.detach(credential);
+					if (credential.getUser() != null)
+						this.entityManager.detach(credential.getUser());
+				});
+			}
+		});
+	}
+	
+	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
+	public ChangeFeedResponse<CredentialDto> findChanges(final ChangeCursor since, final int limit) {
+		log.info("*** CredentialDto ChangeFeed, service; fetch credential changes *");
+		return this.dataAccessGuard.read("credential.findChanges", List.of(since, limit), () -> this.changeFeed.read(EntityType.CREDENTIAL, since, limit,
+				(after, upTo, max) -> this.credentialRepository.findChangedAfter(after.getChangedAt(), after.getId(), upTo, PageRequest.of(0, max))
+						.stream()
+							.map(credential -> ChangeDto.upsert(credential.getCredentialId(), credential.getUpdatedAt(),
+									CredentialMappingHelper.map(credential)))
+							.collect(Collectors.toUnmodifiableList())));
+	}
+	
+	@Override
+	@Transactional(TxType.SUPPORTS)
 	public CredentialDto findById(final Integer credentialId) {
 		log.info("*** CredentialDto, service; fetch credential by ids *");
-		return this.credentialRepository.findById(credentialId)
+		return this.dataAccessGuard.read("credential.findById", credentialId, () -> this.credentialRepository.findById(credentialId)
 				.map(CredentialMappingHelper::map)
-				.orElseThrow(() -> new CredentialNotFoundException(String.format("#### Credential with id: %d not found! ####", credentialId)));
+				.orElseThrow(() -> new CredentialNotFoundException(String.format("#### Credential with id: %d not found! ####", credentialId))));
 	}
 	
 	@Override
 	public CredentialDto save(final CredentialDto credentialDto) {
 		log.info("*** CredentialDto, service; save credential *");
-		return CredentialMappingHelper.map(this.credentialRepository.save(CredentialMappingHelper.map(credentialDto)));
+		return this.dataAccessGuard.write("credential.save", () -> this.saveAndPublish(ChangeType.CREATED, null,
+				CredentialMappingHelper.map(credentialDto)));
 	}
 	
 	@Override
 	public CredentialDto update(final CredentialDto credentialDto) {
 		log.info("*** CredentialDto, service; update credential *");
-		return CredentialMappingHelper.map(this.credentialRepository.save(CredentialMappingHelper.map(credentialDto)));
+		return this.dataAccessGuard.write("credential.update", () -> this.saveAndPublish(ChangeType.UPDATED,
+				this.currentUsername(credentialDto.getCredentialId()), CredentialMappingHelper.map(credentialDto)));
 	}
 	
 	@Override
 	public CredentialDto update(final Integer credentialId, final CredentialDto credentialDto) {
 		log.info("*** CredentialDto, service; update credential with credentialId *");
-		return CredentialMappingHelper.map(this.credentialRepository.save(
-				CredentialMappingHelper.map(this.findById(credentialId))));
+		return this.dataAccessGuard.write("credential.update", () -> {
+			final CredentialDto existing = this.findById(credentialId);
+			return this.saveAndPublish(ChangeType.UPDATED, existing.getUsername(), CredentialMappingHelper.map(existing));
+		});
 	}
 	
 	@Override
 	public void deleteById(final Integer credentialId) {
 		log.info("*** Void, service; delete credential by id *");
-		this.credentialRepository.deleteById(credentialId);
+		this.dataAccessGuard.write("credential.deleteById", () -> {
+			final Optional<Credential> existing = credentialId == null ? Optional.empty() : this.credentialRepository.findById(credentialId);
+			this.credentialRepository.deleteById(credentialId);
+			existing.ifPresent(credential -> this.publishCredentialChanged(ChangeType.DELETED, credential, null));
+		});
 	}
 	
 	@Override
+	@Transactional(TxType.SUPPORTS)
 	public CredentialDto findByUsername(final String username) {
-		return CredentialMappingHelper.map(this.credentialRepository.findByUsername(username)
-				.orElseThrow(() -> new UserObjectNotFoundException(String.format("#### Credential with username: %s not found! ####", username))));
+		log.info("*** CredentialDto, service; fetch credential by username *");
+		return this.singleFlight.execute("credential.findByUsername", username, () -> this.dataAccessGuard.read("credential.findByUsername", username,
+				() -> CredentialMappingHelper.map(this.credentialRepository.findByUsername(username)
+						.orElseThrow(() -> new UserObjectNotFoundException(String.format("#### Credential with username: %s not found! ####", username))))));
+	}
+	
+	// el nombre anterior tambien se invalida: un cambio de username deja la entrada vieja sin dueno
+	private CredentialDto saveAndPublish(final ChangeType changeType, final String previousUsername, final Credential credential) {
+		final Credential saved = this.credentialRepository.save(credential);
+		this.publishCredentialChanged(changeType, saved, previousUsername);
+		return CredentialMappingHelper.map(saved);
+	}
+	
+	private String currentUsername(final Integer credentialId) {
+		return credentialId == null ? null : this.credentialRepository.findById(credentialId)
+				.map(Credential::getUsername)
+				.orElse(null);
+	}
+	
+	private void publishCredentialChanged(final ChangeType changeType, final Credential credential, final String previousUsername) {
+		final var event = EntityChangedEvent.builder()
+				.entityType(EntityType.CREDENTIAL)
+				.changeType(changeType)
+				.entityId(credential.getCredentialId())
+				.userId(credential.getUser() != null ? credential.getUser().getUserId() : null);
+		if (credential.getUsername() != null)
+			event.username(credential.getUsername());
+		if (previousUsername != null)
+			event.username(previousUsername);
+		this.eventPublisher.publishEvent(event.build());
 	}
 	
 	
@@ -1,20 +1,44 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.selimhorri.app.cache.OffHeapProfileStore;
+import com.selimhorri.app.cache.StoredProfile;
+import com.selimhorri.app.changefeed.ChangeCursor;
+import com.selimhorri.app.changefeed.ChangeFeed;
+import com.selimhorri.app.concurrent.RefreshAhead;
+import com.selimhorri.app.concurrent.SingleFlight;
 import com.selimhorri.app.domain.User;
+import com.selimhorri.app.dto.CredentialDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
 import com.selimhorri.app.helper.UserMappingHelper;
 import com.selimhorri.app.repository.CredentialRepository;
 import com.selimhorri.app.repository.UserRepository;
+import com.selimhorri.app.resilience.DataAccessGuard;
 import com.selimhorri.app.service.UserService;
+import com.selimhorri.app.service.loader.UserBatchLoader;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,110 +51,267 @@ public class UserServiceImpl implements UserService {
 
 	private final UserRepository userRepository;
 	private final CredentialRepository credentialRepository;
+	private final SingleFlight singleFlight;
+	private final UserBatchLoader userBatchLoader;
+	private final DataAccessGuard dataAccessGuard;
+	private final EntityManager entityManager;
+	private final ApplicationEventPublisher eventPublisher;
+	private final OffHeapProfileStore offHeapProfileStore;
+	private final RefreshAhead profileRefreshAhead;
+	private final ChangeFeed changeFeed;
 
 	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
 	public List<UserDto> findAll() {
 		log.info("*** UserDto List, service; fetch all users with credentials *");
-		return this.userRepository.findAll()
+		return this.dataAccessGuard.read("user.findAll", "all", () -> this.userRepository.findAll()
 				.stream()
 				.filter(user -> user.getCredential() != null) // Asumiendo que hay un getCredentials()
 				.map(UserMappingHelper::map)
 				.distinct()
-				.collect(Collectors.toUnmodifiableList());
+				.collect(Collectors.toUnmodifiableList()));
 	}
 
 	@Override
+	@Transactional(TxType.SUPPORTS) // el DataAccessGuard abre la transaccion de solo lectura en este hilo
+	public void streamAll(final Consumer<? super UserDto> action) {
+		log.info("*** UserDto Stream, service; stream all users with credentials *");
+		this.dataAccessGuard.stream("user.streamAll", action, rows -> {
+			try (Stream<User> users = this.userRepository.streamAllBy()) {
+				users.forEach(user -> {
+					if (user.getCredential() != null)
+						rows.accept(UserMappingHelper.map(user));
+					this.entityManager.detach(user); // en cascada a la credencial: el contexto no crece con la tabla
+				});
+			}
+		});
+	}
+
+	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
+	public ChangeFeedResponse<UserDto> findChanges(final ChangeCursor since, final int limit) {
+		log.info("*** UserDto ChangeFeed, service; fetch user changes *");
+		return this.dataAccessGuard.read("user.findChanges", List.of(since, limit), () -> this.changeFeed.read(EntityType.USER, since, limit,
+				(after, upTo, max) -> this.userRepository.findChangedAfter(after.getChangedAt(), after.getId(), upTo, PageRequest.of(0, max))
+						.stream()
+						.map(user -> ChangeDto.upsert(user.getUserId(), user.getUpdatedAt(), UserMappingHelper.map(user)))
+						.collect(Collectors.toUnmodifiableList())));
+	}
+
+	@Override
+	@Transactional(TxType.SUPPORTS) // solo el lote abre transaccion: los que esperan no retienen conexion
 	public UserDto findById(final Integer userId) {
 		log.info("*** UserDto, service; fetch user by id with credentials *");
-		return this.userRepository.findById(userId)
-				.filter(user -> user.getCredential() != null) // Filtramos que tenga credenciales
-				.map(UserMappingHelper::map)
-				.orElseThrow(
-						() -> new UserObjectNotFoundException(
-								String.format("User with id: %d not found or has no credentials", userId)));
+		final Optional<StoredProfile> stored = this.offHeapProfileStore.findById(userId);
+		if (stored.isPresent()) {
+			if (stored.get().isRefreshDue())
+				this.profileRefreshAhead.refresh(List.of("user.findById", userId), () -> this.refreshById(userId));
+			final Optional<UserDto> withPassword = this.withPassword(stored.get().getUserDto());
+			if (withPassword.isPresent())
+				return withPassword.get();
+		}
+		return this.loadById(userId);
+	}
+
+	private UserDto loadById(final Integer userId) {
+		return this.singleFlight.execute("user.findById", userId,
+				() -> this.dataAccessGuard.readWithoutTransaction("user.findById", userId, this.storingById(userId)));
+	}
+
+	// en segundo plano: si falla la lectura se queda la copia que habia, y si el usuario ya no existe se quita
+	private void refreshById(final Integer userId) {
+		try {
+			this.dataAccessGuard.readFreshWithoutTransaction("user.findById", userId, this.storingById(userId));
+		}
+		catch (UserObjectNotFoundException e) {
+			this.offHeapProfileStore.invalidate(userId, List.of());
+		}
+	}
+
+	// solo lo leido de la base entra en el store: la copia stale del guard no
+	private Supplier<UserDto> storingById(final Integer userId) {
+		final long version = this.offHeapProfileStore.versionOf(userId);
+		final long start = System.nanoTime();
+		return () -> {
+			final UserDto userDto = this.userBatchLoader.load(userId) // Solo usuarios con credenciales
+					.orElseThrow(
+							() -> new UserObjectNotFoundException(
+									String.format("User with id: %d not found or has no credentials", userId)));
+			this.offHeapProfileStore.putById(userDto, version, Duration.ofNanos(System.nanoTime() - start));
+			return userDto;
+		};
 	}
 
 	@Override
+	@Transactional(TxType.SUPPORTS)
 	public UserDto findByUsername(final String username) {
 		log.info("*** UserDto, service; fetch user with username *");
-		return UserMappingHelper.map(this.userRepository.findByCredentialUsername(username)
-				.orElseThrow(() -> new UserObjectNotFoundException(
-						String.format("User with username: %s not found", username))));
+		final Optional<StoredProfile> stored = this.offHeapProfileStore.findByUsername(username);
+		if (stored.isPresent()) {
+			if (stored.get().isRefreshDue())
+				this.profileRefreshAhead.refresh(List.of("user.findByUsername", username), () -> this.refreshByUsername(username));
+			final Optional<UserDto> withPassword = this.withPassword(stored.get().getUserDto());
+			if (withPassword.isPresent())
+				return withPassword.get();
+		}
+		return this.loadByUsername(username);
+	}
+
+	private UserDto loadByUsername(final String username) {
+		return this.singleFlight.execute("user.findByUsername", username,
+				() -> this.dataAccessGuard.read("user.findByUsername", username, this.storingByUsername(username)));
+	}
+
+	private void refreshByUsername(final String username) {
+		try {
+			this.dataAccessGuard.readFresh("user.findByUsername", username, this.storingByUsername(username));
+		}
+		catch (UserObjectNotFoundException e) {
+			this.offHeapProfileStore.invalidate(null, List.of(username));
+		}
+	}
+
+	private Supplier<UserDto> storingByUsername(final String username) {
+		final long version = this.offHeapProfileStore.versionOf(username);
+		final long start = System.nanoTime();
+		return () -> {
+			final UserDto userDto = this.userRepository
+					.findByCredentialUsername(username)
+					.flatMap(this::mapWithCredential)
+					.orElseThrow(() -> new UserObjectNotFoundException(
+							String.format("User with username: %s not found", username)));
+			this.offHeapProfileStore.putByUsername(username, userDto, version, Duration.ofNanos(System.nanoTime() - start));
+			return userDto;
+		};
 	}
 
 	@Override
 	public UserDto save(final UserDto userDto) {
 		log.info("*** UserDto, service; save user *");
 		userDto.setUserId(null); // para evitar sobrescribir
-		return UserMappingHelper.map(this.userRepository.save(UserMappingHelper.mapOnlyUser(userDto)));
+		return this.dataAccessGuard.write("user.save", () -> {
+			final User saved = this.userRepository.save(UserMappingHelper.mapOnlyUser(userDto));
+			this.publishUserChanged(ChangeType.CREATED, saved);
+			return UserMappingHelper.map(saved);
+		});
 	}
 
 	@Override
 	public UserDto update(final UserDto userDto) {
 		log.info("*** UserDto, service; update user ***");
-
-		// Buscar el usuario y verificar que tenga credenciales
-		User existingUser = this.userRepository.findById(userDto.getUserId())
-				.filter(user -> user.getCredential() != null) // Solo si tiene credenciales
-				.orElseThrow(() -> new EntityNotFoundException(
-						"User not found or has no credentials (cannot update)"));
-
-		// Actualizar campos permitidos
-		existingUser.setFirstName(userDto.getFirstName());
-		existingUser.setLastName(userDto.getLastName());
-		existingUser.setImageUrl(userDto.getImageUrl());
-		existingUser.setEmail(userDto.getEmail());
-		existingUser.setPhone(userDto.getPhone());
-
-		return UserMappingHelper.map(this.userRepository.save(existingUser));
+		return this.dataAccessGuard.write("user.update", () -> {
+			// Buscar el usuario y verificar que tenga credenciales
+			User existingUser = this.userRepository.findById(userDto.getUserId())
+					.filter(user -> user.getCredential() != null) // Solo si tiene credenciales
+					.orElseThrow(() -> new EntityNotFoundException(
+							"User not found or has no credentials (cannot update)"));
+
+			// Actualizar campos permitidos
+			existingUser.setFirstName(userDto.getFirstName());
+			existingUser.setLastName(userDto.getLastName());
+			existingUser.setImageUrl(userDto.getImageUrl());
+			existingUser.setEmail(userDto.getEmail());
+			existingUser.setPhone(userDto.getPhone());
+
+			final User saved = this.userRepository.save(existingUser);
+			this.publishUserChanged(ChangeType.UPDATED, saved);
+			return UserMappingHelper.map(saved);
+		});
 	}
 
 	@Override
 	public UserDto update(final Integer userId, final UserDto userDto) {
 		log.info("*** UserDto, service; update user with userId ***");
-
-		if (userDto == null) {
-			throw new EntityNotFoundException("UserDto cannot be null");
-		}
-
-		// Verificar que el usuario existe y tiene credenciales
-		User existingUser = this.userRepository.findById(userId)
-				.filter(user -> user.getCredential() != null) // Solo si tiene credenciales
-				.orElseThrow(() -> new EntityNotFoundException(
-						"User not found with id: " + userId + " or has no credentials (cannot update)"));
-
-		// Actualizar campos permitidos
-		existingUser.setFirstName(userDto.getFirstName());
-		existingUser.setLastName(userDto.getLastName());
-		existingUser.setImageUrl(userDto.getImageUrl());
-		existingUser.setEmail(userDto.getEmail());
-		existingUser.setPhone(userDto.getPhone());
-
-		return UserMappingHelper.map(this.userRepository.save(existingUser));
+		return this.dataAccessGuard.write("user.update", () -> {
+			if (userDto == null) {
+				throw new EntityNotFoundException("UserDto cannot be null");
+			}
+
+			// Verificar que el usuario existe y tiene credenciales
+			User existingUser = this.userRepository.findById(userId)
+					.filter(user -> user.getCredential() != null) // Solo si tiene credenciales
+					.orElseThrow(() -> new EntityNotFoundException(
+							"User not found with id: " + userId + " or has no credentials (cannot update)"));
+
+			// Actualizar campos permitidos
+			existingUser.setFirstName(userDto.getFirstName());
+			existingUser.setLastName(userDto.getLastName());
+			existingUser.setImageUrl(userDto.getImageUrl());
+			existingUser.setEmail(userDto.getEmail());
+			existingUser.setPhone(userDto.getPhone());
+
+			final User saved = this.userRepository.save(existingUser);
+			this.publishUserChanged(ChangeType.UPDATED, saved);
+			return UserMappingHelper.map(saved);
+		});
 	}
 
 	@Override
 	@Transactional // Asegura que sea una transacción atómica
 	public void deleteById(final Integer userId) {
 		log.info("*** Void, service; delete credentials from user by id ***");
+		this.dataAccessGuard.write("user.deleteById", () -> {
+			// 1. Buscar el usuario y verificar que existe y tiene credenciales
+			User user = userRepository.findById(userId)
+					.orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+
+			if (user.getCredential() == null) {
+				throw new UserObjectNotFoundException("User with id: " + userId + " has no credentials to delete");
+			}
+
+			// 2. Obtener el ID de las credenciales para borrarlas
+			Integer credentialsId = user.getCredential().getCredentialId();
+			String username = user.getCredential().getUsername();
+
+			// 3. Desvincular las credenciales del usuario (para evitar inconsistencias)
+			user.setCredential(null);
+			userRepository.save(user); // Guardar el cambio
+
+			// 4. Borrar las credenciales de la base de datos
+			credentialRepository.deleteByCredentialId(credentialsId);
+			this.eventPublisher.publishEvent(EntityChangedEvent.builder()
+					.entityType(EntityType.CREDENTIAL)
+					.changeType(ChangeType.DELETED)
+					.entityId(credentialsId)
+					.userId(userId)
+					.username(username)
+					.build());
+		});
+	}
 
-		// 1. Buscar el usuario y verificar que existe y tiene credenciales
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+	private void publishUserChanged(final ChangeType changeType, final User user) {
+		final var event = EntityChangedEvent.builder()
+				.entityType(EntityType.USER)
+				.changeType(changeType)
+				.entityId(user.getUserId())
+				.userId(user.getUserId());
+		if (user.getCredential() != null)
+			event.username(user.getCredential().getUsername());
+		this.eventPublisher.publishEvent(event.build());
+	}
 
-		if (user.getCredential() == null) {
-			throw new UserObjectNotFoundException("User with id: " + userId + " has no credentials to delete");
+	// el store no guarda el hash: se completa desde la credencial (cache de segundo nivel);
+	// si no se puede leer, el acierto cuenta como fallo y se carga de la base
+	private Optional<UserDto> withPassword(final UserDto userDto) {
+		final CredentialDto credentialDto = userDto.getCredentialDto();
+		if (credentialDto == null || credentialDto.getPassword() != null)
+			return Optional.of(userDto);
+		try {
+			return this.credentialRepository.findById(credentialDto.getCredentialId())
+					.map(credential -> {
+						credentialDto.setPassword(credential.getPassword());
+						return userDto;
+					});
 		}
+		catch (DataAccessException e) {
+			return Optional.empty();
+		}
+	}
 
-		// 2. Obtener el ID de las credenciales para borrarlas
-		Integer credentialsId = user.getCredential().getCredentialId();
-
-		// 3. Desvincular las credenciales del usuario (para evitar inconsistencias)
-		user.setCredential(null);
-		userRepository.save(user); // Guardar el cambio
-
-		// 4. Borrar las credenciales de la base de datos
-		credentialRepository.deleteByCredentialId(credentialsId);
+	// Usuario y credencial se resuelven por id / query cache (segundo nivel) en lugar del to-one inverso
+	private Optional<UserDto> mapWithCredential(final User user) {
+		return this.credentialRepository.findByUserUserId(user.getUserId())
+				.map(credential -> UserMappingHelper.map(user, credential));
 	}
 
 }
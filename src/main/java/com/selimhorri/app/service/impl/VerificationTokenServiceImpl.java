@@ -1,16 +1,27 @@
 package com.selimhorri.app.service.impl;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.selimhorri.app.concurrent.GroupCommitter;
+import com.selimhorri.app.domain.VerificationToken;
 import com.selimhorri.app.dto.VerificationTokenDto;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
 import com.selimhorri.app.exception.wrapper.VerificationTokenNotFoundException;
 import com.selimhorri.app.helper.VerificationTokenMappingHelper;
 import com.selimhorri.app.repository.VerificationTokenRepository;
+import com.selimhorri.app.resilience.DataAccessGuard;
 import com.selimhorri.app.service.VerificationTokenService;
 
 import lombok.RequiredArgsConstructor;
@@ -23,55 +34,96 @@ import lombok.extern.slf4j.Slf4j;
 public class VerificationTokenServiceImpl implements VerificationTokenService {
 	
 	private final VerificationTokenRepository verificationTokenRepository;
+	private final DataAccessGuard dataAccessGuard;
+	private final EntityManager entityManager;
+	private final ApplicationEventPublisher eventPublisher;
+	private final GroupCommitter verificationTokenGroupCommitter;
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el DataAccessGuard en su propio hilo
 	public List<VerificationTokenDto> findAll() {
 		log.info("*** VerificationTokenDto List, service; fetch all verificationTokens *");
-		return this.verificationTokenRepository.findAll()
+		return this.dataAccessGuard.read("verificationToken.findAll", "all", () -> this.verificationTokenRepository.findAll()
 				.stream()
 					.map(VerificationTokenMappingHelper::map)
 					.distinct()
-					.collect(Collectors.toUnmodifiableList());
+					.collect(Collectors.toUnmodifiableList()));
 	}
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // el DataAccessGuard abre la transaccion de solo lectura en este hilo
+	public void streamAll(final Consumer<? super VerificationTokenDto> action) {
+		log.info("*** VerificationTokenDto Stream, service; stream all verificationTokens *");
+		this.dataAccessGuard.stream("verificationToken.streamAll", action, rows -> {
+			try (Stream<VerificationToken> verificationTokens = this.verificationTokenRepository.streamAllBy()) {
+				verificationTokens.forEach(verificationToken -> {
+					rows.accept(VerificationTokenMappingHelper.map(verificationToken));
+					this.entityManager.detach(verificationToken);
+					if (verificationToken.getCredential() != null)
+						this.entityManager.detach(verificationToken.getCredential());
+				});
+			}
+		});
+	}
+	
+	@Override
+	@Transactional(TxType.SUPPORTS)
 	public VerificationTokenDto findById(final Integer verificationTokenId) {
 		log.info("*** VerificationTokenDto, service; fetch verificationToken by ids *");
-		return this.verificationTokenRepository.findById(verificationTokenId)
+		return this.dataAccessGuard.read("verificationToken.findById", verificationTokenId, () -> this.verificationTokenRepository.findById(verificationTokenId)
 				.map(VerificationTokenMappingHelper::map)
 				.orElseThrow(() -> new VerificationTokenNotFoundException(String
-						.format("#### VerificationToken with id: %d not found! ####", verificationTokenId)));
+						.format("#### VerificationToken with id: %d not found! ####", verificationTokenId))));
 	}
 	
 	@Override
+	@Transactional(TxType.SUPPORTS) // la transaccion la abre el GroupCommitter: propia o compartida con otras altas
 	public VerificationTokenDto save(final VerificationTokenDto verificationTokenDto) {
 		log.info("*** VerificationTokenDto, service; save verificationToken *");
-		return VerificationTokenMappingHelper.map(this.verificationTokenRepository
-				.save(VerificationTokenMappingHelper.map(verificationTokenDto)));
+		return this.dataAccessGuard.write("verificationToken.save", () -> this.verificationTokenGroupCommitter.submit(
+				() -> this.saveAndPublish(ChangeType.CREATED, VerificationTokenMappingHelper.map(verificationTokenDto))));
 	}
 	
 	@Override
 	public VerificationTokenDto update(final VerificationTokenDto verificationTokenDto) {
 		log.info("*** VerificationTokenDto, service; update verificationToken *");
-		return VerificationTokenMappingHelper.map(this.verificationTokenRepository
-				.save(VerificationTokenMappingHelper.map(verificationTokenDto)));
+		return this.dataAccessGuard.write("verificationToken.update", () -> this.saveAndPublish(ChangeType.UPDATED,
+				VerificationTokenMappingHelper.map(verificationTokenDto)));
 	}
 	
 	@Override
 	public VerificationTokenDto update(final Integer verificationTokenId, final VerificationTokenDto verificationTokenDto) {
 		log.info("*** VerificationTokenDto, service; update verificationToken with verificationTokenId *");
-		return VerificationTokenMappingHelper.map(this.verificationTokenRepository.save(
+		return this.dataAccessGuard.write("verificationToken.update", () -> this.saveAndPublish(ChangeType.UPDATED,
 				VerificationTokenMappingHelper.map(this.findById(verificationTokenId))));
 	}
 	
 	@Override
 	public void deleteById(final Integer verificationTokenId) {
 		log.info("*** Void, service; delete verificationToken by id *");
-		this.verificationTokenRepository.deleteById(verificationTokenId);
+		this.dataAccessGuard.write("verificationToken.deleteById", () -> {
+			this.verificationTokenRepository.deleteById(verificationTokenId);
+			this.publishVerificationTokenChanged(ChangeType.DELETED, verificationTokenId);
+		});
+	}
+	
+	private VerificationTokenDto saveAndPublish(final ChangeType changeType, final VerificationToken verificationToken) {
+		final VerificationToken saved = this.verificationTokenRepository.save(verificationToken);
+		this.publishVerificationTokenChanged(changeType, saved.getVerificationTokenId());
+		return VerificationTokenMappingHelper.map(saved);
+	}
+	
+	private void publishVerificationTokenChanged(final ChangeType changeType, final Integer verificationTokenId) {
+		this.eventPublisher.publishEvent(EntityChangedEvent.builder()
+				.entityType(EntityType.VERIFICATION_TOKEN)
+				.changeType(changeType)
+				.entityId(verificationTokenId)
+				.build());
 	}
 	
 	
 	
+	
 }
 
 
@@ -0,0 +1,79 @@
+package com.selimhorri.app.service.loader;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.concurrent.BatchLoader;
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+import com.selimhorri.app.domain.Address;
+import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.helper.AddressMappingHelper;
+import com.selimhorri.app.repository.AddressRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Batches address-by-id lookups that miss the second-level cache through the address/user column projection.
+ */
+@Component
+public class AddressBatchLoader extends BatchLoader<Integer, AddressDto> {
+	
+	private final AddressRepository addressRepository;
+	private final EntityManagerFactory entityManagerFactory;
+	private final TransactionTemplate transactionTemplate;
+	
+	public AddressBatchLoader(final AddressRepository addressRepository,
+			final PlatformTransactionManager transactionManager,
+			final EntityManagerFactory entityManagerFactory,
+			@Qualifier("batchLoaderScheduler") final ScheduledExecutorService scheduler,
+			@Qualifier("batchLoaderDispatcher") final ExecutorService dispatcher,
+			final MeterRegistry meterRegistry,
+			@Value("${app.batch-loader.window:500us}") final Duration window,
+			@Value("${app.batch-loader.max-batch-size:100}") final int maxBatchSize,
+			@Value("${app.batch-loader.timeout:5s}") final Duration timeout) {
+		super("address", window, maxBatchSize, timeout, scheduler, dispatcher, meterRegistry);
+		this.addressRepository = addressRepository;
+		this.entityManagerFactory = entityManagerFactory;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+	
+	@Override
+	protected boolean isCached(final Integer addressId) {
+		// en el cache de segundo nivel: em.find sin ir a la base; la proyeccion del lote no lo lee
+		return this.entityManagerFactory.getCache().contains(Address.class, addressId);
+	}
+	
+	@Override
+	protected Map<Integer, AddressDto> loadAll(final Set<Integer> addressIds) {
+		// el lote corre en el hilo del dispatcher: conexion del sub-pool de lecturas simples
+		return EndpointClass.SINGLE_READ.within(() -> this.transactionTemplate.execute(status -> this.addressRepository.findAllProjectedByAddressIdIn(addressIds)
+				.stream()
+					.map(AddressMappingHelper::map)
+					.collect(Collectors.toMap(AddressDto::getAddressId, Function.identity()))));
+	}
+	
+	@Override
+	protected Optional<AddressDto> loadOne(final Integer addressId) {
+		// sin lotes: em.find, servido desde el cache de segundo nivel
+		return this.transactionTemplate.execute(status -> this.addressRepository.findById(addressId)
+				.map(AddressMappingHelper::map));
+	}
+	
+	
+	
+}
@@ -0,0 +1,85 @@
+package com.selimhorri.app.service.loader;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.concurrent.BatchLoader;
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.helper.UserMappingHelper;
+import com.selimhorri.app.repository.CredentialRepository;
+import com.selimhorri.app.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Batches user-by-id lookups that miss the second-level cache; only users that have credentials are returned.
+ */
+@Component
+public class UserBatchLoader extends BatchLoader<Integer, UserDto> {
+	
+	private final UserRepository userRepository;
+	private final CredentialRepository credentialRepository;
+	private final EntityManagerFactory entityManagerFactory;
+	private final TransactionTemplate transactionTemplate;
+	
+	public UserBatchLoader(final UserRepository userRepository,
+			final CredentialRepository credentialRepository,
+			final PlatformTransactionManager transactionManager,
+			final EntityManagerFactory entityManagerFactory,
+			@Qualifier("batchLoaderScheduler") final ScheduledExecutorService scheduler,
+			@Qualifier("batchLoaderDispatcher") final ExecutorService dispatcher,
+			final MeterRegistry meterRegistry,
+			@Value("${app.batch-loader.window:500us}") final Duration window,
+			@Value("${app.batch-loader.max-batch-size:100}") final int maxBatchSize,
+			@Value("${app.batch-loader.timeout:5s}") final Duration timeout) {
+		super("user", window, maxBatchSize, timeout, scheduler, dispatcher, meterRegistry);
+		this.userRepository = userRepository;
+		this.credentialRepository = credentialRepository;
+		this.entityManagerFactory = entityManagerFactory;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+	
+	@Override
+	protected boolean isCached(final Integer userId) {
+		// en el cache de segundo nivel: em.find sin ir a la base; la consulta IN del lote no lo lee
+		return this.entityManagerFactory.getCache().contains(User.class, userId);
+	}
+	
+	@Override
+	protected Map<Integer, UserDto> loadAll(final Set<Integer> userIds) {
+		// una sola consulta: credenciales con su usuario para todo el lote
+		// el lote corre en el hilo del dispatcher: conexion del sub-pool de lecturas simples
+		return EndpointClass.SINGLE_READ.within(() -> this.transactionTemplate.execute(status -> this.credentialRepository.findAllByUserUserIdIn(userIds)
+				.stream()
+					.map(credential -> UserMappingHelper.map(credential.getUser(), credential))
+					.collect(Collectors.toMap(UserDto::getUserId, Function.identity()))));
+	}
+	
+	@Override
+	protected Optional<UserDto> loadOne(final Integer userId) {
+		// sin lotes: usuario y credencial por id / query cache (segundo nivel)
+		return this.transactionTemplate.execute(status -> this.userRepository.findById(userId)
+				.flatMap(user -> this.credentialRepository.findByUserUserId(user.getUserId())
+						.map(credential -> UserMappingHelper.map(user, credential))));
+	}
+	
+	
+	
+}
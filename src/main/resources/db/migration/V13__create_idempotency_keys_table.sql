@@ -0,0 +1,11 @@
+
+CREATE TABLE idempotency_keys (
+	idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+	status_code INT(11),
+	content_type VARCHAR(255),
+	body BLOB,
+	created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
+
@@ -0,0 +1,14 @@
+
+CREATE TABLE outbox (
+	outbox_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	aggregate_type VARCHAR(32) NOT NULL,
+	aggregate_id INT(11),
+	event_type VARCHAR(32) NOT NULL,
+	payload VARCHAR(4000) NOT NULL,
+	created_at TIMESTAMP NOT NULL,
+	claimed_by VARCHAR(36),
+	claimed_until TIMESTAMP NULL
+);
+
+CREATE INDEX idx_outbox_claimed_by ON outbox (claimed_by);
+
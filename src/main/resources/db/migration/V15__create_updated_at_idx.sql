@@ -0,0 +1,9 @@
+
+UPDATE users SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE credentials SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE address SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX idx_users_updated_at ON users (updated_at, user_id);
+CREATE INDEX idx_credentials_updated_at ON credentials (updated_at, credential_id);
+CREATE INDEX idx_address_updated_at ON address (updated_at, address_id);
+
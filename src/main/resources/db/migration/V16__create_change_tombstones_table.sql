@@ -0,0 +1,10 @@
+
+CREATE TABLE change_tombstones (
+	tombstone_id BIGINT NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	entity_type VARCHAR(32) NOT NULL,
+	entity_id INT(11) NOT NULL,
+	deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_change_tombstones_deleted_at ON change_tombstones (entity_type, deleted_at, entity_id);
+
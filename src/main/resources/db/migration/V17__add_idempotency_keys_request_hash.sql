@@ -0,0 +1,3 @@
+
+ALTER TABLE idempotency_keys ADD COLUMN request_hash VARCHAR(64);
+
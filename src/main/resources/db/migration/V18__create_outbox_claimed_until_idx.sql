@@ -0,0 +1,2 @@
+
+CREATE INDEX idx_outbox_claimed_until ON outbox (claimed_until, outbox_id);
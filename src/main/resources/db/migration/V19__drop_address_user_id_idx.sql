@@ -0,0 +1,3 @@
+
+DROP INDEX idx_address_user_id ON address;
+
@@ -0,0 +1,112 @@
+package com.selimhorri.app.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import com.selimhorri.app.UserServiceApplication;
+import com.selimhorri.app.config.reactive.ReactiveReadServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the servlet stack (JPA over JDBC, Tomcat port) with the reactive
+ * reads (R2DBC, {@link ReactiveReadServer} port) of the same instance on
+ * GET /api/users/{userId} while every database round trip is slowed down by
+ * {@link LatencyProxy}. Reports p99 latency and the peak number of server
+ * threads for each stack. Opt-in, with Docker or {@code -Dloadtest.mysql}:
+ * {@code mvn -Preactive test -Dtest=ServletVsReactiveLoadTest -Dloadtest=true}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@DisplayName("Servlet vs Reactive load test")
+@Slf4j
+class ServletVsReactiveLoadTest {
+	
+	private static final Duration DB_DELAY = Duration.ofMillis(Long.getLong("loadtest.db-delay-ms", 20));
+	private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 400);
+	private static final Duration WARMUP = Duration.ofSeconds(5);
+	private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 20));
+	
+	private static SlowDatabase slowDatabase;
+	
+	private final LoadDriver loadDriver = new LoadDriver(SlowDatabase.USERS);
+	
+	@BeforeAll
+	static void startDatabase() throws Exception {
+		assumeTrue(SlowDatabase.isAvailable(), "Docker or -Dloadtest.mysql is required for the load test");
+		slowDatabase = new SlowDatabase(DB_DELAY);
+	}
+	
+	@AfterAll
+	static void stopDatabase() throws Exception {
+		if (slowDatabase != null)
+			slowDatabase.close();
+	}
+	
+	@Test
+	@DisplayName("Reactive stack should serve the slow database with fewer server threads")
+	void compareServletAndReactive() throws Exception {
+		final String[] args = Stream.concat(Stream.of("--spring.profiles.active=loadtest,reactive"),
+				Arrays.stream(slowDatabase.connectionArgs())).toArray(String[]::new);
+		final LoadDriver.Result servlet;
+		final LoadDriver.Result reactive;
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserServiceApplication.class)
+				.initializers(ServletVsReactiveLoadTest::excludeTestConfigurations)
+				.run(args)) {
+			servlet = this.run(context.getEnvironment().getProperty("local.server.port"), "http-nio-");
+			reactive = this.run(String.valueOf(context.getBean(ReactiveReadServer.class).getPort()), "reactor-http-");
+		}
+		
+		log.info("*** Load test; db delay {} ms, {} concurrent clients *", DB_DELAY.toMillis(), CONCURRENCY);
+		log.info("*** servlet : {} *", servlet);
+		log.info("*** reactive: {} *", reactive);
+		
+		assertTrue(servlet.requests > 0 && reactive.requests > 0);
+		assertTrue(reactive.peakThreads < servlet.peakThreads,
+				"reactive stack should not need one thread per in-flight request");
+	}
+	
+	private LoadDriver.Result run(final String port, final String serverThreadPrefix) throws Exception {
+		final String baseUrl = String.format("http://localhost:%s/user-service/api/users/", port);
+		final LongSupplier serverThreads = () -> countThreads(serverThreadPrefix);
+		this.loadDriver.drive(baseUrl, CONCURRENCY, WARMUP, serverThreads, () -> 0L);
+		return this.loadDriver.drive(baseUrl, CONCURRENCY, DURATION, serverThreads, () -> 0L);
+	}
+	
+	// fuera de un contexto de test el escaneo recogeria las @TestConfiguration de los demas tests
+	private static void excludeTestConfigurations(final ConfigurableApplicationContext context) {
+		context.getBeanFactory().registerSingleton("loadTestTypeExcludeFilter", new TypeExcludeFilter() {
+			@Override
+			public boolean match(final MetadataReader metadataReader, final MetadataReaderFactory metadataReaderFactory) {
+				return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+			}
+		});
+	}
+	
+	private static int countThreads(final String prefix) {
+		final ThreadInfo[] threads = ManagementFactory.getThreadMXBean()
+				.getThreadInfo(ManagementFactory.getThreadMXBean().getAllThreadIds());
+		return (int) Arrays.stream(threads)
+				.filter(thread -> thread != null && thread.getThreadName().startsWith(prefix))
+				.count();
+	}
+	
+}
@@ -0,0 +1,85 @@
+package com.selimhorri.app.reactive.helper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.reactive.repository.projection.UserCredentialProjection;
+
+@DisplayName("UserCredentialMappingHelper Test")
+class UserCredentialMappingHelperTest {
+	
+	private UserCredentialProjection row;
+	
+	@BeforeEach
+	void setUp() {
+		row = UserCredentialProjection.builder()
+				.userId(1)
+				.firstName("John")
+				.lastName("Doe")
+				.email("john.doe@example.com")
+				.phone("1234567890")
+				.imageUrl("http://example.com/image.jpg")
+				.credentialId(2)
+				.username("testuser")
+				.password("password123")
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_ADMIN)
+				.isEnabled(true)
+				.isAccountNonExpired(true)
+				.isAccountNonLocked(false)
+				.isCredentialsNonExpired(true)
+				.build();
+	}
+	
+	@Test
+	@DisplayName("Should map joined row to UserDto with nested credential")
+	void testMapToUser_Success() {
+		// When
+		UserDto result = UserCredentialMappingHelper.mapToUser(row);
+		
+		// Then
+		assertEquals(1, result.getUserId());
+		assertEquals("John", result.getFirstName());
+		assertEquals("Doe", result.getLastName());
+		assertEquals("john.doe@example.com", result.getEmail());
+		assertEquals("1234567890", result.getPhone());
+		assertEquals("http://example.com/image.jpg", result.getImageUrl());
+		assertNotNull(result.getCredentialDto());
+		assertEquals(2, result.getCredentialDto().getCredentialId());
+		assertEquals("testuser", result.getCredentialDto().getUsername());
+		assertEquals(RoleBasedAuthority.ROLE_ADMIN, result.getCredentialDto().getRoleBasedAuthority());
+		assertFalse(result.getCredentialDto().getIsAccountNonLocked());
+		assertNull(result.getCredentialDto().getUserDto());
+	}
+	
+	@Test
+	@DisplayName("Should map joined row to CredentialDto with nested user")
+	void testMapToCredential_Success() {
+		// When
+		CredentialDto result = UserCredentialMappingHelper.mapToCredential(row);
+		
+		// Then
+		assertEquals(2, result.getCredentialId());
+		assertEquals("testuser", result.getUsername());
+		assertEquals("password123", result.getPassword());
+		assertTrue(result.getIsEnabled());
+		assertNotNull(result.getUserDto());
+		assertEquals(1, result.getUserDto().getUserId());
+		assertEquals("John", result.getUserDto().getFirstName());
+		assertNull(result.getUserDto().getCredentialDto());
+	}
+	
+	@Test
+	@DisplayName("Should return null when row is null")
+	void testMap_NullRow() {
+		// When & Then
+		assertNull(UserCredentialMappingHelper.mapToUser(null));
+		assertNull(UserCredentialMappingHelper.mapToCredential(null));
+	}
+	
+}
@@ -0,0 +1,86 @@
+package com.selimhorri.app.reactive.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.test.StepVerifier;
+
+@DataR2dbcTest(properties = {
+	"spring.autoconfigure.exclude=",
+	"spring.r2dbc.url=r2dbc:h2:mem:///reactive_repository_test"
+})
+@DisplayName("UserReactiveRepository / CredentialReactiveRepository Test")
+class UserReactiveRepositoryTest {
+	
+	@Autowired
+	private UserReactiveRepository userReactiveRepository;
+	
+	@Autowired
+	private CredentialReactiveRepository credentialReactiveRepository;
+	
+	@TestConfiguration
+	static class SchemaConfig {
+		
+		// mismas migraciones que aplica Flyway sobre H2
+		@Bean
+		ConnectionFactoryInitializer initializer(final ConnectionFactory connectionFactory) {
+			final var initializer = new ConnectionFactoryInitializer();
+			initializer.setConnectionFactory(connectionFactory);
+			initializer.setDatabasePopulator(new ResourceDatabasePopulator(
+					new ClassPathResource("db/migration/V1__create_users_table.sql"),
+					new ClassPathResource("db/migration/V2__insert_users_table.sql"),
+					new ClassPathResource("db/migration/V5__create_credentials_table.sql"),
+					new ClassPathResource("db/migration/V6__insert_credentials_table.sql")));
+			return initializer;
+		}
+		
+	}
+	
+	@Test
+	@DisplayName("Should stream every user joined with its credential ordered by id")
+	void testFindAllWithCredential() {
+		StepVerifier.create(this.userReactiveRepository.findAllWithCredential())
+				.expectNextMatches(row -> row.getUserId() == 1 && "selimhorri".equals(row.getUsername()))
+				.expectNextMatches(row -> row.getUserId() == 2)
+				.expectNextMatches(row -> row.getUserId() == 3)
+				.expectNextMatches(row -> row.getUserId() == 4 && row.getRoleBasedAuthority() == RoleBasedAuthority.ROLE_USER)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should find user with credential by id and username")
+	void testFindWithCredential() {
+		StepVerifier.create(this.userReactiveRepository.findWithCredentialByUserId(1))
+				.expectNextMatches(row -> "selim".equals(row.getFirstName()) && row.getIsEnabled())
+				.verifyComplete();
+		StepVerifier.create(this.userReactiveRepository.findWithCredentialByUsername("selimhorri"))
+				.expectNextMatches(row -> row.getUserId() == 1)
+				.verifyComplete();
+		StepVerifier.create(this.userReactiveRepository.findWithCredentialByUserId(999))
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should find credential with user by id and username")
+	void testCredentialFindWithUser() {
+		StepVerifier.create(this.credentialReactiveRepository.findAllWithUser().count())
+				.expectNext(4L)
+				.verifyComplete();
+		StepVerifier.create(this.credentialReactiveRepository.findWithUserByCredentialId(1))
+				.expectNextMatches(row -> "selimhorri".equals(row.getUsername()) && row.getUserId() == 1)
+				.verifyComplete();
+		StepVerifier.create(this.credentialReactiveRepository.findWithUserByUsername("ghost"))
+				.verifyComplete();
+	}
+	
+}
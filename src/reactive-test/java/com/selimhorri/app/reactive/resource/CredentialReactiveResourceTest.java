@@ -0,0 +1,112 @@
+package com.selimhorri.app.reactive.resource;
+
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.exception.ApiExceptionHandler;
+import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
+import com.selimhorri.app.reactive.service.CredentialReactiveService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Credential Reactive Resource Tests")
+class CredentialReactiveResourceTest {
+	
+	private WebTestClient webTestClient;
+	
+	@Mock
+	private CredentialReactiveService credentialReactiveService;
+	
+	@InjectMocks
+	private CredentialReactiveResource credentialReactiveResource;
+	
+	private CredentialDto sampleCredential;
+	
+	@BeforeEach
+	void setupTestEnvironment() {
+		webTestClient = WebTestClient.bindToController(credentialReactiveResource)
+				.controllerAdvice(new ApiExceptionHandler())
+				.build();
+		
+		sampleCredential = CredentialDto.builder()
+				.credentialId(1)
+				.username("testuser")
+				.password("password123")
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+				.isEnabled(true)
+				.userDto(UserDto.builder().userId(1).firstName("John").build())
+				.build();
+	}
+	
+	@Test
+	@DisplayName("GET /api/credentials - Should return collection for application/json")
+	void testFindAll_Json() {
+		// Given
+		when(credentialReactiveService.findAll()).thenReturn(Flux.just(sampleCredential));
+		
+		// When & Then
+		webTestClient.get().uri("/api/credentials")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.collection.length()").isEqualTo(1)
+				.jsonPath("$.collection[0].user.firstName").isEqualTo("John");
+	}
+	
+	@Test
+	@DisplayName("GET /api/credentials/{credentialId} - Should return credential by id")
+	void testFindById_Success() {
+		// Given
+		when(credentialReactiveService.findById(1)).thenReturn(Mono.just(sampleCredential));
+		
+		// When & Then
+		webTestClient.get().uri("/api/credentials/{credentialId}", "1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.username").isEqualTo("testuser");
+	}
+	
+	@Test
+	@DisplayName("GET /api/credentials/{credentialId} - Should return 400 when credential not found")
+	void testFindById_NotFound() {
+		// Given
+		when(credentialReactiveService.findById(99))
+				.thenReturn(Mono.error(new CredentialNotFoundException("Credential with id: 99 not found")));
+		
+		// When & Then
+		webTestClient.get().uri("/api/credentials/{credentialId}", "99")
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+	
+	@Test
+	@DisplayName("GET /api/credentials/username/{username} - Should return credential by username")
+	void testFindByUsername_Success() {
+		// Given
+		when(credentialReactiveService.findByUsername("testuser")).thenReturn(Mono.just(sampleCredential));
+		
+		// When & Then
+		webTestClient.get().uri("/api/credentials/username/{username}", "testuser")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.credentialId").isEqualTo(1);
+	}
+	
+}
@@ -0,0 +1,142 @@
+package com.selimhorri.app.reactive.resource;
+
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.exception.ApiExceptionHandler;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.reactive.service.UserReactiveService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Reactive Resource Tests")
+class UserReactiveResourceTest {
+	
+	private WebTestClient webTestClient;
+	
+	@Mock
+	private UserReactiveService userReactiveService;
+	
+	@InjectMocks
+	private UserReactiveResource userReactiveResource;
+	
+	private UserDto sampleUser;
+	
+	@BeforeEach
+	void setupTestEnvironment() {
+		webTestClient = WebTestClient.bindToController(userReactiveResource)
+				.controllerAdvice(new ApiExceptionHandler())
+				.build();
+		
+		sampleUser = UserDto.builder()
+				.userId(1)
+				.firstName("John")
+				.lastName("Doe")
+				.email("john.doe@example.com")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(1)
+						.username("testuser")
+						.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+						.build())
+				.build();
+	}
+	
+	@Test
+	@DisplayName("GET /api/users - Should return collection for application/json")
+	void testFindAll_Json() {
+		// Given
+		when(userReactiveService.findAll()).thenReturn(Flux.just(sampleUser, UserDto.builder().userId(2).build()));
+		
+		// When & Then
+		webTestClient.get().uri("/api/users")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.collection.length()").isEqualTo(2)
+				.jsonPath("$.collection[0].firstName").isEqualTo("John")
+				.jsonPath("$.collection[0].credential.username").isEqualTo("testuser");
+	}
+	
+	@Test
+	@DisplayName("GET /api/users - Should stream users for application/x-ndjson")
+	void testStreamAll_Ndjson() {
+		// Given
+		when(userReactiveService.findAll()).thenReturn(Flux.just(sampleUser, UserDto.builder().userId(2).build()));
+		
+		// When
+		Flux<UserDto> body = webTestClient.get().uri("/api/users")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(UserDto.class)
+				.getResponseBody();
+		
+		// Then
+		StepVerifier.create(body)
+				.expectNextMatches(user -> user.getUserId() == 1)
+				.expectNextMatches(user -> user.getUserId() == 2)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("GET /api/users/{userId} - Should return user by id")
+	void testFindById_Success() {
+		// Given
+		when(userReactiveService.findById(1)).thenReturn(Mono.just(sampleUser));
+		
+		// When & Then
+		webTestClient.get().uri("/api/users/{userId}", "1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.userId").isEqualTo(1)
+				.jsonPath("$.email").isEqualTo("john.doe@example.com");
+	}
+	
+	@Test
+	@DisplayName("GET /api/users/{userId} - Should return 400 when user not found")
+	void testFindById_NotFound() {
+		// Given
+		when(userReactiveService.findById(99))
+				.thenReturn(Mono.error(new UserObjectNotFoundException("User with id: 99 not found")));
+		
+		// When & Then
+		webTestClient.get().uri("/api/users/{userId}", "99")
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.msg").isEqualTo("#### User with id: 99 not found! ####");
+	}
+	
+	@Test
+	@DisplayName("GET /api/users/username/{username} - Should return user by username")
+	void testFindByUsername_Success() {
+		// Given
+		when(userReactiveService.findByUsername("testuser")).thenReturn(Mono.just(sampleUser));
+		
+		// When & Then
+		webTestClient.get().uri("/api/users/username/{username}", "testuser")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.credential.username").isEqualTo("testuser");
+	}
+	
+}
@@ -0,0 +1,108 @@
+package com.selimhorri.app.reactive.service.impl;
+
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.reactive.repository.CredentialReactiveRepository;
+import com.selimhorri.app.reactive.repository.projection.UserCredentialProjection;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CredentialReactiveServiceImpl Test")
+class CredentialReactiveServiceImplTest {
+	
+	@Mock
+	private CredentialReactiveRepository credentialReactiveRepository;
+	
+	@InjectMocks
+	private CredentialReactiveServiceImpl credentialReactiveService;
+	
+	private UserCredentialProjection row;
+	
+	@BeforeEach
+	void setUp() {
+		row = UserCredentialProjection.builder()
+				.userId(1)
+				.firstName("John")
+				.credentialId(5)
+				.username("testuser")
+				.password("password123")
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+				.isEnabled(true)
+				.build();
+	}
+	
+	@Test
+	@DisplayName("Should stream all credentials with their users")
+	void testFindAll_Success() {
+		// Given
+		when(credentialReactiveRepository.findAllWithUser()).thenReturn(Flux.just(row));
+		
+		// When & Then
+		StepVerifier.create(credentialReactiveService.findAll())
+				.expectNextMatches(credential -> credential.getCredentialId() == 5 && credential.getUserDto().getUserId() == 1)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should find credential by id")
+	void testFindById_Success() {
+		// Given
+		when(credentialReactiveRepository.findWithUserByCredentialId(5)).thenReturn(Mono.just(row));
+		
+		// When & Then
+		StepVerifier.create(credentialReactiveService.findById(5))
+				.expectNextMatches(credential -> "testuser".equals(credential.getUsername()))
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should signal CredentialNotFoundException when credential not found by id")
+	void testFindById_NotFound() {
+		// Given
+		when(credentialReactiveRepository.findWithUserByCredentialId(99)).thenReturn(Mono.empty());
+		
+		// When & Then
+		StepVerifier.create(credentialReactiveService.findById(99))
+				.expectError(CredentialNotFoundException.class)
+				.verify();
+	}
+	
+	@Test
+	@DisplayName("Should find credential by username")
+	void testFindByUsername_Success() {
+		// Given
+		when(credentialReactiveRepository.findWithUserByUsername("testuser")).thenReturn(Mono.just(row));
+		
+		// When & Then
+		StepVerifier.create(credentialReactiveService.findByUsername("testuser"))
+				.expectNextMatches(credential -> credential.getCredentialId() == 5)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should signal UserObjectNotFoundException when username not found")
+	void testFindByUsername_NotFound() {
+		// Given
+		when(credentialReactiveRepository.findWithUserByUsername("ghost")).thenReturn(Mono.empty());
+		
+		// When & Then
+		StepVerifier.create(credentialReactiveService.findByUsername("ghost"))
+				.expectError(UserObjectNotFoundException.class)
+				.verify();
+	}
+	
+}
@@ -0,0 +1,123 @@
+package com.selimhorri.app.reactive.service.impl;
+
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.reactive.repository.UserReactiveRepository;
+import com.selimhorri.app.reactive.repository.projection.UserCredentialProjection;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserReactiveServiceImpl Test")
+class UserReactiveServiceImplTest {
+	
+	@Mock
+	private UserReactiveRepository userReactiveRepository;
+	
+	@InjectMocks
+	private UserReactiveServiceImpl userReactiveService;
+	
+	private UserCredentialProjection row;
+	
+	@BeforeEach
+	void setUp() {
+		row = UserCredentialProjection.builder()
+				.userId(1)
+				.firstName("John")
+				.lastName("Doe")
+				.credentialId(1)
+				.username("testuser")
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+				.isEnabled(true)
+				.build();
+	}
+	
+	@Test
+	@DisplayName("Should stream all users with their credentials")
+	void testFindAll_Success() {
+		// Given
+		when(userReactiveRepository.findAllWithCredential())
+				.thenReturn(Flux.just(row, UserCredentialProjection.builder().userId(2).credentialId(2).build()));
+		
+		// When & Then
+		StepVerifier.create(userReactiveService.findAll())
+				.expectNextMatches(user -> user.getUserId() == 1 && "testuser".equals(user.getCredentialDto().getUsername()))
+				.expectNextMatches(user -> user.getUserId() == 2)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should honour downstream demand when streaming users")
+	void testFindAll_Backpressure() {
+		// Given
+		when(userReactiveRepository.findAllWithCredential())
+				.thenReturn(Flux.range(1, 100).map(id -> UserCredentialProjection.builder().userId(id).build()));
+		
+		// When & Then
+		StepVerifier.create(userReactiveService.findAll(), 2)
+				.expectNextCount(2)
+				.thenCancel()
+				.verify();
+	}
+	
+	@Test
+	@DisplayName("Should find user by id")
+	void testFindById_Success() {
+		// Given
+		when(userReactiveRepository.findWithCredentialByUserId(1)).thenReturn(Mono.just(row));
+		
+		// When & Then
+		StepVerifier.create(userReactiveService.findById(1))
+				.expectNextMatches(user -> "John".equals(user.getFirstName()) && user.getCredentialDto().getCredentialId() == 1)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should signal UserObjectNotFoundException when user not found by id")
+	void testFindById_NotFound() {
+		// Given
+		when(userReactiveRepository.findWithCredentialByUserId(99)).thenReturn(Mono.empty());
+		
+		// When & Then
+		StepVerifier.create(userReactiveService.findById(99))
+				.expectError(UserObjectNotFoundException.class)
+				.verify();
+	}
+	
+	@Test
+	@DisplayName("Should find user by username")
+	void testFindByUsername_Success() {
+		// Given
+		when(userReactiveRepository.findWithCredentialByUsername("testuser")).thenReturn(Mono.just(row));
+		
+		// When & Then
+		StepVerifier.create(userReactiveService.findByUsername("testuser"))
+				.expectNextMatches(user -> user.getUserId() == 1)
+				.verifyComplete();
+	}
+	
+	@Test
+	@DisplayName("Should signal UserObjectNotFoundException when username not found")
+	void testFindByUsername_NotFound() {
+		// Given
+		when(userReactiveRepository.findWithCredentialByUsername("ghost")).thenReturn(Mono.empty());
+		
+		// When & Then
+		StepVerifier.create(userReactiveService.findByUsername("ghost"))
+				.expectError(UserObjectNotFoundException.class)
+				.verify();
+	}
+	
+}
@@ -0,0 +1,43 @@
+package com.selimhorri.app.config.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+	
+	@Bean
+	public ReactiveReadServer reactiveReadServer(final ConfigurableApplicationContext applicationContext,
+			@Value("${app.reactive.port:8701}") final int port,
+			@Value("${server.servlet.context-path:}") final String contextPath) {
+		return new ReactiveReadServer(applicationContext, port, contextPath);
+	}
+	
+	/**
+	 * DataSourceAutoConfiguration backs off once an R2DBC ConnectionFactory exists.
+	 * With the bulkheads on, BulkheadConfig declares the pools; without them the
+	 * JPA side (everything on Tomcat, Flyway) gets its pool here.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "false")
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource dataSource(final DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+	}
+	
+	
+	
+}
@@ -0,0 +1,114 @@
+package com.selimhorri.app.config.reactive;
+
+import java.util.Map;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ContextPathCompositeHandler;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.exception.ApiExceptionHandler;
+import com.selimhorri.app.reactive.resource.CredentialReactiveResource;
+import com.selimhorri.app.reactive.resource.UserReactiveResource;
+import com.selimhorri.app.reactive.service.CredentialReactiveService;
+import com.selimhorri.app.reactive.service.UserReactiveService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Serves the R2DBC reads of users and credentials on a Netty port of their own,
+ * next to Tomcat. Writes, addresses and tokens stay on the servlet stack with
+ * its filters, so no blocking JPA call runs on an event loop. The WebFlux
+ * resources live in a context of their own, built on the application's services.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveReadServer implements SmartLifecycle {
+	
+	private final ConfigurableApplicationContext applicationContext;
+	private final int port;
+	private final String contextPath;
+	private AnnotationConfigApplicationContext webContext;
+	private volatile DisposableServer server;
+	
+	@Override
+	public void start() {
+		// sin contexto padre: WebFlux se niega a arrancar si ve la configuracion de Spring MVC
+		this.webContext = new AnnotationConfigApplicationContext();
+		this.webContext.registerBean(WebConfig.class, () -> new WebConfig(this.applicationContext.getBean(ObjectMapper.class)));
+		this.webContext.registerBean(ApiExceptionHandler.class);
+		this.webContext.registerBean(UserReactiveResource.class,
+				() -> new UserReactiveResource(this.applicationContext.getBean(UserReactiveService.class)));
+		this.webContext.registerBean(CredentialReactiveResource.class,
+				() -> new CredentialReactiveResource(this.applicationContext.getBean(CredentialReactiveService.class)));
+		this.webContext.refresh();
+		
+		final HttpHandler handler = WebHttpHandlerBuilder.applicationContext(this.webContext).build();
+		this.server = HttpServer.create()
+				.port(this.port)
+				.handle(new ReactorHttpHandlerAdapter(this.contextPath.isEmpty()
+						? handler
+						: new ContextPathCompositeHandler(Map.of(this.contextPath, handler))))
+				.bindNow();
+		log.info("*** ReactiveReadServer; user and credential reads on Netty port {} *", this.server.port());
+	}
+	
+	@Override
+	public void stop() {
+		this.server.disposeNow();
+		this.server = null;
+		this.webContext.close();
+	}
+	
+	@Override
+	public boolean isRunning() {
+		return this.server != null;
+	}
+	
+	public int getPort() {
+		return this.server.port();
+	}
+	
+	/**
+	 * Not a @Configuration, so component scanning of the servlet context never picks it up.
+	 */
+	@EnableWebFlux
+	@RequiredArgsConstructor
+	static class WebConfig implements WebFluxConfigurer {
+		
+		private final ObjectMapper objectMapper;
+		
+		// NDJSON exige un documento por linea: sin INDENT_OUTPUT en los streams
+		@Override
+		public void configureHttpMessageCodecs(final ServerCodecConfigurer configurer) {
+			configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(this.objectMapper) {
+				@Override
+				protected ObjectWriter customizeWriter(final ObjectWriter writer, final MimeType mimeType,
+						final ResolvableType elementType, final Map<String, Object> hints) {
+					return getStreamingMediaTypes().stream().anyMatch(streaming -> streaming.isCompatibleWith(mimeType))
+							? writer.without(SerializationFeature.INDENT_OUTPUT)
+							: writer;
+				}
+			});
+		}
+	
+	}
+	
+	
+	
+}
@@ -0,0 +1,45 @@
+package com.selimhorri.app.reactive.domain;
+
+import java.io.Serializable;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Table("credentials")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CredentialRecord implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	private Integer credentialId;
+	
+	private Integer userId;
+	
+	private String username;
+	
+	private String password;
+	
+	@Column("role")
+	private RoleBasedAuthority roleBasedAuthority;
+	
+	private Boolean isEnabled;
+	
+	private Boolean isAccountNonExpired;
+	
+	private Boolean isAccountNonLocked;
+	
+	private Boolean isCredentialsNonExpired;
+	
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.reactive.domain;
+
+import java.io.Serializable;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Table("users")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class UserRecord implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	private Integer userId;
+	
+	private String firstName;
+	
+	private String lastName;
+	
+	private String imageUrl;
+	
+	private String email;
+	
+	private String phone;
+	
+}
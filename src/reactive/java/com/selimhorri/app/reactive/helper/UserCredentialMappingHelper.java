@@ -0,0 +1,49 @@
+package com.selimhorri.app.reactive.helper;
+
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.reactive.repository.projection.UserCredentialProjection;
+
+public interface UserCredentialMappingHelper {
+	
+	public static UserDto mapToUser(final UserCredentialProjection row) {
+		if (row == null)
+			return null;
+		final UserDto userDto = mapUser(row);
+		userDto.setCredentialDto(mapCredential(row));
+		return userDto;
+	}
+	
+	public static CredentialDto mapToCredential(final UserCredentialProjection row) {
+		if (row == null)
+			return null;
+		final CredentialDto credentialDto = mapCredential(row);
+		credentialDto.setUserDto(mapUser(row));
+		return credentialDto;
+	}
+	
+	private static UserDto mapUser(final UserCredentialProjection row) {
+		return UserDto.builder()
+				.userId(row.getUserId())
+				.firstName(row.getFirstName())
+				.lastName(row.getLastName())
+				.imageUrl(row.getImageUrl())
+				.email(row.getEmail())
+				.phone(row.getPhone())
+				.build();
+	}
+	
+	private static CredentialDto mapCredential(final UserCredentialProjection row) {
+		return CredentialDto.builder()
+				.credentialId(row.getCredentialId())
+				.username(row.getUsername())
+				.password(row.getPassword())
+				.roleBasedAuthority(row.getRoleBasedAuthority())
+				.isEnabled(row.getIsEnabled())
+				.isAccountNonExpired(row.getIsAccountNonExpired())
+				.isAccountNonLocked(row.getIsAccountNonLocked())
+				.isCredentialsNonExpired(row.getIsCredentialsNonExpired())
+				.build();
+	}
+	
+}
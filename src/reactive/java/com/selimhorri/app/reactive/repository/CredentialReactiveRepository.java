@@ -0,0 +1,25 @@
+package com.selimhorri.app.reactive.repository;
+
+import static com.selimhorri.app.reactive.repository.UserReactiveRepository.SELECT_USER_CREDENTIAL;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.selimhorri.app.reactive.domain.CredentialRecord;
+import com.selimhorri.app.reactive.repository.projection.UserCredentialProjection;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CredentialReactiveRepository extends ReactiveCrudRepository<CredentialRecord, Integer> {
+	
+	@Query(SELECT_USER_CREDENTIAL + "ORDER BY c.credential_id")
+	Flux<UserCredentialProjection> findAllWithUser();
+	
+	@Query(SELECT_USER_CREDENTIAL + "WHERE c.credential_id = :credentialId")
+	Mono<UserCredentialProjection> findWithUserByCredentialId(final Integer credentialId);
+	
+	@Query(SELECT_USER_CREDENTIAL + "WHERE c.username = :username")
+	Mono<UserCredentialProjection> findWithUserByUsername(final String username);
+	
+}
@@ -0,0 +1,28 @@
+package com.selimhorri.app.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.selimhorri.app.reactive.domain.UserRecord;
+import com.selimhorri.app.reactive.repository.projection.UserCredentialProjection;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UserReactiveRepository extends ReactiveCrudRepository<UserRecord, Integer> {
+	
+	String SELECT_USER_CREDENTIAL = "SELECT u.user_id, u.first_name, u.last_name, u.image_url, u.email, u.phone, "
+			+ "c.credential_id, c.username, c.password, c.role AS role_based_authority, c.is_enabled, "
+			+ "c.is_account_non_expired, c.is_account_non_locked, c.is_credentials_non_expired "
+			+ "FROM users u JOIN credentials c ON c.user_id = u.user_id ";
+	
+	@Query(SELECT_USER_CREDENTIAL + "ORDER BY u.user_id")
+	Flux<UserCredentialProjection> findAllWithCredential();
+	
+	@Query(SELECT_USER_CREDENTIAL + "WHERE u.user_id = :userId")
+	Mono<UserCredentialProjection> findWithCredentialByUserId(final Integer userId);
+	
+	@Query(SELECT_USER_CREDENTIAL + "WHERE c.username = :username")
+	Mono<UserCredentialProjection> findWithCredentialByUsername(final String username);
+	
+}
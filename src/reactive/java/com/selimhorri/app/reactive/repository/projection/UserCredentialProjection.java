@@ -0,0 +1,33 @@
+package com.selimhorri.app.reactive.repository.projection;
+
+import java.io.Serializable;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+@Builder
+public final class UserCredentialProjection implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final Integer userId;
+	private final String firstName;
+	private final String lastName;
+	private final String imageUrl;
+	private final String email;
+	private final String phone;
+	private final Integer credentialId;
+	private final String username;
+	private final String password;
+	private final RoleBasedAuthority roleBasedAuthority;
+	private final Boolean isEnabled;
+	private final Boolean isAccountNonExpired;
+	private final Boolean isAccountNonLocked;
+	private final Boolean isCredentialsNonExpired;
+	
+}
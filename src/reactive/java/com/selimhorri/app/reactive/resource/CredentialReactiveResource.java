@@ -0,0 +1,71 @@
+package com.selimhorri.app.reactive.resource;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.reactive.service.CredentialReactiveService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registered only in the WebFlux context of
+ * {@link com.selimhorri.app.config.reactive.ReactiveReadServer}, never in the servlet one.
+ */
+@ResponseBody
+@RequestMapping(value = {"/api/credentials"})
+@Slf4j
+@RequiredArgsConstructor
+public class CredentialReactiveResource {
+	
+	private final CredentialReactiveService credentialReactiveService;
+	
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<DtoCollectionResponse<CredentialDto>>> findAll() {
+		log.info("*** CredentialDto List, reactive resource; fetch all credentials *");
+		return this.credentialReactiveService.findAll()
+				.collectList()
+				.map(credentials -> ResponseEntity.ok(new DtoCollectionResponse<>(credentials)));
+	}
+	
+	// un objeto JSON por linea, escrito a medida que el cliente lo consume
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<CredentialDto> streamAll() {
+		log.info("*** CredentialDto Flux, reactive resource; stream all credentials *");
+		return this.credentialReactiveService.findAll();
+	}
+	
+	@GetMapping("/{credentialId}")
+	public Mono<ResponseEntity<CredentialDto>> findById(
+			@PathVariable("credentialId") 
+			@NotBlank(message = "Input must not blank") 
+			@Valid final String credentialId) {
+		log.info("*** CredentialDto, reactive resource; fetch credential by id *");
+		return this.credentialReactiveService.findById(Integer.parseInt(credentialId.strip()))
+				.map(ResponseEntity::ok);
+	}
+	
+	@GetMapping("/username/{username}")
+	public Mono<ResponseEntity<CredentialDto>> findByUsername(
+			@PathVariable("username") 
+			@NotBlank(message = "Input must not blank") 
+			@Valid final String username) {
+		log.info("*** CredentialDto, reactive resource; fetch credential by username *");
+		return this.credentialReactiveService.findByUsername(username)
+				.map(ResponseEntity::ok);
+	}
+	
+	
+	
+}
@@ -0,0 +1,71 @@
+package com.selimhorri.app.reactive.resource;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.reactive.service.UserReactiveService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registered only in the WebFlux context of
+ * {@link com.selimhorri.app.config.reactive.ReactiveReadServer}, never in the servlet one.
+ */
+@ResponseBody
+@RequestMapping(value = {"/api/users"})
+@Slf4j
+@RequiredArgsConstructor
+public class UserReactiveResource {
+	
+	private final UserReactiveService userReactiveService;
+	
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<DtoCollectionResponse<UserDto>>> findAll() {
+		log.info("*** UserDto List, reactive resource; fetch all users *");
+		return this.userReactiveService.findAll()
+				.collectList()
+				.map(users -> ResponseEntity.ok(new DtoCollectionResponse<>(users)));
+	}
+	
+	// un objeto JSON por linea, escrito a medida que el cliente lo consume
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<UserDto> streamAll() {
+		log.info("*** UserDto Flux, reactive resource; stream all users *");
+		return this.userReactiveService.findAll();
+	}
+	
+	@GetMapping("/{userId}")
+	public Mono<ResponseEntity<UserDto>> findById(
+			@PathVariable("userId") 
+			@NotBlank(message = "Input must not blank") 
+			@Valid final String userId) {
+		log.info("*** UserDto, reactive resource; fetch user by id *");
+		return this.userReactiveService.findById(Integer.parseInt(userId.strip()))
+				.map(ResponseEntity::ok);
+	}
+	
+	@GetMapping("/username/{username}")
+	public Mono<ResponseEntity<UserDto>> findByUsername(
+			@PathVariable("username") 
+			@NotBlank(message = "Input must not blank") 
+			@Valid final String username) {
+		log.info("*** UserDto, reactive resource; fetch user by username *");
+		return this.userReactiveService.findByUsername(username)
+				.map(ResponseEntity::ok);
+	}
+	
+	
+	
+}
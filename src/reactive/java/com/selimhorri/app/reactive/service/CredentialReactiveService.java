@@ -0,0 +1,14 @@
+package com.selimhorri.app.reactive.service;
+
+import com.selimhorri.app.dto.CredentialDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CredentialReactiveService {
+	
+	Flux<CredentialDto> findAll();
+	Mono<CredentialDto> findById(final Integer credentialId);
+	Mono<CredentialDto> findByUsername(final String username);
+	
+}
@@ -0,0 +1,14 @@
+package com.selimhorri.app.reactive.service;
+
+import com.selimhorri.app.dto.UserDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UserReactiveService {
+	
+	Flux<UserDto> findAll();
+	Mono<UserDto> findById(final Integer userId);
+	Mono<UserDto> findByUsername(final String username);
+	
+}
@@ -0,0 +1,53 @@
+package com.selimhorri.app.reactive.service.impl;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.reactive.helper.UserCredentialMappingHelper;
+import com.selimhorri.app.reactive.repository.CredentialReactiveRepository;
+import com.selimhorri.app.reactive.service.CredentialReactiveService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class CredentialReactiveServiceImpl implements CredentialReactiveService {
+	
+	private final CredentialReactiveRepository credentialReactiveRepository;
+	
+	@Override
+	public Flux<CredentialDto> findAll() {
+		log.info("*** CredentialDto Flux, reactive service; fetch all credentials *");
+		return this.credentialReactiveRepository.findAllWithUser()
+				.map(UserCredentialMappingHelper::mapToCredential);
+	}
+	
+	@Override
+	public Mono<CredentialDto> findById(final Integer credentialId) {
+		log.info("*** CredentialDto Mono, reactive service; fetch credential by id *");
+		return this.credentialReactiveRepository.findWithUserByCredentialId(credentialId)
+				.map(UserCredentialMappingHelper::mapToCredential)
+				.switchIfEmpty(Mono.error(() -> new CredentialNotFoundException(
+						String.format("#### Credential with id: %d not found! ####", credentialId))));
+	}
+	
+	@Override
+	public Mono<CredentialDto> findByUsername(final String username) {
+		log.info("*** CredentialDto Mono, reactive service; fetch credential by username *");
+		return this.credentialReactiveRepository.findWithUserByUsername(username)
+				.map(UserCredentialMappingHelper::mapToCredential)
+				.switchIfEmpty(Mono.error(() -> new UserObjectNotFoundException(
+						String.format("#### Credential with username: %s not found! ####", username))));
+	}
+	
+	
+	
+}
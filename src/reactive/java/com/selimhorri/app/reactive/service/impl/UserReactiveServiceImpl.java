@@ -0,0 +1,52 @@
+package com.selimhorri.app.reactive.service.impl;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.reactive.helper.UserCredentialMappingHelper;
+import com.selimhorri.app.reactive.repository.UserReactiveRepository;
+import com.selimhorri.app.reactive.service.UserReactiveService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class UserReactiveServiceImpl implements UserReactiveService {
+	
+	private final UserReactiveRepository userReactiveRepository;
+	
+	@Override
+	public Flux<UserDto> findAll() {
+		log.info("*** UserDto Flux, reactive service; fetch all users with credentials *");
+		return this.userReactiveRepository.findAllWithCredential()
+				.map(UserCredentialMappingHelper::mapToUser);
+	}
+	
+	@Override
+	public Mono<UserDto> findById(final Integer userId) {
+		log.info("*** UserDto Mono, reactive service; fetch user by id with credentials *");
+		return this.userReactiveRepository.findWithCredentialByUserId(userId)
+				.map(UserCredentialMappingHelper::mapToUser)
+				.switchIfEmpty(Mono.error(() -> new UserObjectNotFoundException(
+						String.format("User with id: %d not found or has no credentials", userId))));
+	}
+	
+	@Override
+	public Mono<UserDto> findByUsername(final String username) {
+		log.info("*** UserDto Mono, reactive service; fetch user with username *");
+		return this.userReactiveRepository.findWithCredentialByUsername(username)
+				.map(UserCredentialMappingHelper::mapToUser)
+				.switchIfEmpty(Mono.error(() -> new UserObjectNotFoundException(
+						String.format("User with username: %s not found", username))));
+	}
+	
+	
+	
+}
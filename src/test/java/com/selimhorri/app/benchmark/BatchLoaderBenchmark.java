@@ -0,0 +1,113 @@
+package com.selimhorri.app.benchmark;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.selimhorri.app.concurrent.BatchLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput of findById-style lookups at high concurrency, one key per round trip
+ * ({@code windowMicros = 0}) versus micro-batched. The simulated database has a fixed
+ * round-trip latency and a pool of 10 connections, like the default Hikari pool.
+ * <p>
+ * Not run by surefire; start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.selimhorri.app.benchmark.BatchLoaderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(64)
+public class BatchLoaderBenchmark {
+	
+	private static final int KEY_SPACE = 10_000;
+	private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+	
+	@Param({"0", "500", "2000"})
+	private long windowMicros;
+	
+	private ScheduledExecutorService scheduler;
+	private ExecutorService dispatcher;
+	private SimulatedLoader loader;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.scheduler = Executors.newScheduledThreadPool(1);
+		this.dispatcher = Executors.newFixedThreadPool(8);
+		this.loader = new SimulatedLoader(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(this.windowMicros)), this.scheduler, this.dispatcher);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.scheduler.shutdownNow();
+		this.dispatcher.shutdownNow();
+	}
+	
+	@Benchmark
+	public Optional<String> findById() {
+		return this.loader.load(ThreadLocalRandom.current().nextInt(KEY_SPACE));
+	}
+	
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(BatchLoaderBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+	
+	private static final class SimulatedLoader extends BatchLoader<Integer, String> {
+		
+		private final Semaphore connections = new Semaphore(10);
+		
+		SimulatedLoader(final Duration window, final ScheduledExecutorService scheduler, final ExecutorService dispatcher) {
+			super("benchmark", window, 100, Duration.ofSeconds(30), scheduler, dispatcher, new SimpleMeterRegistry());
+		}
+		
+		@Override
+		protected Map<Integer, String> loadAll(final Set<Integer> keys) {
+			this.connections.acquireUninterruptibly();
+			try {
+				LockSupport.parkNanos(ROUND_TRIP_NANOS);
+				return keys.stream()
+						.collect(Collectors.toMap(Function.identity(), String::valueOf));
+			}
+			finally {
+				this.connections.release();
+			}
+		}
+		
+	}
+	
+}
@@ -0,0 +1,153 @@
+package com.selimhorri.app.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.selimhorri.app.config.mapper.DtoJsonCodecs;
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.config.mapper.ProtobufDtoHttpMessageConverter;
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+/**
+ * Payload size and encode/decode cost of one {@code GET /api/users} body of
+ * {@code users} users with credentials in each negotiated format, using the
+ * same mappers the converters are built with. Bytes per response are printed
+ * once per trial.
+ * <p>
+ * Not run by surefire; see the README for how to start it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatsBenchmark {
+	
+	@Param({"json", "cbor", "smile", "protobuf"})
+	private String format;
+	
+	@Param({"1", "100"})
+	private int users;
+	
+	private DtoCollectionResponse<UserDto> response;
+	private ObjectWriter writer;
+	private ObjectReader reader;
+	private byte[] encoded;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		this.response = new DtoCollectionResponse<>(IntStream.rangeClosed(1, this.users)
+				.mapToObj(BinaryFormatsBenchmark::user)
+				.collect(Collectors.toUnmodifiableList()));
+		
+		switch (this.format) {
+			case "json":
+				final ObjectMapper json = new MapperConfig().objectMapperBean(false);
+				final JavaType jsonType = userCollection(json);
+				final DtoJsonCodecs codecs = new DtoJsonCodecs(json);
+				this.writer = codecs.writerFor(jsonType).orElseThrow();
+				this.reader = codecs.readerFor(jsonType).orElseThrow();
+				break;
+			case "cbor":
+				this.useMapper(MapperConfig.binaryMapper(CBORMapper.builder()));
+				break;
+			case "smile":
+				this.useMapper(MapperConfig.binaryMapper(SmileMapper.builder()));
+				break;
+			case "protobuf":
+				final ProtobufMapper protobuf = MapperConfig.binaryMapper(ProtobufMapper.builder());
+				final JavaType protobufType = userCollection(protobuf);
+				final ProtobufSchema schema = new ProtobufDtoHttpMessageConverter(protobuf)
+						.schemaFor(protobufType)
+						.orElseThrow();
+				this.writer = protobuf.writerFor(protobufType).with(schema);
+				this.reader = protobuf.readerFor(protobufType).with(schema);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown format: " + this.format);
+		}
+		
+		this.encoded = this.writer.writeValueAsBytes(this.response);
+		System.out.printf("%n%s, %d users: %d bytes%n", this.format, this.users, this.encoded.length);
+	}
+	
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return this.writer.writeValueAsBytes(this.response);
+	}
+	
+	@Benchmark
+	public Object decode() throws IOException {
+		return this.reader.readValue(this.encoded);
+	}
+	
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(BinaryFormatsBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+	
+	private void useMapper(final ObjectMapper mapper) {
+		final JavaType javaType = userCollection(mapper);
+		this.writer = mapper.writerFor(javaType);
+		this.reader = mapper.readerFor(javaType);
+	}
+	
+	private static JavaType userCollection(final ObjectMapper mapper) {
+		return mapper.getTypeFactory().constructParametricType(DtoCollectionResponse.class, UserDto.class);
+	}
+	
+	private static UserDto user(final int userId) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("First" + userId)
+				.lastName("Last" + userId)
+				.imageUrl("https://bootdey.com/img/Content/avatar/avatar" + userId % 8 + ".png")
+				.email("user" + userId + "@gmail.com")
+				.phone("+21622125144")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(userId)
+						.username("user" + userId)
+						.password("$2a$04$/S7cWjHPZul03sPEivycWeKTBvLyjYdaRWmeaFbiqKy9es/3W4QB6")
+						.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+						.isEnabled(true)
+						.isAccountNonExpired(true)
+						.isAccountNonLocked(true)
+						.isCredentialsNonExpired(true)
+						.build())
+				.build();
+	}
+	
+	
+	
+}
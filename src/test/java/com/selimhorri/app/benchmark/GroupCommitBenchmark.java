@@ -0,0 +1,151 @@
+package com.selimhorri.app.benchmark;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.concurrent.GroupCommitter;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verification-token inserts from 16 concurrent callers on an in-memory H2,
+ * one transaction per request ({@code windowMicros = 0}) against group commit.
+ * H2 in memory has no fsync, so {@code commitMicros} adds that cost to every
+ * commit, one commit at a time, like the log flush of a durable database. Throughput plus the sampled
+ * latency percentiles (p0.99) per insert.
+ * Not run by surefire; see the README for how to start it.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class GroupCommitBenchmark {
+	
+	@State(Scope.Benchmark)
+	public static class InsertState {
+		
+		@Param({"0", "500"})
+		private int windowMicros;
+		
+		@Param({"0", "1000"})
+		private int commitMicros;
+		
+		private HikariDataSource dataSource;
+		private JdbcTemplate jdbcTemplate;
+		private ScheduledExecutorService scheduler;
+		private GroupCommitter committer;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.dataSource = new HikariDataSource();
+			this.dataSource.setJdbcUrl("jdbc:h2:mem:group_commit;DB_CLOSE_DELAY=-1");
+			this.dataSource.setUsername("sa");
+			this.dataSource.setMaximumPoolSize(20);
+			this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+			this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS verification_tokens_bench ("
+					+ "verification_token_id INT AUTO_INCREMENT PRIMARY KEY, verif_token VARCHAR(255), expire_date DATE)");
+			this.scheduler = Executors.newScheduledThreadPool(2);
+			this.committer = new GroupCommitter("bench", Duration.ofNanos(this.windowMicros * 1000L), 64, Duration.ofSeconds(5),
+					this.scheduler, new TransactionTemplate(new SlowCommitTransactionManager(this.dataSource, this.commitMicros)),
+					new SimpleMeterRegistry());
+		}
+		
+		@Setup(Level.Iteration)
+		public void truncate() {
+			this.jdbcTemplate.update("DELETE FROM verification_tokens_bench");
+		}
+		
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.scheduler.shutdownNow();
+			this.jdbcTemplate.execute("DROP TABLE verification_tokens_bench");
+			this.dataSource.close();
+		}
+		
+		private int insert() {
+			final GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+			this.jdbcTemplate.update(connection -> {
+				final PreparedStatement statement = connection.prepareStatement(
+						"INSERT INTO verification_tokens_bench (verif_token, expire_date) VALUES (?, ?)",
+						Statement.RETURN_GENERATED_KEYS);
+				statement.setString(1, UUID.randomUUID().toString());
+				statement.setObject(2, LocalDate.now().plusDays(1));
+				return statement;
+			}, keyHolder);
+			return keyHolder.getKey().intValue();
+		}
+	
+	}
+	
+	@Benchmark
+	public int insert(final InsertState state) {
+		return state.committer.submit(state::insert);
+	}
+	
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(GroupCommitBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+	
+	/**
+	 * Adds {@code commitMicros} to every commit, standing in for the log flush:
+	 * there is one log, so flushes do not overlap.
+	 */
+	private static final class SlowCommitTransactionManager extends DataSourceTransactionManager {
+		
+		private static final long serialVersionUID = 1L;
+		private static final Object LOG = new Object();
+		
+		private final long commitNanos;
+		
+		private SlowCommitTransactionManager(final HikariDataSource dataSource, final int commitMicros) {
+			super(dataSource);
+			this.commitNanos = commitMicros * 1000L;
+		}
+		
+		@Override
+		protected void doCommit(final DefaultTransactionStatus status) {
+			super.doCommit(status);
+			if (this.commitNanos > 0)
+				synchronized (LOG) {
+					LockSupport.parkNanos(this.commitNanos);
+				}
+		}
+	
+	}
+	
+}
@@ -0,0 +1,129 @@
+package com.selimhorri.app.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.selimhorri.app.config.mapper.DtoJsonCodecs;
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+/**
+ * Cost of one {@code GET /api/users} body of {@code users} users with
+ * credentials: the previous pretty-printed reflective mapper, the same mapper
+ * compact, and the production setup (compact, Blackbird, precompiled writer).
+ * Bytes per response are printed once per trial.
+ * <p>
+ * Not run by surefire; start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.selimhorri.app.benchmark.JsonSerializationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+	
+	@Param({"1", "100"})
+	private int users;
+	
+	private DtoCollectionResponse<UserDto> response;
+	private ObjectMapper indentedReflective;
+	private ObjectMapper compactReflective;
+	private ObjectWriter precompiled;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws JsonProcessingException {
+		this.response = new DtoCollectionResponse<>(IntStream.rangeClosed(1, this.users)
+				.mapToObj(JsonSerializationBenchmark::user)
+				.collect(Collectors.toUnmodifiableList()));
+		
+		this.indentedReflective = JsonMapper.builder()
+				.addModule(new JavaTimeModule())
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.build();
+		this.compactReflective = JsonMapper.builder()
+				.addModule(new JavaTimeModule())
+				.build();
+		final ObjectMapper production = new MapperConfig().objectMapperBean(false);
+		this.precompiled = new DtoJsonCodecs(production)
+				.writerFor(production.getTypeFactory().constructParametricType(DtoCollectionResponse.class, UserDto.class))
+				.orElseThrow();
+		
+		System.out.printf("%n%d users: indented %d bytes, compact %d bytes, precompiled %d bytes%n", this.users,
+				this.indentedReflective.writeValueAsBytes(this.response).length,
+				this.compactReflective.writeValueAsBytes(this.response).length,
+				this.precompiled.writeValueAsBytes(this.response).length);
+	}
+	
+	@Benchmark
+	public byte[] indentedReflective() throws JsonProcessingException {
+		return this.indentedReflective.writeValueAsBytes(this.response);
+	}
+	
+	@Benchmark
+	public byte[] compactReflective() throws JsonProcessingException {
+		return this.compactReflective.writeValueAsBytes(this.response);
+	}
+	
+	@Benchmark
+	public byte[] compactBlackbirdPrecompiled() throws JsonProcessingException {
+		return this.precompiled.writeValueAsBytes(this.response);
+	}
+	
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JsonSerializationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+	
+	private static UserDto user(final int userId) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("First" + userId)
+				.lastName("Last" + userId)
+				.imageUrl("https://bootdey.com/img/Content/avatar/avatar" + userId % 8 + ".png")
+				.email("user" + userId + "@gmail.com")
+				.phone("+21622125144")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(userId)
+						.username("user" + userId)
+						.password("$2a$04$/S7cWjHPZul03sPEivycWeKTBvLyjYdaRWmeaFbiqKy9es/3W4QB6")
+						.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+						.isEnabled(true)
+						.isAccountNonExpired(true)
+						.isAccountNonLocked(true)
+						.isCredentialsNonExpired(true)
+						.build())
+				.build();
+	}
+	
+	
+	
+}
@@ -0,0 +1,180 @@
+package com.selimhorri.app.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.config.outbox.OutboxRelay;
+import com.selimhorri.app.config.outbox.OutboxSink;
+import com.selimhorri.app.config.outbox.OutboxWriter;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Outbox on an in-memory H2 with the real migration:
+ * <ul>
+ * <li>{@code relay}: events per second drained by one relay (claim, read, publish to a
+ * no-op sink, delete) for several batch sizes.</li>
+ * <li>{@code write}: latency of a one-row update transaction with and without its outbox row.</li>
+ * </ul>
+ * Not run by surefire; see the README for how to start it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class OutboxRelayBenchmark {
+	
+	private static final int ROWS = 20_000;
+	private static final String PAYLOAD = "{\"entityType\":\"USER\",\"changeType\":\"UPDATED\",\"entityId\":42,\"userId\":42,"
+			+ "\"usernames\":[\"selimhorri\"]}";
+	
+	@State(Scope.Benchmark)
+	public static class RelayState {
+		
+		@Param({"100", "500", "2000"})
+		private int batchSize;
+		
+		private HikariDataSource dataSource;
+		private JdbcTemplate jdbcTemplate;
+		private OutboxRelay relay;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.dataSource = dataSource("relay");
+			this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+			final OutboxSink sink = messages -> {};
+			this.relay = new OutboxRelay(this.jdbcTemplate, TransactionOperations.withoutTransaction(), false, sink,
+					this.batchSize, Duration.ofSeconds(30), Clock.systemUTC(), new SimpleMeterRegistry());
+		}
+		
+		// se rellena fuera de la medicion: solo cuenta el drenado
+		@Setup(Level.Invocation)
+		public void fill() {
+			final Timestamp now = Timestamp.from(Instant.now());
+			final List<Object[]> rows = new ArrayList<>(ROWS);
+			for (int i = 0; i < ROWS; i++)
+				rows.add(new Object[] {i, PAYLOAD, now});
+			this.jdbcTemplate.batchUpdate("INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+					+ "VALUES ('USER', ?, 'UPDATED', ?, ?)", rows);
+		}
+		
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.dataSource.close();
+		}
+		
+	}
+	
+	@State(Scope.Benchmark)
+	public static class WriteState {
+		
+		@Param({"false", "true"})
+		private boolean outbox;
+		
+		private HikariDataSource dataSource;
+		private JdbcTemplate jdbcTemplate;
+		private TransactionTemplate transactionTemplate;
+		private OutboxWriter writer;
+		
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.dataSource = dataSource("write");
+			this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+			this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+			this.writer = new OutboxWriter(this.jdbcTemplate, new ObjectMapper().writer(), Clock.systemUTC(), new SimpleMeterRegistry());
+			this.jdbcTemplate.execute("CREATE TABLE users_bench (user_id INT PRIMARY KEY, first_name VARCHAR(255))");
+			for (int i = 0; i < 1000; i++)
+				this.jdbcTemplate.update("INSERT INTO users_bench VALUES (?, 'selim')", i);
+		}
+		
+		// la tabla no crece sin limite entre iteraciones
+		@Setup(Level.Iteration)
+		public void truncate() {
+			this.jdbcTemplate.update("DELETE FROM outbox");
+		}
+		
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.dataSource.close();
+		}
+		
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int relay(final RelayState state) {
+		int relayed = 0;
+		for (int batch; (batch = state.relay.relayOnce()) > 0;)
+			relayed += batch;
+		return relayed;
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void write(final WriteState state) {
+		final int userId = ThreadLocalRandom.current().nextInt(1000);
+		state.transactionTemplate.executeWithoutResult(status -> {
+			state.jdbcTemplate.update("UPDATE users_bench SET first_name = ? WHERE user_id = ?", "horri", userId);
+			if (state.outbox)
+				state.writer.onEntityChanged(EntityChangedEvent.builder()
+						.entityType(EntityType.USER)
+						.changeType(ChangeType.UPDATED)
+						.entityId(userId)
+						.userId(userId)
+						.username("selimhorri")
+						.build());
+		});
+	}
+	
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(OutboxRelayBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+	
+	private static HikariDataSource dataSource(final String name) {
+		final HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl("jdbc:h2:mem:outbox_" + name + ";DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		new ResourceDatabasePopulator(new ClassPathResource("db/migration/V14__create_outbox_table.sql")).execute(dataSource);
+		return dataSource;
+	}
+	
+}
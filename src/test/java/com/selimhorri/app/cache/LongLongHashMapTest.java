@@ -0,0 +1,70 @@
+package com.selimhorri.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LongLongHashMap Test")
+class LongLongHashMapTest {
+	
+	@Test
+	@DisplayName("Should put, replace and remove keys")
+	void testPutGetRemove() {
+		// Given
+		LongLongHashMap map = new LongLongHashMap(4);
+		
+		// When
+		map.put(1, 10);
+		long previous = map.put(1, 11);
+		map.put(-5, 50);
+		
+		// Then
+		assertEquals(10, previous);
+		assertEquals(11, map.get(1));
+		assertEquals(50, map.get(-5));
+		assertEquals(2, map.size());
+		assertEquals(11, map.remove(1));
+		assertEquals(LongLongHashMap.MISSING, map.get(1));
+		assertEquals(LongLongHashMap.MISSING, map.remove(1));
+		assertEquals(1, map.size());
+	}
+	
+	@Test
+	@DisplayName("Should match a HashMap under random puts and removes across resizes")
+	void testRandomOperations_MatchHashMap() {
+		// Given
+		LongLongHashMap map = new LongLongHashMap(16);
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(42);
+		
+		// When
+		for (int i = 0; i < 200_000; i++) {
+			long key = random.nextInt(5_000);
+			if (random.nextInt(3) == 0) {
+				Long removed = expected.remove(key);
+				assertEquals(removed == null ? LongLongHashMap.MISSING : removed, map.remove(key));
+			}
+			else {
+				Long replaced = expected.put(key, (long) i);
+				assertEquals(replaced == null ? LongLongHashMap.MISSING : replaced, map.put(key, i));
+			}
+		}
+		
+		// Then
+		assertEquals(expected.size(), map.size());
+		for (long key = 0; key < 5_000; key++)
+			assertEquals(expected.getOrDefault(key, LongLongHashMap.MISSING), map.get(key));
+	}
+	
+	@Test
+	@DisplayName("Should reject the reserved empty key")
+	void testPut_ReservedKey() {
+		assertThrows(IllegalArgumentException.class, () -> new LongLongHashMap(4).put(LongLongHashMap.EMPTY_KEY, 1));
+	}
+	
+}
@@ -0,0 +1,258 @@
+package com.selimhorri.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("OffHeapProfileStore Test")
+class OffHeapProfileStoreTest {
+	
+	private static final Duration TTL = Duration.ofMinutes(10);
+	private static final Duration MAX_STALE = Duration.ofMinutes(5);
+	
+	private SimpleMeterRegistry meterRegistry;
+	private OffHeapProfileStore store;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		store = new OffHeapProfileStore(4096, 4, 0.25, TTL, MAX_STALE, 0.0, Clock.systemUTC(), meterRegistry);
+	}
+	
+	@Test
+	@DisplayName("Should find a stored profile by id and by username")
+	void testPutAndFind() {
+		// Given
+		UserDto userDto = profile(1, "alice");
+		
+		// When
+		boolean stored = store.putById(userDto, store.versionOf(1), Duration.ZERO);
+		
+		// Then
+		assertTrue(stored);
+		assertEquals(userDto, store.findById(1).orElseThrow().getUserDto());
+		assertEquals(userDto, store.findByUsername("alice").orElseThrow().getUserDto());
+		assertTrue(store.findById(2).isEmpty());
+		assertTrue(store.findByUsername("bob").isEmpty());
+		assertEquals(2, meterRegistry.get("profilestore.requests").tag("result", "hit").counter().count());
+		assertEquals(2, meterRegistry.get("profilestore.requests").tag("result", "miss").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should replace the username index when a profile is stored again")
+	void testPut_Rename() {
+		// Given
+		store.putById(profile(1, "alice"), store.versionOf(1), Duration.ZERO);
+		
+		// When
+		store.putById(profile(1, "alicia"), store.versionOf(1), Duration.ZERO);
+		
+		// Then
+		assertTrue(store.findByUsername("alice").isEmpty());
+		assertEquals("alicia", store.findById(1).orElseThrow().getUserDto().getCredentialDto().getUsername());
+		assertEquals(1, store.size());
+	}
+	
+	@Test
+	@DisplayName("Should refuse a profile loaded before an invalidation")
+	void testPut_StaleVersionRefused() {
+		// Given
+		long byId = store.versionOf(1);
+		long byUsername = store.versionOf("alice");
+		store.invalidate(1, Set.of("alice"));
+		
+		// When & Then
+		assertFalse(store.putById(profile(1, "alice"), byId, Duration.ZERO));
+		assertFalse(store.putByUsername("alice", profile(1, "alice"), byUsername, Duration.ZERO));
+		assertEquals(0, store.size());
+	}
+	
+	@Test
+	@DisplayName("Should drop the profile on invalidation by id or by username")
+	void testInvalidate() {
+		// Given
+		store.putById(profile(1, "alice"), store.versionOf(1), Duration.ZERO);
+		store.putById(profile(2, "bob"), store.versionOf(2), Duration.ZERO);
+		
+		// When
+		store.invalidate(1, Set.of());
+		store.invalidate(null, Set.of("bob"));
+		
+		// Then
+		assertTrue(store.findById(1).isEmpty());
+		assertTrue(store.findById(2).isEmpty());
+		assertTrue(store.findByUsername("alice").isEmpty());
+		assertEquals(0, store.size());
+		assertEquals(0, store.liveBytes());
+	}
+	
+	@Test
+	@DisplayName("Should compact slabs full of replaced records instead of evicting")
+	void testAppend_CompactsDeadRecords() {
+		// Given
+		for (int i = 1; i <= 10; i++)
+			store.putById(profile(i, "user" + i), store.versionOf(i), Duration.ZERO);
+		
+		// When
+		for (int round = 0; round < 50; round++)
+			for (int i = 1; i <= 10; i++)
+				store.putById(profile(i, "user" + i), store.versionOf(i), Duration.ZERO);
+		
+		// Then
+		assertTrue(meterRegistry.get("profilestore.compactions").counter().count() > 0);
+		assertEquals(0, meterRegistry.get("profilestore.evictions").counter().count());
+		assertEquals(10, store.size());
+		for (int i = 1; i <= 10; i++)
+			assertEquals(profile(i, "user" + i), store.findByUsername("user" + i).orElseThrow().getUserDto());
+		assertTrue(store.allocatedBytes() <= 4 * 4096);
+	}
+	
+	@Test
+	@DisplayName("Should evict the oldest slab when the live profiles exceed the capacity")
+	void testAppend_EvictsOldest() {
+		// When
+		for (int i = 1; i <= 500; i++)
+			store.putById(profile(i, "user" + i), store.versionOf(i), Duration.ZERO);
+		
+		// Then
+		assertTrue(meterRegistry.get("profilestore.evictions").counter().count() > 0);
+		assertTrue(store.findById(1).isEmpty());
+		assertTrue(store.findByUsername("user1").isEmpty());
+		assertEquals(profile(500, "user500"), store.findById(500).orElseThrow().getUserDto());
+		assertEquals(3 * 4096, store.allocatedBytes()); // la reserva solo se asigna al compactar
+		assertTrue(store.liveBytes() <= 3 * 4096);
+		assertEquals(500 - (long) meterRegistry.get("profilestore.evictions").counter().count(), store.size());
+	}
+	
+	@Test
+	@DisplayName("Should miss and ignore puts when disabled")
+	void testDisabled() {
+		// Given
+		OffHeapProfileStore disabled = new OffHeapProfileStore(4096, 0, 0.25, TTL, MAX_STALE, 0.0, Clock.systemUTC(), new SimpleMeterRegistry());
+		
+		// When
+		boolean stored = disabled.putById(profile(1, "alice"), disabled.versionOf(1), Duration.ZERO);
+		disabled.invalidate(1, List.of("alice"));
+		
+		// Then
+		assertFalse(stored);
+		assertTrue(disabled.findById(1).isEmpty());
+		assertEquals(0, disabled.allocatedBytes());
+	}
+	
+	@Test
+	@DisplayName("Should serve a fresh profile without asking for a refresh when beta is 0")
+	void testFresh_NoRefreshWithoutBeta() {
+		// Given
+		final MutableClock clock = new MutableClock();
+		final OffHeapProfileStore timed = new OffHeapProfileStore(4096, 4, 0.25, TTL, MAX_STALE, 0.0, clock, meterRegistry);
+		timed.putById(profile(1, "alice"), timed.versionOf(1), Duration.ofSeconds(30));
+		
+		// When
+		clock.advance(TTL.minusMillis(1));
+		
+		// Then
+		assertFalse(timed.findById(1).orElseThrow().isRefreshDue());
+	}
+	
+	@Test
+	@DisplayName("Should ask for an early refresh when the load was slow and beta is high")
+	void testEarlyRefresh_XFetch() {
+		// Given
+		final MutableClock clock = new MutableClock();
+		final OffHeapProfileStore timed = new OffHeapProfileStore(4096, 4, 0.25, TTL, MAX_STALE, 1_000_000.0, clock, meterRegistry);
+		timed.putById(profile(1, "alice"), timed.versionOf(1), Duration.ofSeconds(1));
+		
+		// When
+		clock.advance(Duration.ofMinutes(1));
+		final StoredProfile stored = timed.findById(1).orElseThrow();
+		
+		// Then
+		assertTrue(stored.isRefreshDue());
+		assertEquals(profile(1, "alice"), stored.getUserDto());
+		assertEquals(1.0, meterRegistry.get("profilestore.refresh.triggers").tag("trigger", "early").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should serve an expired profile flagged for refresh until maxStale, then miss")
+	void testExpired_StaleThenMiss() {
+		// Given
+		final MutableClock clock = new MutableClock();
+		final OffHeapProfileStore timed = new OffHeapProfileStore(4096, 4, 0.25, TTL, MAX_STALE, 0.0, clock, meterRegistry);
+		timed.putById(profile(1, "alice"), timed.versionOf(1), Duration.ZERO);
+		
+		// When
+		clock.advance(TTL.plusMinutes(1));
+		final StoredProfile stale = timed.findByUsername("alice").orElseThrow();
+		clock.advance(MAX_STALE);
+		
+		// Then
+		assertTrue(stale.isRefreshDue());
+		assertTrue(timed.findById(1).isEmpty());
+		assertEquals(1.0, meterRegistry.get("profilestore.refresh.triggers").tag("trigger", "expired").counter().count());
+		assertEquals(Duration.ofMinutes(1).toMillis(),
+				meterRegistry.get("profilestore.staleness").timer().max(TimeUnit.MILLISECONDS));
+	}
+	
+	private static UserDto profile(final int userId, final String username) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("First" + userId)
+				.lastName("Last" + userId)
+				.email(username + "@example.com")
+				.phone("+34600000000")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(userId)
+						.username(username)
+						.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+						.isEnabled(true)
+						.isAccountNonExpired(true)
+						.isAccountNonLocked(true)
+						.isCredentialsNonExpired(true)
+						.build())
+				.build();
+	}
+	
+	private static final class MutableClock extends Clock {
+		
+		private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+		
+		void advance(final Duration duration) {
+			this.now = this.now.plus(duration);
+		}
+		
+		@Override
+		public Instant instant() {
+			return this.now;
+		}
+		
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+		
+		@Override
+		public Clock withZone(final ZoneId zone) {
+			return this;
+		}
+		
+	}
+	
+}
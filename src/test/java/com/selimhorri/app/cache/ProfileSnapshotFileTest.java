@@ -0,0 +1,177 @@
+package com.selimhorri.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.selimhorri.app.cache.ProfileSnapshotFile.LoadResult;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("ProfileSnapshotFile Test")
+class ProfileSnapshotFileTest {
+	
+	private static final Duration TTL = Duration.ofMinutes(10);
+	private static final Duration MAX_STALE = Duration.ofMinutes(5);
+	private static final SnapshotWatermark WATERMARK = new SnapshotWatermark(1_700_000_000_000L);
+	
+	@TempDir
+	Path directory;
+	
+	private Path path;
+	private OffHeapProfileStore source;
+	private OffHeapProfileStore target;
+	
+	@BeforeEach
+	void setUp() {
+		path = directory.resolve("profiles.snapshot");
+		source = new OffHeapProfileStore(4096, 4, 0.25, TTL, MAX_STALE, 0.0, Clock.systemUTC(), new SimpleMeterRegistry());
+		target = new OffHeapProfileStore(4096, 4, 0.25, TTL, MAX_STALE, 0.0, Clock.systemUTC(), new SimpleMeterRegistry());
+		for (int i = 1; i <= 20; i++)
+			source.putById(profile(i), source.versionOf(i), Duration.ZERO);
+	}
+	
+	@Test
+	@DisplayName("Should restore every profile when none changed since the watermark")
+	void testWriteAndLoad() throws IOException {
+		// Given
+		int written = ProfileSnapshotFile.write(path, WATERMARK, source);
+		
+		// When
+		LoadResult result = ProfileSnapshotFile.load(path, target, ProfileSnapshotFileTest::unchanged);
+		
+		// Then
+		assertEquals(20, written);
+		assertEquals(LoadResult.LOADED, result);
+		assertEquals(20, target.size());
+		assertEquals(profile(7), target.findById(7).orElseThrow().getUserDto());
+		assertEquals(profile(7), target.findByUsername("user7").orElseThrow().getUserDto());
+		assertFalse(Files.exists(path));
+		assertFalse(Files.exists(directory.resolve("profiles.snapshot.tmp")));
+	}
+	
+	@Test
+	@DisplayName("Should drop a snapshot that can no longer be validated")
+	void testLoad_Stale() throws IOException {
+		// Given
+		ProfileSnapshotFile.write(path, WATERMARK, source);
+		
+		// When
+		LoadResult result = ProfileSnapshotFile.load(path, target, watermark -> null);
+		
+		// Then
+		assertEquals(LoadResult.STALE, result);
+		assertEquals(0, target.size());
+		assertFalse(Files.exists(path));
+	}
+	
+	@Test
+	@DisplayName("Should restore only the profiles that did not change since the watermark")
+	void testLoad_SomeChanged() throws IOException {
+		// Given
+		ProfileSnapshotFile.write(path, WATERMARK, source);
+		
+		// When
+		LoadResult result = ProfileSnapshotFile.load(path, target, watermark -> userDto -> userDto.getUserId() % 2 == 0);
+		
+		// Then
+		assertEquals(LoadResult.LOADED, result);
+		assertEquals(10, target.size());
+		assertTrue(target.findById(8).isPresent());
+		assertTrue(target.findById(7).isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should drop a truncated snapshot")
+	void testLoad_Truncated() throws IOException {
+		// Given
+		ProfileSnapshotFile.write(path, WATERMARK, source);
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 40));
+		
+		// When
+		LoadResult result = ProfileSnapshotFile.load(path, target, ProfileSnapshotFileTest::unchanged);
+		
+		// Then
+		assertEquals(LoadResult.CORRUPT, result);
+		assertEquals(0, target.size());
+		assertFalse(Files.exists(path));
+	}
+	
+	@Test
+	@DisplayName("Should drop a snapshot with a flipped byte")
+	void testLoad_Corrupted() throws IOException {
+		// Given
+		ProfileSnapshotFile.write(path, WATERMARK, source);
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length / 2] ^= 0x10;
+		Files.write(path, bytes);
+		
+		// When
+		LoadResult result = ProfileSnapshotFile.load(path, target, ProfileSnapshotFileTest::unchanged);
+		
+		// Then
+		assertEquals(LoadResult.CORRUPT, result);
+		assertEquals(0, target.size());
+	}
+	
+	@Test
+	@DisplayName("Should report a missing snapshot")
+	void testLoad_Missing() throws IOException {
+		assertEquals(LoadResult.MISSING, ProfileSnapshotFile.load(path, target, ProfileSnapshotFileTest::unchanged));
+	}
+	
+	@Test
+	@DisplayName("Should write the snapshot readable by its owner only")
+	void testWrite_OwnerOnly() throws IOException {
+		// Given
+		assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+		Path nested = directory.resolve("state").resolve("profiles.snapshot");
+		Files.createDirectories(nested.getParent());
+		Files.createFile(nested.resolveSibling("profiles.snapshot.tmp"), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-rw-rw-")));
+		Path fresh = directory.resolve("fresh").resolve("profiles.snapshot");
+		
+		// When
+		ProfileSnapshotFile.write(nested, WATERMARK, source);
+		ProfileSnapshotFile.write(fresh, WATERMARK, source);
+		
+		// Then
+		assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(nested)));
+		assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(fresh)));
+		assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(fresh.getParent())));
+	}
+	
+	private static Predicate<UserDto> unchanged(final SnapshotWatermark watermark) {
+		assertEquals(WATERMARK, watermark);
+		return userDto -> true;
+	}
+	
+	private static UserDto profile(final int userId) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("First" + userId)
+				.email("user" + userId + "@example.com")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(userId)
+						.username("user" + userId)
+						.isEnabled(true)
+						.build())
+				.build();
+	}
+	
+}
@@ -0,0 +1,67 @@
+package com.selimhorri.app.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+
+@DisplayName("UserProfileCodec Test")
+class UserProfileCodecTest {
+	
+	@Test
+	@DisplayName("Should decode the profile that was encoded, without the password hash")
+	void testRoundTrip() {
+		// Given
+		UserDto userDto = UserDto.builder()
+				.userId(42)
+				.firstName("Zoë")
+				.lastName("O'Brien")
+				.imageUrl("https://example.com/a.png")
+				.email("zoe@example.com")
+				.phone("+34 600 000 000")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(7)
+						.username("zoe")
+						.password("$2a$04$hash")
+						.roleBasedAuthority(RoleBasedAuthority.ROLE_ADMIN)
+						.isEnabled(true)
+						.isAccountNonExpired(false)
+						.isAccountNonLocked(null)
+						.isCredentialsNonExpired(true)
+						.build())
+				.build();
+		
+		// When
+		byte[] encoded = UserProfileCodec.encode(userDto);
+		UserDto decoded = UserProfileCodec.decode(encoded);
+		
+		// Then
+		assertNull(decoded.getCredentialDto().getPassword());
+		userDto.getCredentialDto().setPassword(null);
+		assertEquals(userDto, decoded);
+		assertFalse(new String(encoded, StandardCharsets.UTF_8).contains("$2a$04$hash"));
+		assertTrue(encoded.length < 120, "encoded length " + encoded.length);
+	}
+	
+	@Test
+	@DisplayName("Should keep null fields, a missing credential and extreme ids")
+	void testRoundTrip_Nulls() {
+		// Given
+		UserDto withoutCredential = UserDto.builder().userId(Integer.MIN_VALUE).firstName("").build();
+		UserDto nullCredentialFields = UserDto.builder()
+				.userId(Integer.MAX_VALUE)
+				.credentialDto(CredentialDto.builder().credentialId(-1).build())
+				.build();
+		
+		// When & Then
+		assertEquals(withoutCredential, UserProfileCodec.decode(UserProfileCodec.encode(withoutCredential)));
+		assertEquals(nullCredentialFields, UserProfileCodec.decode(UserProfileCodec.encode(nullCredentialFields)));
+	}
+	
+}
@@ -0,0 +1,55 @@
+package com.selimhorri.app.changefeed;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.exception.wrapper.InvalidWatermarkException;
+
+@DisplayName("ChangeCursor Test")
+class ChangeCursorTest {
+
+	@Test
+	@DisplayName("Test parse - formatted cursor round-trips")
+	void testParse_RoundTrip() {
+		// Given
+		final ChangeCursor cursor = ChangeCursor.of(ChangeDto.upsert(42, Instant.parse("2026-03-01T08:15:30.123456Z"), "row"));
+
+		// When
+		final ChangeCursor parsed = ChangeCursor.parse(cursor.format());
+
+		// Then
+		assertEquals("2026-03-01T08:15:30.123456Z~42", cursor.format());
+		assertEquals(cursor, parsed);
+	}
+
+	@Test
+	@DisplayName("Test parse - bare instant starts at that instant")
+	void testParse_BareInstant() {
+		final ChangeCursor parsed = ChangeCursor.parse("2026-03-01T08:00:00Z");
+
+		assertEquals(Instant.parse("2026-03-01T08:00:00Z"), parsed.getChangedAt());
+		assertEquals(0, parsed.getId());
+	}
+
+	@Test
+	@DisplayName("Test parse - missing watermark starts from the beginning")
+	void testParse_Missing() {
+		assertTrue(ChangeCursor.parse(null).isStart());
+		assertTrue(ChangeCursor.parse(" ").isStart());
+	}
+
+	@Test
+	@DisplayName("Test parse - malformed watermark is rejected")
+	void testParse_Malformed() {
+		assertThrows(InvalidWatermarkException.class, () -> ChangeCursor.parse("yesterday"));
+		assertThrows(InvalidWatermarkException.class, () -> ChangeCursor.parse("2026-03-01T08:00:00Z~abc"));
+	}
+
+
+
+}
@@ -0,0 +1,126 @@
+package com.selimhorri.app.changefeed;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+import com.selimhorri.app.exception.wrapper.ChangeFeedExpiredException;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChangeFeed Test")
+class ChangeFeedTest {
+
+	private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+	private static final Instant T1 = NOW.minusSeconds(30);
+	private static final Instant T2 = NOW.minusSeconds(20);
+
+	@Mock
+	private TombstoneStore tombstoneStore;
+
+	private ChangeFeed changeFeed;
+
+	@BeforeEach
+	void setUp() {
+		changeFeed = new ChangeFeed(tombstoneStore, Duration.ofSeconds(1), Duration.ofSeconds(10), 1000, Clock.fixed(NOW, ZoneOffset.UTC));
+		lenient().when(tombstoneStore.horizon()).thenReturn(NOW.minus(Duration.ofDays(7)));
+	}
+
+	@Test
+	@DisplayName("Test read - rows and tombstones merged in keyset order")
+	void testRead_MergesInKeysetOrder() {
+		// Given
+		when(tombstoneStore.<String>findAfter(eq(EntityType.USER), eq(ChangeCursor.START), any(), eq(4)))
+				.thenReturn(List.of(ChangeDto.tombstone(5, T1)));
+
+		// When
+		final ChangeFeedResponse<String> page = changeFeed.read(EntityType.USER, ChangeCursor.START, 3,
+				(after, upTo, limit) -> List.of(ChangeDto.upsert(9, T1, "u9"), ChangeDto.upsert(2, T2, "u2"),
+						ChangeDto.upsert(3, T2, "u3")));
+
+		// Then
+		assertEquals(List.of(5, 9, 2), page.getChanges().stream().map(ChangeDto::getId).collect(Collectors.toList()));
+		assertTrue(page.getChanges().get(0).isDeleted());
+		assertTrue(page.isHasMore());
+		assertEquals(new ChangeCursor(T2, 2).format(), page.getNextSince());
+	}
+
+	@Test
+	@DisplayName("Test read - empty page keeps the watermark")
+	void testRead_EmptyKeepsWatermark() {
+		// Given
+		final ChangeCursor since = new ChangeCursor(T2, 3);
+
+		// When
+		final ChangeFeedResponse<String> page = changeFeed.read(EntityType.ADDRESS, since, 100, (after, upTo, limit) -> List.of());
+
+		// Then
+		assertTrue(page.getChanges().isEmpty());
+		assertFalse(page.isHasMore());
+		assertEquals(since.format(), page.getNextSince());
+	}
+
+	@Test
+	@DisplayName("Test read - caught-up page steps the watermark back by the overlap")
+	void testRead_CaughtUpStepsBackByOverlap() {
+		// When
+		final ChangeFeedResponse<String> page = changeFeed.read(EntityType.USER, new ChangeCursor(T2, 3), 100,
+				(after, upTo, limit) -> List.of(ChangeDto.upsert(4, NOW.minusSeconds(5), "u4")));
+
+		// Then
+		assertEquals(1, page.getChanges().size());
+		assertFalse(page.isHasMore());
+		assertEquals(new ChangeCursor(NOW.minusSeconds(11), 0).format(), page.getNextSince());
+	}
+
+	@Test
+	@DisplayName("Test read - both sources stop short of the settle window and get clamped limits")
+	void testRead_SettleWindowAndLimit() {
+		// Given
+		final Instant[] seenUpTo = new Instant[1];
+		final int[] seenLimit = new int[1];
+
+		// When
+		changeFeed.read(EntityType.CREDENTIAL, ChangeCursor.START, 50_000, (after, upTo, limit) -> {
+			seenUpTo[0] = upTo;
+			seenLimit[0] = limit;
+			return List.of();
+		});
+
+		// Then
+		assertEquals(NOW.minusSeconds(1), seenUpTo[0]);
+		assertEquals(1001, seenLimit[0]);
+		verify(tombstoneStore).findAfter(EntityType.CREDENTIAL, ChangeCursor.START, NOW.minusSeconds(1), 1001);
+	}
+
+	@Test
+	@DisplayName("Test read - watermark older than the tombstone retention is rejected")
+	void testRead_ExpiredWatermark() {
+		// Given
+		final ChangeCursor since = new ChangeCursor(NOW.minus(Duration.ofDays(8)), 1);
+
+		// When & Then
+		assertThrows(ChangeFeedExpiredException.class,
+				() -> changeFeed.read(EntityType.USER, since, 10, (after, upTo, limit) -> List.of()));
+		verify(tombstoneStore, never()).findAfter(any(), any(), any(), anyInt());
+	}
+
+
+
+}
@@ -0,0 +1,139 @@
+package com.selimhorri.app.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.concurrent.AdaptiveLimiter.Algorithm;
+import com.selimhorri.app.concurrent.AdaptiveLimiter.Permit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("AdaptiveLimiter Test")
+class AdaptiveLimiterTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	private AdaptiveLimiter limiter(final Algorithm algorithm, final int initialLimit, final Duration maxLatency) {
+		return AdaptiveLimiter.builder()
+				.name("SINGLE_READ")
+				.algorithm(algorithm)
+				.initialLimit(initialLimit)
+				.minLimit(1)
+				.maxLimit(50)
+				.maxLatency(maxLatency)
+				.tolerance(1.5)
+				.smoothing(0.2)
+				.backoffRatio(0.5)
+				.meterRegistry(meterRegistry)
+				.build();
+	}
+	
+	private List<Permit> acquireAll(final AdaptiveLimiter limiter, final int count) {
+		final List<Permit> permits = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			permits.add(limiter.tryAcquire().orElseThrow());
+		return permits;
+	}
+	
+	@Test
+	@DisplayName("Should shed calls beyond the current limit and count them")
+	void testTryAcquire_ShedsAboveLimit() {
+		// Given
+		AdaptiveLimiter limiter = limiter(Algorithm.AIMD, 2, Duration.ofSeconds(1));
+		List<Permit> permits = acquireAll(limiter, 2);
+		
+		// When
+		Optional<Permit> rejected = limiter.tryAcquire();
+		
+		// Then
+		assertTrue(rejected.isEmpty());
+		assertEquals(2, limiter.getInflight());
+		assertEquals(1.0, meterRegistry.get("concurrency.shed").tag("group", "SINGLE_READ").counter().count());
+		assertEquals(2.0, meterRegistry.get("concurrency.inflight").tag("group", "SINGLE_READ").gauge().value());
+		
+		permits.forEach(Permit::onIgnore);
+		assertEquals(0, limiter.getInflight());
+		assertEquals(2, limiter.getLimit());
+	}
+	
+	@Test
+	@DisplayName("AIMD should grow by one per fast call under load and back off on a drop")
+	void testAimd_GrowAndBackOff() {
+		// Given
+		AdaptiveLimiter limiter = limiter(Algorithm.AIMD, 4, Duration.ofSeconds(1));
+		
+		// When
+		acquireAll(limiter, 4).forEach(Permit::onSuccess);
+		
+		// Then: solo crecen las llamadas que llegaron con al menos la mitad del limite en uso
+		assertEquals(7, limiter.getLimit());
+		
+		// When
+		limiter.tryAcquire().orElseThrow().onDropped();
+		
+		// Then
+		assertEquals(3, limiter.getLimit());
+	}
+	
+	@Test
+	@DisplayName("AIMD should back off on calls slower than maxLatency")
+	void testAimd_SlowCallBacksOff() throws Exception {
+		// Given
+		AdaptiveLimiter limiter = limiter(Algorithm.AIMD, 10, Duration.ofMillis(1));
+		Permit permit = limiter.tryAcquire().orElseThrow();
+		
+		// When
+		Thread.sleep(5);
+		permit.onSuccess();
+		
+		// Then
+		assertEquals(5, limiter.getLimit());
+	}
+	
+	@Test
+	@DisplayName("AIMD should not grow while most of the limit is unused")
+	void testAimd_AppLimited() {
+		// Given
+		AdaptiveLimiter limiter = limiter(Algorithm.AIMD, 10, Duration.ofSeconds(1));
+		
+		// When
+		for (int i = 0; i < 20; i++)
+			limiter.tryAcquire().orElseThrow().onSuccess();
+		
+		// Then
+		assertEquals(10, limiter.getLimit());
+	}
+	
+	@Test
+	@DisplayName("GRADIENT should shrink the limit when latency rises well above its long-term average")
+	void testGradient_ShrinksOnQueueing() throws Exception {
+		// Given
+		AdaptiveLimiter limiter = limiter(Algorithm.GRADIENT, 20, Duration.ofSeconds(1));
+		acquireAll(limiter, 20).forEach(Permit::onSuccess);
+		int settled = limiter.getLimit();
+		assertTrue(settled >= 20);
+		
+		// When
+		List<Permit> slow = acquireAll(limiter, settled);
+		Thread.sleep(50);
+		slow.forEach(Permit::onSuccess);
+		
+		// Then
+		assertTrue(limiter.getLimit() < settled, () -> "limit " + limiter.getLimit() + " not below " + settled);
+		assertTrue(limiter.getLimit() >= 1);
+	}
+	
+}
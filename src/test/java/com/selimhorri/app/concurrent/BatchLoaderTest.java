@@ -0,0 +1,262 @@
+package com.selimhorri.app.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("BatchLoader Test")
+class BatchLoaderTest {
+	
+	private ScheduledExecutorService scheduler;
+	private ExecutorService dispatcher;
+	private ExecutorService callers;
+	private SimpleMeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		scheduler = Executors.newScheduledThreadPool(1, runnable -> new Thread(runnable, "timer"));
+		dispatcher = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "dispatcher"));
+		callers = Executors.newFixedThreadPool(16);
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdownNow();
+		dispatcher.shutdownNow();
+		callers.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should resolve distinct keys requested within the window with one loadAll call")
+	void testLoad_KeysWithinWindowBatched() throws Exception {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofMillis(200), 100);
+		
+		// When
+		List<Future<Optional<String>>> results = submit(loader, List.of(1, 2, 3, 4, 5, 5));
+		
+		// Then
+		for (int i = 0; i < 5; i++)
+			assertEquals(Optional.of("value-" + (i + 1)), results.get(i).get(2, TimeUnit.SECONDS));
+		assertEquals(Optional.of("value-5"), results.get(5).get(2, TimeUnit.SECONDS));
+		assertEquals(1, loader.batches.size());
+		assertEquals(Set.of(1, 2, 3, 4, 5), loader.batches.get(0));
+		assertEquals(1, meterRegistry.get("batchloader.batch.size").summary().count());
+	}
+	
+	@Test
+	@DisplayName("Should dispatch as soon as the batch reaches its maximum size")
+	void testLoad_MaxBatchSizeDispatchesEarly() throws Exception {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofSeconds(30), 3);
+		
+		// When
+		List<Future<Optional<String>>> results = submit(loader, List.of(1, 2, 3));
+		
+		// Then
+		for (Future<Optional<String>> result : results)
+			assertTrue(result.get(2, TimeUnit.SECONDS).isPresent());
+		assertEquals(1, loader.batches.size());
+		assertEquals(3, loader.batches.get(0).size());
+	}
+	
+	@Test
+	@DisplayName("Should return empty for keys missing from the batch result")
+	void testLoad_MissingKeyEmpty() {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofMillis(1), 100);
+		
+		// When
+		Optional<String> result = loader.load(-1);
+		
+		// Then
+		assertTrue(result.isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should propagate a loadAll failure to every caller of the batch")
+	void testLoad_FailurePropagated() throws Exception {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofMillis(200), 100);
+		loader.failure = new IllegalStateException("database down");
+		
+		// When
+		List<Future<Optional<String>>> results = submit(loader, List.of(1, 2));
+		
+		// Then
+		for (Future<Optional<String>> result : results) {
+			ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof IllegalStateException);
+		}
+	}
+	
+	@Test
+	@DisplayName("Should fail with ServiceUnavailableException when the batch does not complete in time")
+	void testLoad_TimeoutUnavailable() {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofMillis(1), 100, Duration.ofMillis(50));
+		loader.block = new CountDownLatch(1);
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> loader.load(1));
+		loader.block.countDown();
+	}
+	
+	@Test
+	@DisplayName("Should load inline through loadOne when the window is zero")
+	void testLoad_ZeroWindowInline() {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ZERO, 100);
+		
+		// When
+		Optional<String> result = loader.load(7);
+		
+		// Then
+		assertFalse(loader.isBatching());
+		assertEquals(Optional.of("value-7"), result);
+		assertEquals(List.of(Set.of(7)), loader.batches);
+		assertEquals(Thread.currentThread().getName(), loader.threads.get(0));
+	}
+	
+	@Test
+	@DisplayName("Should run loadAll on the dispatcher, never on the timer thread")
+	void testLoad_LoadAllOnDispatcher() throws Exception {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofMillis(20), 100);
+		
+		// When
+		List<Future<Optional<String>>> results = submit(loader, List.of(1, 2));
+		
+		// Then
+		for (Future<Optional<String>> result : results)
+			assertTrue(result.get(2, TimeUnit.SECONDS).isPresent());
+		assertEquals(List.of("dispatcher"), loader.threads);
+	}
+	
+	@Test
+	@DisplayName("Should keep firing window timers while a slow batch holds the dispatcher")
+	void testLoad_SlowBatchDoesNotDelayTimers() throws Exception {
+		// Given
+		RecordingLoader slow = new RecordingLoader(Duration.ofMillis(1), 100, Duration.ofSeconds(3));
+		slow.block = new CountDownLatch(1);
+		RecordingLoader fast = new RecordingLoader(Duration.ofMillis(1), 100);
+		Future<Optional<String>> blocked = callers.submit(() -> slow.load(1));
+		
+		// When
+		Optional<String> result = callers.submit(() -> fast.load(2)).get(1, TimeUnit.SECONDS);
+		
+		// Then
+		assertEquals(Optional.of("value-2"), result);
+		slow.block.countDown();
+		assertEquals(Optional.of("value-1"), blocked.get(2, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	@DisplayName("Should fail the batch with ServiceUnavailableException when the dispatcher rejects it")
+	void testLoad_DispatcherRejectedUnavailable() {
+		// Given
+		dispatcher.shutdownNow();
+		RecordingLoader loader = new RecordingLoader(Duration.ofMillis(1), 100);
+		
+		// When
+		ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class, () -> loader.load(1));
+		
+		// Then
+		assertTrue(exception.getCause() instanceof RejectedExecutionException);
+		assertTrue(loader.batches.isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should load cached keys inline through loadOne instead of batching them")
+	void testLoad_CachedKeyInline() {
+		// Given
+		RecordingLoader loader = new RecordingLoader(Duration.ofSeconds(30), 100);
+		loader.cached = Set.of(7);
+		
+		// When
+		Optional<String> result = loader.load(7);
+		
+		// Then
+		assertEquals(Optional.of("value-7"), result);
+		assertEquals(List.of(Set.of(7)), loader.batches);
+		assertEquals(Thread.currentThread().getName(), loader.threads.get(0));
+	}
+	
+	private List<Future<Optional<String>>> submit(final RecordingLoader loader, final List<Integer> keys) {
+		List<Future<Optional<String>>> results = new ArrayList<>();
+		for (Integer key : keys)
+			results.add(callers.submit((Callable<Optional<String>>) () -> loader.load(key)));
+		return results;
+	}
+	
+	private class RecordingLoader extends BatchLoader<Integer, String> {
+		
+		private final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+		private final List<String> threads = new CopyOnWriteArrayList<>();
+		private volatile RuntimeException failure;
+		private volatile CountDownLatch block;
+		private volatile Set<Integer> cached = Set.of();
+		
+		RecordingLoader(final Duration window, final int maxBatchSize) {
+			this(window, maxBatchSize, Duration.ofSeconds(2));
+		}
+		
+		RecordingLoader(final Duration window, final int maxBatchSize, final Duration timeout) {
+			super("test", window, maxBatchSize, timeout, scheduler, dispatcher, meterRegistry);
+		}
+		
+		@Override
+		protected boolean isCached(final Integer key) {
+			return cached.contains(key);
+		}
+		
+		@Override
+		protected Map<Integer, String> loadAll(final Set<Integer> keys) {
+			batches.add(new HashSet<>(keys));
+			threads.add(Thread.currentThread().getName());
+			if (block != null) {
+				try {
+					block.await(2, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (failure != null)
+				throw failure;
+			return keys.stream()
+					.filter(key -> key > 0)
+					.collect(Collectors.toMap(Function.identity(), key -> "value-" + key));
+		}
+		
+	}
+	
+}
@@ -0,0 +1,145 @@
+package com.selimhorri.app.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Bulkhead Test")
+class BulkheadTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	private ExecutorService executorService;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		executorService = Executors.newCachedThreadPool();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should admit up to maxConcurrent calls without waiting")
+	void testTryAcquire_WithinLimit() {
+		// Given
+		Bulkhead bulkhead = new Bulkhead("BULK_READ", 2, 0, Duration.ofMillis(10), meterRegistry);
+		
+		// When & Then
+		assertTrue(bulkhead.tryAcquire());
+		assertTrue(bulkhead.tryAcquire());
+		assertEquals(2, bulkhead.getActive());
+		assertFalse(bulkhead.tryAcquire());
+		assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("bulkhead", "BULK_READ").counter().count());
+		
+		bulkhead.release();
+		assertEquals(1, bulkhead.getActive());
+		assertTrue(bulkhead.tryAcquire());
+	}
+	
+	@Test
+	@DisplayName("Should let a queued caller in when a slot is released within maxWait")
+	void testTryAcquire_QueuedCallerAdmitted() throws Exception {
+		// Given
+		Bulkhead bulkhead = new Bulkhead("AUTH", 1, 1, Duration.ofSeconds(5), meterRegistry);
+		assertTrue(bulkhead.tryAcquire());
+		
+		// When
+		Future<Boolean> queued = executorService.submit(bulkhead::tryAcquire);
+		awaitQueueDepth(bulkhead, 1);
+		assertEquals(1.0, meterRegistry.get("bulkhead.queue.depth").tag("bulkhead", "AUTH").gauge().value());
+		bulkhead.release();
+		
+		// Then
+		assertTrue(queued.get(5, TimeUnit.SECONDS));
+		assertEquals(0, bulkhead.getQueueDepth());
+		assertEquals(1, bulkhead.getActive());
+	}
+	
+	@Test
+	@DisplayName("Should hand a released slot to the queued caller before a new one")
+	void testTryAcquire_QueuedCallerBeforeNewCaller() throws Exception {
+		// Given
+		Bulkhead bulkhead = new Bulkhead("BULK_READ", 1, 2, Duration.ofSeconds(1), meterRegistry);
+		assertTrue(bulkhead.tryAcquire());
+		AtomicReference<Thread> waiter = new AtomicReference<>();
+		Future<Boolean> queued = executorService.submit(() -> {
+			waiter.set(Thread.currentThread());
+			return bulkhead.tryAcquire();
+		});
+		awaitQueueDepth(bulkhead, 1);
+		awaitParked(waiter);
+		
+		// When
+		bulkhead.release();
+		boolean newCaller = bulkhead.tryAcquire();
+		
+		// Then
+		assertTrue(queued.get(5, TimeUnit.SECONDS));
+		assertFalse(newCaller);
+		assertEquals(1, bulkhead.getActive());
+	}
+	
+	@Test
+	@DisplayName("Should reject immediately once the queue is full")
+	void testTryAcquire_QueueFull() throws Exception {
+		// Given
+		Bulkhead bulkhead = new Bulkhead("WRITE", 1, 1, Duration.ofSeconds(5), meterRegistry);
+		assertTrue(bulkhead.tryAcquire());
+		Future<Boolean> queued = executorService.submit(bulkhead::tryAcquire);
+		awaitQueueDepth(bulkhead, 1);
+		
+		// When
+		long start = System.nanoTime();
+		boolean admitted = bulkhead.tryAcquire();
+		
+		// Then
+		assertFalse(admitted);
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+		bulkhead.release();
+		assertTrue(queued.get(5, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	@DisplayName("Should reject a queued caller after maxWait")
+	void testTryAcquire_WaitExceeded() {
+		// Given
+		Bulkhead bulkhead = new Bulkhead("SINGLE_READ", 1, 5, Duration.ofMillis(50), meterRegistry);
+		assertTrue(bulkhead.tryAcquire());
+		
+		// When & Then
+		assertFalse(bulkhead.tryAcquire());
+		assertEquals(0, bulkhead.getQueueDepth());
+		assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("bulkhead", "SINGLE_READ").counter().count());
+		assertEquals(1, meterRegistry.get("bulkhead.wait").tag("bulkhead", "SINGLE_READ").timer().count());
+	}
+	
+	private static void awaitQueueDepth(final Bulkhead bulkhead, final int depth) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (bulkhead.getQueueDepth() < depth && System.nanoTime() < deadline)
+			Thread.sleep(5);
+		assertEquals(depth, bulkhead.getQueueDepth());
+	}
+	
+	private static void awaitParked(final AtomicReference<Thread> thread) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ((thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING) && System.nanoTime() < deadline)
+			Thread.sleep(5);
+		assertEquals(Thread.State.TIMED_WAITING, thread.get().getState());
+	}
+	
+}
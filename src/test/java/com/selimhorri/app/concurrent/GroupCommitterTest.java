@@ -0,0 +1,211 @@
+package com.selimhorri.app.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("GroupCommitter Test")
+class GroupCommitterTest {
+	
+	private ScheduledExecutorService scheduler;
+	private ExecutorService callers;
+	private SimpleMeterRegistry meterRegistry;
+	private RecordingTransactions transactions;
+	
+	@BeforeEach
+	void setUp() {
+		scheduler = Executors.newScheduledThreadPool(2);
+		callers = Executors.newFixedThreadPool(16);
+		meterRegistry = new SimpleMeterRegistry();
+		transactions = new RecordingTransactions();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdownNow();
+		callers.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should commit work submitted within the window in one transaction, each caller getting its own result")
+	void testSubmit_WithinWindowOneTransaction() throws Exception {
+		// Given
+		final GroupCommitter committer = committer(Duration.ofMillis(200), 100);
+		
+		// When
+		final List<Future<Integer>> results = submit(committer, List.of(1, 2, 3, 4, 5));
+		
+		// Then
+		for (int i = 0; i < results.size(); i++)
+			assertEquals(i + 1, results.get(i).get(5, TimeUnit.SECONDS));
+		assertEquals(1, transactions.count.get());
+		assertEquals(5, transactions.committed.size());
+		assertEquals(5.0, meterRegistry.get("groupcommit.batch.size").summary().totalAmount());
+	}
+	
+	@Test
+	@DisplayName("Should roll the batch back and retry one by one when a row fails, failing only its caller")
+	void testSubmit_FailingRowIsolated() throws Exception {
+		// Given
+		final GroupCommitter committer = committer(Duration.ofMillis(200), 100);
+		
+		// When
+		final List<Future<Integer>> results = submit(committer, List.of(1, -2, 3));
+		
+		// Then
+		assertEquals(1, results.get(0).get(5, TimeUnit.SECONDS));
+		final ExecutionException failure = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+		assertTrue(failure.getCause() instanceof IllegalArgumentException);
+		assertEquals(3, results.get(2).get(5, TimeUnit.SECONDS));
+		assertEquals(List.of(1, 3), sorted(transactions.committed));
+		assertEquals(4, transactions.count.get());
+		assertEquals(1.0, meterRegistry.get("groupcommit.fallbacks").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should commit as soon as max-batch-size is pending, without waiting for the window")
+	void testSubmit_FullBatchDispatchedEarly() throws Exception {
+		// Given
+		final GroupCommitter committer = committer(Duration.ofSeconds(30), 3);
+		
+		// When
+		final List<Future<Integer>> results = submit(committer, List.of(1, 2, 3));
+		
+		// Then
+		for (final Future<Integer> result : results)
+			assertNotNull(result.get(5, TimeUnit.SECONDS));
+		assertEquals(1, transactions.count.get());
+	}
+	
+	@Test
+	@DisplayName("Should run each submit in its own transaction on the caller thread with a zero window")
+	void testSubmit_ZeroWindowNotGrouped() {
+		// Given
+		final GroupCommitter committer = committer(Duration.ZERO, 100);
+		final String caller = Thread.currentThread().getName();
+		
+		// When
+		final String first = committer.submit(() -> Thread.currentThread().getName());
+		final int second = committer.submit(() -> transactions.write(2));
+		
+		// Then
+		assertFalse(committer.isBatching());
+		assertEquals(caller, first);
+		assertEquals(2, second);
+		assertEquals(2, transactions.count.get());
+	}
+	
+	@Test
+	@DisplayName("Should withdraw the work of a caller that times out before its batch is dispatched")
+	void testSubmit_TimeoutBeforeDispatchWithdraws() throws InterruptedException {
+		// Given
+		final GroupCommitter committer = new GroupCommitter("test", Duration.ofMillis(300), 100, Duration.ofMillis(50),
+				scheduler, transactions, meterRegistry);
+		
+		// When
+		assertThrows(ServiceUnavailableException.class, () -> committer.submit(() -> transactions.write(1)));
+		Thread.sleep(600);
+		
+		// Then
+		assertTrue(transactions.committed.isEmpty());
+		assertEquals(0, transactions.count.get());
+		assertEquals(1.0, meterRegistry.get("groupcommit.withdrawn").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should wait for the commit of a caller that times out after its batch is dispatched")
+	void testSubmit_TimeoutAfterDispatchWaitsForCommit() {
+		// Given
+		final GroupCommitter committer = new GroupCommitter("test", Duration.ofMillis(10), 100, Duration.ofMillis(50),
+				scheduler, transactions, meterRegistry);
+		
+		// When
+		final int result = committer.submit(() -> {
+			LockSupport.parkNanos(Duration.ofMillis(200).toNanos());
+			return transactions.write(1);
+		});
+		
+		// Then
+		assertEquals(1, result);
+		assertEquals(List.of(1), transactions.committed);
+		assertEquals(0.0, meterRegistry.get("groupcommit.withdrawn").counter().count());
+	}
+	
+	private GroupCommitter committer(final Duration window, final int maxBatchSize) {
+		return new GroupCommitter("test", window, maxBatchSize, Duration.ofSeconds(5), scheduler, transactions, meterRegistry);
+	}
+	
+	private List<Future<Integer>> submit(final GroupCommitter committer, final List<Integer> rows) {
+		final List<Future<Integer>> results = new ArrayList<>();
+		for (final Integer row : rows)
+			results.add(callers.submit(() -> committer.submit(() -> transactions.write(row))));
+		return results;
+	}
+	
+	private static List<Integer> sorted(final List<Integer> rows) {
+		final List<Integer> copy = new ArrayList<>(rows);
+		copy.sort(null);
+		return copy;
+	}
+	
+	/**
+	 * Rows written inside a transaction only become visible if it returns normally;
+	 * a negative row fails like a constraint violation would.
+	 */
+	private static class RecordingTransactions implements TransactionOperations {
+		
+		private final AtomicInteger count = new AtomicInteger();
+		private final List<Integer> committed = new CopyOnWriteArrayList<>();
+		private final ThreadLocal<List<Integer>> staged = new ThreadLocal<>();
+		
+		@Override
+		public <T> T execute(final TransactionCallback<T> action) {
+			count.incrementAndGet();
+			staged.set(new ArrayList<>());
+			try {
+				final TransactionStatus status = new SimpleTransactionStatus();
+				final T result = action.doInTransaction(status);
+				committed.addAll(staged.get());
+				return result;
+			}
+			finally {
+				staged.remove();
+			}
+		}
+		
+		int write(final int row) {
+			if (row < 0)
+				throw new IllegalArgumentException("row " + row + " violates a constraint");
+			staged.get().add(row);
+			return row;
+		}
+	
+	}
+	
+	
+	
+}
@@ -0,0 +1,116 @@
+package com.selimhorri.app.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("RefreshAhead Test")
+class RefreshAheadTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	private ExecutorService executorService;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		executorService = Executors.newSingleThreadExecutor();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Test refresh - one in flight per key")
+	void testRefresh_CoalescesSameKey() throws InterruptedException {
+		// Given
+		final RefreshAhead refreshAhead = new RefreshAhead("test", executorService, meterRegistry);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicInteger runs = new AtomicInteger();
+		
+		// When
+		final boolean first = refreshAhead.refresh(1, () -> {
+			runs.incrementAndGet();
+			await(release);
+			done.countDown();
+		});
+		final boolean second = refreshAhead.refresh(1, runs::incrementAndGet);
+		release.countDown();
+		assertTrue(done.await(2, TimeUnit.SECONDS));
+		
+		// Then
+		assertTrue(first);
+		assertFalse(second);
+		assertEquals(1, runs.get());
+		assertEquals(1.0, meterRegistry.get("refreshahead.refreshes").tag("result", "coalesced").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Test refresh - key free again after failure")
+	void testRefresh_FailureReleasesKey() throws InterruptedException {
+		// Given
+		final RefreshAhead refreshAhead = new RefreshAhead("test", executorService, meterRegistry);
+		final CountDownLatch done = new CountDownLatch(1);
+		
+		// When
+		refreshAhead.refresh(1, () -> {
+			throw new IllegalStateException("boom");
+		});
+		executorService.submit(done::countDown);
+		assertTrue(done.await(2, TimeUnit.SECONDS));
+		final boolean again = refreshAhead.refresh(1, () -> {});
+		
+		// Then
+		assertTrue(again);
+		assertEquals(1.0, meterRegistry.get("refreshahead.refreshes").tag("result", "failed").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Test refresh - dropped when executor is saturated")
+	void testRefresh_Rejected() {
+		// Given
+		final List<Runnable> ran = new ArrayList<>();
+		final RefreshAhead refreshAhead = new RefreshAhead("test", runnable -> {
+			throw new RejectedExecutionException("full");
+		}, meterRegistry);
+		
+		// When
+		final boolean scheduled = refreshAhead.refresh(1, () -> ran.add(() -> {}));
+		
+		// Then
+		assertFalse(scheduled);
+		assertTrue(ran.isEmpty());
+		assertEquals(1.0, meterRegistry.get("refreshahead.refreshes").tag("result", "rejected").counter().count());
+		// la clave queda libre para el siguiente intento
+		assertFalse(refreshAhead.refresh(1, () -> {}));
+		assertEquals(2.0, meterRegistry.get("refreshahead.refreshes").tag("result", "rejected").counter().count());
+	}
+	
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(2, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
+	
+}
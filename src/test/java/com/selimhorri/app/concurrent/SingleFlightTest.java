@@ -0,0 +1,173 @@
+package com.selimhorri.app.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("SingleFlight Test")
+class SingleFlightTest {
+	
+	private static final int CALLERS = 8;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private SingleFlight singleFlight;
+	private ExecutorService executorService;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		singleFlight = new SingleFlight(meterRegistry, Duration.ofSeconds(2));
+		executorService = Executors.newFixedThreadPool(CALLERS);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should share one load between concurrent callers for the same key")
+	void testExecute_ConcurrentCallersShareLoad() throws Exception {
+		// Given
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		
+		// When
+		List<Future<String>> results = submitCallers(() -> singleFlight.execute("user.findById", 1, () -> {
+			loads.incrementAndGet();
+			await(release);
+			return "user-1";
+		}));
+		awaitCoalesced(CALLERS - 1);
+		release.countDown();
+		
+		// Then
+		for (Future<String> result : results)
+			assertEquals("user-1", result.get(2, TimeUnit.SECONDS));
+		assertEquals(1, loads.get());
+		assertEquals(CALLERS - 1, coalescedCount());
+	}
+	
+	@Test
+	@DisplayName("Should propagate the loader exception to every waiting caller")
+	void testExecute_ExceptionPropagated() throws Exception {
+		// Given
+		CountDownLatch release = new CountDownLatch(1);
+		
+		// When
+		List<Future<String>> results = submitCallers(() -> singleFlight.execute("user.findById", 99, () -> {
+			await(release);
+			throw new UserObjectNotFoundException("User with id: 99 not found");
+		}));
+		awaitCoalesced(CALLERS - 1);
+		release.countDown();
+		
+		// Then
+		for (Future<String> result : results) {
+			ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof UserObjectNotFoundException);
+		}
+	}
+	
+	@Test
+	@DisplayName("Should fail waiting callers with ServiceUnavailableException after the timeout")
+	void testExecute_WaiterTimesOut() throws Exception {
+		// Given
+		singleFlight = new SingleFlight(meterRegistry, Duration.ofMillis(50));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> leader = executorService.submit(() -> singleFlight.execute("user.findById", 1, () -> {
+			started.countDown();
+			await(release);
+			return "user-1";
+		}));
+		assertTrue(started.await(2, TimeUnit.SECONDS));
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class,
+				() -> singleFlight.execute("user.findById", 1, () -> "own-load"));
+		release.countDown();
+		assertEquals("user-1", leader.get(2, TimeUnit.SECONDS));
+		assertEquals(1.0, meterRegistry.get("singleflight.timeouts").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should load again once the previous flight has completed")
+	void testExecute_SequentialCallsNotCoalesced() {
+		// Given
+		AtomicInteger loads = new AtomicInteger();
+		
+		// When
+		singleFlight.execute("user.findById", 1, loads::incrementAndGet);
+		singleFlight.execute("user.findById", 1, loads::incrementAndGet);
+		
+		// Then
+		assertEquals(2, loads.get());
+		assertEquals(0, coalescedCount());
+	}
+	
+	@Test
+	@DisplayName("Should not coalesce different keys or operations")
+	void testExecute_DifferentKeysNotCoalesced() {
+		// Given
+		AtomicInteger loads = new AtomicInteger();
+		
+		// When
+		singleFlight.execute("user.findById", 1, () -> singleFlight.execute("user.findById", 2, loads::incrementAndGet));
+		singleFlight.execute("user.findById", 1, () -> singleFlight.execute("credential.findById", 1, loads::incrementAndGet));
+		
+		// Then
+		assertEquals(2, loads.get());
+		assertEquals(0, coalescedCount());
+	}
+	
+	private List<Future<String>> submitCallers(final Callable<String> caller) {
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++)
+			results.add(executorService.submit(caller));
+		return results;
+	}
+	
+	private void awaitCoalesced(final int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (coalescedCount() < expected && System.nanoTime() < deadline)
+			Thread.sleep(5);
+	}
+	
+	private double coalescedCount() {
+		return meterRegistry.find("singleflight.coalesced").counters()
+				.stream()
+				.mapToDouble(counter -> counter.count())
+				.sum();
+	}
+	
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(2, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+}
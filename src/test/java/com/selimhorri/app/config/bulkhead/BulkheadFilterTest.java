@@ -0,0 +1,96 @@
+package com.selimhorri.app.config.bulkhead;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.selimhorri.app.concurrent.Bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("BulkheadFilter Test")
+class BulkheadFilterTest {
+	
+	private Map<EndpointClass, Bulkhead> bulkheads;
+	private BulkheadFilter bulkheadFilter;
+	
+	@BeforeEach
+	void setUp() {
+		final var meterRegistry = new SimpleMeterRegistry();
+		bulkheads = new EnumMap<>(EndpointClass.class);
+		bulkheads.put(EndpointClass.AUTH, new Bulkhead("AUTH", 1, 0, Duration.ofMillis(10), meterRegistry));
+		bulkheads.put(EndpointClass.BULK_READ, new Bulkhead("BULK_READ", 1, 0, Duration.ofMillis(10), meterRegistry));
+		bulkheadFilter = new BulkheadFilter(bulkheads);
+	}
+	
+	@Test
+	@DisplayName("Should bind the endpoint class while the chain runs and release the slot afterwards")
+	void testDoFilter_BindsEndpointClass() throws Exception {
+		// Given
+		MockHttpServletRequest request = request("GET", "/api/users/username/selimhorri");
+		AtomicReference<EndpointClass> seen = new AtomicReference<>();
+		FilterChain chain = (req, res) -> {
+			seen.set(EndpointClass.current().orElse(null));
+			assertEquals(1, bulkheads.get(EndpointClass.AUTH).getActive());
+		};
+		
+		// When
+		bulkheadFilter.doFilter(request, new MockHttpServletResponse(), chain);
+		
+		// Then
+		assertEquals(EndpointClass.AUTH, seen.get());
+		assertTrue(EndpointClass.current().isEmpty());
+		assertEquals(0, bulkheads.get(EndpointClass.AUTH).getActive());
+	}
+	
+	@Test
+	@DisplayName("Should answer 503 when the bulkhead of the class is full, leaving other classes untouched")
+	void testDoFilter_RejectsWhenFull() throws Exception {
+		// Given
+		assertTrue(bulkheads.get(EndpointClass.BULK_READ).tryAcquire());
+		MockHttpServletResponse bulkResponse = new MockHttpServletResponse();
+		MockHttpServletResponse authResponse = new MockHttpServletResponse();
+		
+		// When
+		bulkheadFilter.doFilter(request("GET", "/api/users"), bulkResponse, (req, res) -> fail("chain must not run"));
+		bulkheadFilter.doFilter(request("GET", "/api/credentials/username/admin"), authResponse, (req, res) -> {});
+		
+		// Then
+		assertEquals(503, bulkResponse.getStatus());
+		assertEquals("1", bulkResponse.getHeader("Retry-After"));
+		assertEquals(200, authResponse.getStatus());
+	}
+	
+	@Test
+	@DisplayName("Should pass through requests without a configured bulkhead")
+	void testDoFilter_Unclassified() throws Exception {
+		// Given
+		AtomicInteger ran = new AtomicInteger();
+		
+		// When
+		bulkheadFilter.doFilter(request("GET", "/actuator/health"), new MockHttpServletResponse(), (req, res) -> ran.incrementAndGet());
+		bulkheadFilter.doFilter(request("POST", "/api/users"), new MockHttpServletResponse(), (req, res) -> ran.incrementAndGet());
+		
+		// Then
+		assertEquals(2, ran.get());
+	}
+	
+	private static MockHttpServletRequest request(final String method, final String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/user-service" + path);
+		request.setContextPath("/user-service");
+		return request;
+	}
+	
+}
@@ -0,0 +1,72 @@
+package com.selimhorri.app.config.bulkhead;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EndpointClassRoutingDataSource Test")
+class EndpointClassRoutingDataSourceTest {
+	
+	@Mock
+	private DataSource authPool;
+	
+	@Mock
+	private DataSource bulkReadPool;
+	
+	@Mock
+	private DataSource defaultPool;
+	
+	private EndpointClassRoutingDataSource routingDataSource;
+	
+	@BeforeEach
+	void setUp() {
+		routingDataSource = new EndpointClassRoutingDataSource();
+		routingDataSource.setTargetDataSources(Map.of(EndpointClass.AUTH, authPool, EndpointClass.BULK_READ, bulkReadPool));
+		routingDataSource.setDefaultTargetDataSource(defaultPool);
+		routingDataSource.afterPropertiesSet();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		EndpointClass.clear();
+	}
+	
+	@Test
+	@DisplayName("Should hand out connections from the pool of the bound endpoint class")
+	void testGetConnection_RoutesByEndpointClass() throws Exception {
+		// Given
+		Connection connection = mock(Connection.class);
+		when(authPool.getConnection()).thenReturn(connection);
+		EndpointClass.bind(EndpointClass.AUTH);
+		
+		// When & Then
+		assertSame(connection, routingDataSource.getConnection());
+		verifyNoInteractions(bulkReadPool, defaultPool);
+	}
+	
+	@Test
+	@DisplayName("Should use the default pool when no endpoint class is bound")
+	void testGetConnection_DefaultPool() throws Exception {
+		// Given
+		Connection connection = mock(Connection.class);
+		when(defaultPool.getConnection()).thenReturn(connection);
+		
+		// When & Then
+		assertSame(connection, routingDataSource.getConnection());
+		verifyNoInteractions(authPool, bulkReadPool);
+	}
+	
+}
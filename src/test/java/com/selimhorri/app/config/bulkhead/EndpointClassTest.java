@@ -0,0 +1,97 @@
+package com.selimhorri.app.config.bulkhead;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("EndpointClass Test")
+class EndpointClassTest {
+	
+	@Test
+	@DisplayName("Should classify username lookups as AUTH")
+	void testClassify_Auth() {
+		assertEquals(Optional.of(EndpointClass.AUTH), EndpointClass.classify("GET", "/api/users/username/selimhorri"));
+		assertEquals(Optional.of(EndpointClass.AUTH), EndpointClass.classify("GET", "/api/credentials/username/selimhorri"));
+	}
+	
+	@Test
+	@DisplayName("Should classify collection endpoints as BULK_READ")
+	void testClassify_BulkRead() {
+		assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.classify("GET", "/api/users"));
+		assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.classify("GET", "/api/credentials/"));
+		assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.classify("GET", "/api/address"));
+		assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.classify("GET", "/api/verificationTokens"));
+		assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.classify("GET", "/api/users/1/addresses"));
+		assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.classify("GET", "/api/address/changes"));
+	}
+	
+	@Test
+	@DisplayName("Should classify lookups by id as SINGLE_READ")
+	void testClassify_SingleRead() {
+		assertEquals(Optional.of(EndpointClass.SINGLE_READ), EndpointClass.classify("GET", "/api/users/1"));
+		assertEquals(Optional.of(EndpointClass.SINGLE_READ), EndpointClass.classify("GET", "/api/address/7"));
+	}
+	
+	@Test
+	@DisplayName("Should classify every non-read method as WRITE")
+	void testClassify_Write() {
+		assertEquals(Optional.of(EndpointClass.WRITE), EndpointClass.classify("POST", "/api/users"));
+		assertEquals(Optional.of(EndpointClass.WRITE), EndpointClass.classify("PUT", "/api/users/1"));
+		assertEquals(Optional.of(EndpointClass.WRITE), EndpointClass.classify("DELETE", "/api/credentials/1"));
+	}
+	
+	@Test
+	@DisplayName("Should leave paths outside /api unclassified")
+	void testClassify_OutsideApi() {
+		assertEquals(Optional.empty(), EndpointClass.classify("GET", "/actuator/health"));
+		assertEquals(Optional.empty(), EndpointClass.classify("GET", null));
+	}
+	
+	@Test
+	@DisplayName("Should carry the caller's class to the thread running the task and restore it afterwards")
+	void testPropagate() throws Exception {
+		// Given
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			EndpointClass.bind(EndpointClass.AUTH);
+			Callable<EndpointClass> task = EndpointClass.propagate(() -> EndpointClass.current().orElse(null));
+			EndpointClass.clear();
+			
+			// When
+			EndpointClass seen = executorService.submit(task).get();
+			
+			// Then
+			assertEquals(EndpointClass.AUTH, seen);
+			assertEquals(Optional.empty(), executorService.submit(() -> EndpointClass.current()).get());
+		}
+		finally {
+			EndpointClass.clear();
+			executorService.shutdownNow();
+		}
+	}
+	
+	@Test
+	@DisplayName("Should bind the class only while the action runs")
+	void testWithin() {
+		// Given
+		EndpointClass.bind(EndpointClass.BULK_READ);
+		try {
+			// When
+			EndpointClass seen = EndpointClass.SINGLE_READ.within(() -> EndpointClass.current().orElse(null));
+			
+			// Then
+			assertEquals(EndpointClass.SINGLE_READ, seen);
+			assertEquals(Optional.of(EndpointClass.BULK_READ), EndpointClass.current());
+		}
+		finally {
+			EndpointClass.clear();
+		}
+	}
+	
+}
@@ -0,0 +1,108 @@
+package com.selimhorri.app.config.eventbus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("EventRing Test")
+class EventRingTest {
+	
+	@Test
+	@DisplayName("Should hand published events to every consumer sequence in order, in batches of at most max")
+	void testRead_InOrderPerConsumer() {
+		// Given
+		final EventRing<String> ring = new EventRing<>(8);
+		final AtomicLong first = ring.newSequence();
+		final AtomicLong second = ring.newSequence();
+		List.of("a", "b", "c").forEach(ring::tryPublish);
+		
+		// When
+		final List<String> batch = new ArrayList<>();
+		final long last = ring.read(first.get(), 2, batch);
+		final List<String> all = new ArrayList<>();
+		ring.read(second.get(), 10, all);
+		
+		// Then
+		assertEquals(List.of("a", "b"), batch);
+		assertEquals(1, last);
+		assertEquals(List.of("a", "b", "c"), all);
+	}
+	
+	@Test
+	@DisplayName("Should drop instead of overwriting slots the slowest consumer has not read")
+	void testTryPublish_FullRingDrops() {
+		// Given
+		final EventRing<Integer> ring = new EventRing<>(4);
+		final AtomicLong slow = ring.newSequence();
+		for (int i = 0; i < 4; i++)
+			assertTrue(ring.tryPublish(i));
+		
+		// When
+		final boolean accepted = ring.tryPublish(4);
+		final List<Integer> read = new ArrayList<>();
+		slow.set(ring.read(slow.get(), 2, read));
+		
+		// Then
+		assertFalse(accepted);
+		assertEquals(1, ring.dropped());
+		assertEquals(2, ring.remainingCapacity());
+		assertTrue(ring.tryPublish(5));
+		final List<Integer> rest = new ArrayList<>();
+		ring.read(slow.get(), 10, rest);
+		assertEquals(List.of(2, 3, 5), rest);
+	}
+	
+	@Test
+	@DisplayName("Should not lose or duplicate events published from several threads")
+	void testTryPublish_ConcurrentProducers() throws InterruptedException {
+		// Given
+		final EventRing<Integer> ring = new EventRing<>(1024);
+		final AtomicLong consumer = ring.newSequence();
+		final ExecutorService producers = Executors.newFixedThreadPool(4);
+		final CountDownLatch done = new CountDownLatch(4);
+		final Set<Integer> seen = new HashSet<>();
+		
+		// When
+		for (int p = 0; p < 4; p++) {
+			final int base = p * 10_000;
+			producers.execute(() -> {
+				for (int i = 0; i < 10_000; i++)
+					while (!ring.tryPublish(base + i))
+						Thread.onSpinWait();
+				done.countDown();
+			});
+		}
+		final List<Integer> batch = new ArrayList<>();
+		while (seen.size() < 40_000) {
+			consumer.set(ring.read(consumer.get(), 256, batch));
+			batch.forEach(event -> assertTrue(seen.add(event), "duplicate " + event));
+			batch.clear();
+		}
+		
+		// Then
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		producers.shutdown();
+		assertEquals(40_000, seen.size());
+		assertEquals(ring.cursor(), consumer.get());
+	}
+	
+	@Test
+	@DisplayName("Should reject ring sizes that are not a power of two")
+	void testConstructor_PowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new EventRing<>(1000));
+	}
+	
+	
+	
+}
@@ -0,0 +1,187 @@
+package com.selimhorri.app.config.eventbus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.event.EntityChangeConsumer;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("PostCommitEventBus Test")
+class PostCommitEventBusTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	private PostCommitEventBus bus;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		if (bus != null)
+			bus.shutdown();
+	}
+	
+	@Test
+	@DisplayName("Should deliver every event to each consumer in publish order on its own thread")
+	void testOnEntityChanged_DeliversInOrder() throws InterruptedException {
+		// Given
+		final RecordingConsumer first = new RecordingConsumer("first", 100);
+		final RecordingConsumer second = new RecordingConsumer("second", 100);
+		bus = new PostCommitEventBus(List.of(first, second), 256, 16, Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+		bus.start();
+		
+		// When
+		for (int i = 1; i <= 100; i++)
+			bus.onEntityChanged(change(i));
+		
+		// Then
+		assertTrue(first.done.await(5, TimeUnit.SECONDS));
+		assertTrue(second.done.await(5, TimeUnit.SECONDS));
+		assertEquals(ids(1, 100), first.ids());
+		assertEquals(ids(1, 100), second.ids());
+		assertNotEquals(Thread.currentThread().getName(), first.thread);
+		assertTrue(first.thread.startsWith("event-bus-first"));
+		assertEquals(100.0, meterRegistry.get("eventbus.processed").tag("consumer", "first").counter().count());
+		assertTrue(meterRegistry.get("eventbus.batch.size").tag("consumer", "first").summary().max() <= 16);
+	}
+	
+	@Test
+	@DisplayName("Should drop, count and report a gap when a slow consumer lets the ring fill up")
+	void testOnEntityChanged_FullRingReportsGap() throws InterruptedException {
+		// Given
+		final CountDownLatch release = new CountDownLatch(1);
+		final RecordingConsumer slow = new RecordingConsumer("slow", 4) {
+			@Override
+			public void onBatch(final List<EntityChangedEvent> events) {
+				await(release);
+				super.onBatch(events);
+			}
+		};
+		bus = new PostCommitEventBus(List.of(slow), 4, 1, Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+		bus.start();
+		
+		// When
+		for (int i = 1; i <= 6; i++)
+			bus.onEntityChanged(change(i));
+		final long dropped = (long) meterRegistry.get("eventbus.dropped").functionCounter().count();
+		release.countDown();
+		
+		// Then
+		assertTrue(slow.done.await(5, TimeUnit.SECONDS));
+		assertEquals(2, dropped);
+		assertEquals(List.of(1, 2, 3, 4), slow.ids());
+		assertTrue(slow.gaps.await(5, TimeUnit.SECONDS));
+		assertEquals(dropped, slow.missed.get());
+	}
+	
+	@Test
+	@DisplayName("Should keep consuming after a consumer throws")
+	void testOnBatch_FailureIsCounted() throws InterruptedException {
+		// Given
+		final RecordingConsumer flaky = new RecordingConsumer("flaky", 2) {
+			@Override
+			public void onBatch(final List<EntityChangedEvent> events) {
+				super.onBatch(events);
+				if (events.get(0).getEntityId() == 1)
+					throw new IllegalStateException("boom");
+			}
+		};
+		bus = new PostCommitEventBus(List.of(flaky), 16, 1, Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+		bus.start();
+		
+		// When
+		bus.onEntityChanged(change(1));
+		bus.onEntityChanged(change(2));
+		
+		// Then
+		assertTrue(flaky.done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of(1, 2), flaky.ids());
+		assertEquals(1.0, meterRegistry.get("eventbus.failures").tag("consumer", "flaky").counter().count());
+	}
+	
+	private static EntityChangedEvent change(final int entityId) {
+		return EntityChangedEvent.builder()
+				.entityType(EntityType.USER)
+				.changeType(ChangeType.UPDATED)
+				.entityId(entityId)
+				.build();
+	}
+	
+	private static List<Integer> ids(final int from, final int to) {
+		final List<Integer> ids = new ArrayList<>();
+		for (int i = from; i <= to; i++)
+			ids.add(i);
+		return ids;
+	}
+	
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static class RecordingConsumer implements EntityChangeConsumer {
+		
+		private final String name;
+		private final List<EntityChangedEvent> events = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch done;
+		private final CountDownLatch gaps = new CountDownLatch(1);
+		private final AtomicLong missed = new AtomicLong();
+		private volatile String thread;
+		
+		RecordingConsumer(final String name, final int expected) {
+			this.name = name;
+			this.done = new CountDownLatch(expected);
+		}
+		
+		@Override
+		public String name() {
+			return name;
+		}
+		
+		@Override
+		public void onBatch(final List<EntityChangedEvent> batch) {
+			thread = Thread.currentThread().getName();
+			events.addAll(batch);
+			batch.forEach(event -> done.countDown());
+		}
+		
+		@Override
+		public void onGap(final long missed) {
+			this.missed.addAndGet(missed);
+			gaps.countDown();
+		}
+		
+		List<Integer> ids() {
+			synchronized (events) {
+				return events.stream().map(EntityChangedEvent::getEntityId).collect(Collectors.toList());
+			}
+		}
+		
+	}
+	
+	
+	
+}
@@ -0,0 +1,342 @@
+package com.selimhorri.app.config.idempotency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import com.selimhorri.app.concurrent.SingleFlight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("IdempotencyFilter Test")
+class IdempotencyFilterTest {
+	
+	private InMemoryIdempotencyStore store;
+	private IdempotencyFilter idempotencyFilter;
+	private AtomicInteger saves;
+	private ExecutorService executorService;
+	
+	@BeforeEach
+	void setUp() {
+		store = new InMemoryIdempotencyStore(100, Duration.ofHours(1), Clock.systemUTC());
+		idempotencyFilter = new IdempotencyFilter(store, new SingleFlight(new SimpleMeterRegistry(), Duration.ofSeconds(5)),
+				Set.of("/api/users"), Duration.ofMillis(200));
+		saves = new AtomicInteger();
+		executorService = Executors.newCachedThreadPool();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should replay the first response to a retry without running save again")
+	void testDoFilter_RetryReplays() throws Exception {
+		// Given
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		MockHttpServletResponse retry = new MockHttpServletResponse();
+		
+		// When
+		idempotencyFilter.doFilter(post("/api/users", "k1"), first, save(200));
+		idempotencyFilter.doFilter(post("/api/users", "k1"), retry, save(200));
+		
+		// Then
+		assertEquals(1, saves.get());
+		assertEquals(200, retry.getStatus());
+		assertEquals("application/json", retry.getContentType());
+		assertEquals(first.getContentAsString(), retry.getContentAsString());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED));
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED));
+	}
+	
+	@Test
+	@DisplayName("Should answer 422 when a key is reused with a different body")
+	void testDoFilter_DifferentBodyRejected() throws Exception {
+		// Given
+		MockHttpServletRequest first = post("/api/users", "k6");
+		first.setContent("{\"firstName\":\"John\"}".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletRequest reused = post("/api/users", "k6");
+		reused.setContent("{\"firstName\":\"Jane\"}".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		// When
+		idempotencyFilter.doFilter(first, new MockHttpServletResponse(), save(200));
+		idempotencyFilter.doFilter(reused, response, save(200));
+		
+		// Then
+		assertEquals(422, response.getStatus());
+		assertNull(response.getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(1, saves.get());
+	}
+	
+	@Test
+	@DisplayName("Should let the controller read the body the filter already hashed")
+	void testDoFilter_BodyStillReadable() throws Exception {
+		// Given
+		MockHttpServletRequest request = post("/api/users", "k7");
+		request.setContent("{\"firstName\":\"John\"}".getBytes(StandardCharsets.UTF_8));
+		AtomicReference<String> read = new AtomicReference<>();
+		
+		// When
+		idempotencyFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+			read.set(StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8));
+			save(200).doFilter(req, res);
+		});
+		
+		// Then
+		assertEquals("{\"firstName\":\"John\"}", read.get());
+	}
+	
+	@Test
+	@DisplayName("Should make concurrent requests with the same key wait for the first one")
+	void testDoFilter_ConcurrentSameKey() throws Exception {
+		// Given
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		FilterChain slowSave = (req, res) -> {
+			entered.countDown();
+			try {
+				proceed.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			save(200).doFilter(req, res);
+		};
+		MockHttpServletResponse second = new MockHttpServletResponse();
+		
+		// When
+		Future<?> leader = executorService.submit(() -> {
+			idempotencyFilter.doFilter(post("/api/users", "k2"), new MockHttpServletResponse(), slowSave);
+			return null;
+		});
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		Future<?> follower = executorService.submit(() -> {
+			idempotencyFilter.doFilter(post("/api/users", "k2"), second, slowSave);
+			return null;
+		});
+		Thread.sleep(50);
+		proceed.countDown();
+		leader.get(5, TimeUnit.SECONDS);
+		follower.get(5, TimeUnit.SECONDS);
+		
+		// Then
+		assertEquals(1, saves.get());
+		assertEquals(200, second.getStatus());
+		assertEquals("{\"userId\":1}", second.getContentAsString());
+	}
+	
+	@Test
+	@DisplayName("Should let a waiter run its own request when the first one answers 5xx")
+	void testDoFilter_WaiterRunsAfterServerError() throws Exception {
+		// Given
+		MockHttpServletResponse second = new MockHttpServletResponse();
+		
+		// When
+		runWithWaiter("k8", save(503), second);
+		
+		// Then
+		assertEquals(2, saves.get());
+		assertEquals(200, second.getStatus());
+		assertEquals("{\"userId\":2}", second.getContentAsString());
+		assertNull(second.getHeader(IdempotencyFilter.REPLAYED));
+	}
+	
+	@Test
+	@DisplayName("Should not replay the first request's exception to a waiter")
+	void testDoFilter_WaiterRunsAfterFailure() throws Exception {
+		// Given
+		MockHttpServletResponse second = new MockHttpServletResponse();
+		FilterChain failing = (req, res) -> {
+			saves.incrementAndGet();
+			throw new IOException("connection reset");
+		};
+		
+		// When
+		Throwable leaderFailure = runWithWaiter("k9", failing, second);
+		
+		// Then
+		assertTrue(leaderFailure instanceof IOException);
+		assertEquals(2, saves.get());
+		assertEquals(200, second.getStatus());
+		assertTrue(store.find("/api/users:k9").isPresent());
+	}
+	
+	@Test
+	@DisplayName("Should signal the whole cached body to a non-blocking reader at once")
+	void testDoFilter_ReadListenerNotified() throws Exception {
+		// Given
+		MockHttpServletRequest request = post("/api/users", "k10");
+		request.setContent("{\"firstName\":\"John\"}".getBytes(StandardCharsets.UTF_8));
+		List<String> events = new CopyOnWriteArrayList<>();
+		
+		// When
+		idempotencyFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+			ServletInputStream in = req.getInputStream();
+			in.setReadListener(new ReadListener() {
+				
+				@Override
+				public void onDataAvailable() throws IOException {
+					events.add("data:" + StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+				}
+				
+				@Override
+				public void onAllDataRead() {
+					events.add("done");
+				}
+				
+				@Override
+				public void onError(final Throwable throwable) {
+					events.add("error");
+				}
+				
+			});
+			save(200).doFilter(req, res);
+		});
+		
+		// Then
+		assertEquals(List.of("data:{\"firstName\":\"John\"}", "done"), events);
+	}
+	
+	@Test
+	@DisplayName("Should answer 409 when another node still holds the key")
+	void testDoFilter_HeldElsewhere() throws Exception {
+		// Given
+		store.tryReserve("/api/users:k3", "other-node");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		// When
+		idempotencyFilter.doFilter(post("/api/users", "k3"), response, save(200));
+		
+		// Then
+		assertEquals(409, response.getStatus());
+		assertEquals(0, saves.get());
+	}
+	
+	@Test
+	@DisplayName("Should not keep 5xx responses so the next retry executes again")
+	void testDoFilter_ServerErrorNotStored() throws Exception {
+		// When
+		idempotencyFilter.doFilter(post("/api/users", "k4"), new MockHttpServletResponse(), save(503));
+		idempotencyFilter.doFilter(post("/api/users", "k4"), new MockHttpServletResponse(), save(200));
+		
+		// Then
+		assertEquals(2, saves.get());
+		assertTrue(store.find("/api/users:k4").isPresent());
+	}
+	
+	@Test
+	@DisplayName("Should leave requests without key, other methods and other paths alone")
+	void testDoFilter_NotApplicable() throws Exception {
+		// Given
+		MockHttpServletRequest withoutKey = post("/api/users", null);
+		MockHttpServletRequest otherPath = post("/api/address", "k5");
+		MockHttpServletRequest put = post("/api/users", "k5");
+		put.setMethod("PUT");
+		
+		// When
+		for (MockHttpServletRequest request : new MockHttpServletRequest[] {withoutKey, withoutKey, otherPath, otherPath, put, put})
+			idempotencyFilter.doFilter(request, new MockHttpServletResponse(), save(200));
+		
+		// Then
+		assertEquals(6, saves.get());
+		assertEquals(0, store.size());
+	}
+	
+	@Test
+	@DisplayName("Should reject keys that are too long")
+	void testDoFilter_KeyTooLong() throws Exception {
+		// Given
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		// When
+		idempotencyFilter.doFilter(post("/api/users", "k".repeat(201)), response, save(200));
+		
+		// Then
+		assertEquals(400, response.getStatus());
+		assertEquals(0, saves.get());
+	}
+	
+	// el primero entra con leaderChain y se retiene hasta que el segundo espera en SingleFlight
+	private Throwable runWithWaiter(final String key, final FilterChain leaderChain, final MockHttpServletResponse second)
+			throws Exception {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		FilterChain held = (req, res) -> {
+			entered.countDown();
+			try {
+				proceed.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			leaderChain.doFilter(req, res);
+		};
+		AtomicReference<Throwable> leaderFailure = new AtomicReference<>();
+		Future<?> leader = executorService.submit(() -> {
+			try {
+				idempotencyFilter.doFilter(post("/api/users", key), new MockHttpServletResponse(), held);
+			}
+			catch (Exception e) {
+				leaderFailure.set(e);
+			}
+			return null;
+		});
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		Future<?> follower = executorService.submit(() -> {
+			idempotencyFilter.doFilter(post("/api/users", key), second, save(200));
+			return null;
+		});
+		Thread.sleep(50);
+		proceed.countDown();
+		leader.get(5, TimeUnit.SECONDS);
+		follower.get(5, TimeUnit.SECONDS);
+		return leaderFailure.get();
+	}
+	
+	private FilterChain save(final int status) {
+		return (req, res) -> {
+			final int userId = saves.incrementAndGet();
+			final HttpServletResponse response = (HttpServletResponse) res;
+			response.setStatus(status);
+			response.setContentType("application/json");
+			response.getOutputStream().write(String.format("{\"userId\":%d}", userId).getBytes(StandardCharsets.UTF_8));
+		};
+	}
+	
+	private static MockHttpServletRequest post(final String path, final String idempotencyKey) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/user-service" + path);
+		request.setContextPath("/user-service");
+		if (idempotencyKey != null)
+			request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, idempotencyKey);
+		return request;
+	}
+	
+}
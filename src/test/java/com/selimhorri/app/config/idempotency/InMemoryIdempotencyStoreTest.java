@@ -0,0 +1,99 @@
+package com.selimhorri.app.config.idempotency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("InMemoryIdempotencyStore Test")
+class InMemoryIdempotencyStoreTest {
+	
+	private static final StoredResponse CREATED = new StoredResponse("hash", 200, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+	
+	@Test
+	@DisplayName("Should let only the first caller reserve a key and replay its response afterwards")
+	void testReserveThenComplete() {
+		// Given
+		InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofHours(1), Clock.systemUTC());
+		
+		// When & Then
+		assertTrue(store.tryReserve("/api/users:k1", "hash"));
+		assertFalse(store.tryReserve("/api/users:k1", "hash"));
+		assertTrue(store.find("/api/users:k1").isEmpty());
+		
+		store.complete("/api/users:k1", CREATED);
+		assertSame(CREATED, store.find("/api/users:k1").orElseThrow());
+		assertFalse(store.tryReserve("/api/users:k1", "hash"));
+	}
+	
+	@Test
+	@DisplayName("Should free the key when the reservation is released")
+	void testRelease() {
+		// Given
+		InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofHours(1), Clock.systemUTC());
+		store.tryReserve("/api/users:k1", "hash");
+		
+		// When
+		store.release("/api/users:k1");
+		
+		// Then
+		assertTrue(store.tryReserve("/api/users:k1", "hash"));
+	}
+	
+	@Test
+	@DisplayName("Should evict the oldest key beyond maxEntries")
+	void testBound() {
+		// Given
+		InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofHours(1), Clock.systemUTC());
+		
+		// When
+		store.complete("a", CREATED);
+		store.complete("b", CREATED);
+		store.complete("c", CREATED);
+		
+		// Then
+		assertEquals(2, store.size());
+		assertTrue(store.find("a").isEmpty());
+		assertTrue(store.find("c").isPresent());
+	}
+	
+	@Test
+	@DisplayName("Should forget keys, even unfinished reservations, after the TTL")
+	void testExpiry() {
+		// Given
+		AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2021-01-01T00:00:00Z"));
+		Clock clock = new Clock() {
+			@Override
+			public ZoneOffset getZone() {
+				return ZoneOffset.UTC;
+			}
+			@Override
+			public Clock withZone(final ZoneId zone) {
+				return this;
+			}
+			@Override
+			public Instant instant() {
+				return now.get();
+			}
+		};
+		InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(1), clock);
+		store.complete("done", CREATED);
+		store.tryReserve("stuck", "hash");
+		
+		// When
+		now.set(now.get().plus(Duration.ofMinutes(2)));
+		
+		// Then
+		assertTrue(store.find("done").isEmpty());
+		assertTrue(store.tryReserve("stuck", "hash"));
+	}
+	
+}
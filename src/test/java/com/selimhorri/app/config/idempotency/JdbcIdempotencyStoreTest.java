@@ -0,0 +1,117 @@
+package com.selimhorri.app.config.idempotency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@JdbcTest
+@DisplayName("JdbcIdempotencyStore Test")
+class JdbcIdempotencyStoreTest {
+	
+	private static final StoredResponse CREATED = new StoredResponse("hash", 200, "application/json",
+			"{\"userId\":5}".getBytes(StandardCharsets.UTF_8));
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	private JdbcIdempotencyStore store;
+	
+	@BeforeEach
+	void setUp() {
+		store = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(1), Duration.ofSeconds(30), Clock.systemUTC());
+	}
+	
+	@Test
+	@DisplayName("Should reserve a key once, store the response and replay it")
+	void testReserveCompleteFind() {
+		// When & Then
+		assertTrue(store.tryReserve("/api/users:k1", "hash"));
+		assertFalse(store.tryReserve("/api/users:k1", "hash"));
+		assertTrue(store.find("/api/users:k1").isEmpty());
+		
+		store.complete("/api/users:k1", CREATED);
+		StoredResponse stored = store.find("/api/users:k1").orElseThrow();
+		assertEquals("hash", stored.getRequestHash());
+		assertEquals(200, stored.getStatusCode());
+		assertEquals("application/json", stored.getContentType());
+		assertArrayEquals(CREATED.getBody(), stored.getBody());
+	}
+	
+	@Test
+	@DisplayName("Should drop a pending reservation on release but keep completed responses")
+	void testRelease() {
+		// Given
+		store.tryReserve("/api/users:pending", "hash");
+		store.tryReserve("/api/users:done", "hash");
+		store.complete("/api/users:done", CREATED);
+		
+		// When
+		store.release("/api/users:pending");
+		store.release("/api/users:done");
+		
+		// Then
+		assertTrue(store.tryReserve("/api/users:pending", "hash"));
+		assertTrue(store.find("/api/users:done").isPresent());
+	}
+	
+	@Test
+	@DisplayName("Should let a new request take over a key whose reservation expired")
+	void testExpiredReservation() {
+		// Given
+		Instant start = Instant.parse("2021-01-01T00:00:00Z");
+		new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(1), Duration.ofMinutes(1), Clock.fixed(start, ZoneOffset.UTC))
+				.tryReserve("/api/users:stuck", "hash");
+		JdbcIdempotencyStore later = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(1), Duration.ofMinutes(1),
+				Clock.fixed(start.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+		
+		// When & Then
+		assertTrue(later.tryReserve("/api/users:stuck", "hash"));
+	}
+	
+	@Test
+	@DisplayName("Should let a retry take over an orphaned reservation once its lease ends, long before the ttl")
+	void testOrphanedReservation() {
+		// Given
+		Instant start = Instant.parse("2021-01-01T00:00:00Z");
+		new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30), Clock.fixed(start, ZoneOffset.UTC))
+				.tryReserve("/api/users:orphan", "hash");
+		JdbcIdempotencyStore withinLease = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30),
+				Clock.fixed(start.plusSeconds(10), ZoneOffset.UTC));
+		JdbcIdempotencyStore afterLease = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30),
+				Clock.fixed(start.plusSeconds(31), ZoneOffset.UTC));
+		
+		// When & Then
+		assertFalse(withinLease.tryReserve("/api/users:orphan", "hash"));
+		assertTrue(afterLease.tryReserve("/api/users:orphan", "hash"));
+		assertFalse(afterLease.tryReserve("/api/users:orphan", "hash"));
+	}
+	
+	@Test
+	@DisplayName("Should keep a completed response for the ttl after its reservation lease ended")
+	void testCompletedOutlivesLease() {
+		// Given
+		Instant start = Instant.parse("2021-01-01T00:00:00Z");
+		JdbcIdempotencyStore first = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30),
+				Clock.fixed(start, ZoneOffset.UTC));
+		first.tryReserve("/api/users:done", "hash");
+		first.complete("/api/users:done", CREATED);
+		JdbcIdempotencyStore later = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30),
+				Clock.fixed(start.plus(Duration.ofHours(1)), ZoneOffset.UTC));
+		
+		// When & Then
+		assertFalse(later.tryReserve("/api/users:done", "hash"));
+		assertTrue(later.find("/api/users:done").isPresent());
+	}
+	
+}
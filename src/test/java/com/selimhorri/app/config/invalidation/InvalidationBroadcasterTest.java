@@ -0,0 +1,239 @@
+package com.selimhorri.app.config.invalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InvalidationBroadcaster Test")
+class InvalidationBroadcasterTest {
+	
+	private static final URI PEER_A = URI.create("http://localhost:8701/user-service");
+	private static final URI PEER_B = URI.create("http://localhost:8702/user-service");
+	private static final Executor DIRECT = Runnable::run;
+	
+	@Mock
+	private PeerDirectory peerDirectory;
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	@Mock
+	private Executor flushExecutor;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private InvalidationBroadcaster broadcaster;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		broadcaster = new InvalidationBroadcaster("self", "s3cret", peerDirectory, restTemplate, flushExecutor, DIRECT, 3,
+				Duration.ofHours(1), 3, Duration.ofHours(1), meterRegistry);
+	}
+	
+	@Test
+	@DisplayName("Should coalesce changes to the same entity into one numbered batch per peer")
+	void testFlush_CoalescesAndNumbers() {
+		// Given
+		when(peerDirectory.peers()).thenReturn(List.of(PEER_A, PEER_B));
+		broadcaster.onEntityChanged(credential(1, "old"));
+		broadcaster.onEntityChanged(credential(1, "new"));
+		broadcaster.onEntityChanged(credential(2, "other"));
+		
+		// When
+		broadcaster.flush();
+		broadcaster.onEntityChanged(credential(3, "third"));
+		broadcaster.flush();
+		
+		// Then
+		final ArgumentCaptor<HttpEntity<InvalidationBatch>> requests = requestCaptor();
+		verify(restTemplate, times(2)).postForEntity(eq(PEER_A + InvalidationBroadcaster.PATH), requests.capture(), eq(Void.class));
+		verify(restTemplate, times(2)).postForEntity(eq(PEER_B + InvalidationBroadcaster.PATH), any(), eq(Void.class));
+		final InvalidationBatch first = requests.getAllValues().get(0).getBody();
+		assertEquals(1, first.getSequence());
+		assertEquals(2, first.getChanges().size());
+		assertEquals(Set.of("old", "new"), first.getChanges().get(0).getUsernames());
+		assertEquals(2, requests.getAllValues().get(1).getBody().getSequence());
+		assertEquals("s3cret", requests.getAllValues().get(0).getHeaders().getFirst(InvalidationReceiver.SECRET_HEADER));
+		assertEquals(1.0, meterRegistry.get("invalidation.changes").tag("result", "coalesced").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should not send the secret header when no secret is set")
+	void testFlush_BlankSecretHeaderOmitted() {
+		// Given
+		final var unsigned = new InvalidationBroadcaster("self", "", peerDirectory, restTemplate, flushExecutor, DIRECT, 3,
+				Duration.ofHours(1), 3, Duration.ofHours(1), meterRegistry);
+		when(peerDirectory.peers()).thenReturn(List.of(PEER_A));
+		unsigned.onEntityChanged(credential(1, "user1"));
+		
+		// When
+		unsigned.flush();
+		
+		// Then
+		final ArgumentCaptor<HttpEntity<InvalidationBatch>> requests = requestCaptor();
+		verify(restTemplate).postForEntity(eq(PEER_A + InvalidationBroadcaster.PATH), requests.capture(), eq(Void.class));
+		assertFalse(requests.getValue().getHeaders().containsKey(InvalidationReceiver.SECRET_HEADER));
+	}
+	
+	@Test
+	@DisplayName("Should not rebroadcast remote events")
+	void testOnEntityChanged_IgnoresRemote() {
+		// Given
+		broadcaster.onEntityChanged(credential(1, "remote").toBuilder().remote(true).build());
+		
+		// When
+		broadcaster.flush();
+		
+		// Then
+		verifyNoInteractions(restTemplate, peerDirectory);
+	}
+	
+	@Test
+	@DisplayName("Should hand a full batch to the executor and keep numbering after a failed send")
+	void testFlush_FullBatchAndFailure() {
+		// Given
+		when(peerDirectory.peers()).thenReturn(List.of(PEER_A));
+		when(restTemplate.postForEntity(any(String.class), any(), eq(Void.class)))
+				.thenThrow(new ResourceAccessException("connection refused"))
+				.thenReturn(null);
+		
+		// When
+		for (int i = 1; i <= 3; i++)
+			broadcaster.onEntityChanged(credential(i, "user" + i));
+		verify(flushExecutor).execute(any(Runnable.class));
+		broadcaster.flush();
+		broadcaster.onEntityChanged(credential(4, "user4"));
+		broadcaster.flush();
+		
+		// Then
+		final ArgumentCaptor<HttpEntity<InvalidationBatch>> requests = requestCaptor();
+		verify(restTemplate, times(2)).postForEntity(any(String.class), requests.capture(), eq(Void.class));
+		assertEquals(2, requests.getAllValues().get(1).getBody().getSequence());
+		assertEquals(1.0, meterRegistry.get("invalidation.batches.sent").tag("result", "failed").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should send a heartbeat with the last sequence when idle")
+	void testFlush_Heartbeat() {
+		// Given
+		when(peerDirectory.peers()).thenReturn(List.of(PEER_A));
+		final InvalidationBroadcaster eager = new InvalidationBroadcaster("self", "s3cret", peerDirectory, restTemplate, flushExecutor,
+				DIRECT, 3, Duration.ZERO, 3, Duration.ofHours(1), meterRegistry);
+		eager.onEntityChanged(credential(1, "user1"));
+		eager.flush();
+		
+		// When
+		eager.flush();
+		
+		// Then
+		final ArgumentCaptor<HttpEntity<InvalidationBatch>> requests = requestCaptor();
+		verify(restTemplate, times(2)).postForEntity(any(String.class), requests.capture(), eq(Void.class));
+		final InvalidationBatch heartbeat = requests.getAllValues().get(1).getBody();
+		assertEquals(1, heartbeat.getSequence());
+		assertTrue(heartbeat.getChanges().isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should keep sending to a healthy peer while another peer hangs")
+	void testFlush_DeadPeerDoesNotDelayOthers() throws Exception {
+		// Given
+		final ExecutorService senders = Executors.newFixedThreadPool(2);
+		final CountDownLatch hang = new CountDownLatch(1);
+		final CountDownLatch healthyReached = new CountDownLatch(2);
+		when(peerDirectory.peers()).thenReturn(List.of(PEER_A, PEER_B));
+		when(restTemplate.postForEntity(eq(PEER_A + InvalidationBroadcaster.PATH), any(), eq(Void.class))).thenAnswer(invocation -> {
+			hang.await(5, TimeUnit.SECONDS);
+			return null;
+		});
+		when(restTemplate.postForEntity(eq(PEER_B + InvalidationBroadcaster.PATH), any(), eq(Void.class))).thenAnswer(invocation -> {
+			healthyReached.countDown();
+			return null;
+		});
+		final InvalidationBroadcaster parallel = new InvalidationBroadcaster("self", "s3cret", peerDirectory, restTemplate,
+				flushExecutor, senders, 3, Duration.ofHours(1), 3, Duration.ofHours(1), meterRegistry);
+		
+		try {
+			// When
+			final long started = System.nanoTime();
+			parallel.onEntityChanged(credential(1, "user1"));
+			parallel.flush();
+			parallel.onEntityChanged(credential(2, "user2"));
+			parallel.flush();
+			
+			// Then
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1000);
+			assertTrue(healthyReached.await(2, TimeUnit.SECONDS));
+		}
+		finally {
+			hang.countDown();
+			senders.shutdownNow();
+		}
+	}
+	
+	@Test
+	@DisplayName("Should drop a peer after repeated failures and skip it until the suspension ends")
+	void testFlush_DropsFailingPeer() {
+		// Given
+		when(peerDirectory.peers()).thenReturn(List.of(PEER_A));
+		when(restTemplate.postForEntity(any(String.class), any(), eq(Void.class)))
+				.thenThrow(new ResourceAccessException("connection refused"));
+		
+		// When
+		for (int i = 1; i <= 5; i++) {
+			broadcaster.onEntityChanged(credential(i, "user" + i));
+			broadcaster.flush();
+		}
+		
+		// Then
+		verify(restTemplate, times(3)).postForEntity(any(String.class), any(), eq(Void.class));
+		assertEquals(3.0, meterRegistry.get("invalidation.batches.sent").tag("result", "failed").counter().count());
+		assertEquals(2.0, meterRegistry.get("invalidation.batches.sent").tag("result", "skipped").counter().count());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static ArgumentCaptor<HttpEntity<InvalidationBatch>> requestCaptor() {
+		return ArgumentCaptor.forClass(HttpEntity.class);
+	}
+	
+	private static EntityChangedEvent credential(final int credentialId, final String username) {
+		return EntityChangedEvent.builder()
+				.entityType(EntityType.CREDENTIAL)
+				.changeType(ChangeType.UPDATED)
+				.entityId(credentialId)
+				.userId(credentialId)
+				.username(username)
+				.build();
+	}
+	
+	
+	
+}
@@ -0,0 +1,158 @@
+package com.selimhorri.app.config.invalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.selimhorri.app.event.CacheFlushRequestedEvent;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InvalidationReceiver Test")
+class InvalidationReceiverTest {
+	
+	private static final String SECRET = "s3cret";
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private InvalidationReceiver receiver;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		receiver = new InvalidationReceiver("self", SECRET, eventPublisher, meterRegistry);
+	}
+	
+	@Test
+	@DisplayName("Should republish consecutive batches as remote events")
+	void testReceive_InSequence() {
+		// When
+		receiver.receive(SECRET, batch("peer", 1, change(1)));
+		receiver.receive(SECRET, batch("peer", 2, change(2)));
+		
+		// Then
+		verify(eventPublisher).publishEvent(change(1).toBuilder().remote(true).build());
+		verify(eventPublisher).publishEvent(change(2).toBuilder().remote(true).build());
+		verify(eventPublisher, never()).publishEvent(any(CacheFlushRequestedEvent.class));
+		assertEquals(2.0, meterRegistry.get("invalidation.batches.received").tag("result", "applied").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should flush local caches on a sequence gap")
+	void testReceive_Gap() {
+		// Given
+		receiver.receive(SECRET, batch("peer", 1, change(1)));
+		
+		// When
+		receiver.receive(SECRET, batch("peer", 3, change(3)));
+		
+		// Then
+		verify(eventPublisher).publishEvent(any(CacheFlushRequestedEvent.class));
+		verify(eventPublisher, never()).publishEvent(change(3).toBuilder().remote(true).build());
+		assertEquals(1.0, meterRegistry.get("invalidation.batches.received").tag("result", "gap").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should flush when a heartbeat reveals a lost last batch")
+	void testReceive_HeartbeatAfterLoss() {
+		// Given
+		receiver.receive(SECRET, batch("peer", 1, change(1)));
+		
+		// When
+		receiver.receive(SECRET, new InvalidationBatch("peer", 1, List.of()));
+		receiver.receive(SECRET, new InvalidationBatch("peer", 2, List.of()));
+		
+		// Then
+		verify(eventPublisher, times(1)).publishEvent(any(CacheFlushRequestedEvent.class));
+		assertEquals(1.0, meterRegistry.get("invalidation.batches.received").tag("result", "heartbeat").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should ignore duplicates and its own batches")
+	void testReceive_DuplicateAndSelf() {
+		// Given
+		receiver.receive(SECRET, batch("peer", 1, change(1)));
+		
+		// When
+		receiver.receive(SECRET, batch("peer", 1, change(1)));
+		receiver.receive(SECRET, batch("self", 7, change(7)));
+		
+		// Then
+		verify(eventPublisher, times(1)).publishEvent(any(EntityChangedEvent.class));
+		verify(eventPublisher, never()).publishEvent(any(CacheFlushRequestedEvent.class));
+		assertEquals(1.0, meterRegistry.get("invalidation.batches.received").tag("result", "duplicate").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should flush on first contact with a peer that already sent batches")
+	void testReceive_UnknownOriginMidSequence() {
+		// When
+		receiver.receive(SECRET, batch("late", 5, change(5)));
+		receiver.receive(SECRET, batch("late", 6, change(6)));
+		
+		// Then
+		verify(eventPublisher, times(1)).publishEvent(any(CacheFlushRequestedEvent.class));
+		verify(eventPublisher).publishEvent(change(6).toBuilder().remote(true).build());
+	}
+	
+	@Test
+	@DisplayName("Should reject batches with a missing or wrong secret without applying them")
+	void testReceive_WrongSecretRejected() {
+		// When
+		boolean missing = receiver.receive(null, batch("peer", 1, change(1)));
+		boolean wrong = receiver.receive("guess", batch("peer", 2, change(2)));
+		
+		// Then
+		assertFalse(missing);
+		assertFalse(wrong);
+		verifyNoInteractions(eventPublisher);
+		assertEquals(2.0, meterRegistry.get("invalidation.batches.received").tag("result", "rejected").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should reject every batch when no secret is configured")
+	void testReceive_NoSecretConfigured() {
+		// Given
+		InvalidationReceiver open = new InvalidationReceiver("self", "", eventPublisher, meterRegistry);
+		
+		// When
+		boolean accepted = open.receive("", batch("peer", 1, change(1)));
+		
+		// Then
+		assertFalse(accepted);
+		verifyNoInteractions(eventPublisher);
+	}
+	
+	private static InvalidationBatch batch(final String origin, final long sequence, final EntityChangedEvent change) {
+		return new InvalidationBatch(origin, sequence, List.of(change));
+	}
+	
+	private static EntityChangedEvent change(final int userId) {
+		return EntityChangedEvent.builder()
+				.entityType(EntityType.USER)
+				.changeType(ChangeType.UPDATED)
+				.entityId(userId)
+				.userId(userId)
+				.username("user" + userId)
+				.build();
+	}
+	
+	
+	
+}
@@ -0,0 +1,117 @@
+package com.selimhorri.app.config.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.selimhorri.app.concurrent.AdaptiveLimiter;
+import com.selimhorri.app.concurrent.AdaptiveLimiter.Algorithm;
+import com.selimhorri.app.config.bulkhead.EndpointClass;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("ConcurrencyLimitFilter Test")
+class ConcurrencyLimitFilterTest {
+	
+	private Map<EndpointClass, AdaptiveLimiter> limiters;
+	private ConcurrencyLimitFilter concurrencyLimitFilter;
+	
+	@BeforeEach
+	void setUp() {
+		final var meterRegistry = new SimpleMeterRegistry();
+		limiters = new EnumMap<>(EndpointClass.class);
+		limiters.put(EndpointClass.AUTH, limiter("AUTH", 4, meterRegistry));
+		limiters.put(EndpointClass.BULK_READ, limiter("BULK_READ", 1, meterRegistry));
+		concurrencyLimitFilter = new ConcurrencyLimitFilter(limiters);
+	}
+	
+	@Test
+	@DisplayName("Should shed requests above the limit of their class with 503 and Retry-After")
+	void testDoFilter_ShedsAboveLimit() throws Exception {
+		// Given
+		assertTrue(limiters.get(EndpointClass.BULK_READ).tryAcquire().isPresent());
+		MockHttpServletResponse bulkResponse = new MockHttpServletResponse();
+		MockHttpServletResponse authResponse = new MockHttpServletResponse();
+		
+		// When
+		concurrencyLimitFilter.doFilter(request("GET", "/api/users"), bulkResponse, (req, res) -> fail("chain must not run"));
+		concurrencyLimitFilter.doFilter(request("GET", "/api/credentials/username/admin"), authResponse, (req, res) -> {});
+		
+		// Then
+		assertEquals(503, bulkResponse.getStatus());
+		assertEquals("1", bulkResponse.getHeader("Retry-After"));
+		assertEquals(200, authResponse.getStatus());
+		assertEquals(0, limiters.get(EndpointClass.AUTH).getInflight());
+	}
+	
+	@Test
+	@DisplayName("Should count a 503 from further down the chain as a drop")
+	void testDoFilter_DownstreamUnavailableShrinksLimit() throws Exception {
+		// When
+		concurrencyLimitFilter.doFilter(request("GET", "/api/users/username/admin"), new MockHttpServletResponse(),
+				(req, res) -> ((HttpServletResponse) res).sendError(503));
+		
+		// Then
+		assertEquals(2, limiters.get(EndpointClass.AUTH).getLimit());
+		assertEquals(0, limiters.get(EndpointClass.AUTH).getInflight());
+	}
+	
+	@Test
+	@DisplayName("Should release the slot when the chain throws")
+	void testDoFilter_ReleasesOnException() {
+		// When & Then
+		assertThrows(IllegalStateException.class, () -> concurrencyLimitFilter.doFilter(request("GET", "/api/users"),
+				new MockHttpServletResponse(), (req, res) -> {
+					throw new IllegalStateException("boom");
+				}));
+		assertEquals(0, limiters.get(EndpointClass.BULK_READ).getInflight());
+		assertEquals(1, limiters.get(EndpointClass.BULK_READ).getLimit());
+	}
+	
+	@Test
+	@DisplayName("Should pass through requests without a configured limit")
+	void testDoFilter_Unclassified() throws Exception {
+		// Given
+		AtomicInteger ran = new AtomicInteger();
+		
+		// When
+		concurrencyLimitFilter.doFilter(request("GET", "/actuator/health"), new MockHttpServletResponse(), (req, res) -> ran.incrementAndGet());
+		concurrencyLimitFilter.doFilter(request("POST", "/api/users"), new MockHttpServletResponse(), (req, res) -> ran.incrementAndGet());
+		
+		// Then
+		assertEquals(2, ran.get());
+	}
+	
+	private static AdaptiveLimiter limiter(final String name, final int limit, final SimpleMeterRegistry meterRegistry) {
+		return AdaptiveLimiter.builder()
+				.name(name)
+				.algorithm(Algorithm.GRADIENT)
+				.initialLimit(limit)
+				.minLimit(1)
+				.maxLimit(limit * 10)
+				.maxLatency(Duration.ofSeconds(1))
+				.tolerance(1.5)
+				.smoothing(0.2)
+				.backoffRatio(0.5)
+				.meterRegistry(meterRegistry)
+				.build();
+	}
+	
+	private static MockHttpServletRequest request(final String method, final String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/user-service" + path);
+		request.setContextPath("/user-service");
+		return request;
+	}
+	
+}
@@ -0,0 +1,109 @@
+package com.selimhorri.app.config.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.resource.UserResource;
+import com.selimhorri.app.service.AddressService;
+import com.selimhorri.app.service.UserService;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Binary Content Negotiation Test")
+class BinaryContentNegotiationTest {
+	
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+	
+	private final MapperConfig mapperConfig = new MapperConfig();
+	
+	private MockMvc mockMvc;
+	private ObjectMapper cborMapper;
+	
+	@Mock
+	private UserService userService;
+	
+	@Mock
+	private AddressService addressService;
+	
+	@InjectMocks
+	private UserResource userResource;
+	
+	@BeforeEach
+	void setUp() {
+		// mismo orden que en la aplicacion: JSON, CBOR, Smile y al final Protobuf
+		final ObjectMapper objectMapper = mapperConfig.objectMapperBean(false);
+		final List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(
+				mapperConfig.mappingJackson2HttpMessageConverter(objectMapper, new DtoJsonCodecs(objectMapper)),
+				mapperConfig.mappingJackson2CborHttpMessageConverter(),
+				mapperConfig.mappingJackson2SmileHttpMessageConverter()));
+		mapperConfig.protobufMessageConverterConfigurer().extendMessageConverters(converters);
+		cborMapper = mapperConfig.mappingJackson2CborHttpMessageConverter().getObjectMapper();
+		
+		mockMvc = MockMvcBuilders.standaloneSetup(userResource)
+				.setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+				.build();
+		
+		doAnswer(invocation -> {
+			invocation.<Consumer<UserDto>>getArgument(0).accept(UserDto.builder().userId(1).firstName("Alice").build());
+			return null;
+		}).when(userService).streamAll(any());
+	}
+	
+	@Test
+	@DisplayName("Should keep JSON as the default for */* and missing Accept")
+	void testDefault_Json() throws Exception {
+		mockMvc.perform(get("/api/users").accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.collection[0].firstName").value("Alice"));
+		mockMvc.perform(get("/api/users"))
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+	
+	@Test
+	@DisplayName("Should answer CBOR when asked for application/cbor")
+	void testAccept_Cbor() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+				.andReturn();
+		
+		DtoCollectionResponse<?> response = cborMapper.readValue(result.getResponse().getContentAsByteArray(),
+				DtoCollectionResponse.class);
+		assertEquals(1, response.getCollection().size());
+	}
+	
+	@Test
+	@DisplayName("Should answer Smile and Protobuf when asked for them")
+	void testAccept_SmileAndProtobuf() throws Exception {
+		mockMvc.perform(get("/api/users").accept(SMILE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(SMILE));
+		mockMvc.perform(get("/api/users").accept(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF));
+	}
+	
+}
@@ -0,0 +1,99 @@
+package com.selimhorri.app.config.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.selimhorri.app.dto.VerificationTokenDto;
+import com.selimhorri.app.exception.payload.ExceptionMsg;
+
+@DisplayName("MapperConfig Test")
+class MapperConfigTest {
+	
+	private final MapperConfig mapperConfig = new MapperConfig();
+	
+	@Test
+	@DisplayName("Should write compact JSON unless indentation is requested")
+	void testObjectMapper_CompactByDefault() throws Exception {
+		// Given
+		VerificationTokenDto dto = VerificationTokenDto.builder()
+				.verificationTokenId(1)
+				.token("abc")
+				.build();
+		
+		// When
+		String compact = mapperConfig.objectMapperBean(false).writeValueAsString(dto);
+		String indented = mapperConfig.objectMapperBean(true).writeValueAsString(dto);
+		
+		// Then
+		assertFalse(compact.contains("\n"));
+		assertFalse(compact.contains(" : "));
+		assertTrue(indented.contains("\n"));
+	}
+	
+	@Test
+	@DisplayName("Should serialize java.time fields with their declared formats")
+	void testObjectMapper_JavaTime() throws Exception {
+		// Given
+		ObjectMapper objectMapper = mapperConfig.objectMapperBean(false);
+		VerificationTokenDto dto = VerificationTokenDto.builder()
+				.expireDate(LocalDate.of(2021, 12, 31))
+				.build();
+		ExceptionMsg exceptionMsg = ExceptionMsg.builder()
+				.msg("boom")
+				.httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+				.timestamp(ZonedDateTime.of(2021, 12, 31, 10, 0, 0, 0, ZoneId.of("UTC")))
+				.build();
+		
+		// When
+		String token = objectMapper.writeValueAsString(dto);
+		String error = objectMapper.writeValueAsString(exceptionMsg);
+		
+		// Then
+		assertTrue(token.contains("\"expireDate\":\"31-12-2021\""), token);
+		assertTrue(error.contains("\"timestamp\":\"31-12-2021__10:00:00:000000\""), error);
+		assertEquals(LocalDate.of(2021, 12, 31), objectMapper.readValue(token, VerificationTokenDto.class).getExpireDate());
+	}
+	
+	@Test
+	@DisplayName("Should register the Blackbird module for generated accessors")
+	void testObjectMapper_Blackbird() {
+		assertTrue(mapperConfig.objectMapperBean(false).getRegisteredModuleIds()
+				.contains(new BlackbirdModule().getTypeId()));
+	}
+	
+	@Test
+	@DisplayName("Should round-trip java.time fields through the CBOR and Smile converters")
+	void testBinaryConverters_JavaTime() throws Exception {
+		// Given
+		VerificationTokenDto dto = VerificationTokenDto.builder()
+				.verificationTokenId(1)
+				.token("abc")
+				.expireDate(LocalDate.of(2021, 12, 31))
+				.build();
+		ObjectMapper cbor = mapperConfig.mappingJackson2CborHttpMessageConverter().getObjectMapper();
+		ObjectMapper smile = mapperConfig.mappingJackson2SmileHttpMessageConverter().getObjectMapper();
+		
+		// When
+		byte[] cborBytes = cbor.writeValueAsBytes(dto);
+		byte[] smileBytes = smile.writeValueAsBytes(dto);
+		
+		// Then
+		assertTrue(cbor instanceof CBORMapper);
+		assertTrue(smile instanceof SmileMapper);
+		assertEquals(dto, cbor.readValue(cborBytes, VerificationTokenDto.class));
+		assertEquals(dto, smile.readValue(smileBytes, VerificationTokenDto.class));
+		assertTrue(cborBytes.length < mapperConfig.objectMapperBean(false).writeValueAsBytes(dto).length);
+	}
+	
+}
@@ -0,0 +1,202 @@
+package com.selimhorri.app.config.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.StreamingDtoCollectionResponse;
+
+@DisplayName("PrecompiledJsonHttpMessageConverter Test")
+class PrecompiledJsonHttpMessageConverterTest {
+	
+	private static final Type USER_COLLECTION = new ParameterizedTypeReference<DtoCollectionResponse<UserDto>>() {}.getType();
+	
+	private ObjectMapper objectMapper;
+	private DtoJsonCodecs dtoJsonCodecs;
+	private PrecompiledJsonHttpMessageConverter converter;
+	
+	@BeforeEach
+	void setUp() {
+		objectMapper = new MapperConfig().objectMapperBean(false);
+		dtoJsonCodecs = new DtoJsonCodecs(objectMapper);
+		converter = new PrecompiledJsonHttpMessageConverter(objectMapper, dtoJsonCodecs);
+	}
+	
+	@Test
+	@DisplayName("Should precompile a writer and reader for each DTO and its collection response")
+	void testCodecs_Registered() {
+		assertTrue(dtoJsonCodecs.writerFor(objectMapper.constructType(UserDto.class)).isPresent());
+		assertTrue(dtoJsonCodecs.readerFor(objectMapper.constructType(USER_COLLECTION)).isPresent());
+		assertTrue(dtoJsonCodecs.writerFor(objectMapper.constructType(String.class)).isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should write a DTO collection exactly like the ObjectMapper does")
+	void testWrite_Collection() throws Exception {
+		// Given
+		DtoCollectionResponse<UserDto> response = new DtoCollectionResponse<>(List.of(user(1), user(2)));
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		converter.write(response, USER_COLLECTION, MediaType.APPLICATION_JSON, outputMessage);
+		
+		// Then
+		assertEquals(objectMapper.writeValueAsString(response), outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+		assertEquals(MediaType.APPLICATION_JSON, outputMessage.getHeaders().getContentType());
+	}
+	
+	@Test
+	@DisplayName("Should stream rows with the same JSON as the materialized collection")
+	void testWrite_Streaming() throws Exception {
+		// Given
+		List<UserDto> users = List.of(user(1), user(2), user(3));
+		StreamingDtoCollectionResponse<UserDto> response = new StreamingDtoCollectionResponse<UserDto>(users::forEach);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		converter.write(response, USER_COLLECTION, MediaType.APPLICATION_JSON, outputMessage);
+		
+		// Then
+		assertEquals(objectMapper.writeValueAsString(new DtoCollectionResponse<>(users)),
+				outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	@DisplayName("Should stream rows indented like the materialized collection when indentation is enabled")
+	void testWrite_StreamingIndented() throws Exception {
+		// Given
+		ObjectMapper indented = new MapperConfig().objectMapperBean(true);
+		PrecompiledJsonHttpMessageConverter indentedConverter = new PrecompiledJsonHttpMessageConverter(indented, new DtoJsonCodecs(indented));
+		List<UserDto> users = List.of(user(1), user(2));
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		indentedConverter.write(new StreamingDtoCollectionResponse<UserDto>(users::forEach), USER_COLLECTION,
+				MediaType.APPLICATION_JSON, outputMessage);
+		
+		// Then
+		assertEquals(indented.writeValueAsString(new DtoCollectionResponse<>(users)),
+				outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	@DisplayName("Should stream an empty collection as an empty array")
+	void testWrite_StreamingEmpty() throws Exception {
+		// Given
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		converter.write(new StreamingDtoCollectionResponse<UserDto>(action -> {}), USER_COLLECTION,
+				MediaType.APPLICATION_JSON, outputMessage);
+		
+		// Then
+		assertEquals("{\"collection\":[]}", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	@DisplayName("Should leave the response untouched when the producer fails before the first row")
+	void testWrite_StreamingFailsBeforeFirstRow() {
+		// Given
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		StreamingDtoCollectionResponse<UserDto> response = new StreamingDtoCollectionResponse<UserDto>(action -> {
+			throw new IllegalStateException("circuit open");
+		});
+		
+		// When & Then
+		assertThrows(IllegalStateException.class,
+				() -> converter.write(response, USER_COLLECTION, MediaType.APPLICATION_JSON, outputMessage));
+		assertEquals(0, outputMessage.getBodyAsBytes().length);
+	}
+	
+	@Test
+	@DisplayName("Should not close the JSON when the producer fails after some rows")
+	void testWrite_StreamingFailsMidway() {
+		// Given
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		StreamingDtoCollectionResponse<UserDto> response = new StreamingDtoCollectionResponse<UserDto>(action -> {
+			action.accept(user(1));
+			throw new IllegalStateException("connection lost");
+		});
+		
+		// When & Then
+		assertThrows(IllegalStateException.class,
+				() -> converter.write(response, USER_COLLECTION, MediaType.APPLICATION_JSON, outputMessage));
+		String body = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertTrue(body.startsWith("{\"collection\":[{\"userId\":1"), body);
+		assertFalse(body.endsWith("]}"), body);
+	}
+	
+	@Test
+	@DisplayName("Should materialize a streaming response for converters that need the whole collection")
+	void testStreaming_Materialized() {
+		StreamingDtoCollectionResponse<UserDto> response = new StreamingDtoCollectionResponse<UserDto>(List.of(user(1), user(2))::forEach);
+		
+		assertEquals(2, response.getCollection().size());
+		assertEquals(new DtoCollectionResponse<>(List.of(user(1), user(2))), response);
+	}
+	
+	@Test
+	@DisplayName("Should fall back to the regular path for types without a precompiled writer")
+	void testWrite_OtherType() throws Exception {
+		// Given
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		converter.write(Map.of("status", "UP"), MediaType.APPLICATION_JSON, outputMessage);
+		
+		// Then
+		assertEquals("{\"status\":\"UP\"}", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	@DisplayName("Should read a DTO through its precompiled reader")
+	void testRead_Dto() throws Exception {
+		// Given
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(
+				"{\"credentialId\":3,\"username\":\"admin\"}".getBytes(StandardCharsets.UTF_8));
+		inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		
+		// When
+		CredentialDto credential = (CredentialDto) converter.read(CredentialDto.class, null, inputMessage);
+		
+		// Then
+		assertEquals(3, credential.getCredentialId());
+		assertEquals("admin", credential.getUsername());
+	}
+	
+	@Test
+	@DisplayName("Should report malformed JSON as not readable")
+	void testRead_Malformed() {
+		// Given
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage("{\"userId\":".getBytes(StandardCharsets.UTF_8));
+		
+		// When & Then
+		assertThrows(HttpMessageNotReadableException.class, () -> converter.read(UserDto.class, null, inputMessage));
+	}
+	
+	private static UserDto user(final int userId) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("John")
+				.lastName("Doe")
+				.email("john" + userId + "@example.com")
+				.build();
+	}
+	
+}
@@ -0,0 +1,135 @@
+package com.selimhorri.app.config.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufMessage;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.VerificationTokenDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+@DisplayName("ProtobufDtoHttpMessageConverter Test")
+class ProtobufDtoHttpMessageConverterTest {
+	
+	private static final Type USER_COLLECTION = new ParameterizedTypeReference<DtoCollectionResponse<UserDto>>() {}.getType();
+	
+	private ProtobufMapper protobufMapper;
+	private ProtobufDtoHttpMessageConverter converter;
+	
+	@BeforeEach
+	void setUp() {
+		protobufMapper = MapperConfig.binaryMapper(ProtobufMapper.builder());
+		converter = new ProtobufDtoHttpMessageConverter(protobufMapper);
+	}
+	
+	@Test
+	@DisplayName("Should only handle the DTOs and their collection responses")
+	void testCanWrite_RegisteredTypesOnly() {
+		assertTrue(converter.canWrite(USER_COLLECTION, DtoCollectionResponse.class, ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF));
+		assertTrue(converter.canWrite(null, UserDto.class, ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF));
+		assertTrue(converter.canRead(CredentialDto.class, null, ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF));
+		assertFalse(converter.canWrite(null, UserDto.class, MediaType.APPLICATION_JSON));
+		assertFalse(converter.canWrite(null, Map.class, ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF));
+	}
+	
+	@Test
+	@DisplayName("Should round-trip a user collection with nested credentials")
+	void testWriteRead_Collection() throws Exception {
+		// Given
+		DtoCollectionResponse<UserDto> response = new DtoCollectionResponse<>(List.of(user(1), user(2)));
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		converter.write(response, USER_COLLECTION, ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF, outputMessage);
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(outputMessage.getBodyAsBytes());
+		Object read = converter.read(USER_COLLECTION, null, inputMessage);
+		
+		// Then
+		assertEquals(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF, outputMessage.getHeaders().getContentType());
+		assertEquals(response, read);
+	}
+	
+	@Test
+	@DisplayName("Should keep java.time fields across the round trip")
+	void testWriteRead_JavaTime() throws Exception {
+		// Given
+		VerificationTokenDto dto = VerificationTokenDto.builder()
+				.verificationTokenId(1)
+				.token("abc")
+				.expireDate(LocalDate.of(2021, 12, 31))
+				.build();
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		
+		// When
+		converter.write(dto, ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF, outputMessage);
+		Object read = converter.read(VerificationTokenDto.class, null, new MockHttpInputMessage(outputMessage.getBodyAsBytes()));
+		
+		// Then
+		assertEquals(dto, read);
+	}
+	
+	@Test
+	@DisplayName("Should expose the checked-in .proto source")
+	void testSchemaFor() {
+		String source = converter.schemaFor(protobufMapper.constructType(UserDto.class)).orElseThrow().getSource().toString();
+		
+		assertTrue(source.contains("message UserDto"), source);
+		assertTrue(source.contains("message UserDtoCollection"), source);
+		assertTrue(converter.schemaFor(protobufMapper.constructType(String.class)).isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should take field numbers from the checked-in schema, not from declaration order")
+	void testSchemaFor_PinnedFieldNumbers() {
+		// When
+		ProtobufMessage user = converter.schemaFor(protobufMapper.constructType(UserDto.class)).orElseThrow().getRootType();
+		ProtobufMessage collection = converter.schemaFor(protobufMapper.getTypeFactory()
+				.constructType(USER_COLLECTION)).orElseThrow().getRootType();
+		
+		// Then
+		assertEquals(1, user.field("userId").id);
+		assertEquals(8, user.field("credential").id);
+		assertEquals("UserDtoCollection", collection.getName());
+		assertEquals(1, collection.field("collection").id);
+	}
+	
+	@Test
+	@DisplayName("Should report a truncated payload as not readable")
+	void testRead_Malformed() {
+		// Given
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(new byte[] {0x0a, 0x7f, 0x01});
+		
+		// When & Then
+		assertThrows(HttpMessageNotReadableException.class, () -> converter.read(UserDto.class, null, inputMessage));
+	}
+	
+	private static UserDto user(final int userId) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("John")
+				.lastName("Doe")
+				.email("john" + userId + "@example.com")
+				.credentialDto(CredentialDto.builder()
+						.credentialId(userId)
+						.username("john" + userId)
+						.isEnabled(true)
+						.build())
+				.build();
+	}
+	
+}
@@ -0,0 +1,139 @@
+package com.selimhorri.app.config.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JdbcTest
+@DisplayName("OutboxRelay Test")
+class OutboxRelayTest {
+	
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	private InMemoryOutboxSink sink;
+	private SimpleMeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM outbox");
+		sink = new InMemoryOutboxSink(100);
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	@Test
+	@DisplayName("Should publish rows in batches, in order, and delete them")
+	void testDrain_BatchesInOrder() {
+		// Given
+		insertRows(7);
+		final OutboxRelay relay = relay(sink, 3, NOW);
+		
+		// When
+		relay.drain();
+		
+		// Then
+		final List<Integer> aggregateIds = sink.recent().stream().map(OutboxMessage::getAggregateId).collect(Collectors.toList());
+		assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), aggregateIds);
+		assertEquals("{\"entityId\":1}", sink.recent().get(0).getPayload());
+		assertEquals(0, count());
+		assertEquals(7.0, meterRegistry.get("outbox.relayed").counter().count());
+		assertEquals(3, meterRegistry.get("outbox.batch.size").summary().count());
+	}
+	
+	@Test
+	@DisplayName("Should release a batch the sink failed so the next poll retries it")
+	void testRelayOnce_SinkFailure() {
+		// Given
+		insertRows(2);
+		final OutboxRelay failing = relay(messages -> {
+			throw new IllegalStateException("sink down");
+		}, 10, NOW);
+		
+		// When
+		assertThrows(IllegalStateException.class, failing::relayOnce);
+		final int relayed = relay(sink, 10, NOW).relayOnce();
+		
+		// Then
+		assertEquals(2, relayed);
+		assertEquals(0, count());
+		assertEquals(1.0, meterRegistry.get("outbox.failures").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should skip rows claimed by another relay until their lease is over")
+	void testRelayOnce_ClaimedRowsSkipped() {
+		// Given
+		insertRows(3);
+		jdbcTemplate.update("UPDATE outbox SET claimed_by = 'other', claimed_until = ? WHERE aggregate_id <= 2",
+				Timestamp.from(NOW.plusSeconds(30)));
+		
+		// When
+		final int beforeLease = relay(sink, 10, NOW).relayOnce();
+		final int afterLease = relay(sink, 10, NOW.plusSeconds(31)).relayOnce();
+		
+		// Then
+		assertEquals(1, beforeLease);
+		assertEquals(3, sink.recent().get(0).getAggregateId());
+		assertEquals(2, afterLease);
+		assertEquals(0, count());
+	}
+	
+	@Test
+	@DisplayName("Should pick the batch with SKIP LOCKED and stamp only the picked rows")
+	void testRelayOnce_SkipLocked() {
+		// Given
+		final JdbcTemplate mysql = mock(JdbcTemplate.class);
+		when(mysql.queryForList(startsWith("SELECT outbox_id FROM outbox"), eq(Long.class), any(), eq(10)))
+				.thenReturn(List.of(4L, 9L));
+		when(mysql.update(eq("UPDATE outbox SET claimed_by = ?, claimed_until = ? WHERE outbox_id IN (?, ?)"),
+				any(), any(), eq(4L), eq(9L))).thenReturn(2);
+		final OutboxRelay relay = new OutboxRelay(mysql, TransactionOperations.withoutTransaction(), true, sink, 10,
+				Duration.ofSeconds(30), Clock.fixed(NOW, ZoneOffset.UTC), meterRegistry);
+		
+		// When
+		relay.relayOnce();
+		
+		// Then
+		verify(mysql).queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(Long.class), any(), eq(10));
+		verify(mysql).query(startsWith("SELECT outbox_id, aggregate_type"), any(RowMapper.class), anyString());
+	}
+	
+	private OutboxRelay relay(final OutboxSink outboxSink, final int batchSize, final Instant now) {
+		return new OutboxRelay(jdbcTemplate, TransactionOperations.withoutTransaction(), false, outboxSink, batchSize,
+				Duration.ofSeconds(30), Clock.fixed(now, ZoneOffset.UTC), meterRegistry);
+	}
+	
+	private void insertRows(final int rows) {
+		for (int i = 1; i <= rows; i++)
+			jdbcTemplate.update("INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+					+ "VALUES ('USER', ?, 'UPDATED', ?, ?)", i, "{\"entityId\":" + i + "}", Timestamp.from(NOW));
+	}
+	
+	private int count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class);
+	}
+	
+	
+	
+}
@@ -0,0 +1,108 @@
+package com.selimhorri.app.config.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("OutboxWriter Test")
+class OutboxWriterTest {
+	
+	@TestConfiguration
+	static class WriterConfig {
+		
+		@Bean
+		OutboxWriter outboxWriter(final JdbcTemplate jdbcTemplate) {
+			return new OutboxWriter(jdbcTemplate, new ObjectMapper().writer(), Clock.systemUTC(), new SimpleMeterRegistry());
+		}
+		
+	}
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM outbox");
+	}
+	
+	@Test
+	@DisplayName("Should write the row with the committed change")
+	void testOnEntityChanged_Commit() {
+		// When
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> eventPublisher.publishEvent(event(5)));
+		
+		// Then
+		final Map<String, Object> row = jdbcTemplate.queryForMap("SELECT aggregate_type, aggregate_id, event_type, payload FROM outbox");
+		assertEquals("USER", row.get("AGGREGATE_TYPE"));
+		assertEquals(5, row.get("AGGREGATE_ID"));
+		assertEquals("UPDATED", row.get("EVENT_TYPE"));
+		assertTrue(row.get("PAYLOAD").toString().contains("\"usernames\":[\"user5\"]"));
+		assertFalse(row.get("PAYLOAD").toString().contains("remote"));
+	}
+	
+	@Test
+	@DisplayName("Should not write a row when the change rolls back")
+	void testOnEntityChanged_Rollback() {
+		// When
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			eventPublisher.publishEvent(event(5));
+			status.setRollbackOnly();
+		});
+		
+		// Then
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+	}
+	
+	@Test
+	@DisplayName("Should not write rows for changes replayed from peers")
+	void testOnEntityChanged_RemoteIgnored() {
+		// When
+		eventPublisher.publishEvent(event(5).toBuilder().remote(true).build());
+		
+		// Then
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+	}
+	
+	private static EntityChangedEvent event(final int userId) {
+		return EntityChangedEvent.builder()
+				.entityType(EntityType.USER)
+				.changeType(ChangeType.UPDATED)
+				.entityId(userId)
+				.userId(userId)
+				.username("user" + userId)
+				.build();
+	}
+	
+	
+	
+}
@@ -0,0 +1,148 @@
+package com.selimhorri.app.config.profilestore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.cache.OffHeapProfileStore;
+import com.selimhorri.app.changefeed.TombstoneStore;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@JdbcTest
+@DisplayName("ProfileSnapshotLifecycle Test")
+class ProfileSnapshotLifecycleTest {
+	
+	private static final Duration TTL = Duration.ofMinutes(10);
+	private static final Duration MAX_STALE = Duration.ofMinutes(5);
+	private static final Duration RETENTION = Duration.ofDays(7);
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@TempDir
+	Path directory;
+	
+	private Path path;
+	private SimpleMeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		path = directory.resolve("profiles.snapshot");
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	@Test
+	@DisplayName("Should write the store on stop and restore it on the next start")
+	void testStopThenStart_Warm() {
+		// Given
+		OffHeapProfileStore previous = store();
+		previous.putById(profile(1, "selimhorri"), previous.versionOf(1), Duration.ZERO);
+		lifecycle(previous).stop();
+		OffHeapProfileStore next = store();
+		
+		// When
+		lifecycle(next).start();
+		
+		// Then
+		assertTrue(Files.notExists(path));
+		assertEquals("selimhorri", next.findById(1).orElseThrow().getUserDto().getCredentialDto().getUsername());
+		assertEquals(1, meterRegistry.get("profilestore.snapshot.loads").tag("result", "loaded").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should leave out only the profiles written or deleted after the snapshot")
+	void testStart_SomeChanged() {
+		// Given
+		OffHeapProfileStore previous = store();
+		for (int userId = 1; userId <= 3; userId++)
+			previous.putById(profile(userId, "user" + userId), previous.versionOf(userId), Duration.ZERO);
+		lifecycle(previous, Duration.ZERO).stop();
+		jdbcTemplate.update("UPDATE users SET first_name = 'changed', updated_at = ? WHERE user_id = 1",
+				Timestamp.from(Instant.now().plusSeconds(1)));
+		jdbcTemplate.update("INSERT INTO change_tombstones (entity_type, entity_id, deleted_at) VALUES ('CREDENTIAL', 2, ?)",
+				Timestamp.from(Instant.now().plusSeconds(1)));
+		OffHeapProfileStore next = store();
+		
+		// When
+		lifecycle(next, Duration.ZERO).start();
+		
+		// Then
+		assertTrue(next.findById(1).isEmpty());
+		assertTrue(next.findById(2).isEmpty());
+		assertEquals("user3", next.findById(3).orElseThrow().getUserDto().getCredentialDto().getUsername());
+		assertEquals(1, meterRegistry.get("profilestore.snapshot.loads").tag("result", "loaded").counter().count());
+		assertEquals(2, meterRegistry.get("profilestore.snapshot.dropped").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should treat writes within the margin before the snapshot as changes")
+	void testStart_WrittenWithinMargin() {
+		// Given
+		OffHeapProfileStore previous = store();
+		previous.putById(profile(1, "selimhorri"), previous.versionOf(1), Duration.ZERO);
+		jdbcTemplate.update("UPDATE users SET updated_at = ? WHERE user_id = 1", Timestamp.from(Instant.now().minusSeconds(30)));
+		lifecycle(previous, Duration.ofMinutes(1)).stop();
+		OffHeapProfileStore next = store();
+		
+		// When
+		lifecycle(next, Duration.ofMinutes(1)).start();
+		
+		// Then
+		assertEquals(0, next.size());
+	}
+	
+	@Test
+	@DisplayName("Should start cold when the tombstones of the window were already purged")
+	void testStart_BeyondTombstoneRetention() {
+		// Given
+		OffHeapProfileStore previous = store();
+		previous.putById(profile(1, "selimhorri"), previous.versionOf(1), Duration.ZERO);
+		lifecycle(previous, Duration.ZERO).stop();
+		OffHeapProfileStore next = store();
+		
+		// When
+		lifecycle(next, RETENTION.plusDays(1)).start();
+		
+		// Then
+		assertEquals(0, next.size());
+		assertEquals(1, meterRegistry.get("profilestore.snapshot.loads").tag("result", "stale").counter().count());
+	}
+	
+	private ProfileSnapshotLifecycle lifecycle(final OffHeapProfileStore store) {
+		return lifecycle(store, Duration.ZERO);
+	}
+	
+	private ProfileSnapshotLifecycle lifecycle(final OffHeapProfileStore store, final Duration margin) {
+		final TombstoneStore tombstoneStore = new TombstoneStore(jdbcTemplate, RETENTION, Duration.ofHours(1), Clock.systemUTC());
+		return new ProfileSnapshotLifecycle(store, jdbcTemplate, tombstoneStore, path, margin, Clock.systemUTC(), meterRegistry);
+	}
+	
+	private static OffHeapProfileStore store() {
+		return new OffHeapProfileStore(4096, 2, 0.25, TTL, MAX_STALE, 0.0, Clock.systemUTC(), new SimpleMeterRegistry());
+	}
+	
+	private static UserDto profile(final int userId, final String username) {
+		return UserDto.builder()
+				.userId(userId)
+				.firstName("selim")
+				.credentialDto(CredentialDto.builder().credentialId(userId).username(username).build())
+				.build();
+	}
+	
+}
@@ -0,0 +1,145 @@
+package com.selimhorri.app.config.responsecache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("ResponseBytesCache Test")
+class ResponseBytesCacheTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	private ResponseBytesCache cache;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new ResponseBytesCache(1000, 400, Duration.ofMinutes(1), meterRegistry);
+	}
+	
+	@Test
+	@DisplayName("Should serve a stored body for the same tag and representation only")
+	void testGet_PerVariant() {
+		// Given
+		cache.put("user:1", "application/json", cache.version("user:1"), body("application/json", 10));
+		
+		// When & Then
+		assertTrue(cache.get("user:1", "application/json").isPresent());
+		assertTrue(cache.get("user:1", "application/cbor").isEmpty());
+		assertTrue(cache.get("user:2", "application/json").isEmpty());
+		assertEquals(1, meterRegistry.get("responsecache.requests").tag("result", "hit").counter().count());
+		assertEquals(2, meterRegistry.get("responsecache.requests").tag("result", "miss").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should drop every representation of an invalidated tag")
+	void testInvalidate_AllVariants() {
+		// Given
+		cache.put("user:1", "application/json", cache.version("user:1"), body("application/json", 10));
+		cache.put("user:1", "application/cbor", cache.version("user:1"), body("application/cbor", 10));
+		
+		// When
+		cache.invalidate("user:1");
+		
+		// Then
+		assertTrue(cache.get("user:1", "application/json").isEmpty());
+		assertTrue(cache.get("user:1", "application/cbor").isEmpty());
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.bytes());
+	}
+	
+	@Test
+	@DisplayName("Should drop everything and refuse bodies rendered before a full invalidation")
+	void testInvalidateAll() {
+		// Given
+		final long version = cache.version("user:2");
+		cache.put("user:1", "application/json", cache.version("user:1"), body("application/json", 10));
+		
+		// When
+		cache.invalidateAll();
+		
+		// Then
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.bytes());
+		assertFalse(cache.put("user:2", "application/json", version, body("application/json", 10)));
+	}
+	
+	@Test
+	@DisplayName("Should not cap the number of representations")
+	void testPut_NoRepresentationCap() {
+		// When
+		for (int variant = 0; variant < 20; variant++)
+			assertTrue(cache.put("user:1", "application/x-" + variant, cache.version("user:1"), body("application/x-" + variant, 10)));
+		cache.invalidate("user:1");
+		
+		// Then
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	@DisplayName("Should refuse a body rendered before an invalidation")
+	void testPut_StaleVersionRefused() {
+		// Given
+		final long version = cache.version("user:1");
+		cache.invalidate("user:1");
+		
+		// When
+		final boolean stored = cache.put("user:1", "application/json", version, body("application/json", 10));
+		
+		// Then
+		assertFalse(stored);
+		assertTrue(cache.get("user:1", "application/json").isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should skip bodies over the per-entry limit")
+	void testPut_EntryTooLarge() {
+		// When
+		final boolean stored = cache.put("user:1", "application/json", cache.version("user:1"), body("application/json", 500));
+		
+		// Then
+		assertFalse(stored);
+		assertEquals(0, cache.bytes());
+	}
+	
+	@Test
+	@DisplayName("Should evict least recently used entries to stay within the byte budget")
+	void testPut_EvictsByWeight() {
+		// Given
+		cache.put("user:1", "application/json", cache.version("user:1"), body("application/json", 250));
+		cache.put("user:2", "application/json", cache.version("user:2"), body("application/json", 250));
+		cache.get("user:1", "application/json");
+		
+		// When
+		cache.put("user:3", "application/json", cache.version("user:3"), body("application/json", 250));
+		
+		// Then
+		assertTrue(cache.get("user:1", "application/json").isPresent());
+		assertTrue(cache.get("user:2", "application/json").isEmpty());
+		assertTrue(cache.get("user:3", "application/json").isPresent());
+		assertTrue(cache.bytes() <= 1000);
+		assertEquals(1, meterRegistry.get("responsecache.evictions").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should expire entries after the ttl")
+	void testGet_Expired() {
+		// Given
+		cache = new ResponseBytesCache(1000, 400, Duration.ZERO, meterRegistry);
+		cache.put("user:1", "application/json", cache.version("user:1"), body("application/json", 10));
+		
+		// When & Then
+		assertTrue(cache.get("user:1", "application/json").isEmpty());
+		assertEquals(0, cache.size());
+	}
+	
+	private static CachedResponse body(final String contentType, final int length) {
+		return new CachedResponse(contentType, new byte[length]);
+	}
+	
+}
@@ -0,0 +1,212 @@
+package com.selimhorri.app.config.responsecache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.selimhorri.app.event.EntityChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("ResponseCacheFilter Test")
+class ResponseCacheFilterTest {
+	
+	private ResponseBytesCache cache;
+	private ResponseCacheFilter responseCacheFilter;
+	private AtomicInteger renders;
+	
+	@BeforeEach
+	void setUp() {
+		cache = new ResponseBytesCache(1 << 20, 1 << 16, Duration.ofMinutes(1), new SimpleMeterRegistry());
+		responseCacheFilter = new ResponseCacheFilter(cache, new ResponseCacheProperties().getRepresentations());
+		renders = new AtomicInteger();
+	}
+	
+	@Test
+	@DisplayName("Should resolve tags for the cached single-entity paths only")
+	void testTagFor() {
+		assertEquals(Optional.of("user:7"), ResponseCacheFilter.tagFor("/api/users/007"));
+		assertEquals(Optional.of("username:jo doe"), ResponseCacheFilter.tagFor("/api/credentials/username/jo%20doe"));
+		assertEquals(Optional.empty(), ResponseCacheFilter.tagFor("/api/users"));
+		assertEquals(Optional.empty(), ResponseCacheFilter.tagFor("/api/users/username/jo"));
+		assertEquals(Optional.empty(), ResponseCacheFilter.tagFor("/api/address/1"));
+	}
+	
+	@Test
+	@DisplayName("Should write the stored bytes on the second GET without running the chain")
+	void testDoFilter_SecondGetIsHit() throws Exception {
+		// Given
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		MockHttpServletResponse second = new MockHttpServletResponse();
+		
+		// When
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json"), first, render(200));
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json"), second, render(200));
+		
+		// Then
+		assertEquals(1, renders.get());
+		assertEquals("MISS", first.getHeader(ResponseCacheFilter.CACHE_STATUS));
+		assertEquals("HIT", second.getHeader(ResponseCacheFilter.CACHE_STATUS));
+		assertEquals(200, second.getStatus());
+		assertEquals("application/json", second.getContentType());
+		assertEquals(first.getContentAsString(), second.getContentAsString());
+		assertEquals(first.getContentAsByteArray().length, second.getContentLength());
+	}
+	
+	@Test
+	@DisplayName("Should render again after the entity changed")
+	void testDoFilter_InvalidatedByEvent() throws Exception {
+		// Given
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json"), new MockHttpServletResponse(), render(200));
+		new ResponseCacheInvalidator(cache).onEntityChanged(EntityChangedEvent.builder()
+				.entityType(EntityChangedEvent.EntityType.USER)
+				.changeType(EntityChangedEvent.ChangeType.UPDATED)
+				.entityId(1)
+				.userId(1)
+				.build());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		// When
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json"), response, render(200));
+		
+		// Then
+		assertEquals(2, renders.get());
+		assertEquals("{\"render\":2}", response.getContentAsString());
+	}
+	
+	@Test
+	@DisplayName("Should keep one entry per negotiated content type")
+	void testDoFilter_PerContentType() throws Exception {
+		// When
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json"), new MockHttpServletResponse(), render(200));
+		responseCacheFilter.doFilter(get("/api/users/1", "application/cbor"), new MockHttpServletResponse(), render(200, "application/cbor"));
+		
+		// Then
+		assertEquals(2, renders.get());
+		assertEquals(2, cache.size());
+	}
+	
+	@Test
+	@DisplayName("Should share one entry between Accept headers that negotiate the same type")
+	void testDoFilter_AcceptVariantsShareEntry() throws Exception {
+		// Given
+		MockHttpServletResponse browser = new MockHttpServletResponse();
+		MockHttpServletResponse withoutAccept = new MockHttpServletResponse();
+		MockHttpServletRequest noAccept = new MockHttpServletRequest("GET", "/user-service/api/users/1");
+		noAccept.setContextPath("/user-service");
+		
+		// When
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json"), new MockHttpServletResponse(), render(200));
+		responseCacheFilter.doFilter(get("/api/users/1", "application/json;charset=UTF-8"), new MockHttpServletResponse(), render(200));
+		responseCacheFilter.doFilter(get("/api/users/1", "text/html,application/xhtml+xml,*/*;q=0.8"), browser, render(200));
+		responseCacheFilter.doFilter(noAccept, withoutAccept, render(200));
+		
+		// Then
+		assertEquals(1, renders.get());
+		assertEquals(1, cache.size());
+		assertEquals("HIT", browser.getHeader(ResponseCacheFilter.CACHE_STATUS));
+		assertEquals("HIT", withoutAccept.getHeader(ResponseCacheFilter.CACHE_STATUS));
+	}
+	
+	@Test
+	@DisplayName("Should negotiate the Accept header like Spring MVC")
+	void testRepresentationFor() {
+		assertEquals(Optional.of("application/json"), responseCacheFilter.representationFor(null));
+		assertEquals(Optional.of("application/json"), responseCacheFilter.representationFor("*/*"));
+		assertEquals(Optional.of("application/x-protobuf"),
+				responseCacheFilter.representationFor("application/x-protobuf, application/json;q=0.5"));
+		assertEquals(Optional.of("application/cbor"), responseCacheFilter.representationFor("application/cbor"));
+		assertEquals(Optional.empty(), responseCacheFilter.representationFor("text/plain"));
+		assertEquals(Optional.empty(), responseCacheFilter.representationFor("not a media type"));
+	}
+	
+	@Test
+	@DisplayName("Should not store a body that came out in another type than the negotiated one")
+	void testDoFilter_UnexpectedContentTypeNotCached() throws Exception {
+		// When
+		responseCacheFilter.doFilter(get("/api/users/1", "application/cbor"), new MockHttpServletResponse(), render(200));
+		
+		// Then
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	@DisplayName("Should pass Accept headers no representation satisfies straight through")
+	void testDoFilter_NotNegotiable() throws Exception {
+		// Given
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		// When
+		responseCacheFilter.doFilter(get("/api/users/1", "text/plain"), response, render(200));
+		
+		// Then
+		assertEquals(1, renders.get());
+		assertEquals(0, cache.size());
+		assertNull(response.getHeader(ResponseCacheFilter.CACHE_STATUS));
+	}
+	
+	@Test
+	@DisplayName("Should not cache error responses")
+	void testDoFilter_ErrorNotCached() throws Exception {
+		// When
+		responseCacheFilter.doFilter(get("/api/users/9", "application/json"), new MockHttpServletResponse(), render(400));
+		responseCacheFilter.doFilter(get("/api/users/9", "application/json"), new MockHttpServletResponse(), render(400));
+		
+		// Then
+		assertEquals(2, renders.get());
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	@DisplayName("Should pass through other methods and paths")
+	void testDoFilter_NotCacheable() throws Exception {
+		// Given
+		MockHttpServletRequest put = new MockHttpServletRequest("PUT", "/user-service/api/users/1");
+		put.setContextPath("/user-service");
+		MockHttpServletRequest withQuery = get("/api/users/1", "application/json");
+		withQuery.setQueryString("fields=email");
+		
+		// When
+		responseCacheFilter.doFilter(put, new MockHttpServletResponse(), render(200));
+		responseCacheFilter.doFilter(withQuery, new MockHttpServletResponse(), render(200));
+		responseCacheFilter.doFilter(get("/api/users", "application/json"), new MockHttpServletResponse(), render(200));
+		
+		// Then
+		assertEquals(3, renders.get());
+		assertEquals(0, cache.size());
+	}
+	
+	private FilterChain render(final int status) {
+		return render(status, "application/json");
+	}
+	
+	private FilterChain render(final int status, final String contentType) {
+		return (req, res) -> {
+			final int render = renders.incrementAndGet();
+			final HttpServletResponse response = (HttpServletResponse) res;
+			response.setStatus(status);
+			response.setContentType(contentType);
+			response.getOutputStream().write(String.format("{\"render\":%d}", render).getBytes(StandardCharsets.UTF_8));
+		};
+	}
+	
+	private static MockHttpServletRequest get(final String path, final String accept) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user-service" + path);
+		request.setContextPath("/user-service");
+		request.addHeader("Accept", accept);
+		return request;
+	}
+	
+}
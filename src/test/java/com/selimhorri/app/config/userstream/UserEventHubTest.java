@@ -0,0 +1,290 @@
+package com.selimhorri.app.config.userstream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.selimhorri.app.config.userstream.UserStreamProperties.Overflow;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("UserEventHub Test")
+class UserEventHubTest {
+	
+	private final Queue<Runnable> sender = new ArrayDeque<>();
+	private final List<RecordingEmitter> emitters = new ArrayList<>();
+	
+	private UserStreamProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		properties = new UserStreamProperties();
+		properties.setBufferSize(2);
+		properties.setHistorySize(3);
+		properties.setMaxSubscribers(2);
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	@Test
+	@DisplayName("Should stream user and credential changes in order with epoch-sequence ids")
+	void testOnEntityChanged_StreamsInOrder() {
+		// Given
+		final UserEventHub hub = hub("e1");
+		hub.subscribe(null);
+		
+		// When
+		hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, 1)));
+		hub.onBatch(List.of(change(EntityType.ADDRESS, ChangeType.CREATED, 2)));
+		hub.onBatch(List.of(change(EntityType.CREDENTIAL, ChangeType.DELETED, 3)));
+		runSender();
+		
+		// Then
+		final RecordingEmitter emitter = emitters.get(0);
+		assertEquals(List.of("e1-1", "e1-2"), emitter.ids());
+		assertTrue(emitter.frames.get(0).contains("event:user.updated\n"));
+		assertTrue(emitter.frames.get(0).contains("\"entityId\":1"));
+		assertTrue(emitter.frames.get(1).contains("event:credential.deleted\n"));
+		assertEquals(2.0, meterRegistry.get("userstream.events.sent").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should replay what followed Last-Event-ID before live events")
+	void testSubscribe_ResumesFromHistory() {
+		// Given
+		final UserEventHub hub = hub("e1");
+		for (int i = 1; i <= 4; i++)
+			hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, i)));
+		
+		// When
+		hub.subscribe("e1-2");
+		hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, 5)));
+		runSender();
+		
+		// Then
+		assertEquals(List.of("e1-3", "e1-4", "e1-5"), emitters.get(0).ids());
+	}
+	
+	@Test
+	@DisplayName("Should send a reset event when Last-Event-ID is from another epoch or older than the history")
+	void testSubscribe_ResetOnGap() {
+		// Given
+		final UserEventHub hub = hub("e2");
+		for (int i = 1; i <= 5; i++)
+			hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, i)));
+		
+		// When
+		hub.subscribe("e1-5");
+		hub.subscribe("e2-1");
+		runSender();
+		
+		// Then
+		for (final RecordingEmitter emitter : emitters) {
+			assertEquals(List.of("e2-5"), emitter.ids());
+			assertTrue(emitter.frames.get(0).contains("event:" + UserEventHub.RESET_EVENT + "\n"));
+		}
+	}
+	
+	@Test
+	@DisplayName("Should drop the oldest pending event for a slow subscriber")
+	void testOffer_DropOldest() {
+		// Given
+		final UserEventHub hub = hub("e1");
+		hub.subscribe(null);
+		
+		// When
+		for (int i = 1; i <= 3; i++)
+			hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, i)));
+		runSender();
+		
+		// Then
+		assertEquals(List.of("e1-2", "e1-3"), emitters.get(0).ids());
+		assertEquals(1.0, meterRegistry.get("userstream.events.dropped").counter().count());
+		assertEquals(1, hub.subscriberCount());
+	}
+	
+	@Test
+	@DisplayName("Should disconnect a slow subscriber under the DISCONNECT policy")
+	void testOffer_Disconnect() {
+		// Given
+		properties.setOverflow(Overflow.DISCONNECT);
+		final UserEventHub hub = hub("e1");
+		hub.subscribe(null);
+		
+		// When
+		for (int i = 1; i <= 3; i++)
+			hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, i)));
+		runSender();
+		
+		// Then
+		assertTrue(emitters.get(0).completed);
+		assertEquals(0, hub.subscriberCount());
+		assertEquals(1.0, meterRegistry.get("userstream.disconnects").tag("reason", "slow").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should reject subscribers beyond max-subscribers and free the slot on completion")
+	void testSubscribe_MaxSubscribers() {
+		// Given
+		final UserEventHub hub = hub("e1");
+		hub.subscribe(null);
+		final SseEmitter second = hub.subscribe(null);
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> hub.subscribe(null));
+		emitters.get(1).fireCompletion();
+		assertEquals(1, hub.subscriberCount());
+		assertNotNull(second);
+		assertDoesNotThrow(() -> hub.subscribe(null));
+	}
+	
+	@Test
+	@DisplayName("Should send heartbeats only to idle subscribers")
+	void testHeartbeat_OnlyWhenIdle() {
+		// Given
+		final UserEventHub hub = hub("e1");
+		hub.subscribe(null);
+		hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, 1)));
+		
+		// When
+		hub.heartbeat();
+		runSender();
+		hub.heartbeat();
+		runSender();
+		
+		// Then
+		final List<String> frames = emitters.get(0).frames;
+		assertEquals(2, frames.size());
+		assertTrue(frames.get(0).startsWith("id:e1-1"));
+		assertEquals(":heartbeat\n\n", frames.get(1));
+	}
+	
+	@Test
+	@DisplayName("Should drop a subscriber whose send is stuck past the write deadline and complete it once the send returns")
+	void testExpireStalled() throws InterruptedException {
+		// Given
+		properties.setWriteDeadline(Duration.ofMillis(20));
+		final UserEventHub hub = hub("e1");
+		hub.subscribe(null);
+		final RecordingEmitter emitter = emitters.get(0);
+		emitter.blockSends();
+		hub.onBatch(List.of(change(EntityType.USER, ChangeType.UPDATED, 1)));
+		final Thread senderThread = new Thread(this::runSender);
+		senderThread.start();
+		assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+		
+		// When
+		hub.expireStalled();
+		final int beforeDeadline = hub.subscriberCount();
+		Thread.sleep(50);
+		hub.expireStalled();
+		
+		// Then
+		assertEquals(1, beforeDeadline);
+		assertEquals(0, hub.subscriberCount());
+		assertEquals(1.0, meterRegistry.get("userstream.disconnects").tag("reason", "stalled").counter().count());
+		assertFalse(emitter.completed);
+		emitter.release.countDown();
+		senderThread.join(5000);
+		assertTrue(emitter.completed);
+	}
+	
+	private UserEventHub hub(final String epoch) {
+		return new UserEventHub(Jackson2ObjectMapperBuilder.json().build().writer(), epoch, sender::add, properties,
+				meterRegistry, timeout -> {
+					final RecordingEmitter emitter = new RecordingEmitter(timeout);
+					emitters.add(emitter);
+					return emitter;
+				});
+	}
+	
+	private void runSender() {
+		Runnable task;
+		while ((task = sender.poll()) != null)
+			task.run();
+	}
+	
+	private static EntityChangedEvent change(final EntityType entityType, final ChangeType changeType, final int entityId) {
+		return EntityChangedEvent.builder()
+				.entityType(entityType)
+				.changeType(changeType)
+				.entityId(entityId)
+				.build();
+	}
+	
+	private static class RecordingEmitter extends SseEmitter {
+		
+		private final List<String> frames = new ArrayList<>();
+		private final CountDownLatch sending = new CountDownLatch(1);
+		private CountDownLatch release = new CountDownLatch(0);
+		private Runnable completion;
+		private volatile boolean completed;
+		
+		RecordingEmitter(final long timeout) {
+			super(timeout);
+		}
+		
+		void blockSends() {
+			release = new CountDownLatch(1);
+		}
+		
+		@Override
+		public void send(final SseEventBuilder builder) throws IOException {
+			sending.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			frames.add(builder.build().stream()
+					.map(part -> part.getData().toString())
+					.collect(Collectors.joining()));
+		}
+		
+		@Override
+		public synchronized void onCompletion(final Runnable callback) {
+			completion = callback;
+		}
+		
+		@Override
+		public synchronized void complete() {
+			completed = true;
+			fireCompletion();
+		}
+		
+		void fireCompletion() {
+			completion.run();
+		}
+		
+		List<String> ids() {
+			return frames.stream()
+					.filter(frame -> frame.startsWith("id:"))
+					.map(frame -> frame.substring(3, frame.indexOf('\n')))
+					.collect(Collectors.toList());
+		}
+	
+	}
+	
+	
+	
+}
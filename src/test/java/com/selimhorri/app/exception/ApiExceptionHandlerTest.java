@@ -18,7 +18,9 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import com.selimhorri.app.dto.UserDto;
 import com.selimhorri.app.exception.payload.ExceptionMsg;
 import com.selimhorri.app.exception.wrapper.AddressNotFoundException;
+import com.selimhorri.app.exception.wrapper.ChangeFeedExpiredException;
 import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
 import com.selimhorri.app.exception.wrapper.VerificationTokenNotFoundException;
 
@@ -219,5 +221,40 @@ class ApiExceptionHandlerTest {
 		}
 	}
 	
+	@Test
+	@DisplayName("Should return SERVICE_UNAVAILABLE for ServiceUnavailableException")
+	void testHandleServiceUnavailableException() {
+		// Given
+		ServiceUnavailableException exception = new ServiceUnavailableException(
+				"Timed out after 5000 ms waiting for user.findById with key: 1");
+		
+		// When
+		ResponseEntity<ExceptionMsg> response = apiExceptionHandler.handleServiceUnavailableException(exception);
+		
+		// Then
+		assertNotNull(response);
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertNotNull(response.getBody());
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getBody().getHttpStatus());
+		assertTrue(response.getBody().getMsg().contains("user.findById"));
+	}
+	
+	@Test
+	@DisplayName("Should return GONE for a change feed watermark past the tombstone retention")
+	void testHandleChangeFeedExpiredException() {
+		// Given
+		ChangeFeedExpiredException exception = new ChangeFeedExpiredException(
+				"Watermark 2026-01-01T00:00:00Z~3 is older than the retained tombstones, resync from scratch");
+		
+		// When
+		ResponseEntity<ExceptionMsg> response = apiExceptionHandler.handleChangeFeedExpiredException(exception);
+		
+		// Then
+		assertNotNull(response);
+		assertEquals(HttpStatus.GONE, response.getStatusCode());
+		assertNotNull(response.getBody());
+		assertEquals(HttpStatus.GONE, response.getBody().getHttpStatus());
+		assertTrue(response.getBody().getMsg().contains("resync"));
+	}
+	
 }
-
@@ -10,6 +10,7 @@ import com.selimhorri.app.domain.Address;
 import com.selimhorri.app.domain.User;
 import com.selimhorri.app.dto.AddressDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.repository.projection.AddressProjection;
 
 @DisplayName("AddressMappingHelper Test")
 class AddressMappingHelperTest {
@@ -252,5 +253,33 @@ class AddressMappingHelperTest {
 		assertEquals("Madrid", result.getCity());
 	}
 	
+	@Test
+	@DisplayName("Should map AddressProjection to AddressDto with nested user")
+	void testMap_ProjectionToDto() {
+		// Given
+		AddressProjection projection = AddressProjection.builder()
+				.addressId(7)
+				.fullAddress("123 Main St")
+				.postalCode("12345")
+				.city("New York")
+				.userId(1)
+				.firstName("John")
+				.lastName("Doe")
+				.email("john.doe@example.com")
+				.phone("1234567890")
+				.build();
+		
+		// When
+		AddressDto result = AddressMappingHelper.map(projection);
+		
+		// Then
+		assertNotNull(result);
+		assertEquals(7, result.getAddressId());
+		assertEquals("New York", result.getCity());
+		assertNotNull(result.getUserDto());
+		assertEquals(1, result.getUserDto().getUserId());
+		assertEquals("Doe", result.getUserDto().getLastName());
+		assertNull(result.getUserDto().getCredentialDto());
+	}
+	
 }
-
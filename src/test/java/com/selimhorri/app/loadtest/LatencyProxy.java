@@ -0,0 +1,91 @@
+package com.selimhorri.app.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TCP proxy placed between the service and the database that holds every
+ * client-to-server chunk for {@code delay}, so each statement round trip
+ * costs at least that much: a cheap stand-in for a slow or distant database.
+ */
+@Slf4j
+final class LatencyProxy implements AutoCloseable {
+	
+	private final ServerSocket serverSocket;
+	private final String targetHost;
+	private final int targetPort;
+	private final Duration delay;
+	private final AtomicInteger sequence = new AtomicInteger();
+	private final ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+		final Thread thread = new Thread(runnable, "latency-proxy-" + this.sequence.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	LatencyProxy(final String targetHost, final int targetPort, final Duration delay) throws IOException {
+		this.serverSocket = new ServerSocket(0, 512, InetAddress.getLoopbackAddress());
+		this.targetHost = targetHost;
+		this.targetPort = targetPort;
+		this.delay = delay;
+		this.executorService.execute(this::acceptLoop);
+	}
+	
+	int getPort() {
+		return this.serverSocket.getLocalPort();
+	}
+	
+	private void acceptLoop() {
+		while (!this.serverSocket.isClosed()) {
+			try {
+				final Socket client = this.serverSocket.accept();
+				final Socket server = new Socket(this.targetHost, this.targetPort);
+				client.setTcpNoDelay(true);
+				server.setTcpNoDelay(true);
+				this.executorService.execute(() -> this.pump(client, server, this.delay));
+				this.executorService.execute(() -> this.pump(server, client, Duration.ZERO));
+			}
+			catch (IOException e) {
+				if (!this.serverSocket.isClosed())
+					log.warn("*** LatencyProxy; accept failed: {} *", e.getMessage());
+			}
+		}
+	}
+	
+	private void pump(final Socket from, final Socket to, final Duration chunkDelay) {
+		final byte[] buffer = new byte[16 * 1024];
+		try (from; to) {
+			final InputStream in = from.getInputStream();
+			final OutputStream out = to.getOutputStream();
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				if (!chunkDelay.isZero())
+					Thread.sleep(chunkDelay.toMillis());
+				out.write(buffer, 0, read);
+				out.flush();
+			}
+		}
+		catch (IOException e) {
+			// la otra mitad cerro la conexion
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.serverSocket.close();
+		this.executorService.shutdownNow();
+	}
+	
+}
@@ -0,0 +1,120 @@
+package com.selimhorri.app.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Closed-loop HTTP load generator: keeps {@code concurrency} requests to
+ * {@code GET <baseUrl><random user id>} in flight for the whole interval and
+ * samples two server-side gauges (threads, memory) every 50 ms.
+ */
+final class LoadDriver {
+	
+	private final int users;
+	
+	LoadDriver(final int users) {
+		this.users = users;
+	}
+	
+	Result drive(final String baseUrl, final int concurrency, final Duration duration,
+			final LongSupplier threadGauge, final LongSupplier memoryGauge) throws InterruptedException {
+		
+		final ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+		final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+		final HttpClient httpClient = HttpClient.newBuilder()
+				.executor(clientExecutor)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		final Semaphore inFlight = new Semaphore(concurrency);
+		final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		final AtomicLong errors = new AtomicLong();
+		final AtomicLong peakThreads = new AtomicLong();
+		final AtomicLong peakMemory = new AtomicLong();
+		
+		sampler.scheduleAtFixedRate(() -> {
+			peakThreads.accumulateAndGet(threadGauge.getAsLong(), Math::max);
+			peakMemory.accumulateAndGet(memoryGauge.getAsLong(), Math::max);
+		}, 0, 50, TimeUnit.MILLISECONDS);
+		
+		try {
+			final long deadline = System.nanoTime() + duration.toNanos();
+			while (System.nanoTime() < deadline) {
+				inFlight.acquire();
+				final int userId = ThreadLocalRandom.current().nextInt(1, this.users + 1);
+				final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + userId))
+						.timeout(Duration.ofSeconds(30))
+						.GET()
+						.build();
+				final long start = System.nanoTime();
+				httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+						.whenComplete((response, throwable) -> {
+							if (throwable != null || response.statusCode() != 200)
+								errors.incrementAndGet();
+							else
+								latencies.add(System.nanoTime() - start);
+							inFlight.release();
+						});
+			}
+			inFlight.acquire(concurrency);
+		}
+		finally {
+			sampler.shutdownNow();
+			clientExecutor.shutdownNow();
+		}
+		
+		final long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		return new Result(concurrency, sorted.length, errors.get(), sorted.length / (double) duration.toSeconds(),
+				percentile(sorted, 0.50), percentile(sorted, 0.99), peakThreads.get(), peakMemory.get());
+	}
+	
+	private static Duration percentile(final long[] sorted, final double percentile) {
+		if (sorted.length == 0)
+			return Duration.ZERO;
+		return Duration.ofNanos(sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)]);
+	}
+	
+	static final class Result {
+		
+		final int concurrency;
+		final long requests;
+		final long errors;
+		final double throughput;
+		final Duration p50;
+		final Duration p99;
+		final long peakThreads;
+		final long peakMemory;
+		
+		private Result(final int concurrency, final long requests, final long errors, final double throughput,
+				final Duration p50, final Duration p99, final long peakThreads, final long peakMemory) {
+			this.concurrency = concurrency;
+			this.requests = requests;
+			this.errors = errors;
+			this.throughput = throughput;
+			this.p50 = p50;
+			this.p99 = p99;
+			this.peakThreads = peakThreads;
+			this.peakMemory = peakMemory;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("concurrency=%d requests=%d errors=%d throughput=%.0f req/s p50=%d ms p99=%d ms peakThreads=%d peakMemory=%d",
+					this.concurrency, this.requests, this.errors, this.throughput, this.p50.toMillis(), this.p99.toMillis(),
+					this.peakThreads, this.peakMemory);
+		}
+		
+	}
+	
+}
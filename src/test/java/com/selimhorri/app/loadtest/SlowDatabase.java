@@ -0,0 +1,72 @@
+package com.selimhorri.app.loadtest;
+
+import java.time.Duration;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * MySQL with the load test schema ({@code loadtest/schema.sql}, 1000 users with
+ * credentials) reachable only through a {@link LatencyProxy}. Without Docker,
+ * {@code -Dloadtest.mysql=host:port} points at a running MySQL/MariaDB that
+ * already has the schema ({@code loadtest.mysql.database}, {@code .username}, {@code .password}).
+ */
+final class SlowDatabase implements AutoCloseable {
+	
+	static final int USERS = 1000;
+	
+	private final MySQLContainer<?> mysql;
+	private final String databaseName;
+	private final String username;
+	private final String password;
+	private final LatencyProxy latencyProxy;
+	
+	SlowDatabase(final Duration delay) throws Exception {
+		final String external = System.getProperty("loadtest.mysql");
+		if (external == null) {
+			this.mysql = new MySQLContainer<>("mysql:8.0.27")
+					.withDatabaseName("ecommerce_loadtest_db")
+					.withInitScript("loadtest/schema.sql");
+			this.mysql.start();
+			this.databaseName = this.mysql.getDatabaseName();
+			this.username = this.mysql.getUsername();
+			this.password = this.mysql.getPassword();
+			this.latencyProxy = new LatencyProxy(this.mysql.getHost(), this.mysql.getMappedPort(MySQLContainer.MYSQL_PORT), delay);
+		}
+		else {
+			final String[] hostAndPort = external.split(":");
+			this.mysql = null;
+			this.databaseName = System.getProperty("loadtest.mysql.database", "ecommerce_loadtest_db");
+			this.username = System.getProperty("loadtest.mysql.username", "test");
+			this.password = System.getProperty("loadtest.mysql.password", "test");
+			this.latencyProxy = new LatencyProxy(hostAndPort[0], Integer.parseInt(hostAndPort[1]), delay);
+		}
+	}
+	
+	static boolean isAvailable() {
+		return System.getProperty("loadtest.mysql") != null || DockerClientFactory.instance().isDockerAvailable();
+	}
+	
+	/**
+	 * Datasource and R2DBC connection arguments pointing at the proxy.
+	 */
+	String[] connectionArgs() {
+		final String database = String.format("localhost:%d/%s", this.latencyProxy.getPort(), this.databaseName);
+		return new String[] {
+			"--spring.datasource.url=jdbc:mysql://" + database,
+			"--spring.datasource.username=" + this.username,
+			"--spring.datasource.password=" + this.password,
+			"--spring.r2dbc.url=r2dbc:mysql://" + database,
+			"--spring.r2dbc.username=" + this.username,
+			"--spring.r2dbc.password=" + this.password
+		};
+	}
+	
+	@Override
+	public void close() throws Exception {
+		this.latencyProxy.close();
+		if (this.mysql != null)
+			this.mysql.stop();
+	}
+	
+}
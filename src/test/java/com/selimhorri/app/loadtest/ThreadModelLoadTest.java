@@ -0,0 +1,194 @@
+package com.selimhorri.app.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.selimhorri.app.UserServiceApplication;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares Tomcat's platform-thread pool with the {@code virtual-threads}
+ * profile against a slow database. Each model runs in its own JVM so RSS and
+ * thread counts come from {@code /proc/<pid>/status}; concurrency starts below
+ * saturation and is doubled until p99 exceeds the SLO or requests fail, and the
+ * last level that held is reported as the max sustainable concurrency. Needs Docker (or
+ * {@code -Dloadtest.mysql}, see {@link SlowDatabase}), Linux and a
+ * JDK 21 build: {@code mvn test -Dtest=ThreadModelLoadTest -Dloadtest=true}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@DisplayName("Platform vs virtual thread load test")
+@Slf4j
+class ThreadModelLoadTest {
+	
+	private static final Duration DB_DELAY = Duration.ofMillis(Long.getLong("loadtest.db-delay-ms", 20));
+	private static final Duration SLO = Duration.ofMillis(Long.getLong("loadtest.slo-ms", 1000));
+	private static final Duration STEP = Duration.ofSeconds(Long.getLong("loadtest.step-seconds", 10));
+	private static final int START_CONCURRENCY = Integer.getInteger("loadtest.start-concurrency", 10);
+	private static final int MAX_CONCURRENCY = Integer.getInteger("loadtest.max-concurrency", 6400);
+	private static final String JDBC_POOL_SIZE = "50";
+	
+	private static SlowDatabase slowDatabase;
+	
+	private final LoadDriver loadDriver = new LoadDriver(SlowDatabase.USERS);
+	
+	@BeforeAll
+	static void startDatabase() throws Exception {
+		assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need JDK 21");
+		assumeTrue(isPresent("com.selimhorri.app.config.thread.VirtualThreadConfig"), "Build with the virtual-threads profile");
+		assumeTrue(Files.isReadable(Path.of("/proc/self/status")), "RSS is read from /proc");
+		assumeTrue(SlowDatabase.isAvailable(), "Docker or -Dloadtest.mysql is required for the load test");
+		slowDatabase = new SlowDatabase(DB_DELAY);
+	}
+	
+	@AfterAll
+	static void stopDatabase() throws Exception {
+		if (slowDatabase != null)
+			slowDatabase.close();
+	}
+	
+	@Test
+	@DisplayName("Virtual threads should sustain at least the concurrency of the platform pool")
+	void comparePlatformAndVirtualThreads() throws Exception {
+		final List<LoadDriver.Result> platform = this.ramp("loadtest");
+		final List<LoadDriver.Result> virtual = this.ramp("loadtest,virtual-threads");
+		
+		log.info("*** Load test; db delay {} ms, p99 SLO {} ms, JDBC pool {} *", DB_DELAY.toMillis(), SLO.toMillis(), JDBC_POOL_SIZE);
+		platform.forEach(result -> log.info("*** platform: {} *", result));
+		virtual.forEach(result -> log.info("*** virtual : {} *", result));
+		log.info("*** max sustainable concurrency: platform={} virtual={} *", maxSustainable(platform), maxSustainable(virtual));
+		log.info("*** peak RSS (kB): platform={} virtual={} *", peakRss(platform), peakRss(virtual));
+		
+		// si ni el primer escalon cumple el SLO la comparacion no dice nada
+		assertTrue(maxSustainable(platform) > 0, "Platform pool missed the SLO at " + START_CONCURRENCY
+				+ " clients, lower -Dloadtest.start-concurrency or raise -Dloadtest.slo-ms");
+		assertTrue(maxSustainable(virtual) >= maxSustainable(platform));
+	}
+	
+	private List<LoadDriver.Result> ramp(final String profiles) throws Exception {
+		final int port = freePort();
+		final Process process = this.start(profiles, port);
+		try {
+			final String baseUrl = String.format("http://localhost:%d/user-service/api/users/", port);
+			awaitUp(baseUrl + "1", process);
+			final long pid = process.pid();
+			
+			final List<LoadDriver.Result> results = new ArrayList<>();
+			for (int concurrency = START_CONCURRENCY; concurrency <= MAX_CONCURRENCY; concurrency *= 2) {
+				final LoadDriver.Result result = this.loadDriver.drive(baseUrl, concurrency, STEP,
+						() -> status(pid, "Threads:"), () -> status(pid, "VmRSS:"));
+				results.add(result);
+				if (!sustainable(result))
+					break;
+			}
+			return results;
+		}
+		finally {
+			process.destroy();
+			if (!process.waitFor(30, TimeUnit.SECONDS))
+				process.destroyForcibly();
+		}
+	}
+	
+	// JVM aparte con el mismo heap para que el RSS sea comparable
+	private Process start(final String profiles, final int port) throws IOException {
+		final String java = ProcessHandle.current().info().command()
+				.orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		final List<String> command = new ArrayList<>(List.of(java, "-Xms512m", "-Xmx512m",
+				"-cp", System.getProperty("java.class.path"), UserServiceApplication.class.getName(),
+				"--spring.profiles.active=" + profiles,
+				"--server.port=" + port,
+				"--spring.datasource.hikari.maximum-pool-size=" + JDBC_POOL_SIZE));
+		command.addAll(Arrays.asList(slowDatabase.connectionArgs()));
+		final File log = Files.createTempFile("user-service-" + profiles.replace(',', '-'), ".log").toFile();
+		return new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(log)
+				.start();
+	}
+	
+	private static void awaitUp(final String url, final Process process) throws Exception {
+		final HttpClient httpClient = HttpClient.newHttpClient();
+		final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+		while (System.nanoTime() < deadline && process.isAlive()) {
+			try {
+				if (httpClient.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200)
+					return;
+			}
+			catch (IOException e) {
+				// todavia arrancando
+			}
+			Thread.sleep(500);
+		}
+		fail("user-service did not start: " + url);
+	}
+	
+	private static boolean sustainable(final LoadDriver.Result result) {
+		return result.errors == 0 && result.requests > 0 && result.p99.compareTo(SLO) <= 0;
+	}
+	
+	private static int maxSustainable(final List<LoadDriver.Result> results) {
+		return results.stream()
+				.filter(ThreadModelLoadTest::sustainable)
+				.mapToInt(result -> result.concurrency)
+				.max()
+				.orElse(0);
+	}
+	
+	private static long peakRss(final List<LoadDriver.Result> results) {
+		return results.stream().mapToLong(result -> result.peakMemory).max().orElse(0);
+	}
+	
+	// "VmRSS:   123456 kB" / "Threads:  42"
+	private static long status(final long pid, final String field) {
+		try {
+			return Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status")).stream()
+					.filter(line -> line.startsWith(field))
+					.map(line -> line.substring(field.length()).replace("kB", "").strip())
+					.mapToLong(Long::parseLong)
+					.findFirst()
+					.orElse(0);
+		}
+		catch (IOException e) {
+			return 0;
+		}
+	}
+	
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+	
+	private static boolean isPresent(final String className) {
+		try {
+			Class.forName(className, false, ThreadModelLoadTest.class.getClassLoader());
+			return true;
+		}
+		catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+	
+}
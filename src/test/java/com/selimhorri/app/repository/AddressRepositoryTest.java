@@ -0,0 +1,152 @@
+package com.selimhorri.app.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.selimhorri.app.domain.Address;
+import com.selimhorri.app.domain.Credential;
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.repository.projection.AddressProjection;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("AddressRepository Test")
+class AddressRepositoryTest {
+	
+	@Autowired
+	private AddressRepository addressRepository;
+	
+	@Autowired
+	private TestEntityManager testEntityManager;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	void setUp() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+	
+	@Test
+	@DisplayName("Should list addresses with a single statement regardless of the number of addresses")
+	void testFindAllProjectedBy_ConstantQueryCount() {
+		final long smallCount = this.countStatementsOfFindAll();
+		this.persistAddresses(25);
+		final long largeCount = this.countStatementsOfFindAll();
+		
+		assertEquals(1, smallCount);
+		assertEquals(smallCount, largeCount);
+	}
+	
+	@Test
+	@DisplayName("Should not hydrate User, Credential or VerificationToken entities")
+	void testFindAllProjectedBy_NoEntityLoads() {
+		this.persistAddresses(10);
+		this.testEntityManager.clear();
+		this.statistics.clear();
+		
+		final List<AddressProjection> addresses = this.addressRepository.findAllProjectedBy();
+		
+		assertFalse(addresses.isEmpty());
+		assertEquals(0, this.statistics.getEntityLoadCount());
+		assertEquals(0, this.statistics.getCollectionLoadCount());
+	}
+	
+	@Test
+	@DisplayName("Should page the addresses of a single user")
+	void testFindByUserUserId_Paged() {
+		final User user = this.persistAddresses(5);
+		this.testEntityManager.clear();
+		this.statistics.clear();
+		
+		final var slice = this.addressRepository.findByUserUserId(user.getUserId(), 
+				PageRequest.of(1, 2, Sort.by("addressId")));
+		
+		assertEquals(2, slice.getContent().size());
+		assertTrue(slice.hasNext());
+		assertTrue(slice.getContent().stream().allMatch(a -> user.getUserId().equals(a.getUserId())));
+		// sin consulta COUNT: una sola sentencia por pagina
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+		assertEquals(0, this.statistics.getEntityLoadCount());
+	}
+	
+	@Test
+	@DisplayName("Should resolve a batch of address projections with a single statement")
+	void testFindAllProjectedByAddressIdIn() {
+		this.statistics.clear();
+		
+		final List<AddressProjection> addresses = this.addressRepository.findAllProjectedByAddressIdIn(List.of(1, 2, 3, 999));
+		
+		assertEquals(3, addresses.size());
+		assertTrue(addresses.stream().allMatch(a -> a.getUserId() != null));
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+		assertEquals(0, this.statistics.getEntityLoadCount());
+	}
+	
+	@Test
+	@DisplayName("Should fetch a single address projection by id")
+	void testFindProjectedByAddressId() {
+		final User user = this.persistAddresses(1);
+		final Integer addressId = this.addressRepository.findByUserUserId(user.getUserId(), PageRequest.of(0, 1))
+				.getContent().get(0).getAddressId();
+		this.testEntityManager.clear();
+		this.statistics.clear();
+		
+		final var address = this.addressRepository.findProjectedByAddressId(addressId);
+		
+		assertTrue(address.isPresent());
+		assertEquals("Jane", address.get().getFirstName());
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+	private long countStatementsOfFindAll() {
+		this.testEntityManager.clear();
+		this.statistics.clear();
+		final List<AddressProjection> addresses = this.addressRepository.findAllProjectedBy();
+		assertFalse(addresses.isEmpty());
+		return this.statistics.getPrepareStatementCount();
+	}
+	
+	private User persistAddresses(final int count) {
+		final User user = this.testEntityManager.persist(User.builder()
+				.firstName("Jane")
+				.lastName("Roe")
+				.phone("+21600000000")
+				.build());
+		final Credential credential = this.testEntityManager.persist(Credential.builder()
+				.username("jane.roe." + System.nanoTime())
+				.password("secret")
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+				.isEnabled(true)
+				.user(user)
+				.build());
+		user.setCredential(credential);
+		for (int i = 0; i < count; i++) {
+			this.testEntityManager.persist(Address.builder()
+					.fullAddress("street " + user.getUserId() + "-" + i)
+					.postalCode("2016")
+					.city("carthage")
+					.user(user)
+					.build());
+		}
+		this.testEntityManager.flush();
+		return user;
+	}
+	
+}
@@ -0,0 +1,145 @@
+package com.selimhorri.app.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.changefeed.ChangeCursor;
+import com.selimhorri.app.changefeed.TombstoneStore;
+import com.selimhorri.app.config.audit.AuditingConfig;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.ChangeType;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+
+@DataJpaTest
+@Import(AuditingConfig.class)
+@DisplayName("Change feed queries Test")
+class ChangeFeedRepositoryTest {
+
+	private static final Instant T = Instant.parse("2026-03-01T12:00:00Z");
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager testEntityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@DisplayName("Should stamp updated_at on insert and on every update, leaving created_at alone")
+	void testAuditing_StampsUpdatedAt() {
+		// Given
+		final User user = this.testEntityManager.persistFlushFind(this.user("Ada"));
+		assertNotNull(user.getCreatedAt());
+		assertNotNull(user.getUpdatedAt());
+		this.jdbcTemplate.update("UPDATE users SET created_at = ?, updated_at = ? WHERE user_id = ?",
+				Timestamp.from(T), Timestamp.from(T), user.getUserId());
+		this.testEntityManager.clear();
+
+		// When
+		final User loaded = this.testEntityManager.find(User.class, user.getUserId());
+		loaded.setFirstName("Grace");
+		this.testEntityManager.flush();
+		this.testEntityManager.clear();
+
+		// Then
+		final User updated = this.testEntityManager.find(User.class, user.getUserId());
+		assertEquals(T, updated.getCreatedAt());
+		assertTrue(updated.getUpdatedAt().isAfter(T));
+	}
+
+	@Test
+	@DisplayName("Should page changed rows by (updated_at, id), ties included")
+	void testFindChangedAfter_KeysetPaging() {
+		// Given
+		final User first = this.testEntityManager.persist(this.user("First"));
+		final User second = this.testEntityManager.persist(this.user("Second"));
+		final User earlier = this.testEntityManager.persist(this.user("Earlier"));
+		this.testEntityManager.flush();
+		this.jdbcTemplate.update("UPDATE users SET updated_at = ?", Timestamp.from(T.minus(Duration.ofDays(1))));
+		this.jdbcTemplate.update("UPDATE users SET updated_at = ? WHERE user_id IN (?, ?)",
+				Timestamp.from(T), first.getUserId(), second.getUserId());
+		this.jdbcTemplate.update("UPDATE users SET updated_at = ? WHERE user_id = ?",
+				Timestamp.from(T.minusSeconds(1)), earlier.getUserId());
+		this.testEntityManager.clear();
+		final ChangeCursor since = new ChangeCursor(T.minusSeconds(10), 0);
+
+		// When
+		final List<User> page = this.userRepository.findChangedAfter(since.getChangedAt(), since.getId(), T, PageRequest.of(0, 2));
+		final User last = page.get(page.size() - 1);
+		final List<User> next = this.userRepository.findChangedAfter(last.getUpdatedAt(), last.getUserId(), T, PageRequest.of(0, 2));
+
+		// Then
+		assertEquals(List.of(earlier.getUserId(), first.getUserId()), this.ids(page));
+		assertEquals(List.of(second.getUserId()), this.ids(next));
+		assertTrue(this.userRepository.findChangedAfter(since.getChangedAt(), since.getId(), T.minusSeconds(5), PageRequest.of(0, 2))
+				.isEmpty());
+	}
+
+	@Test
+	@DisplayName("Should record tombstones for local deletions of tracked entities only")
+	void testTombstoneStore_RecordsLocalDeletions() {
+		// Given
+		final TombstoneStore tombstoneStore = new TombstoneStore(this.jdbcTemplate, Duration.ofDays(7), Duration.ofHours(1),
+				Clock.fixed(T, ZoneOffset.UTC));
+
+		// When
+		tombstoneStore.onEntityChanged(this.deleted(EntityType.CREDENTIAL, 5).build());
+		tombstoneStore.onEntityChanged(this.deleted(EntityType.USER, 6).remote(true).build());
+		tombstoneStore.onEntityChanged(this.deleted(EntityType.VERIFICATION_TOKEN, 7).build());
+		tombstoneStore.onEntityChanged(this.deleted(EntityType.ADDRESS, 8).changeType(ChangeType.UPDATED).build());
+
+		// Then
+		final List<ChangeDto<Object>> credentials = tombstoneStore.findAfter(EntityType.CREDENTIAL, ChangeCursor.START, T, 10);
+		assertEquals(1, credentials.size());
+		assertEquals(5, credentials.get(0).getId());
+		assertEquals(T, credentials.get(0).getChangedAt());
+		assertTrue(credentials.get(0).isDeleted());
+		assertTrue(tombstoneStore.findAfter(EntityType.USER, ChangeCursor.START, T, 10).isEmpty());
+		assertTrue(tombstoneStore.findAfter(EntityType.ADDRESS, ChangeCursor.START, T, 10).isEmpty());
+		assertTrue(tombstoneStore.findAfter(EntityType.CREDENTIAL, new ChangeCursor(T, 5), T, 10).isEmpty());
+	}
+
+	private User user(final String firstName) {
+		return User.builder()
+				.firstName(firstName)
+				.lastName("Feed")
+				.phone("+21600000000")
+				.build();
+	}
+
+	private EntityChangedEvent.EntityChangedEventBuilder deleted(final EntityType entityType, final int entityId) {
+		return EntityChangedEvent.builder()
+				.entityType(entityType)
+				.changeType(ChangeType.DELETED)
+				.entityId(entityId);
+	}
+
+	private List<Integer> ids(final List<User> users) {
+		return users.stream()
+				.map(User::getUserId)
+				.collect(Collectors.toList());
+	}
+
+
+
+}
@@ -0,0 +1,121 @@
+package com.selimhorri.app.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.Address;
+import com.selimhorri.app.domain.Credential;
+import com.selimhorri.app.domain.User;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Second-level cache Test")
+class SecondLevelCacheTest {
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private CredentialRepository credentialRepository;
+	
+	@Autowired
+	private AddressRepository addressRepository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	@BeforeEach
+	void setUp() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.entityManagerFactory.getCache().evictAll();
+		this.transactionTemplate = new TransactionTemplate(this.transactionManager);
+	}
+	
+	@Test
+	@DisplayName("Should serve a user and its credential from the cache on the second read")
+	void testUserById_SecondReadFromCache() {
+		this.readUserWithCredential(1);
+		this.statistics.clear();
+		
+		final Credential credential = this.readUserWithCredential(1);
+		
+		assertEquals("selimhorri", credential.getUsername());
+		assertEquals(0, this.statistics.getPrepareStatementCount());
+		assertTrue(this.statistics.getDomainDataRegionStatistics("user").getHitCount() > 0);
+		assertTrue(this.statistics.getDomainDataRegionStatistics("credential").getHitCount() > 0);
+	}
+	
+	@Test
+	@DisplayName("Should serve findByCredentialUsername from the query cache")
+	void testFindByCredentialUsername_QueryCache() {
+		this.userRepository.findByCredentialUsername("selimhorri").orElseThrow();
+		this.statistics.clear();
+		
+		final User user = this.userRepository.findByCredentialUsername("selimhorri").orElseThrow();
+		
+		assertEquals(1, user.getUserId());
+		assertEquals(0, this.statistics.getPrepareStatementCount());
+		assertEquals(1, this.statistics.getQueryRegionStatistics("user-by-username").getHitCount());
+	}
+	
+	@Test
+	@DisplayName("Should serve credential findByUsername from the query cache")
+	void testCredentialFindByUsername_QueryCache() {
+		this.credentialRepository.findByUsername("selimhorri").orElseThrow();
+		this.statistics.clear();
+		
+		final Credential credential = this.credentialRepository.findByUsername("selimhorri").orElseThrow();
+		
+		assertEquals(1, credential.getCredentialId());
+		assertEquals(0, this.statistics.getPrepareStatementCount());
+		assertEquals(1, this.statistics.getQueryRegionStatistics("credential-by-username").getHitCount());
+	}
+	
+	@Test
+	@DisplayName("Should serve an address and its user from the cache without touching the credential")
+	void testAddressById_SecondReadFromCache() {
+		this.readAddressUserFirstName(1);
+		this.statistics.clear();
+		
+		final String firstName = this.readAddressUserFirstName(1);
+		
+		assertEquals("selim", firstName);
+		assertEquals(0, this.statistics.getPrepareStatementCount());
+	}
+	
+	// cada lectura corre en su propia transaccion, como una peticion real
+	private Credential readUserWithCredential(final Integer userId) {
+		return this.transactionTemplate.execute(status -> {
+			final User user = this.userRepository.findById(userId).orElseThrow();
+			return this.credentialRepository.findByUserUserId(user.getUserId()).orElseThrow();
+		});
+	}
+	
+	private String readAddressUserFirstName(final Integer addressId) {
+		return this.transactionTemplate.execute(status -> this.addressRepository.findById(addressId)
+				.map(Address::getUser)
+				.map(User::getFirstName)
+				.orElseThrow());
+	}
+	
+}
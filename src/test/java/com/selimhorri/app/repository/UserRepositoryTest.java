@@ -0,0 +1,146 @@
+package com.selimhorri.app.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.selimhorri.app.domain.Credential;
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.domain.VerificationToken;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("UserRepository Test")
+class UserRepositoryTest {
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private CredentialRepository credentialRepository;
+	
+	@Autowired
+	private TestEntityManager testEntityManager;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	private User user;
+	
+	@BeforeEach
+	void setUp() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.user = this.testEntityManager.persist(User.builder()
+				.firstName("Jane")
+				.lastName("Roe")
+				.phone("+21600000000")
+				.build());
+		final Credential credential = this.testEntityManager.persist(Credential.builder()
+				.username("jane.roe")
+				.password("secret")
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+				.isEnabled(true)
+				.user(this.user)
+				.build());
+		this.testEntityManager.persist(VerificationToken.builder()
+				.token("token-1")
+				.expireDate(LocalDate.now().plusDays(1))
+				.credential(credential)
+				.build());
+		this.testEntityManager.flush();
+		this.testEntityManager.clear();
+		this.statistics.clear();
+	}
+	
+	@Test
+	@DisplayName("Should not load the credential when a user is loaded on its own")
+	void testFind_CredentialNotLoaded() {
+		final User found = this.testEntityManager.find(User.class, this.user.getUserId());
+		
+		assertFalse(Hibernate.isPropertyInitialized(found, "credential"));
+		assertEquals(1, this.statistics.getEntityLoadCount());
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	@DisplayName("Should resolve the credential of a user by user id without verification tokens")
+	void testFindByUserUserId_TokensLazy() {
+		final Credential found = this.credentialRepository.findByUserUserId(this.user.getUserId()).orElseThrow();
+		
+		assertEquals("jane.roe", found.getUsername());
+		assertFalse(Hibernate.isInitialized(found.getVerificationTokens()));
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	@DisplayName("Should resolve a batch of credentials with their users in one statement")
+	void testFindAllByUserUserIdIn() {
+		final List<Credential> credentials = this.credentialRepository.findAllByUserUserIdIn(
+				Set.of(this.user.getUserId(), 1, 999));
+		
+		assertEquals(2, credentials.size());
+		assertTrue(credentials.stream().allMatch(credential -> Hibernate.isInitialized(credential.getUser())));
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	@DisplayName("Should list users with their credentials in one statement")
+	void testFindAll_CredentialFetched() {
+		final var users = this.userRepository.findAll();
+		
+		assertFalse(users.isEmpty());
+		users.forEach(u -> assertNotNull(u.getCredential()));
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	@DisplayName("Should stream users with their credentials from one statement")
+	void testStreamAllBy_CredentialFetched() {
+		try (Stream<User> users = this.userRepository.streamAllBy()) {
+			final List<User> streamed = users.collect(Collectors.toList());
+			
+			assertFalse(streamed.isEmpty());
+			streamed.forEach(u -> assertTrue(Hibernate.isInitialized(u.getCredential())));
+		}
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	@DisplayName("Should fetch user by username without verification tokens")
+	void testFindByCredentialUsername() {
+		final User found = this.userRepository.findByCredentialUsername("jane.roe").orElseThrow();
+		
+		assertEquals(this.user.getUserId(), found.getUserId());
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+		assertEquals(0, this.statistics.getCollectionLoadCount());
+	}
+	
+	@Test
+	@DisplayName("Should fetch credential by username without its user or verification tokens")
+	void testCredentialFindByUsername() {
+		final Credential found = this.credentialRepository.findByUsername("jane.roe").orElseThrow();
+		
+		assertFalse(Hibernate.isInitialized(found.getUser()));
+		assertFalse(Hibernate.isInitialized(found.getVerificationTokens()));
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+	
+}
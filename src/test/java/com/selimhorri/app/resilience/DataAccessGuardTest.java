@@ -0,0 +1,308 @@
+package com.selimhorri.app.resilience;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
+import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("DataAccessGuard Test")
+class DataAccessGuardTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	private ExecutorService executorService;
+	private CircuitBreaker circuitBreaker;
+	private DataAccessGuard dataAccessGuard;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		executorService = Executors.newCachedThreadPool();
+		circuitBreaker = CircuitBreaker.of("userService", CircuitBreakerConfig.custom()
+				.slidingWindowSize(2)
+				.minimumNumberOfCalls(2)
+				.recordExceptions(DataAccessResourceFailureException.class, TimeoutException.class)
+				.build());
+		dataAccessGuard = new DataAccessGuard(circuitBreaker,
+				TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build()),
+				executorService, TransactionOperations.withoutTransaction(),
+				new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), meterRegistry);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executorService.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should run reads off the caller thread and return their value")
+	void testRead_Success() {
+		// Given
+		String caller = Thread.currentThread().getName();
+		
+		// When
+		String worker = dataAccessGuard.read("user.findById", 1, () -> Thread.currentThread().getName());
+		
+		// Then
+		assertNotEquals(caller, worker);
+	}
+	
+	@Test
+	@DisplayName("Should run reads on the caller thread, without the time limiter, when the caller runs them")
+	void testRead_CallerRuns() {
+		// Given
+		DataAccessGuard callerRuns = new DataAccessGuard(circuitBreaker,
+				TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build()),
+				executorService, TransactionOperations.withoutTransaction(),
+				new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), meterRegistry, true);
+		String caller = Thread.currentThread().getName();
+		
+		// When
+		String worker = callerRuns.read("user.findById", 1, () -> {
+			LockSupport.parkNanos(Duration.ofMillis(200).toNanos());
+			return Thread.currentThread().getName();
+		});
+		
+		// Then
+		assertEquals(caller, worker);
+	}
+	
+	@Test
+	@DisplayName("Should serve the last good value when the database fails")
+	void testRead_FailureServesStale() {
+		// Given
+		dataAccessGuard.read("user.findById", 1, () -> "john");
+		
+		// When
+		String result = dataAccessGuard.read("user.findById", 1, () -> {
+			throw new DataAccessResourceFailureException("connection refused");
+		});
+		
+		// Then
+		assertEquals("john", result);
+		assertEquals(1.0, meterRegistry.get("circuitbreaker.fallback")
+				.tag("operation", "user.findById").tag("outcome", "stale").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should answer 503 when the database fails and nothing was cached")
+	void testRead_FailureWithoutStale() {
+		assertThrows(ServiceUnavailableException.class, () -> dataAccessGuard.read("user.findById", 2, () -> {
+			throw new DataAccessResourceFailureException("connection refused");
+		}));
+	}
+	
+	@Test
+	@DisplayName("Should give up on reads slower than the time limit")
+	void testRead_Timeout() {
+		// Given
+		dataAccessGuard.read("user.findAll", "all", () -> "cached");
+		CountDownLatch never = new CountDownLatch(1);
+		
+		// When
+		String result = dataAccessGuard.read("user.findAll", "all", () -> {
+			try {
+				never.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "late";
+		});
+		
+		// Then
+		assertEquals("cached", result);
+	}
+	
+	@Test
+	@DisplayName("Should stop calling the database once the breaker opens")
+	void testRead_OpenBreakerShortCircuits() {
+		// Given
+		AtomicInteger calls = new AtomicInteger();
+		dataAccessGuard.read("user.findById", 1, () -> "john");
+		dataAccessGuard.read("user.findById", 1, () -> {
+			calls.incrementAndGet();
+			throw new DataAccessResourceFailureException("connection refused");
+		});
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+		
+		// When
+		String result = dataAccessGuard.read("user.findById", 1, () -> {
+			calls.incrementAndGet();
+			return "fresh";
+		});
+		
+		// Then
+		assertEquals("john", result);
+		assertEquals(1, calls.get());
+	}
+	
+	@Test
+	@DisplayName("Should throw instead of serving the stale copy on a fresh read")
+	void testReadFresh_DatabaseDown_NoFallback() {
+		// Given
+		dataAccessGuard.read("user.findById", 1, () -> "john");
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> dataAccessGuard.readFresh("user.findById", 1, () -> {
+			throw new DataAccessResourceFailureException("connection refused");
+		}));
+		assertThrows(ServiceUnavailableException.class, () -> dataAccessGuard.readFreshWithoutTransaction("user.findById", 1, () -> {
+			LockSupport.parkNanos(Duration.ofMillis(500).toNanos());
+			return "late";
+		}));
+		assertEquals("john", dataAccessGuard.read("user.findById", 1, () -> "late"));
+	}
+	
+	@Test
+	@DisplayName("Should let business exceptions through without fallback or failure")
+	void testRead_BusinessExceptionPropagates() {
+		// Given
+		dataAccessGuard.read("user.findById", 9, () -> "cached");
+		
+		// When & Then
+		assertThrows(UserObjectNotFoundException.class, () -> dataAccessGuard.read("user.findById", 9, () -> {
+			throw new UserObjectNotFoundException("User with id: 9 not found");
+		}));
+		assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+	}
+	
+	@Test
+	@DisplayName("Should guard a read without opening a transaction for it")
+	void testReadWithoutTransaction_NoTransaction() {
+		// Given
+		AtomicInteger transactions = new AtomicInteger();
+		DataAccessGuard counting = new DataAccessGuard(circuitBreaker,
+				TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build()),
+				executorService, new TransactionOperations() {
+					@Override
+					public <T> T execute(TransactionCallback<T> action) {
+						transactions.incrementAndGet();
+						return action.doInTransaction(null);
+					}
+				},
+				new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), meterRegistry);
+		
+		// When
+		String result = counting.readWithoutTransaction("user.findById", 1, () -> "john");
+		counting.read("user.findById", 1, () -> "john");
+		
+		// Then
+		assertEquals("john", result);
+		assertEquals(1, transactions.get());
+	}
+	
+	@Test
+	@DisplayName("Should apply the time limit and stale fallback to reads without a transaction")
+	void testReadWithoutTransaction_TimeoutServesStale() {
+		// Given
+		dataAccessGuard.readWithoutTransaction("address.findById", 1, () -> "cached");
+		
+		// When
+		String result = dataAccessGuard.readWithoutTransaction("address.findById", 1, () -> {
+			LockSupport.parkNanos(Duration.ofMillis(500).toNanos());
+			return "late";
+		});
+		
+		// Then
+		assertEquals("cached", result);
+	}
+	
+	@Test
+	@DisplayName("Should fail writes fast while the breaker is open")
+	void testWrite_OpenBreakerFailsFast() {
+		// Given
+		circuitBreaker.transitionToOpenState();
+		AtomicInteger calls = new AtomicInteger();
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> dataAccessGuard.write("user.save", calls::incrementAndGet));
+		assertEquals(0, calls.get());
+	}
+	
+	@Test
+	@DisplayName("Should run writes on the caller thread")
+	void testWrite_CallerThread() {
+		assertEquals(Thread.currentThread().getName(),
+				dataAccessGuard.write("user.save", () -> Thread.currentThread().getName()));
+	}
+	
+	
+	@Test
+	@DisplayName("Should stream on the caller thread, without the time limiter")
+	void testStream_CallerThreadNoTimeLimit() {
+		// Given
+		String caller = Thread.currentThread().getName();
+		AtomicReference<String> worker = new AtomicReference<>();
+		List<String> sent = new ArrayList<>();
+		
+		// When
+		dataAccessGuard.<String>stream("user.streamAll", sent::add, rows -> {
+			worker.set(Thread.currentThread().getName());
+			LockSupport.parkNanos(Duration.ofMillis(200).toNanos()); // mas que el time limiter de 100ms
+			rows.accept("john");
+		});
+		
+		// Then
+		assertEquals(caller, worker.get());
+		assertEquals(List.of("john"), sent);
+	}
+	
+	@Test
+	@DisplayName("Should cut a stream still sending rows after its deadline")
+	void testStream_DeadlineCutsStream() {
+		// Given
+		DataAccessGuard deadlined = new DataAccessGuard(circuitBreaker, TimeLimiter.ofDefaults(), executorService,
+				TransactionOperations.withoutTransaction(), new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()),
+				Duration.ofMillis(100), meterRegistry);
+		List<String> sent = new ArrayList<>();
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> deadlined.<String>stream("user.streamAll", sent::add, rows -> {
+			rows.accept("john");
+			LockSupport.parkNanos(Duration.ofMillis(200).toNanos()); // cliente lento
+			rows.accept("jane");
+		}));
+		assertEquals(List.of("john"), sent);
+		assertEquals(1.0, meterRegistry.get("circuitbreaker.fallback").tag("outcome", "deadline").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should reject a stream with 503 while the breaker is open")
+	void testStream_OpenBreakerFailsFast() {
+		// Given
+		circuitBreaker.transitionToOpenState();
+		AtomicInteger calls = new AtomicInteger();
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> dataAccessGuard.stream("user.streamAll", row -> {}, rows -> calls.incrementAndGet()));
+		assertEquals(0, calls.get());
+		assertEquals(1.0, meterRegistry.get("circuitbreaker.fallback").tag("outcome", "rejected").counter().count());
+	}
+	
+}
@@ -0,0 +1,136 @@
+package com.selimhorri.app.resilience;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("StaleCache Test")
+class StaleCacheTest {
+	
+	@Test
+	@DisplayName("Should keep entries per operation and key")
+	void testGet_PerOperationAndKey() {
+		// Given
+		StaleCache staleCache = new StaleCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+		staleCache.put("user.findById", 1, "john");
+		staleCache.put("address.findById", 1, "street");
+		
+		// When & Then
+		assertEquals(Optional.of("john"), staleCache.get("user.findById", 1));
+		assertEquals(Optional.of("street"), staleCache.get("address.findById", 1));
+		assertEquals(Optional.empty(), staleCache.get("user.findById", 2));
+	}
+	
+	@Test
+	@DisplayName("Should evict the least recently used entry beyond maxEntries")
+	void testPut_EvictsLeastRecentlyUsed() {
+		// Given
+		StaleCache staleCache = new StaleCache(2, Duration.ofMinutes(1), Clock.systemUTC());
+		staleCache.put("user.findById", 1, "a");
+		staleCache.put("user.findById", 2, "b");
+		staleCache.get("user.findById", 1);
+		
+		// When
+		staleCache.put("user.findById", 3, "c");
+		
+		// Then
+		assertEquals(2, staleCache.size());
+		assertTrue(staleCache.get("user.findById", 1).isPresent());
+		assertTrue(staleCache.get("user.findById", 2).isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should not keep stale copies of collections")
+	void testPut_SkipsCollections() {
+		// Given
+		StaleCache staleCache = new StaleCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+		
+		// When
+		staleCache.put("user.findAll", "all", List.of("john", "jane"));
+		
+		// Then
+		assertEquals(Optional.empty(), staleCache.get("user.findAll", "all"));
+		assertEquals(0, staleCache.size());
+	}
+	
+	@Test
+	@DisplayName("Should stay bounded under concurrent puts")
+	void testPut_ConcurrentBounded() throws Exception {
+		// Given
+		StaleCache staleCache = new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC());
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		
+		// When
+		try {
+			List<Future<?>> writers = IntStream.range(0, 4)
+					.mapToObj(writer -> executorService.submit(() -> IntStream.range(0, 10_000)
+							.forEach(key -> staleCache.put("user.findById", writer * 10_000 + key, "user"))))
+					.collect(Collectors.toList());
+			for (Future<?> writer : writers)
+				writer.get();
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+		staleCache.put("user.findById", -1, "last");
+		
+		// Then
+		assertTrue(staleCache.size() <= 100);
+		assertTrue(staleCache.get("user.findById", -1).isPresent());
+	}
+	
+	@Test
+	@DisplayName("Should never serve entries older than maxStaleness")
+	void testGet_TooStale() {
+		// Given
+		MutableClock clock = new MutableClock(Instant.parse("2021-01-01T00:00:00Z"));
+		StaleCache staleCache = new StaleCache(10, Duration.ofMinutes(10), clock);
+		staleCache.put("user.findAll", "all", "users");
+		
+		// When
+		clock.now = clock.now.plus(Duration.ofMinutes(11));
+		
+		// Then
+		assertEquals(Optional.empty(), staleCache.get("user.findAll", "all"));
+		assertEquals(0, staleCache.size());
+	}
+	
+	private static final class MutableClock extends Clock {
+		
+		private Instant now;
+		
+		private MutableClock(final Instant now) {
+			this.now = now;
+		}
+		
+		@Override
+		public ZoneOffset getZone() {
+			return ZoneOffset.UTC;
+		}
+		
+		@Override
+		public Clock withZone(final java.time.ZoneId zone) {
+			return this;
+		}
+		
+		@Override
+		public Instant instant() {
+			return this.now;
+		}
+		
+	}
+	
+}
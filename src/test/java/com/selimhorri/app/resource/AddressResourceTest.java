@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -76,7 +77,10 @@ class AddressResourceTest {
 				.build();
 
 		List<AddressDto> addresses = Arrays.asList(sampleAddress, secondAddress);
-		when(addressService.findAll()).thenReturn(addresses);
+		doAnswer(invocation -> {
+			addresses.forEach(invocation.<Consumer<AddressDto>>getArgument(0));
+			return null;
+		}).when(addressService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/address")
@@ -87,7 +91,7 @@ class AddressResourceTest {
 				.andExpect(jsonPath("$.collection[0].city").value("Beverly Hills"))
 				.andExpect(jsonPath("$.collection[1].addressId").value(2));
 
-		verify(addressService, times(1)).findAll();
+		verify(addressService, times(1)).streamAll(any());
 	}
 
 	@Test
@@ -229,7 +233,7 @@ class AddressResourceTest {
 	@DisplayName("GET /api/address - Should return empty list when no addresses")
 	void testGetAllAddressesEmptyResult() throws Exception {
 		// Arrange
-		when(addressService.findAll()).thenReturn(Arrays.asList());
+		doNothing().when(addressService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/address")
@@ -238,7 +242,7 @@ class AddressResourceTest {
 				.andExpect(jsonPath("$.collection").isArray())
 				.andExpect(jsonPath("$.collection").isEmpty());
 
-		verify(addressService, times(1)).findAll();
+		verify(addressService, times(1)).streamAll(any());
 	}
 }
 
@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -83,7 +84,10 @@ class CredentialResourceTest {
 				.build();
 
 		List<CredentialDto> credentials = Arrays.asList(sampleCredential, adminCredential);
-		when(credentialService.findAll()).thenReturn(credentials);
+		doAnswer(invocation -> {
+			credentials.forEach(invocation.<Consumer<CredentialDto>>getArgument(0));
+			return null;
+		}).when(credentialService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/credentials")
@@ -95,7 +99,7 @@ class CredentialResourceTest {
 				.andExpect(jsonPath("$.collection[1].credentialId").value(2))
 				.andExpect(jsonPath("$.collection[1].username").value("admin_user"));
 
-		verify(credentialService, times(1)).findAll();
+		verify(credentialService, times(1)).streamAll(any());
 	}
 
 	@Test
@@ -5,8 +5,10 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,15 +17,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.changefeed.ChangeCursor;
 import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.AddressDto;
 import com.selimhorri.app.dto.CredentialDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.service.AddressService;
 import com.selimhorri.app.service.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +44,9 @@ class UserResourceTest {
 	@Mock
 	private UserService userService;
 
+	@Mock
+	private AddressService addressService;
+
 	@InjectMocks
 	private UserResource userResource;
 
@@ -83,7 +94,10 @@ class UserResourceTest {
 				.build();
 
 		List<UserDto> users = Arrays.asList(sampleUser, secondUser);
-		when(userService.findAll()).thenReturn(users);
+		doAnswer(invocation -> {
+			users.forEach(invocation.<Consumer<UserDto>>getArgument(0));
+			return null;
+		}).when(userService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/users")
@@ -94,7 +108,7 @@ class UserResourceTest {
 				.andExpect(jsonPath("$.collection[0].firstName").value("Alice"))
 				.andExpect(jsonPath("$.collection[1].userId").value(2));
 
-		verify(userService, times(1)).findAll();
+		verify(userService, times(1)).streamAll(any());
 	}
 
 	@Test
@@ -130,6 +144,31 @@ class UserResourceTest {
 		verify(userService, times(1)).findById(999);
 	}
 
+	@Test
+	@DisplayName("GET /api/users/{id}/addresses - Should return paged addresses of the user")
+	void testGetAddressesByUserId() throws Exception {
+		// Arrange
+		AddressDto address = AddressDto.builder()
+				.addressId(10)
+				.fullAddress("123 Main St")
+				.city("New York")
+				.userDto(UserDto.builder().userId(1).build())
+				.build();
+		when(addressService.findAllByUserId(eq(1), any(Pageable.class))).thenReturn(List.of(address));
+
+		// Act & Assert
+		mockMvc.perform(get("/api/users/1/addresses")
+				.param("page", "2")
+				.param("size", "500")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].addressId").value(10))
+				.andExpect(jsonPath("$.collection[0].user.userId").value(1));
+
+		verify(addressService, times(1)).findAllByUserId(eq(1), argThat(pageable -> 
+				pageable.getPageNumber() == 2 && pageable.getPageSize() == 100));
+	}
+
 	@Test
 	@DisplayName("GET /api/users/username/{username} - Should return user by username")
 	void testGetUserByUsername() throws Exception {
@@ -255,7 +294,7 @@ class UserResourceTest {
 	@DisplayName("GET /api/users - Should return empty collection when no users exist")
 	void testGetAllUsersEmptyList() throws Exception {
 		// Arrange
-		when(userService.findAll()).thenReturn(Arrays.asList());
+		doNothing().when(userService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/users")
@@ -264,7 +303,47 @@ class UserResourceTest {
 				.andExpect(jsonPath("$.collection").isArray())
 				.andExpect(jsonPath("$.collection").isEmpty());
 
-		verify(userService, times(1)).findAll();
+		verify(userService, times(1)).streamAll(any());
+	}
+
+	@Test
+	@DisplayName("GET /api/users/changes - Should return changes and tombstones after the watermark")
+	void testGetUserChangesSinceWatermark() throws Exception {
+		// Arrange
+		final Instant changedAt = Instant.parse("2026-03-01T12:00:00Z");
+		when(userService.findChanges(new ChangeCursor(changedAt, 4), 50)).thenReturn(ChangeFeedResponse.<UserDto>builder()
+				.changes(List.of(ChangeDto.upsert(1, changedAt.plusSeconds(1), sampleUser),
+						ChangeDto.tombstone(7, changedAt.plusSeconds(2))))
+				.nextSince(new ChangeCursor(changedAt.plusSeconds(2), 7).format())
+				.hasMore(false)
+				.build());
+
+		// Act & Assert
+		mockMvc.perform(get("/api/users/changes")
+				.param("since", "2026-03-01T12:00:00Z~4")
+				.param("limit", "50")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[0].id").value(1))
+				.andExpect(jsonPath("$.changes[0].deleted").value(false))
+				.andExpect(jsonPath("$.changes[0].data.firstName").value("Alice"))
+				.andExpect(jsonPath("$.changes[1].id").value(7))
+				.andExpect(jsonPath("$.changes[1].deleted").value(true))
+				.andExpect(jsonPath("$.changes[1].data").doesNotExist())
+				.andExpect(jsonPath("$.nextSince").value("2026-03-01T12:00:02Z~7"))
+				.andExpect(jsonPath("$.hasMore").value(false));
+	}
+
+	@Test
+	@DisplayName("GET /api/users/changes - Should reject a malformed watermark")
+	void testGetUserChangesMalformedWatermark() throws Exception {
+		// Act & Assert
+		mockMvc.perform(get("/api/users/changes")
+				.param("since", "yesterday")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+
+		verifyNoInteractions(userService);
 	}
 }
 
@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -76,7 +77,10 @@ class VerificationTokenResourceTest {
 				.build();
 
 		List<VerificationTokenDto> tokens = Arrays.asList(sampleToken, secondToken);
-		when(verificationTokenService.findAll()).thenReturn(tokens);
+		doAnswer(invocation -> {
+			tokens.forEach(invocation.<Consumer<VerificationTokenDto>>getArgument(0));
+			return null;
+		}).when(verificationTokenService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/verificationTokens")
@@ -87,7 +91,7 @@ class VerificationTokenResourceTest {
 				.andExpect(jsonPath("$.collection[0].token").value("abc123def456"))
 				.andExpect(jsonPath("$.collection[1].verificationTokenId").value(2));
 
-		verify(verificationTokenService, times(1)).findAll();
+		verify(verificationTokenService, times(1)).streamAll(any());
 	}
 
 	@Test
@@ -228,7 +232,7 @@ class VerificationTokenResourceTest {
 	@DisplayName("GET /api/verificationTokens - Should return empty collection when no tokens")
 	void testGetAllTokensEmptyCollection() throws Exception {
 		// Arrange
-		when(verificationTokenService.findAll()).thenReturn(Arrays.asList());
+		doNothing().when(verificationTokenService).streamAll(any());
 
 		// Act & Assert
 		mockMvc.perform(get("/api/verificationTokens")
@@ -237,7 +241,7 @@ class VerificationTokenResourceTest {
 				.andExpect(jsonPath("$.collection").isArray())
 				.andExpect(jsonPath("$.collection").isEmpty());
 
-		verify(verificationTokenService, times(1)).findAll();
+		verify(verificationTokenService, times(1)).streamAll(any());
 	}
 
 	@Test
@@ -5,9 +5,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,13 +20,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionOperations;
 
 import com.selimhorri.app.domain.Address;
 import com.selimhorri.app.domain.User;
 import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.event.EntityChangedEvent;
 import com.selimhorri.app.exception.wrapper.AddressNotFoundException;
+import com.selimhorri.app.helper.AddressMappingHelper;
 import com.selimhorri.app.repository.AddressRepository;
+import com.selimhorri.app.repository.projection.AddressProjection;
+import com.selimhorri.app.resilience.DataAccessGuard;
+import com.selimhorri.app.resilience.StaleCache;
+import com.selimhorri.app.service.loader.AddressBatchLoader;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("AddressServiceImpl Test")
@@ -30,10 +51,22 @@ class AddressServiceImplTest {
 	@Mock
 	private AddressRepository addressRepository;
 	
+	@Mock
+	private AddressBatchLoader addressBatchLoader;
+	
+	@Spy
+	private DataAccessGuard dataAccessGuard = new DataAccessGuard(CircuitBreaker.ofDefaults("test"), TimeLimiter.ofDefaults(),
+			Executors.newCachedThreadPool(), TransactionOperations.withoutTransaction(),
+			new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), new SimpleMeterRegistry());
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
 	@InjectMocks
 	private AddressServiceImpl addressService;
 	
 	private Address address;
+	private AddressProjection addressProjection;
 	private AddressDto addressDto;
 	
 	@BeforeEach
@@ -52,6 +85,16 @@ class AddressServiceImplTest {
 				.user(user)
 				.build();
 		
+		addressProjection = AddressProjection.builder()
+				.addressId(1)
+				.fullAddress("123 Main St")
+				.postalCode("12345")
+				.city("New York")
+				.userId(1)
+				.firstName("John")
+				.lastName("Doe")
+				.build();
+		
 		addressDto = AddressDto.builder()
 				.addressId(1)
 				.fullAddress("123 Main St")
@@ -64,8 +107,8 @@ class AddressServiceImplTest {
 	@DisplayName("Should return all addresses successfully")
 	void testFindAll_Success() {
 		// Given
-		List<Address> addresses = Arrays.asList(address, createMockAddress(2));
-		when(addressRepository.findAll()).thenReturn(addresses);
+		List<AddressProjection> addresses = Arrays.asList(addressProjection, createMockProjection(2));
+		when(addressRepository.findAllProjectedBy()).thenReturn(addresses);
 		
 		// When
 		List<AddressDto> result = addressService.findAll();
@@ -73,14 +116,30 @@ class AddressServiceImplTest {
 		// Then
 		assertNotNull(result);
 		assertEquals(2, result.size());
-		verify(addressRepository, times(1)).findAll();
+		verify(addressRepository, times(1)).findAllProjectedBy();
+	}
+	
+	@Test
+	@DisplayName("Should stream address projections in repository order")
+	void testStreamAll_Success() {
+		// Given
+		when(addressRepository.streamAllProjectedBy()).thenReturn(Stream.of(addressProjection, createMockProjection(2)));
+		List<AddressDto> result = new ArrayList<>();
+		
+		// When
+		addressService.streamAll(result::add);
+		
+		// Then
+		assertEquals(2, result.size());
+		assertEquals(2, result.get(1).getAddressId());
+		verify(addressRepository, never()).findAllProjectedBy();
 	}
 	
 	@Test
 	@DisplayName("Should return empty list when no addresses exist")
 	void testFindAll_EmptyList() {
 		// Given
-		when(addressRepository.findAll()).thenReturn(Arrays.asList());
+		when(addressRepository.findAllProjectedBy()).thenReturn(Arrays.asList());
 		
 		// When
 		List<AddressDto> result = addressService.findAll();
@@ -88,14 +147,14 @@ class AddressServiceImplTest {
 		// Then
 		assertNotNull(result);
 		assertTrue(result.isEmpty());
-		verify(addressRepository, times(1)).findAll();
+		verify(addressRepository, times(1)).findAllProjectedBy();
 	}
 	
 	@Test
 	@DisplayName("Should return address by id successfully")
 	void testFindById_Success() {
 		// Given
-		when(addressRepository.findById(1)).thenReturn(Optional.of(address));
+		when(addressBatchLoader.load(1)).thenReturn(Optional.of(AddressMappingHelper.map(address)));
 		
 		// When
 		AddressDto result = addressService.findById(1);
@@ -106,14 +165,14 @@ class AddressServiceImplTest {
 		assertEquals("123 Main St", result.getFullAddress());
 		assertEquals("12345", result.getPostalCode());
 		assertEquals("New York", result.getCity());
-		verify(addressRepository, times(1)).findById(1);
+		verify(addressBatchLoader, times(1)).load(1);
 	}
 	
 	@Test
 	@DisplayName("Should throw exception when address not found by id")
 	void testFindById_AddressNotFound() {
 		// Given
-		when(addressRepository.findById(anyInt())).thenReturn(Optional.empty());
+		when(addressBatchLoader.load(anyInt())).thenReturn(Optional.empty());
 		
 		// When & Then
 		AddressNotFoundException exception = assertThrows(
@@ -121,7 +180,7 @@ class AddressServiceImplTest {
 				() -> addressService.findById(999));
 		
 		assertTrue(exception.getMessage().contains("999"));
-		verify(addressRepository, times(1)).findById(999);
+		verify(addressBatchLoader, times(1)).load(999);
 	}
 	
 	@Test
@@ -138,6 +197,10 @@ class AddressServiceImplTest {
 		assertNotNull(result);
 		assertEquals(1, result.getAddressId());
 		verify(addressRepository, times(1)).save(any(Address.class));
+		verify(eventPublisher).publishEvent(argThat((EntityChangedEvent event) ->
+				event.getEntityType() == EntityChangedEvent.EntityType.ADDRESS
+						&& event.getChangeType() == EntityChangedEvent.ChangeType.CREATED
+						&& event.getEntityId() == 1));
 	}
 	
 	@Test
@@ -172,7 +235,7 @@ class AddressServiceImplTest {
 				.fullAddress("Updated Address")
 				.city("Chicago")
 				.build();
-		when(addressRepository.findById(1)).thenReturn(Optional.of(address));
+		when(addressBatchLoader.load(1)).thenReturn(Optional.of(AddressMappingHelper.map(address)));
 		when(addressRepository.save(any(Address.class))).thenReturn(address);
 		
 		// When
@@ -180,7 +243,7 @@ class AddressServiceImplTest {
 		
 		// Then
 		assertNotNull(result);
-		verify(addressRepository, times(1)).findById(1);
+		verify(addressBatchLoader, times(1)).load(1);
 		verify(addressRepository, times(1)).save(any(Address.class));
 	}
 	
@@ -195,16 +258,18 @@ class AddressServiceImplTest {
 		
 		// Then
 		verify(addressRepository, times(1)).deleteById(1);
+		verify(eventPublisher).publishEvent(argThat((EntityChangedEvent event) ->
+				event.getChangeType() == EntityChangedEvent.ChangeType.DELETED && event.getEntityId() == 1));
 	}
 	
 	@Test
 	@DisplayName("Should handle multiple addresses with distinct values")
 	void testFindAll_DistinctAddresses() {
 		// Given
-		Address addr2 = createMockAddress(2);
-		Address addr3 = createMockAddress(3);
-		List<Address> addresses = Arrays.asList(address, addr2, addr3);
-		when(addressRepository.findAll()).thenReturn(addresses);
+		AddressProjection addr2 = createMockProjection(2);
+		AddressProjection addr3 = createMockProjection(3);
+		List<AddressProjection> addresses = Arrays.asList(addressProjection, addr2, addr3);
+		when(addressRepository.findAllProjectedBy()).thenReturn(addresses);
 		
 		// When
 		List<AddressDto> result = addressService.findAll();
@@ -212,7 +277,7 @@ class AddressServiceImplTest {
 		// Then
 		assertNotNull(result);
 		assertEquals(3, result.size());
-		verify(addressRepository, times(1)).findAll();
+		verify(addressRepository, times(1)).findAllProjectedBy();
 	}
 	
 	@Test
@@ -224,7 +289,7 @@ class AddressServiceImplTest {
 				.fullAddress(null)
 				.city(null)
 				.build();
-		when(addressRepository.findById(1)).thenReturn(Optional.of(address));
+		when(addressBatchLoader.load(1)).thenReturn(Optional.of(AddressMappingHelper.map(address)));
 		when(addressRepository.save(any(Address.class))).thenReturn(address);
 		
 		// When
@@ -272,9 +337,36 @@ class AddressServiceImplTest {
 		verify(addressRepository, times(1)).save(any(Address.class));
 	}
 	
+	@Test
+	@DisplayName("Should return a page of addresses for a user")
+	void testFindAllByUserId_Success() {
+		// Given
+		Pageable pageable = PageRequest.of(0, 20);
+		AddressProjection projection = AddressProjection.builder()
+				.addressId(1)
+				.fullAddress("123 Main St")
+				.postalCode("12345")
+				.city("New York")
+				.userId(1)
+				.firstName("John")
+				.lastName("Doe")
+				.build();
+		when(addressRepository.findByUserUserId(1, pageable)).thenReturn(new SliceImpl<>(List.of(projection)));
+		
+		// When
+		List<AddressDto> result = addressService.findAllByUserId(1, pageable);
+		
+		// Then
+		assertEquals(1, result.size());
+		assertEquals("123 Main St", result.get(0).getFullAddress());
+		assertEquals(1, result.get(0).getUserDto().getUserId());
+		verify(addressRepository, times(1)).findByUserUserId(1, pageable);
+		verify(addressRepository, never()).findAll();
+	}
+	
 	// Helper method to create mock addresses
-	private Address createMockAddress(int addressId) {
-		return Address.builder()
+	private AddressProjection createMockProjection(int addressId) {
+		return AddressProjection.builder()
 				.addressId(addressId)
 				.fullAddress("Address " + addressId)
 				.postalCode("00000")
@@ -283,4 +375,3 @@ class AddressServiceImplTest {
 	}
 	
 }
-
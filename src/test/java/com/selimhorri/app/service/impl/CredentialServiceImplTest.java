@@ -4,11 +4,20 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,14 +25,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.selimhorri.app.concurrent.SingleFlight;
 import com.selimhorri.app.domain.Credential;
 import com.selimhorri.app.domain.RoleBasedAuthority;
 import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.event.EntityChangedEvent;
 import com.selimhorri.app.exception.wrapper.CredentialNotFoundException;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
 import com.selimhorri.app.repository.CredentialRepository;
+import com.selimhorri.app.resilience.DataAccessGuard;
+import com.selimhorri.app.resilience.StaleCache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("CredentialServiceImpl Test")
@@ -32,6 +52,20 @@ class CredentialServiceImplTest {
 	@Mock
 	private CredentialRepository credentialRepository;
 	
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), Duration.ofSeconds(1));
+	
+	@Spy
+	private DataAccessGuard dataAccessGuard = new DataAccessGuard(CircuitBreaker.ofDefaults("test"), TimeLimiter.ofDefaults(),
+			Executors.newCachedThreadPool(), TransactionOperations.withoutTransaction(),
+			new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), new SimpleMeterRegistry());
+	
+	@Mock
+	private EntityManager entityManager;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
 	@InjectMocks
 	private CredentialServiceImpl credentialService;
 	
@@ -79,6 +113,22 @@ class CredentialServiceImplTest {
 		verify(credentialRepository, times(1)).findAll();
 	}
 	
+	@Test
+	@DisplayName("Should stream credentials and detach each entity after mapping")
+	void testStreamAll_Success() {
+		// Given
+		when(credentialRepository.streamAllBy()).thenReturn(Stream.of(credential, createMockCredential(2)));
+		List<CredentialDto> result = new ArrayList<>();
+		
+		// When
+		credentialService.streamAll(result::add);
+		
+		// Then
+		assertEquals(2, result.size());
+		verify(entityManager, times(2)).detach(any(Credential.class));
+		verify(credentialRepository, never()).findAll();
+	}
+	
 	@Test
 	@DisplayName("Should return empty list when no credentials exist")
 	void testFindAll_EmptyList() {
@@ -158,12 +208,17 @@ class CredentialServiceImplTest {
 			return savedCredential;
 		});
 		
+		when(credentialRepository.findById(1)).thenReturn(Optional.of(credential));
+		
 		// When
 		CredentialDto result = credentialService.update(updateDto);
 		
 		// Then
 		assertNotNull(result);
 		verify(credentialRepository, times(1)).save(any(Credential.class));
+		verify(eventPublisher).publishEvent(argThat((EntityChangedEvent event) ->
+				event.getChangeType() == EntityChangedEvent.ChangeType.UPDATED
+						&& event.getUsernames().equals(Set.of("updateduser", "testuser"))));
 	}
 	
 	@Test
@@ -191,6 +246,7 @@ class CredentialServiceImplTest {
 	@DisplayName("Should delete credential successfully")
 	void testDeleteById_Success() {
 		// Given
+		when(credentialRepository.findById(1)).thenReturn(Optional.of(credential));
 		doNothing().when(credentialRepository).deleteById(anyInt());
 		
 		// When
@@ -198,6 +254,9 @@ class CredentialServiceImplTest {
 		
 		// Then
 		verify(credentialRepository, times(1)).deleteById(1);
+		verify(eventPublisher).publishEvent(argThat((EntityChangedEvent event) ->
+				event.getChangeType() == EntityChangedEvent.ChangeType.DELETED
+						&& event.getUsernames().equals(Set.of("testuser"))));
 	}
 	
 	@Test
@@ -214,6 +273,7 @@ class CredentialServiceImplTest {
 		assertEquals(1, result.getCredentialId());
 		assertEquals("testuser", result.getUsername());
 		verify(credentialRepository, times(1)).findByUsername("testuser");
+		verify(singleFlight, times(1)).execute(eq("credential.findByUsername"), eq("testuser"), any());
 	}
 	
 	@Test
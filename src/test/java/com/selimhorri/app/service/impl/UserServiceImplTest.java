@@ -3,30 +3,65 @@ package com.selimhorri.app.service.impl;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.selimhorri.app.cache.OffHeapProfileStore;
+import com.selimhorri.app.cache.StoredProfile;
+import com.selimhorri.app.changefeed.ChangeCursor;
+import com.selimhorri.app.changefeed.ChangeFeed;
+import com.selimhorri.app.changefeed.ChangeFeed.LiveChanges;
+import com.selimhorri.app.concurrent.RefreshAhead;
+import com.selimhorri.app.concurrent.SingleFlight;
 import com.selimhorri.app.domain.Credential;
 import com.selimhorri.app.domain.RoleBasedAuthority;
 import com.selimhorri.app.domain.User;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeDto;
+import com.selimhorri.app.dto.response.changefeed.ChangeFeedResponse;
+import com.selimhorri.app.event.EntityChangedEvent;
+import com.selimhorri.app.event.EntityChangedEvent.EntityType;
+import com.selimhorri.app.exception.wrapper.ServiceUnavailableException;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
+import com.selimhorri.app.helper.UserMappingHelper;
 import com.selimhorri.app.repository.CredentialRepository;
 import com.selimhorri.app.repository.UserRepository;
+import com.selimhorri.app.resilience.DataAccessGuard;
+import com.selimhorri.app.resilience.StaleCache;
+import com.selimhorri.app.service.loader.UserBatchLoader;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("UserServiceImpl Test")
@@ -38,6 +73,32 @@ class UserServiceImplTest {
 	@Mock
 	private CredentialRepository credentialRepository;
 	
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), Duration.ofSeconds(1));
+	
+	@Mock
+	private UserBatchLoader userBatchLoader;
+	
+	@Spy
+	private DataAccessGuard dataAccessGuard = new DataAccessGuard(CircuitBreaker.ofDefaults("test"), TimeLimiter.ofDefaults(),
+			Executors.newCachedThreadPool(), TransactionOperations.withoutTransaction(),
+			new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), new SimpleMeterRegistry());
+	
+	@Mock
+	private EntityManager entityManager;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Mock
+	private OffHeapProfileStore offHeapProfileStore;
+	
+	@Mock
+	private RefreshAhead profileRefreshAhead;
+	
+	@Mock
+	private ChangeFeed changeFeed;
+	
 	@InjectMocks
 	private UserServiceImpl userService;
 	
@@ -103,6 +164,25 @@ class UserServiceImplTest {
 		verify(userRepository, times(1)).findAll();
 	}
 	
+	@Test
+	@DisplayName("Should stream users with credentials and detach each entity after mapping")
+	void testStreamAll_Success() {
+		// Given
+		User withoutCredential = createMockUser(3);
+		withoutCredential.setCredential(null);
+		when(userRepository.streamAllBy()).thenReturn(Stream.of(user, createMockUser(2), withoutCredential));
+		List<UserDto> result = new ArrayList<>();
+		
+		// When
+		userService.streamAll(result::add);
+		
+		// Then
+		assertEquals(2, result.size());
+		assertEquals("John", result.get(0).getFirstName());
+		verify(entityManager, times(3)).detach(any(User.class));
+		verify(userRepository, never()).findAll();
+	}
+	
 	@Test
 	@DisplayName("Should return empty list when no users exist")
 	void testFindAll_EmptyList() {
@@ -122,7 +202,7 @@ class UserServiceImplTest {
 	@DisplayName("Should return user by id successfully")
 	void testFindById_Success() {
 		// Given
-		when(userRepository.findById(1)).thenReturn(Optional.of(user));
+		when(userBatchLoader.load(1)).thenReturn(Optional.of(UserMappingHelper.map(user, credential)));
 		
 		// When
 		UserDto result = userService.findById(1);
@@ -132,18 +212,155 @@ class UserServiceImplTest {
 		assertEquals(1, result.getUserId());
 		assertEquals("John", result.getFirstName());
 		assertEquals("Doe", result.getLastName());
-		verify(userRepository, times(1)).findById(1);
+		assertEquals("testuser", result.getCredentialDto().getUsername());
+		assertEquals("password123", result.getCredentialDto().getPassword());
+		verify(userBatchLoader, times(1)).load(1);
+		verify(singleFlight, times(1)).execute(eq("user.findById"), eq(1), any());
+		verifyNoInteractions(userRepository);
+	}
+	
+	@Test
+	@DisplayName("Should answer from the off-heap profile store without loading")
+	void testFindById_ProfileStoreHit() {
+		// Given
+		when(offHeapProfileStore.findById(1)).thenReturn(Optional.of(new StoredProfile(UserMappingHelper.map(user, credential), false)));
+		
+		// When
+		UserDto result = userService.findById(1);
+		
+		// Then
+		assertEquals("John", result.getFirstName());
+		verifyNoInteractions(userBatchLoader, userRepository, profileRefreshAhead);
+	}
+	
+	@Test
+	@DisplayName("Should fill the password hash the store does not keep from the credential")
+	void testFindById_ProfileStoreHitWithoutPassword() {
+		// Given
+		UserDto stored = UserMappingHelper.map(user, credential);
+		stored.getCredentialDto().setPassword(null);
+		when(offHeapProfileStore.findById(1)).thenReturn(Optional.of(new StoredProfile(stored, false)));
+		when(credentialRepository.findById(1)).thenReturn(Optional.of(credential));
+		
+		// When
+		UserDto result = userService.findById(1);
+		
+		// Then
+		assertEquals("password123", result.getCredentialDto().getPassword());
+		verifyNoInteractions(userBatchLoader, userRepository);
+	}
+	
+	@Test
+	@DisplayName("Should load from the database when the stored profile's credential cannot be read")
+	void testFindById_ProfileStoreHitCredentialGone() {
+		// Given
+		UserDto stored = UserMappingHelper.map(user, credential);
+		stored.getCredentialDto().setPassword(null);
+		when(offHeapProfileStore.findById(1)).thenReturn(Optional.of(new StoredProfile(stored, false)));
+		when(credentialRepository.findById(1)).thenReturn(Optional.empty());
+		when(userBatchLoader.load(1)).thenReturn(Optional.of(UserMappingHelper.map(user, credential)));
+		
+		// When
+		UserDto result = userService.findById(1);
+		
+		// Then
+		assertEquals("password123", result.getCredentialDto().getPassword());
+		verify(userBatchLoader, times(1)).load(1);
+	}
+	
+	@Test
+	@DisplayName("Should serve the stored profile and refresh it in the background when due")
+	void testFindById_ProfileStoreRefreshDue() {
+		// Given
+		when(offHeapProfileStore.findById(1)).thenReturn(Optional.of(new StoredProfile(UserMappingHelper.map(user, credential), true)));
+		
+		// When
+		UserDto result = userService.findById(1);
+		
+		// Then
+		assertEquals("John", result.getFirstName());
+		verify(profileRefreshAhead).refresh(eq(List.of("user.findById", 1)), any(Runnable.class));
+		verifyNoInteractions(userBatchLoader);
+	}
+	
+	@Test
+	@DisplayName("Should keep a loaded user in the off-heap profile store")
+	void testFindById_StoresLoadedProfile() {
+		// Given
+		UserDto loaded = UserMappingHelper.map(user, credential);
+		when(offHeapProfileStore.versionOf(1)).thenReturn(3L);
+		when(userBatchLoader.load(1)).thenReturn(Optional.of(loaded));
+		
+		// When
+		userService.findById(1);
+		
+		// Then
+		verify(offHeapProfileStore).putById(eq(loaded), eq(3L), any(Duration.class));
 	}
 	
 	@Test
 	@DisplayName("Should throw exception when user not found by id")
 	void testFindById_UserNotFound() {
 		// Given
-		when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+		when(userBatchLoader.load(anyInt())).thenReturn(Optional.empty());
 		
 		// When & Then
 		assertThrows(UserObjectNotFoundException.class, () -> userService.findById(999));
-		verify(userRepository, times(1)).findById(999);
+		verify(userBatchLoader, times(1)).load(999);
+	}
+	
+	@Test
+	@DisplayName("Should serve the last known user when the database fails")
+	void testFindById_DatabaseDown_ServesStaleCopy() {
+		// Given
+		when(userBatchLoader.load(1))
+				.thenReturn(Optional.of(UserMappingHelper.map(user, credential)))
+				.thenThrow(new DataAccessResourceFailureException("connection refused"));
+		userService.findById(1);
+		
+		// When
+		UserDto result = userService.findById(1);
+		
+		// Then
+		assertEquals("John", result.getFirstName());
+		verify(userBatchLoader, times(2)).load(1);
+		verify(offHeapProfileStore, times(1)).putById(any(UserDto.class), anyLong(), any(Duration.class));
+	}
+	
+	@Test
+	@DisplayName("Should keep the stored profile when its background refresh fails")
+	void testFindById_RefreshFails_KeepsStoredProfile() {
+		// Given
+		when(userBatchLoader.load(1))
+				.thenReturn(Optional.of(UserMappingHelper.map(user, credential)))
+				.thenThrow(new DataAccessResourceFailureException("connection refused"));
+		userService.findById(1);
+		when(offHeapProfileStore.findById(1)).thenReturn(Optional.of(new StoredProfile(UserMappingHelper.map(user, credential), true)));
+		ArgumentCaptor<Runnable> refresher = ArgumentCaptor.forClass(Runnable.class);
+		userService.findById(1);
+		verify(profileRefreshAhead).refresh(eq(List.of("user.findById", 1)), refresher.capture());
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> refresher.getValue().run());
+		verify(offHeapProfileStore, times(1)).putById(any(UserDto.class), anyLong(), any(Duration.class));
+		verify(offHeapProfileStore, never()).invalidate(any(), any());
+	}
+	
+	@Test
+	@DisplayName("Should fail fast on writes while the circuit breaker is open")
+	void testSave_CircuitOpen_ServiceUnavailable() {
+		// Given
+		CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("open");
+		circuitBreaker.transitionToOpenState();
+		UserServiceImpl guardedService = new UserServiceImpl(userRepository, credentialRepository, singleFlight, userBatchLoader,
+				new DataAccessGuard(circuitBreaker, TimeLimiter.ofDefaults(), Executors.newCachedThreadPool(),
+						TransactionOperations.withoutTransaction(), new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1),
+						new SimpleMeterRegistry()), entityManager, eventPublisher, offHeapProfileStore, profileRefreshAhead,
+						changeFeed);
+		
+		// When & Then
+		assertThrows(ServiceUnavailableException.class, () -> guardedService.save(userDto));
+		verifyNoInteractions(userRepository);
 	}
 	
 	@Test
@@ -160,6 +377,13 @@ class UserServiceImplTest {
 		assertNotNull(result);
 		assertEquals(1, result.getUserId());
 		verify(userRepository, times(1)).save(any(User.class));
+		verify(eventPublisher).publishEvent(EntityChangedEvent.builder()
+				.entityType(EntityChangedEvent.EntityType.USER)
+				.changeType(EntityChangedEvent.ChangeType.CREATED)
+				.entityId(1)
+				.userId(1)
+				.username("testuser")
+				.build());
 	}
 	
 	@Test
@@ -226,6 +450,13 @@ class UserServiceImplTest {
 		verify(userRepository, times(1)).findById(1);
 		verify(userRepository, times(1)).save(any(User.class));
 		verify(credentialRepository, times(1)).deleteByCredentialId(1);
+		verify(eventPublisher).publishEvent(EntityChangedEvent.builder()
+				.entityType(EntityChangedEvent.EntityType.CREDENTIAL)
+				.changeType(EntityChangedEvent.ChangeType.DELETED)
+				.entityId(1)
+				.userId(1)
+				.username("testuser")
+				.build());
 	}
 	
 	@Test
@@ -233,6 +464,7 @@ class UserServiceImplTest {
 	void testFindByUsername_Success() {
 		// Given
 		when(userRepository.findByCredentialUsername("testuser")).thenReturn(Optional.of(user));
+		when(credentialRepository.findByUserUserId(1)).thenReturn(Optional.of(credential));
 		
 		// When
 		UserDto result = userService.findByUsername("testuser");
@@ -240,7 +472,9 @@ class UserServiceImplTest {
 		// Then
 		assertNotNull(result);
 		assertEquals(1, result.getUserId());
+		assertEquals("password123", result.getCredentialDto().getPassword());
 		verify(userRepository, times(1)).findByCredentialUsername("testuser");
+		verify(singleFlight, times(1)).execute(eq("user.findByUsername"), eq("testuser"), any());
 	}
 	
 	@Test
@@ -280,6 +514,32 @@ class UserServiceImplTest {
 		verify(userRepository, times(1)).findAll();
 	}
 	
+	@Test
+	@DisplayName("Should page user changes by keyset through the change feed")
+	@SuppressWarnings("unchecked")
+	void testFindChanges_QueriesRepositoryAfterCursor() {
+		// Given
+		final Instant changedAt = Instant.parse("2026-01-01T10:00:00Z");
+		final Instant upTo = changedAt.plusSeconds(60);
+		final ChangeCursor since = new ChangeCursor(changedAt, 7);
+		user.setUpdatedAt(changedAt.plusSeconds(1));
+		when(userRepository.findChangedAfter(changedAt, 7, upTo, PageRequest.of(0, 11))).thenReturn(List.of(user));
+		when(changeFeed.read(eq(EntityType.USER), eq(since), eq(10), any())).thenAnswer(invocation -> ChangeFeedResponse.<UserDto>builder()
+				.changes(invocation.getArgument(3, LiveChanges.class).find(since, upTo, 11))
+				.build());
+		
+		// When
+		final ChangeFeedResponse<UserDto> result = userService.findChanges(since, 10);
+		
+		// Then
+		assertEquals(1, result.getChanges().size());
+		final ChangeDto<UserDto> change = result.getChanges().get(0);
+		assertEquals(1, change.getId());
+		assertEquals(changedAt.plusSeconds(1), change.getChangedAt());
+		assertFalse(change.isDeleted());
+		assertEquals("testuser", change.getData().getCredentialDto().getUsername());
+	}
+	
 	// Helper method to create mock users
 	private User createMockUser(int userId) {
 		return User.builder()
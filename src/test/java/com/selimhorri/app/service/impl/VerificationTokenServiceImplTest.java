@@ -5,10 +5,17 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,13 +23,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.selimhorri.app.concurrent.GroupCommitter;
 import com.selimhorri.app.domain.Credential;
 import com.selimhorri.app.domain.VerificationToken;
 import com.selimhorri.app.dto.VerificationTokenDto;
+import com.selimhorri.app.event.EntityChangedEvent;
 import com.selimhorri.app.exception.wrapper.VerificationTokenNotFoundException;
 import com.selimhorri.app.repository.VerificationTokenRepository;
+import com.selimhorri.app.resilience.DataAccessGuard;
+import com.selimhorri.app.resilience.StaleCache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("VerificationTokenServiceImpl Test")
@@ -31,6 +49,21 @@ class VerificationTokenServiceImplTest {
 	@Mock
 	private VerificationTokenRepository verificationTokenRepository;
 	
+	@Spy
+	private DataAccessGuard dataAccessGuard = new DataAccessGuard(CircuitBreaker.ofDefaults("test"), TimeLimiter.ofDefaults(),
+			Executors.newCachedThreadPool(), TransactionOperations.withoutTransaction(),
+			new StaleCache(100, Duration.ofMinutes(1), Clock.systemUTC()), Duration.ofMinutes(1), new SimpleMeterRegistry());
+	
+	@Mock
+	private EntityManager entityManager;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Spy
+	private GroupCommitter verificationTokenGroupCommitter = new GroupCommitter("verificationToken", Duration.ZERO, 64,
+			Duration.ofSeconds(5), null, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+	
 	@InjectMocks
 	private VerificationTokenServiceImpl verificationTokenService;
 	
@@ -75,6 +108,22 @@ class VerificationTokenServiceImplTest {
 		verify(verificationTokenRepository, times(1)).findAll();
 	}
 	
+	@Test
+	@DisplayName("Should stream verification tokens and detach each entity after mapping")
+	void testStreamAll_Success() {
+		// Given
+		when(verificationTokenRepository.streamAllBy()).thenReturn(Stream.of(verificationToken, createMockToken(2)));
+		List<VerificationTokenDto> result = new ArrayList<>();
+		
+		// When
+		verificationTokenService.streamAll(result::add);
+		
+		// Then
+		assertEquals(2, result.size());
+		verify(entityManager, times(2)).detach(any(VerificationToken.class));
+		verify(verificationTokenRepository, never()).findAll();
+	}
+	
 	@Test
 	@DisplayName("Should return empty list when no verification tokens exist")
 	void testFindAll_EmptyList() {
@@ -136,6 +185,10 @@ class VerificationTokenServiceImplTest {
 		assertNotNull(result);
 		assertEquals(1, result.getVerificationTokenId());
 		verify(verificationTokenRepository, times(1)).save(any(VerificationToken.class));
+		verify(eventPublisher).publishEvent(argThat((EntityChangedEvent event) ->
+				event.getEntityType() == EntityChangedEvent.EntityType.VERIFICATION_TOKEN
+						&& event.getChangeType() == EntityChangedEvent.ChangeType.CREATED
+						&& event.getEntityId() == 1));
 	}
 	
 	@Test
@@ -192,6 +245,8 @@ class VerificationTokenServiceImplTest {
 		
 		// Then
 		verify(verificationTokenRepository, times(1)).deleteById(1);
+		verify(eventPublisher).publishEvent(argThat((EntityChangedEvent event) ->
+				event.getChangeType() == EntityChangedEvent.ChangeType.DELETED && event.getEntityId() == 1));
 	}
 	
 	@Test
@@ -0,0 +1,134 @@
+package com.selimhorri.app.service.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.selimhorri.app.domain.Address;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.dto.AddressDto;
+import com.selimhorri.app.repository.AddressRepository;
+import com.selimhorri.app.repository.projection.AddressProjection;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AddressBatchLoader Test")
+class AddressBatchLoaderTest {
+	
+	@Mock
+	private AddressRepository addressRepository;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	@Mock
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Mock
+	private Cache secondLevelCache;
+	
+	@Mock
+	private ScheduledExecutorService scheduler;
+	
+	@Mock
+	private ExecutorService dispatcher;
+	
+	private AddressBatchLoader addressBatchLoader;
+	
+	@BeforeEach
+	void setUp() {
+		addressBatchLoader = new AddressBatchLoader(addressRepository, transactionManager, entityManagerFactory, scheduler, dispatcher,
+				new SimpleMeterRegistry(), Duration.ofMillis(2), 100, Duration.ofSeconds(1));
+	}
+	
+	@Test
+	@DisplayName("Should resolve a batch of addresses with one projection query")
+	void testLoadAll_Success() {
+		// Given
+		Set<Integer> addressIds = Set.of(1, 2, 3);
+		when(addressRepository.findAllProjectedByAddressIdIn(addressIds))
+				.thenReturn(List.of(createProjection(1), createProjection(2)));
+		
+		// When
+		Map<Integer, AddressDto> result = addressBatchLoader.loadAll(addressIds);
+		
+		// Then
+		assertEquals(2, result.size());
+		assertEquals("Street 1", result.get(1).getFullAddress());
+		assertEquals(1, result.get(1).getUserDto().getUserId());
+		assertFalse(result.containsKey(3));
+		verify(addressRepository, never()).findById(anyInt());
+	}
+	
+	@Test
+	@DisplayName("Should resolve a single address through findById")
+	void testLoadOne_Success() {
+		// Given
+		when(addressRepository.findById(1)).thenReturn(Optional.of(Address.builder()
+				.addressId(1)
+				.fullAddress("Street 1")
+				.user(User.builder().userId(1).build())
+				.build()));
+		
+		// When
+		Optional<AddressDto> result = addressBatchLoader.loadOne(1);
+		
+		// Then
+		assertTrue(result.isPresent());
+		assertEquals("Street 1", result.get().getFullAddress());
+	}
+	
+	@Test
+	@DisplayName("Should read an address held by the second-level cache without joining a batch")
+	void testLoad_CachedAddressSkipsBatch() {
+		// Given
+		when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+		when(secondLevelCache.contains(Address.class, 1)).thenReturn(true);
+		when(addressRepository.findById(1)).thenReturn(Optional.of(Address.builder()
+				.addressId(1)
+				.fullAddress("Street 1")
+				.user(User.builder().userId(1).build())
+				.build()));
+		
+		// When
+		Optional<AddressDto> result = addressBatchLoader.load(1);
+		
+		// Then
+		assertEquals("Street 1", result.get().getFullAddress());
+		verify(addressRepository, never()).findAllProjectedByAddressIdIn(any());
+		verifyNoInteractions(scheduler, dispatcher);
+	}
+	
+	private AddressProjection createProjection(final Integer addressId) {
+		return AddressProjection.builder()
+				.addressId(addressId)
+				.fullAddress("Street " + addressId)
+				.postalCode("1000" + addressId)
+				.city("Tunis")
+				.userId(addressId)
+				.firstName("user" + addressId)
+				.build();
+	}
+	
+}
@@ -0,0 +1,149 @@
+package com.selimhorri.app.service.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.selimhorri.app.domain.Credential;
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.domain.User;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.repository.CredentialRepository;
+import com.selimhorri.app.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserBatchLoader Test")
+class UserBatchLoaderTest {
+	
+	@Mock
+	private UserRepository userRepository;
+	
+	@Mock
+	private CredentialRepository credentialRepository;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	@Mock
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Mock
+	private Cache secondLevelCache;
+	
+	@Mock
+	private ScheduledExecutorService scheduler;
+	
+	@Mock
+	private ExecutorService dispatcher;
+	
+	private UserBatchLoader userBatchLoader;
+	
+	@BeforeEach
+	void setUp() {
+		userBatchLoader = new UserBatchLoader(userRepository, credentialRepository, transactionManager, entityManagerFactory, scheduler, dispatcher,
+				new SimpleMeterRegistry(), Duration.ofMillis(2), 100, Duration.ofSeconds(1));
+	}
+	
+	@Test
+	@DisplayName("Should map every credential of the batch to its user")
+	void testLoadAll_Success() {
+		// Given
+		Set<Integer> userIds = Set.of(1, 2, 3);
+		when(credentialRepository.findAllByUserUserIdIn(userIds))
+				.thenReturn(List.of(createCredential(1, "john"), createCredential(2, "jane")));
+		
+		// When
+		Map<Integer, UserDto> result = userBatchLoader.loadAll(userIds);
+		
+		// Then
+		assertEquals(2, result.size());
+		assertEquals("john", result.get(1).getCredentialDto().getUsername());
+		assertEquals("jane", result.get(2).getCredentialDto().getUsername());
+		assertFalse(result.containsKey(3));
+		verify(credentialRepository, times(1)).findAllByUserUserIdIn(userIds);
+		verifyNoInteractions(userRepository);
+	}
+	
+	@Test
+	@DisplayName("Should resolve a single user and its credential by id")
+	void testLoadOne_Success() {
+		// Given
+		Credential credential = createCredential(1, "john");
+		when(userRepository.findById(1)).thenReturn(Optional.of(credential.getUser()));
+		when(credentialRepository.findByUserUserId(1)).thenReturn(Optional.of(credential));
+		
+		// When
+		Optional<UserDto> result = userBatchLoader.loadOne(1);
+		
+		// Then
+		assertTrue(result.isPresent());
+		assertEquals("john", result.get().getCredentialDto().getUsername());
+	}
+	
+	@Test
+	@DisplayName("Should return empty for a user without credentials")
+	void testLoadOne_UserWithoutCredential() {
+		// Given
+		when(userRepository.findById(1)).thenReturn(Optional.of(User.builder().userId(1).build()));
+		when(credentialRepository.findByUserUserId(1)).thenReturn(Optional.empty());
+		
+		// When
+		Optional<UserDto> result = userBatchLoader.loadOne(1);
+		
+		// Then
+		assertTrue(result.isEmpty());
+	}
+	
+	@Test
+	@DisplayName("Should read a user held by the second-level cache without joining a batch")
+	void testLoad_CachedUserSkipsBatch() {
+		// Given
+		Credential credential = createCredential(1, "john");
+		when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+		when(secondLevelCache.contains(User.class, 1)).thenReturn(true);
+		when(userRepository.findById(1)).thenReturn(Optional.of(credential.getUser()));
+		when(credentialRepository.findByUserUserId(1)).thenReturn(Optional.of(credential));
+		
+		// When
+		Optional<UserDto> result = userBatchLoader.load(1);
+		
+		// Then
+		assertEquals("john", result.get().getCredentialDto().getUsername());
+		verify(credentialRepository, never()).findAllByUserUserIdIn(any());
+		verifyNoInteractions(scheduler, dispatcher);
+	}
+	
+	private Credential createCredential(final Integer userId, final String username) {
+		return Credential.builder()
+				.credentialId(userId)
+				.username(username)
+				.roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+				.isEnabled(true)
+				.user(User.builder()
+						.userId(userId)
+						.firstName(username)
+						.build())
+				.build();
+	}
+	
+}
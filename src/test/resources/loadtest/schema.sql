@@ -0,0 +1,55 @@
+CREATE TABLE users (
+	user_id INT(11) NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	first_name VARCHAR(255),
+	last_name VARCHAR(255),
+	image_url VARCHAR(255) DEFAULT 'https://bootdey.com/img/Content/avatar/avatar7.png',
+	email VARCHAR(255) DEFAULT 'springxyzabcboot@gmail.com',
+	phone VARCHAR(255) DEFAULT '+21622125144',
+	created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	updated_at TIMESTAMP NULL
+);
+
+CREATE TABLE address (
+	address_id INT(11) NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	user_id INT(11),
+	full_address VARCHAR(255),
+	postal_code VARCHAR(255),
+	city VARCHAR(255),
+	created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	updated_at TIMESTAMP NULL
+);
+
+CREATE TABLE credentials (
+	credential_id INT(11) NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	user_id INT(11),
+	username VARCHAR(255),
+	password VARCHAR(255),
+	role VARCHAR(255),
+	is_enabled BOOLEAN DEFAULT false,
+	is_account_non_expired BOOLEAN DEFAULT true,
+	is_account_non_locked BOOLEAN DEFAULT true,
+	is_credentials_non_expired BOOLEAN DEFAULT true,
+	created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	updated_at TIMESTAMP NULL,
+	UNIQUE KEY uk_credentials_user_id (user_id),
+	UNIQUE KEY uk_credentials_username (username)
+);
+
+CREATE TABLE verification_tokens (
+	verification_token_id INT(11) NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	credential_id INT(11),
+	verif_token VARCHAR(255),
+	expire_date DATE,
+	created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	updated_at TIMESTAMP NULL
+);
+
+SET SESSION cte_max_recursion_depth = 10000;
+
+INSERT INTO users (first_name, last_name)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)
+SELECT CONCAT('first', n), CONCAT('last', n) FROM seq;
+
+INSERT INTO credentials (user_id, username, password, role, is_enabled)
+SELECT user_id, CONCAT('user', user_id), '$2a$04$/S7cWjHPZul03sPEivycWeKTBvLyjYdaRWmeaFbiqKy9es/3W4QB6', 'ROLE_USER', true
+FROM users;